@@ -0,0 +1,182 @@
+package com.srllc.AmazonServices.benchmark;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.srllc.AmazonServices.AmazonServicesApplication;
+import com.srllc.AmazonServices.domain.client.TextractGateway;
+
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.textract.model.DetectDocumentTextRequest;
+import software.amazon.awssdk.services.textract.model.Document;
+
+/**
+ * Closed-loop load test of the Textract call path against {@link AwsStubServer}.
+ * A fixed number of clients send DetectDocumentText requests back to back
+ * through the real TextractGateway (guard, limiter, SDK client, HTTP pool),
+ * and each mode reports throughput, p50/p99/max latency including any wait for
+ * a request thread, and the most calls the stub saw at once.
+ * <ul>
+ * <li>{@code thread-per-request}: the default setup, requests handled by a
+ * pool of Tomcat's 200 platform threads, each blocking on its AWS call</li>
+ * <li>{@code virtual}: spring.threads.virtual.enabled, a virtual thread per
+ * request blocking on the same call</li>
+ * <li>{@code async}: the same 200 request threads, but each only starts the
+ * call on the async client and is released, as the CompletableFuture
+ * endpoints do; the response completes on the Netty event loop</li>
+ * </ul>
+ * The service limits (concurrency ceiling, TPS, HTTP pool) are raised to the
+ * client count so only the threading model differs. Not a JMH benchmark: JMH
+ * measures per-thread operations, while this measures queueing under load.
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-Dload.clients=1000 -classpath %classpath com.srllc.AmazonServices.benchmark.AwsCallLoadTest"
+ * </pre>
+ * Other settings: load.requests, load.latency-ms (stub latency),
+ * load.request-threads and load.modes.
+ */
+public final class AwsCallLoadTest {
+
+    private final int clients = Integer.getInteger("load.clients", 1000);
+    private final int requests = Integer.getInteger("load.requests", 20_000);
+    private final int requestThreads = Integer.getInteger("load.request-threads", 200);
+    private final DetectDocumentTextRequest request = DetectDocumentTextRequest.builder()
+            .document(Document.builder().bytes(SdkBytes.fromByteArray(new byte[16 * 1024])).build())
+            .build();
+
+    private AwsCallLoadTest() {
+    }
+
+    public static void main(String[] args) {
+        AwsCallLoadTest test = new AwsCallLoadTest();
+        Duration latency = Duration.ofMillis(Long.getLong("load.latency-ms", 100));
+        List<String> modes = List.of(System.getProperty("load.modes", "thread-per-request,virtual,async").split(","));
+
+        List<Result> results = new ArrayList<>();
+        try (AwsStubServer stub = AwsStubServer.start(latency)) {
+            for (String mode : modes) {
+                results.add(test.run(mode.trim(), stub));
+            }
+        }
+
+        System.out.printf("%n%d clients, %d requests, stub latency %d ms%n", test.clients, test.requests,
+                latency.toMillis());
+        System.out.printf("%-20s %10s %9s %9s %9s %10s %7s%n", "mode", "req/s", "p50 ms", "p99 ms", "max ms",
+                "peak calls", "errors");
+        for (Result result : results) {
+            System.out.printf("%-20s %10.0f %9.1f %9.1f %9.1f %10d %7d%n", result.mode(), result.throughput(),
+                    result.p50Millis(), result.p99Millis(), result.maxMillis(), result.peakCalls(), result.errors());
+        }
+    }
+
+    private Result run(String mode, AwsStubServer stub) {
+        try (ConfigurableApplicationContext context = start(mode, stub);
+                ExecutorService requestThreadPool = requestThreads(mode)) {
+            TextractGateway gateway = context.getBean(TextractGateway.class);
+
+            // warm up the connection pool, the JIT and the limiter before measuring
+            boolean async = "async".equals(mode);
+            drive(gateway, requestThreadPool, async, Math.min(requests, 2 * clients));
+            stub.resetCounters();
+
+            long start = System.nanoTime();
+            Load load = drive(gateway, requestThreadPool, async, requests);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            long[] latencies = Arrays.copyOf(load.latencies, load.completed.get());
+            Arrays.sort(latencies);
+            return new Result(mode, latencies.length / seconds, percentile(latencies, 0.50),
+                    percentile(latencies, 0.99), percentile(latencies, 1.0), stub.peakInFlight(), load.errors.get());
+        }
+    }
+
+    private ConfigurableApplicationContext start(String mode, AwsStubServer stub) {
+        String limit = Integer.toString(clients);
+        return new SpringApplicationBuilder(AmazonServicesApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:load;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--aws.region=us-east-1",
+                        "--aws.accessKeyId=load-test",
+                        "--aws.secretAccessKey=load-test",
+                        "--aws.endpoint-override=" + stub.endpoint(),
+                        "--spring.threads.virtual.enabled=" + "virtual".equals(mode),
+                        "--aws.textract.max-concurrency=" + limit,
+                        "--aws.textract.initial-concurrency=" + limit,
+                        "--aws.textract.rate-limit-per-second=0",
+                        "--aws.http.max-concurrency=" + limit,
+                        "--aws.http.max-pending-acquires=" + limit,
+                        "--aws.limit.acquire-timeout-ms=60000",
+                        "--aws.retry.max-attempts=1");
+    }
+
+    private ExecutorService requestThreads(String mode) {
+        return switch (mode) {
+            case "thread-per-request", "async" -> Executors.newFixedThreadPool(requestThreads);
+            case "virtual" -> Executors.newVirtualThreadPerTaskExecutor();
+            default -> throw new IllegalArgumentException("Unknown mode " + mode);
+        };
+    }
+
+    // Each client is a cheap virtual thread that waits for its request before sending the next
+    private Load drive(TextractGateway gateway, ExecutorService requestThreadPool, boolean async, int total) {
+        Load load = new Load(total);
+        AtomicInteger issued = new AtomicInteger();
+        try (ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                clientThreads.execute(() -> {
+                    while (issued.getAndIncrement() < total) {
+                        long sent = System.nanoTime();
+                        try {
+                            if (async) {
+                                // the request thread only starts the call; the client waits for the response
+                                requestThreadPool.submit(() -> gateway.detectDocumentTextAsync(request)).get().get();
+                            } else {
+                                requestThreadPool.submit(() -> gateway.detectDocumentText(request)).get();
+                            }
+                            load.latencies[load.completed.getAndIncrement()] = System.nanoTime() - sent;
+                        } catch (Exception e) {
+                            load.errors.incrementAndGet();
+                        }
+                    }
+                });
+            }
+        }
+        return load;
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private static final class Load {
+        final long[] latencies;
+        final AtomicInteger completed = new AtomicInteger();
+        final AtomicLong errors = new AtomicLong();
+
+        Load(int total) {
+            latencies = new long[total];
+        }
+    }
+
+    private record Result(String mode, double throughput, double p50Millis, double p99Millis, double maxMillis,
+            int peakCalls, long errors) {
+    }
+}
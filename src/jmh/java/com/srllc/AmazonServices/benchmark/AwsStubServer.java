@@ -0,0 +1,163 @@
+package com.srllc.AmazonServices.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Local stand-in for the Textract and Rekognition endpoints, for
+ * aws.endpoint-override. Answers DetectDocumentText and RecognizeCelebrities
+ * with the checked-in fixtures after a fixed latency, and records how many
+ * calls were in flight at once. Each exchange runs on its own virtual thread,
+ * so the stub never limits concurrency itself.
+ */
+final class AwsStubServer implements AutoCloseable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final long latencyMillis;
+    private final byte[] textractResponse;
+    private final byte[] rekognitionResponse;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final AtomicLong calls = new AtomicLong();
+
+    private AwsStubServer(Duration latency) throws IOException {
+        this.latencyMillis = latency.toMillis();
+        this.textractResponse = MAPPER.writeValueAsBytes(textractWireResponse());
+        this.rekognitionResponse = MAPPER.writeValueAsBytes(rekognitionWireResponse());
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 4096);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    static AwsStubServer start(Duration latency) {
+        try {
+            return new AwsStubServer(latency);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    String endpoint() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    int peakInFlight() {
+        return peakInFlight.get();
+    }
+
+    long calls() {
+        return calls.get();
+    }
+
+    void resetCounters() {
+        peakInFlight.set(inFlight.get());
+        calls.set(0);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        int current = inFlight.incrementAndGet();
+        peakInFlight.accumulateAndGet(current, Math::max);
+        calls.incrementAndGet();
+        try (exchange) {
+            try (InputStream body = exchange.getRequestBody()) {
+                body.transferTo(OutputStream.nullOutputStream());
+            }
+            Thread.sleep(latencyMillis);
+
+            String target = String.valueOf(exchange.getRequestHeaders().getFirst("X-Amz-Target"));
+            byte[] response;
+            int status = 200;
+            if (target.endsWith(".DetectDocumentText")) {
+                response = textractResponse;
+            } else if (target.endsWith(".RecognizeCelebrities")) {
+                response = rekognitionResponse;
+            } else {
+                status = 400;
+                response = ("{\"__type\":\"UnknownOperationException\",\"message\":\"" + target + "\"}")
+                        .getBytes(StandardCharsets.UTF_8);
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/x-amz-json-1.1");
+            exchange.sendResponseHeaders(status, response.length);
+            exchange.getResponseBody().write(response);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    // The fixtures in the AWS JSON wire format the SDK unmarshals
+    private static ObjectNode textractWireResponse() {
+        ObjectNode response = MAPPER.createObjectNode();
+        response.putObject("DocumentMetadata").put("Pages", 1);
+        ArrayNode blocks = response.putArray("Blocks");
+        int id = 0;
+        for (JsonNode node : Fixtures.read("/fixtures/textract-receipt-blocks.json").get("blocks")) {
+            ObjectNode block = blocks.addObject();
+            block.put("Id", "block-" + id++);
+            block.put("BlockType", node.get("blockType").asText());
+            if (node.has("text")) {
+                block.put("Text", node.get("text").asText());
+            }
+            block.put("Confidence", node.get("confidence").asDouble());
+            block.putObject("Geometry").set("BoundingBox", box(node.get("geometry")));
+        }
+        return response;
+    }
+
+    private static ObjectNode rekognitionWireResponse() {
+        JsonNode root = Fixtures.read("/fixtures/rekognition-celebrities.json");
+        ObjectNode response = MAPPER.createObjectNode();
+        ArrayNode celebrities = response.putArray("CelebrityFaces");
+        for (JsonNode node : root.get("celebrityFaces")) {
+            ObjectNode celebrity = celebrities.addObject();
+            celebrity.put("Name", node.get("name").asText());
+            celebrity.put("Id", node.get("id").asText());
+            celebrity.put("MatchConfidence", node.get("matchConfidence").asDouble());
+            celebrity.set("Urls", node.get("urls"));
+            ObjectNode face = celebrity.putObject("Face");
+            face.put("Confidence", node.get("face").get("confidence").asDouble());
+            face.set("BoundingBox", box(node.get("face").get("boundingBox")));
+        }
+        ArrayNode unrecognized = response.putArray("UnrecognizedFaces");
+        for (int i = 0; i < root.get("unrecognizedFaces").asInt(); i++) {
+            unrecognized.addObject().put("Confidence", 80.0);
+        }
+        return response;
+    }
+
+    private static ObjectNode box(JsonNode box) {
+        ObjectNode wire = MAPPER.createObjectNode();
+        wire.put("Left", box.get("left").asDouble());
+        wire.put("Top", box.get("top").asDouble());
+        wire.put("Width", box.get("width").asDouble());
+        wire.put("Height", box.get("height").asDouble());
+        return wire;
+    }
+}
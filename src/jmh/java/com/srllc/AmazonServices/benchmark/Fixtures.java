@@ -0,0 +1,127 @@
+package com.srllc.AmazonServices.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import software.amazon.awssdk.services.rekognition.model.Celebrity;
+import software.amazon.awssdk.services.rekognition.model.ComparedFace;
+import software.amazon.awssdk.services.rekognition.model.RecognizeCelebritiesResponse;
+import software.amazon.awssdk.services.textract.model.Block;
+import software.amazon.awssdk.services.textract.model.BlockType;
+import software.amazon.awssdk.services.textract.model.BoundingBox;
+import software.amazon.awssdk.services.textract.model.Geometry;
+
+/**
+ * Loads the checked-in Textract/Rekognition fixtures and scales them to a
+ * requested size by repeating the fixture content.
+ */
+final class Fixtures {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private Fixtures() {
+    }
+
+    static List<Block> receiptBlocks(int lineCount) {
+        List<Block> recorded = new ArrayList<>();
+        for (JsonNode node : read("/fixtures/textract-receipt-blocks.json").get("blocks")) {
+            recorded.add(toBlock(node));
+        }
+
+        List<Block> blocks = new ArrayList<>();
+        blocks.add(recorded.get(0));
+        int lines = 0;
+        while (lines < lineCount) {
+            for (int i = 1; i < recorded.size() && lines < lineCount; i++) {
+                Block block = recorded.get(i);
+                blocks.add(block.toBuilder().id(UUID.randomUUID().toString()).build());
+                if (block.blockType() == BlockType.LINE) {
+                    lines++;
+                }
+            }
+        }
+        return blocks;
+    }
+
+    static RecognizeCelebritiesResponse celebrities(int faceCount) {
+        JsonNode root = read("/fixtures/rekognition-celebrities.json");
+        List<Celebrity> recorded = new ArrayList<>();
+        for (JsonNode node : root.get("celebrityFaces")) {
+            recorded.add(toCelebrity(node));
+        }
+
+        List<Celebrity> faces = new ArrayList<>(faceCount);
+        for (int i = 0; i < faceCount; i++) {
+            faces.add(recorded.get(i % recorded.size()));
+        }
+
+        List<ComparedFace> unrecognized = new ArrayList<>();
+        for (int i = 0; i < root.get("unrecognizedFaces").asInt(); i++) {
+            unrecognized.add(ComparedFace.builder().confidence(80f).build());
+        }
+
+        return RecognizeCelebritiesResponse.builder()
+                .celebrityFaces(faces)
+                .unrecognizedFaces(unrecognized)
+                .build();
+    }
+
+    private static Block toBlock(JsonNode node) {
+        JsonNode box = node.get("geometry");
+        return Block.builder()
+                .id(UUID.randomUUID().toString())
+                .blockType(BlockType.fromValue(node.get("blockType").asText()))
+                .text(node.has("text") ? node.get("text").asText() : null)
+                .confidence((float) node.get("confidence").asDouble())
+                .geometry(Geometry.builder()
+                        .boundingBox(BoundingBox.builder()
+                                .left((float) box.get("left").asDouble())
+                                .top((float) box.get("top").asDouble())
+                                .width((float) box.get("width").asDouble())
+                                .height((float) box.get("height").asDouble())
+                                .build())
+                        .build())
+                .build();
+    }
+
+    private static Celebrity toCelebrity(JsonNode node) {
+        JsonNode face = node.get("face");
+        JsonNode box = face.get("boundingBox");
+        List<String> urls = new ArrayList<>();
+        node.get("urls").forEach(url -> urls.add(url.asText()));
+
+        return Celebrity.builder()
+                .name(node.get("name").asText())
+                .id(node.get("id").asText())
+                .matchConfidence((float) node.get("matchConfidence").asDouble())
+                .urls(urls)
+                .face(ComparedFace.builder()
+                        .confidence((float) face.get("confidence").asDouble())
+                        .boundingBox(software.amazon.awssdk.services.rekognition.model.BoundingBox.builder()
+                                .left((float) box.get("left").asDouble())
+                                .top((float) box.get("top").asDouble())
+                                .width((float) box.get("width").asDouble())
+                                .height((float) box.get("height").asDouble())
+                                .build())
+                        .build())
+                .build();
+    }
+
+    static JsonNode read(String resource) {
+        try (InputStream in = Fixtures.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing fixture " + resource);
+            }
+            return MAPPER.readTree(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
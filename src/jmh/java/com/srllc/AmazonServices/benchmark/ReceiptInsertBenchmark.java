@@ -0,0 +1,118 @@
+package com.srllc.AmazonServices.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.srllc.AmazonServices.AmazonServicesApplication;
+import com.srllc.AmazonServices.domain.entity.RecieptItem;
+import com.srllc.AmazonServices.domain.entity.Reciepts;
+import com.srllc.AmazonServices.domain.repository.RecieptsRepository;
+
+/**
+ * Receipts inserted per second through the real repository, with the default
+ * settings and with the production profile. Runs against an embedded H2 in
+ * MySQL mode; pass -p jdbcUrl=jdbc:mysql://... (with -Dbench.db.user and
+ * -Dbench.db.password) to measure a local MySQL, where rewriteBatchedStatements
+ * makes the larger difference. Rows are left in place, so point it at a
+ * scratch schema.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ReceiptInsertBenchmark {
+
+    private static final int RECEIPTS_PER_SAVE = 100;
+
+    @Param({ "default", "production" })
+    public String profile;
+
+    @Param({ "jdbc:h2:mem:receipts;MODE=MySQL;DB_CLOSE_DELAY=-1;IGNORE_UNKNOWN_SETTINGS=TRUE" })
+    public String jdbcUrl;
+
+    @Param({ "5" })
+    public int items;
+
+    private ConfigurableApplicationContext context;
+    private RecieptsRepository receiptsRepository;
+    private long sequence;
+
+    @Setup
+    public void setUp() {
+        boolean h2 = jdbcUrl.startsWith("jdbc:h2:");
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=" + jdbcUrl,
+                "--spring.datasource.username=" + (h2 ? "sa" : System.getProperty("bench.db.user", "root")),
+                "--spring.datasource.password=" + (h2 ? "" : System.getProperty("bench.db.password", "")),
+                "--aws.region=us-east-1",
+                "--aws.accessKeyId=benchmark",
+                "--aws.secretAccessKey=benchmark"));
+        if (!"default".equals(profile)) {
+            args.add("--spring.profiles.active=" + profile);
+        }
+
+        context = new SpringApplicationBuilder(AmazonServicesApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(String[]::new));
+        receiptsRepository = context.getBean(RecieptsRepository.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECEIPTS_PER_SAVE)
+    public List<Reciepts> saveAll() {
+        List<Reciepts> receipts = new ArrayList<>(RECEIPTS_PER_SAVE);
+        for (int r = 0; r < RECEIPTS_PER_SAVE; r++) {
+            receipts.add(receipt(sequence++));
+        }
+        return receiptsRepository.saveAll(receipts);
+    }
+
+    private Reciepts receipt(long n) {
+        Reciepts receipt = new Reciepts();
+        receipt.setCompanyName("SM HYPERMARKET");
+        receipt.setBranch("Quezon City");
+        receipt.setManagerName("Eric Steer");
+        receipt.setCashierNumber("#" + n % 10);
+        receipt.setSubTotal(107.60);
+        receipt.setCash(200.00);
+        receipt.setChange(92.40);
+        receipt.setContentHash(String.format("%064x", n));
+
+        List<RecieptItem> lines = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            RecieptItem item = new RecieptItem();
+            item.setProductName("Product " + i);
+            item.setQuantity(1 + i % 5);
+            item.setPrice(9.20 + i);
+            item.setReciepts(receipt);
+            lines.add(item);
+        }
+        receipt.setItems(lines);
+        return receipt;
+    }
+}
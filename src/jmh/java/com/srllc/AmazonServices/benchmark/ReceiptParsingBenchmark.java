@@ -0,0 +1,70 @@
+package com.srllc.AmazonServices.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.srllc.AmazonServices.domain.entity.Reciepts;
+import com.srllc.AmazonServices.domain.parser.LegacyReceiptParser;
+import com.srllc.AmazonServices.domain.parser.ReceiptLineClassifier;
+import com.srllc.AmazonServices.domain.parser.ReceiptParser;
+
+import software.amazon.awssdk.services.textract.model.Block;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReceiptParsingBenchmark {
+
+    @Param({ "10", "100", "1000", "5000" })
+    public int lines;
+
+    private final ReceiptParser parser = new ReceiptParser(new ReceiptLineClassifier());
+    private final LegacyReceiptParser legacyParser = new LegacyReceiptParser();
+
+    private List<Block> blocks;
+    private List<String> lineTexts;
+
+    @Setup
+    public void setUp() {
+        blocks = Fixtures.receiptBlocks(lines);
+        lineTexts = parser.extractLines(blocks);
+    }
+
+    @Benchmark
+    public List<String> filterLineBlocks() {
+        return parser.extractLines(blocks);
+    }
+
+    @Benchmark
+    public Reciepts parseReceipt() {
+        return parser.parse(lineTexts);
+    }
+
+    @Benchmark
+    public Reciepts parseReceiptLegacy() {
+        return legacyParser.parse(lineTexts);
+    }
+
+    @Benchmark
+    public void extractAmount(Blackhole blackhole) {
+        for (String line : lineTexts) {
+            blackhole.consume(ReceiptLineClassifier.extractAmount(line));
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.srllc.AmazonServices.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.srllc.AmazonServices.common.ApiResponse;
+import com.srllc.AmazonServices.domain.entity.RecieptItem;
+import com.srllc.AmazonServices.domain.entity.Reciepts;
+import com.srllc.AmazonServices.domain.record.ReceiptView;
+
+/**
+ * Serializes the /extract response envelope the way the endpoint used to
+ * (entity payload, reflective Jackson) against the record view with and
+ * without Blackbird. Run with the gc profiler to compare bytes allocated per
+ * response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReceiptSerializationBenchmark {
+
+    private static final String PATH = "/api/v1/textract/extract";
+
+    @Param({ "1", "10", "100", "1000" })
+    public int items;
+
+    private ObjectMapper reflective;
+    private ObjectMapper blackbird;
+    private Reciepts receipt;
+
+    @Setup
+    public void setUp() {
+        reflective = Jackson2ObjectMapperBuilder.json().build();
+        blackbird = Jackson2ObjectMapperBuilder.json().modulesToInstall(new BlackbirdModule()).build();
+
+        receipt = new Reciepts();
+        receipt.setId(1L);
+        receipt.setCompanyName("SM HYPERMARKET");
+        receipt.setBranch("Quezon City");
+        receipt.setManagerName("Eric Steer");
+        receipt.setCashierNumber("#3");
+        receipt.setSubTotal(107.60);
+        receipt.setCash(200.00);
+        receipt.setChange(92.40);
+
+        List<RecieptItem> lines = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            lines.add(new RecieptItem((long) i + 1, "Product " + i, 1 + i % 5, 9.20 + i, receipt));
+        }
+        receipt.setItems(lines);
+    }
+
+    @Benchmark
+    public byte[] entityReflective() throws JsonProcessingException {
+        return reflective.writeValueAsBytes(ApiResponse.success(HttpStatus.OK, "ok", receipt, PATH));
+    }
+
+    @Benchmark
+    public byte[] viewReflective() throws JsonProcessingException {
+        return reflective.writeValueAsBytes(ApiResponse.success(HttpStatus.OK, "ok", ReceiptView.from(receipt), PATH));
+    }
+
+    @Benchmark
+    public byte[] viewBlackbird() throws JsonProcessingException {
+        return blackbird.writeValueAsBytes(ApiResponse.success(HttpStatus.OK, "ok", ReceiptView.from(receipt), PATH));
+    }
+}
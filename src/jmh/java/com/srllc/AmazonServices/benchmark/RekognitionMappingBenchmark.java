@@ -0,0 +1,46 @@
+package com.srllc.AmazonServices.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.srllc.AmazonServices.domain.mapper.RekognitionResponseMapper;
+import com.srllc.AmazonServices.dto.RekognitionResponse;
+
+import software.amazon.awssdk.services.rekognition.model.RecognizeCelebritiesResponse;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RekognitionMappingBenchmark {
+
+    @Param({ "10", "100", "1000", "5000" })
+    public int faces;
+
+    private final RekognitionResponseMapper mapper = new RekognitionResponseMapper();
+
+    private RecognizeCelebritiesResponse response;
+
+    @Setup
+    public void setUp() {
+        response = Fixtures.celebrities(faces);
+    }
+
+    @Benchmark
+    public RekognitionResponse buildResponse() {
+        return mapper.buildResponse(response);
+    }
+}
@@ -23,4 +23,7 @@ public class ApiResponse<T> {
     private LocalDateTime timestamp;
     private String path;
 
+    public static <T> ApiResponse<T> success(HttpStatus status, String message, T payload, String path) {
+        return new ApiResponse<>(status, true, message, payload, null, status.value(), LocalDateTime.now(), path);
+    }
 }
\ No newline at end of file
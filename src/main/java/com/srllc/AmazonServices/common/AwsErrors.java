@@ -0,0 +1,46 @@
+package com.srllc.AmazonServices.common;
+
+import java.util.Set;
+
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+
+public final class AwsErrors {
+
+    private static final Set<String> THROTTLING_CODES = Set.of(
+            "ThrottlingException",
+            "Throttling",
+            "ProvisionedThroughputExceededException",
+            "LimitExceededException",
+            "TooManyRequestsException",
+            "RequestLimitExceeded");
+
+    private AwsErrors() {
+    }
+
+    // The service's own error code (ThrottlingException, InvalidParameterException, ...) or null
+    public static String code(Throwable error) {
+        Throwable cause = AsyncResults.unwrap(error);
+        if (cause instanceof AwsServiceException e && e.awsErrorDetails() != null) {
+            return e.awsErrorDetails().errorCode();
+        }
+        return null;
+    }
+
+    public static boolean isThrottling(Throwable error) {
+        Throwable cause = AsyncResults.unwrap(error);
+        if (cause instanceof AwsServiceException e) {
+            return e.statusCode() == 429 || THROTTLING_CODES.contains(code(e));
+        }
+        return false;
+    }
+
+    // Throttling, server-side failures and transport errors; never validation or auth errors
+    public static boolean isRetryable(Throwable error) {
+        Throwable cause = AsyncResults.unwrap(error);
+        if (cause instanceof AwsServiceException e) {
+            return isThrottling(e) || e.statusCode() >= 500;
+        }
+        return cause instanceof SdkClientException;
+    }
+}
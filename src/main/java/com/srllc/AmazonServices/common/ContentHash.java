@@ -0,0 +1,33 @@
+package com.srllc.AmazonServices.common;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+public final class ContentHash {
+
+    private static final String ALGORITHM = "SHA-256";
+
+    private ContentHash() {
+    }
+
+    public static String sha256Hex(byte[] content) {
+        MessageDigest digest = newDigest();
+        return HexFormat.of().formatHex(digest.digest(content));
+    }
+
+    public static String sha256Hex(ByteBuffer content) {
+        MessageDigest digest = newDigest();
+        digest.update(content.duplicate());
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.srllc.AmazonServices.common;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.srllc.AmazonServices.domain.exception.DeadlineExceededException;
+
+import software.amazon.awssdk.awscore.AwsRequestOverrideConfiguration;
+
+/**
+ * The time a client is still willing to wait for a request, plus a cancel
+ * signal for when it stops waiting (budget spent or connection gone). Work
+ * registers what to abort with {@link #onCancel}; stages call {@link #check}
+ * before starting so nothing new begins once the answer can no longer be used.
+ * Requests bind theirs to the handling thread; anything running without one
+ * sees {@link #none()}, which never expires.
+ */
+public final class Deadline {
+    public static final String ATTRIBUTE = Deadline.class.getName();
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+    private static final Deadline NONE = new Deadline(0L, false, null);
+
+    private final long expiresAtNanos;
+    private final boolean bounded;
+    private final Deadline parent;
+    private final List<Runnable> onCancel = new ArrayList<>();
+    private volatile boolean cancelled;
+    private volatile String stage = "request";
+    private ScheduledFuture<?> timer;
+
+    private Deadline(long expiresAtNanos, boolean bounded, Deadline parent) {
+        this.expiresAtNanos = expiresAtNanos;
+        this.bounded = bounded;
+        this.parent = parent;
+    }
+
+    public static Deadline none() {
+        return NONE;
+    }
+
+    // No time limit, but still cancelled if the client goes away
+    public static Deadline unbounded() {
+        return new Deadline(0L, false, null);
+    }
+
+    public static Deadline after(Duration budget, ScheduledExecutorService timer) {
+        Deadline deadline = new Deadline(System.nanoTime() + budget.toNanos(), true, null);
+        deadline.schedule(timer, budget);
+        return deadline;
+    }
+
+    public static Deadline current() {
+        Deadline deadline = CURRENT.get();
+        return deadline != null ? deadline : NONE;
+    }
+
+    public static void bind(Deadline deadline) {
+        CURRENT.set(deadline);
+    }
+
+    public static void unbind() {
+        CURRENT.remove();
+    }
+
+    public boolean isBounded() {
+        return bounded;
+    }
+
+    public Duration remaining() {
+        if (!bounded) {
+            throw new IllegalStateException("Deadline has no time limit");
+        }
+        return Duration.ofNanos(Math.max(0L, expiresAtNanos - System.nanoTime()));
+    }
+
+    public boolean isExpired() {
+        return cancelled || (bounded && expiresAtNanos - System.nanoTime() <= 0);
+    }
+
+    /** Fails fast if the deadline has passed, otherwise records {@code stage} as the one now running. */
+    public void check(String stage) {
+        if (isExpired()) {
+            throw exceeded(stage);
+        }
+        this.stage = stage;
+        if (parent != null) {
+            parent.stage = stage;
+        }
+    }
+
+    public DeadlineExceededException exceeded() {
+        return exceeded(stage);
+    }
+
+    public DeadlineExceededException exceeded(String stage) {
+        return new DeadlineExceededException("Request deadline exceeded during " + stage, stage);
+    }
+
+    /** Caps both the whole SDK call and each attempt at the time left. */
+    public void applyTo(AwsRequestOverrideConfiguration.Builder config) {
+        Duration remaining = remaining();
+        config.apiCallTimeout(remaining).apiCallAttemptTimeout(remaining);
+    }
+
+    /**
+     * Same expiry, cancelled along with this one, but also cancellable on its
+     * own; used for one copy of a hedged call.
+     */
+    public Deadline child() {
+        Deadline child = new Deadline(expiresAtNanos, bounded, this == NONE ? null : this);
+        onCancel(child::cancel);
+        return child;
+    }
+
+    /** Runs {@code action} on cancellation, immediately if that already happened. */
+    public void onCancel(Runnable action) {
+        if (this == NONE) {
+            return;
+        }
+        synchronized (onCancel) {
+            if (!cancelled) {
+                onCancel.add(action);
+                return;
+            }
+        }
+        action.run();
+    }
+
+    public void cancel() {
+        if (this == NONE) {
+            return;
+        }
+        List<Runnable> actions;
+        synchronized (onCancel) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            actions = new ArrayList<>(onCancel);
+            onCancel.clear();
+        }
+        actions.forEach(Runnable::run);
+    }
+
+    /** The request finished normally: stop the timer and drop registered actions. */
+    public void release() {
+        synchronized (onCancel) {
+            onCancel.clear();
+            if (timer != null) {
+                timer.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * A view of {@code work} that fails with {@link DeadlineExceededException}
+     * as soon as this deadline is cancelled, even if the work itself never
+     * notices.
+     */
+    public <T> CompletableFuture<T> bound(CompletableFuture<T> work) {
+        if (this == NONE) {
+            return work;
+        }
+        CompletableFuture<T> result = work.copy();
+        onCancel(() -> result.completeExceptionally(exceeded()));
+        return result;
+    }
+
+    private void schedule(ScheduledExecutorService scheduler, Duration budget) {
+        synchronized (onCancel) {
+            timer = scheduler.schedule(this::cancel, budget.toNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.srllc.AmazonServices.common;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key: the first caller runs the call
+ * and everyone arriving while it is in flight shares its result. The entry is
+ * removed as soon as the call completes, successfully or not, so later callers
+ * start afresh (and normally hit a result cache instead).
+ */
+public final class SingleFlight<K, V> {
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Runnable onCoalesced;
+
+    public SingleFlight() {
+        this(() -> {
+        });
+    }
+
+    public SingleFlight(Runnable onCoalesced) {
+        this.onCoalesced = onCoalesced;
+    }
+
+    /**
+     * Runs {@code call} unless one is already in flight for {@code key}. The
+     * call may do its work synchronously; duplicates arriving meanwhile wait on
+     * the shared future. Each caller gets its own copy, so completing or
+     * cancelling it does not affect the others.
+     */
+    public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> call) {
+        CompletableFuture<V> shared = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, shared);
+        if (existing != null) {
+            onCoalesced.run();
+            return existing.copy();
+        }
+
+        CompletableFuture<V> result;
+        try {
+            result = call.get();
+        } catch (RuntimeException | Error e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+
+        result.whenComplete((value, error) -> {
+            inFlight.remove(key, shared);
+            if (error != null) {
+                shared.completeExceptionally(AsyncResults.unwrap(error));
+            } else {
+                shared.complete(value);
+            }
+        });
+        return shared.copy();
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+}
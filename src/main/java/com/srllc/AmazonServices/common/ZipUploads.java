@@ -0,0 +1,116 @@
+package com.srllc.AmazonServices.common;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import com.srllc.AmazonServices.domain.exception.BadRequestException;
+import com.srllc.AmazonServices.domain.record.UploadedImage;
+
+public final class ZipUploads {
+
+    private ZipUploads() {
+    }
+
+    /**
+     * Flattens a multipart upload into individual images, expanding any ZIP
+     * archives in place. Limits guard against oversized or bomb-like archives:
+     * each image is capped at maxFileBytes, and all of them together at
+     * maxTotalBytes. Both are enforced while an entry is being inflated, so a
+     * bomb is rejected after at most maxTotalBytes have been read into memory.
+     */
+    public static List<UploadedImage> expand(List<MultipartFile> files, int maxFiles, long maxFileBytes,
+            long maxTotalBytes) {
+        if (files == null || files.isEmpty()) {
+            throw new BadRequestException("At least one file is required");
+        }
+
+        List<UploadedImage> images = new ArrayList<>();
+        long totalBytes = 0;
+        for (MultipartFile file : files) {
+            if (file.isEmpty()) {
+                continue;
+            }
+            try {
+                if (isZip(file)) {
+                    totalBytes = readZip(file, images, maxFiles, maxFileBytes, maxTotalBytes, totalBytes);
+                } else {
+                    checkLimits(images.size() + 1, file.getSize(), maxFiles, maxFileBytes);
+                    totalBytes += file.getSize();
+                    checkTotal(totalBytes, maxTotalBytes);
+                    images.add(new UploadedImage(file.getOriginalFilename(), file.getBytes()));
+                }
+            } catch (IOException e) {
+                throw new BadRequestException("Could not read uploaded file " + file.getOriginalFilename());
+            }
+        }
+
+        if (images.isEmpty()) {
+            throw new BadRequestException("Upload did not contain any files");
+        }
+        return images;
+    }
+
+    private static boolean isZip(MultipartFile file) {
+        String name = file.getOriginalFilename();
+        String contentType = file.getContentType();
+        return (name != null && name.toLowerCase().endsWith(".zip"))
+                || "application/zip".equals(contentType)
+                || "application/x-zip-compressed".equals(contentType);
+    }
+
+    // Returns the running total of image bytes, including this archive's entries
+    private static long readZip(MultipartFile file, List<UploadedImage> images, int maxFiles, long maxFileBytes,
+            long maxTotalBytes, long totalBytes) throws IOException {
+        try (ZipInputStream zip = new ZipInputStream(file.getInputStream())) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (entry.isDirectory() || isHidden(entry.getName())) {
+                    continue;
+                }
+                checkLimits(images.size() + 1, 0, maxFiles, maxFileBytes);
+                byte[] content = readEntry(zip, entry.getName(), maxFileBytes, maxTotalBytes - totalBytes);
+                totalBytes += content.length;
+                checkTotal(totalBytes, maxTotalBytes);
+                images.add(new UploadedImage(entry.getName(), content));
+            }
+        }
+        return totalBytes;
+    }
+
+    // Never inflates more than one byte past whichever limit is closer, whatever the entry header claims
+    private static byte[] readEntry(InputStream zip, String name, long maxFileBytes, long remainingBytes)
+            throws IOException {
+        long limit = Math.min(maxFileBytes, remainingBytes);
+        byte[] content = zip.readNBytes((int) Math.min(Integer.MAX_VALUE - 8, limit + 1));
+        if (content.length > maxFileBytes) {
+            throw new BadRequestException("Archive entry " + name + " exceeds " + maxFileBytes + " bytes");
+        }
+        return content;
+    }
+
+    private static boolean isHidden(String entryName) {
+        String baseName = entryName.substring(entryName.lastIndexOf('/') + 1);
+        return baseName.isEmpty() || baseName.startsWith(".") || entryName.startsWith("__MACOSX/");
+    }
+
+    private static void checkTotal(long totalBytes, long maxTotalBytes) {
+        if (totalBytes > maxTotalBytes) {
+            throw new BadRequestException("Batch expands to more than " + maxTotalBytes + " bytes");
+        }
+    }
+
+    private static void checkLimits(int count, long size, int maxFiles, long maxFileBytes) {
+        if (count > maxFiles) {
+            throw new BadRequestException("Batch exceeds the maximum of " + maxFiles + " files");
+        }
+        if (size > maxFileBytes) {
+            throw new BadRequestException("File exceeds " + maxFileBytes + " bytes");
+        }
+    }
+}
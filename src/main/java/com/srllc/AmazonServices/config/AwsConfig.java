@@ -1,25 +1,147 @@
 package com.srllc.AmazonServices.config;
 
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import com.srllc.AmazonServices.domain.client.RegionalClients;
 
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.awscore.client.builder.AwsClientBuilder;
+import software.amazon.awssdk.awscore.retry.AwsRetryStrategy;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.rekognition.RekognitionAsyncClient;
 import software.amazon.awssdk.services.rekognition.RekognitionClient;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.textract.TextractAsyncClient;
 import software.amazon.awssdk.services.textract.TextractClient;
 
 @Configuration
 public class AwsConfig {
 
+        // Retries, backoff and throttling for Textract and Rekognition are handled by AwsCallGuard
+        private static final ClientOverrideConfiguration NO_SDK_RETRIES = ClientOverrideConfiguration.builder()
+                        .retryStrategy(AwsRetryStrategy.doNotRetry())
+                        .build();
+
+        @Value("${aws.endpoint-override:}")
+        private String endpointOverride;
+
+        private final Environment environment;
+
+        public AwsConfig(Environment environment) {
+                this.environment = environment;
+        }
+
+        @Bean
+        public TextractClient textractClient(SdkHttpClient awsSyncHttpClient,
+                        @Value("${aws.accessKeyId}") String accessKey,
+                        @Value("${aws.secretAccessKey}") String secretKey,
+                        @Value("${aws.region}") String region) {
+
+                return withEndpointOverride(TextractClient.builder())
+                                .overrideConfiguration(NO_SDK_RETRIES)
+                                .httpClient(awsSyncHttpClient)
+                                .credentialsProvider(StaticCredentialsProvider.create(
+                                                AwsBasicCredentials.create(accessKey, secretKey)))
+                                .region(Region.of(region))
+                                .build();
+        }
+
+        @Bean
+        public RekognitionClient rekognitionClient(SdkHttpClient awsSyncHttpClient,
+                        @Value("${aws.accessKeyId}") String accessKey,
+                        @Value("${aws.secretAccessKey}") String secretKey,
+                        @Value("${aws.region}") String region) {
+
+                return withEndpointOverride(RekognitionClient.builder())
+                                .overrideConfiguration(NO_SDK_RETRIES)
+                                .httpClient(awsSyncHttpClient)
+                                .credentialsProvider(StaticCredentialsProvider.create(
+                                                AwsBasicCredentials.create(accessKey, secretKey)))
+                                .region(Region.of(region))
+                                .build();
+        }
+
+        @Bean
+        public S3Client s3Client(
+                        @Value("${aws.accessKeyId}") String accessKey,
+                        @Value("${aws.secretAccessKey}") String secretKey,
+                        @Value("${aws.region}") String region) {
+
+                // Path-style addressing keeps local S3 stand-ins working behind aws.endpoint-override
+                return withEndpointOverride(S3Client.builder())
+                                .forcePathStyle(endpointOverride != null && !endpointOverride.isBlank())
+                                .credentialsProvider(StaticCredentialsProvider.create(
+                                                AwsBasicCredentials.create(accessKey, secretKey)))
+                                .region(Region.of(region))
+                                .build();
+        }
+
+        // Shared by the blocking clients. The SDK default pool holds only 50 connections, which would
+        // cap virtual-thread mode well below aws.http.max-concurrency.
         @Bean
-        public TextractClient textractClient(
+        public SdkHttpClient awsSyncHttpClient(
+                        @Value("${aws.http.max-concurrency:200}") int maxConcurrency,
+                        @Value("${aws.http.connection-acquisition-timeout-ms:5000}") long acquisitionTimeoutMs,
+                        @Value("${aws.http.connection-timeout-ms:2000}") long connectionTimeoutMs,
+                        @Value("${aws.http.connection-max-idle-seconds:60}") long maxIdleSeconds) {
+
+                return ApacheHttpClient.builder()
+                                .maxConnections(maxConcurrency)
+                                .connectionAcquisitionTimeout(Duration.ofMillis(acquisitionTimeoutMs))
+                                .connectionTimeout(Duration.ofMillis(connectionTimeoutMs))
+                                .connectionMaxIdleTime(Duration.ofSeconds(maxIdleSeconds))
+                                .useIdleConnectionReaper(true)
+                                .tcpKeepAlive(true)
+                                .build();
+        }
+
+        // Shared by both async clients. Connections are kept alive and pooled, so TLS
+        // sessions are negotiated once per connection instead of once per request.
+        @Bean
+        public SdkAsyncHttpClient awsAsyncHttpClient(
+                        @Value("${aws.http.max-concurrency:200}") int maxConcurrency,
+                        @Value("${aws.http.max-pending-acquires:1000}") int maxPendingAcquires,
+                        @Value("${aws.http.connection-acquisition-timeout-ms:5000}") long acquisitionTimeoutMs,
+                        @Value("${aws.http.connection-timeout-ms:2000}") long connectionTimeoutMs,
+                        @Value("${aws.http.connection-max-idle-seconds:60}") long maxIdleSeconds) {
+
+                return NettyNioAsyncHttpClient.builder()
+                                .maxConcurrency(maxConcurrency)
+                                .maxPendingConnectionAcquires(maxPendingAcquires)
+                                .connectionAcquisitionTimeout(Duration.ofMillis(acquisitionTimeoutMs))
+                                .connectionTimeout(Duration.ofMillis(connectionTimeoutMs))
+                                .connectionMaxIdleTime(Duration.ofSeconds(maxIdleSeconds))
+                                .useIdleConnectionReaper(true)
+                                .tcpKeepAlive(true)
+                                .build();
+        }
+
+        @Bean
+        public TextractAsyncClient textractAsyncClient(
+                        SdkAsyncHttpClient awsAsyncHttpClient,
                         @Value("${aws.accessKeyId}") String accessKey,
                         @Value("${aws.secretAccessKey}") String secretKey,
                         @Value("${aws.region}") String region) {
 
-                return TextractClient.builder()
+                return withEndpointOverride(TextractAsyncClient.builder())
+                                .overrideConfiguration(NO_SDK_RETRIES)
+                                .httpClient(awsAsyncHttpClient)
                                 .credentialsProvider(StaticCredentialsProvider.create(
                                                 AwsBasicCredentials.create(accessKey, secretKey)))
                                 .region(Region.of(region))
@@ -27,15 +149,111 @@ public class AwsConfig {
         }
 
         @Bean
-        public RekognitionClient rekognitionClient(
+        public RekognitionAsyncClient rekognitionAsyncClient(
+                        SdkAsyncHttpClient awsAsyncHttpClient,
                         @Value("${aws.accessKeyId}") String accessKey,
                         @Value("${aws.secretAccessKey}") String secretKey,
                         @Value("${aws.region}") String region) {
 
-                return RekognitionClient.builder()
+                return withEndpointOverride(RekognitionAsyncClient.builder())
+                                .overrideConfiguration(NO_SDK_RETRIES)
+                                .httpClient(awsAsyncHttpClient)
                                 .credentialsProvider(StaticCredentialsProvider.create(
                                                 AwsBasicCredentials.create(accessKey, secretKey)))
                                 .region(Region.of(region))
                                 .build();
         }
-}
\ No newline at end of file
+
+        // The home region's clients plus one pair per aws.routing.regions entry
+        @Bean
+        public RegionalClients<TextractClient, TextractAsyncClient> textractRegionalClients(
+                        TextractClient textractClient,
+                        TextractAsyncClient textractAsyncClient,
+                        SdkHttpClient awsSyncHttpClient,
+                        SdkAsyncHttpClient awsAsyncHttpClient,
+                        @Value("${aws.accessKeyId}") String accessKey,
+                        @Value("${aws.secretAccessKey}") String secretKey,
+                        @Value("${aws.region}") String region,
+                        @Value("${aws.routing.regions:}") List<String> standbyRegions) {
+
+                AwsCredentialsProvider credentials = StaticCredentialsProvider.create(
+                                AwsBasicCredentials.create(accessKey, secretKey));
+                Map<String, TextractClient> clients = new LinkedHashMap<>();
+                Map<String, TextractAsyncClient> asyncClients = new LinkedHashMap<>();
+                clients.put(region, textractClient);
+                asyncClients.put(region, textractAsyncClient);
+                for (String standby : standbyRegions(standbyRegions, region)) {
+                        clients.put(standby, withRegionalEndpoint(TextractClient.builder(), standby)
+                                        .overrideConfiguration(NO_SDK_RETRIES)
+                                        .httpClient(awsSyncHttpClient)
+                                        .credentialsProvider(credentials)
+                                        .region(Region.of(standby))
+                                        .build());
+                        asyncClients.put(standby, withRegionalEndpoint(TextractAsyncClient.builder(), standby)
+                                        .overrideConfiguration(NO_SDK_RETRIES)
+                                        .httpClient(awsAsyncHttpClient)
+                                        .credentialsProvider(credentials)
+                                        .region(Region.of(standby))
+                                        .build());
+                }
+                return new RegionalClients<>(clients, asyncClients);
+        }
+
+        @Bean
+        public RegionalClients<RekognitionClient, RekognitionAsyncClient> rekognitionRegionalClients(
+                        RekognitionClient rekognitionClient,
+                        RekognitionAsyncClient rekognitionAsyncClient,
+                        SdkHttpClient awsSyncHttpClient,
+                        SdkAsyncHttpClient awsAsyncHttpClient,
+                        @Value("${aws.accessKeyId}") String accessKey,
+                        @Value("${aws.secretAccessKey}") String secretKey,
+                        @Value("${aws.region}") String region,
+                        @Value("${aws.routing.regions:}") List<String> standbyRegions) {
+
+                AwsCredentialsProvider credentials = StaticCredentialsProvider.create(
+                                AwsBasicCredentials.create(accessKey, secretKey));
+                Map<String, RekognitionClient> clients = new LinkedHashMap<>();
+                Map<String, RekognitionAsyncClient> asyncClients = new LinkedHashMap<>();
+                clients.put(region, rekognitionClient);
+                asyncClients.put(region, rekognitionAsyncClient);
+                for (String standby : standbyRegions(standbyRegions, region)) {
+                        clients.put(standby, withRegionalEndpoint(RekognitionClient.builder(), standby)
+                                        .overrideConfiguration(NO_SDK_RETRIES)
+                                        .httpClient(awsSyncHttpClient)
+                                        .credentialsProvider(credentials)
+                                        .region(Region.of(standby))
+                                        .build());
+                        asyncClients.put(standby, withRegionalEndpoint(RekognitionAsyncClient.builder(), standby)
+                                        .overrideConfiguration(NO_SDK_RETRIES)
+                                        .httpClient(awsAsyncHttpClient)
+                                        .credentialsProvider(credentials)
+                                        .region(Region.of(standby))
+                                        .build());
+                }
+                return new RegionalClients<>(clients, asyncClients);
+        }
+
+        private static List<String> standbyRegions(List<String> configured, String home) {
+                return configured.stream()
+                                .map(String::trim)
+                                .filter(region -> !region.isEmpty() && !region.equals(home))
+                                .distinct()
+                                .toList();
+        }
+
+        // aws.routing.endpoint-override.<region> points one region at a local stand-in
+        private <B extends AwsClientBuilder<B, ?>> B withRegionalEndpoint(B builder, String region) {
+                String override = environment.getProperty("aws.routing.endpoint-override." + region, endpointOverride);
+                if (override != null && !override.isBlank()) {
+                        builder.endpointOverride(URI.create(override));
+                }
+                return builder;
+        }
+
+        private <B extends AwsClientBuilder<B, ?>> B withEndpointOverride(B builder) {
+                if (endpointOverride != null && !endpointOverride.isBlank()) {
+                        builder.endpointOverride(URI.create(endpointOverride));
+                }
+                return builder;
+        }
+}
@@ -0,0 +1,107 @@
+package com.srllc.AmazonServices.config;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.srllc.AmazonServices.common.Deadline;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Gives every request a {@link Deadline}: the client's budget from the
+ * deadline header (capped), the configured default, or none. Async requests
+ * keep theirs until the container completes them; a container timeout or I/O
+ * error (typically the client hanging up) cancels it.
+ * <p>
+ * Only async requests are cancelled on disconnect. The servlet API reports a
+ * gone client to a blocking handler only when it writes the response, so a
+ * synchronous request runs until it finishes or its time limit passes.
+ */
+@Component
+@Slf4j
+public class DeadlineFilter extends OncePerRequestFilter {
+
+        private final ScheduledExecutorService timer;
+        private final String header;
+        private final long defaultMs;
+        private final long maxMs;
+
+        public DeadlineFilter(@Qualifier("deadlineTimer") ScheduledExecutorService timer,
+                        @Value("${request.deadline.header:X-Request-Timeout-Ms}") String header,
+                        @Value("${request.deadline.default-ms:0}") long defaultMs,
+                        @Value("${request.deadline.max-ms:60000}") long maxMs) {
+                this.timer = timer;
+                this.header = header;
+                this.defaultMs = defaultMs;
+                this.maxMs = maxMs;
+        }
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                        throws ServletException, IOException {
+                Deadline deadline = deadlineFor(request);
+                request.setAttribute(Deadline.ATTRIBUTE, deadline);
+                Deadline.bind(deadline);
+                try {
+                        chain.doFilter(request, response);
+                } finally {
+                        Deadline.unbind();
+                        // a synchronous request has already finished here, so there is nothing left to cancel
+                        if (request.isAsyncStarted()) {
+                                request.getAsyncContext().addListener(new CancelOnAbort(deadline));
+                        } else {
+                                deadline.release();
+                        }
+                }
+        }
+
+        private Deadline deadlineFor(HttpServletRequest request) {
+                long budgetMs = defaultMs;
+                String value = request.getHeader(header);
+                if (value != null) {
+                        try {
+                                budgetMs = Long.parseLong(value.trim());
+                        } catch (NumberFormatException e) {
+                                log.debug("Ignoring malformed {} header: {}", header, value);
+                        }
+                }
+                if (budgetMs <= 0) {
+                        return Deadline.unbounded();
+                }
+                return Deadline.after(Duration.ofMillis(Math.min(budgetMs, maxMs)), timer);
+        }
+
+        private record CancelOnAbort(Deadline deadline) implements AsyncListener {
+
+                @Override
+                public void onComplete(AsyncEvent event) {
+                        deadline.release();
+                }
+
+                @Override
+                public void onTimeout(AsyncEvent event) {
+                        deadline.cancel();
+                }
+
+                @Override
+                public void onError(AsyncEvent event) {
+                        deadline.cancel();
+                }
+
+                @Override
+                public void onStartAsync(AsyncEvent event) {
+                }
+        }
+}
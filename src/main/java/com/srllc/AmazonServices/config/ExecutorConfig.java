@@ -0,0 +1,88 @@
+package com.srllc.AmazonServices.config;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+@Configuration
+public class ExecutorConfig {
+
+        @Bean(destroyMethod = "shutdown")
+        public ThreadPoolExecutor receiptJobExecutor(
+                        @Value("${textract.jobs.workers:4}") int workers,
+                        @Value("${textract.jobs.queue-capacity:100}") int queueCapacity) {
+
+                ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                                workers,
+                                workers,
+                                60L, TimeUnit.SECONDS,
+                                new ArrayBlockingQueue<>(queueCapacity),
+                                new CustomizableThreadFactory("receipt-job-"),
+                                new ThreadPoolExecutor.AbortPolicy());
+                executor.allowCoreThreadTimeOut(true);
+                return executor;
+        }
+
+        @Bean(destroyMethod = "shutdown")
+        public ExecutorService receiptBatchExecutor(
+                        @Value("${textract.batch.parallelism:8}") int parallelism) {
+
+                return Executors.newFixedThreadPool(parallelism, new CustomizableThreadFactory("receipt-batch-"));
+        }
+
+        @Bean(destroyMethod = "shutdown")
+        public ExecutorService receiptPersistenceExecutor(
+                        @Value("${textract.persistence.threads:10}") int threads) {
+
+                return Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("receipt-persist-"));
+        }
+
+        // Blocking AWS calls get a virtual thread each when virtual threads are enabled;
+        // otherwise the gateways use the async clients and this pool stays idle.
+        @Bean(destroyMethod = "shutdown")
+        public ExecutorService awsCallExecutor(
+                        @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                        @Value("${aws.call-threads:16}") int threads) {
+
+                if (virtualThreads) {
+                        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("aws-call-", 0).factory());
+                }
+                return Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("aws-call-"));
+        }
+
+        // CPU-bound image decode/resize/encode; sized to cores so it never oversubscribes the CPU.
+        // A full queue makes the preprocessor fall back to sending the original bytes.
+        @Bean(destroyMethod = "shutdown")
+        public ThreadPoolExecutor imagePreprocessExecutor(
+                        @Value("${image.preprocess.threads:0}") int threads,
+                        @Value("${image.preprocess.queue-capacity:64}") int queueCapacity) {
+
+                int workers = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+                return new ThreadPoolExecutor(
+                                workers,
+                                workers,
+                                0L, TimeUnit.MILLISECONDS,
+                                new ArrayBlockingQueue<>(queueCapacity),
+                                new CustomizableThreadFactory("image-preprocess-"),
+                                new ThreadPoolExecutor.AbortPolicy());
+        }
+
+        // Fires request deadlines; finished requests cancel their timer so the queue only holds live ones.
+        @Bean(destroyMethod = "shutdown")
+        public ScheduledExecutorService deadlineTimer() {
+                CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("request-deadline-");
+                threadFactory.setDaemon(true);
+                ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, threadFactory);
+                timer.setRemoveOnCancelPolicy(true);
+                return timer;
+        }
+}
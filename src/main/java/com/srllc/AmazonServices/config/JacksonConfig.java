@@ -0,0 +1,18 @@
+package com.srllc.AmazonServices.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+
+@Configuration
+public class JacksonConfig {
+
+        // Replaces reflective getter/constructor calls with generated lambdas; Spring Boot
+        // registers every Module bean on the shared ObjectMapper.
+        @Bean
+        public Module blackbirdModule() {
+                return new BlackbirdModule();
+        }
+}
@@ -0,0 +1,30 @@
+package com.srllc.AmazonServices.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.srllc.AmazonServices.domain.cache.CaffeineReceiptCacheBackend;
+import com.srllc.AmazonServices.domain.cache.NoOpReceiptCacheBackend;
+import com.srllc.AmazonServices.domain.cache.ReceiptCacheBackend;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+public class ReceiptCacheConfig {
+
+        // Unknown values fail startup with the accepted list.
+        @Bean
+        public ReceiptCacheBackend receiptCacheBackend(MeterRegistry meterRegistry,
+                        @Value("${receipts.cache.backend:caffeine}") String backend,
+                        @Value("${receipts.cache.max-size:1000}") long maxSize,
+                        @Value("${receipts.cache.ttl-minutes:10}") long ttlMinutes) {
+
+                return switch (backend.trim().toLowerCase()) {
+                        case "caffeine" -> new CaffeineReceiptCacheBackend(meterRegistry, maxSize, ttlMinutes);
+                        case "none" -> new NoOpReceiptCacheBackend();
+                        default -> throw new IllegalStateException("Unknown receipts.cache.backend '" + backend
+                                        + "'; expected 'caffeine' or 'none'");
+                };
+        }
+}
@@ -0,0 +1,71 @@
+package com.srllc.AmazonServices.domain.archive;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import software.amazon.awssdk.services.textract.model.Block;
+import software.amazon.awssdk.services.textract.model.BlockType;
+import software.amazon.awssdk.services.textract.model.BoundingBox;
+import software.amazon.awssdk.services.textract.model.Geometry;
+
+/**
+ * The parts of a Textract {@link Block} the parser can use: type, text,
+ * confidence, page and bounding box. Relationships and polygons are dropped.
+ */
+public record ArchivedBlock(
+        String type,
+        String text,
+        float confidence,
+        int page,
+        float left,
+        float top,
+        float width,
+        float height) {
+
+    public static ArchivedBlock of(Block block) {
+        BoundingBox box = block.geometry() == null ? null : block.geometry().boundingBox();
+        return new ArchivedBlock(
+                block.blockTypeAsString(),
+                block.text(),
+                block.confidence() == null ? 0f : block.confidence(),
+                block.page() == null ? 1 : block.page(),
+                box == null || box.left() == null ? 0f : box.left(),
+                box == null || box.top() == null ? 0f : box.top(),
+                box == null || box.width() == null ? 0f : box.width(),
+                box == null || box.height() == null ? 0f : box.height());
+    }
+
+    public static List<ArchivedBlock> ofAll(List<Block> blocks) {
+        List<ArchivedBlock> archived = new ArrayList<>(blocks.size());
+        for (Block block : blocks) {
+            archived.add(of(block));
+        }
+        return archived;
+    }
+
+    // Rebuilds the SDK block, so re-parsing goes through the same parser entry point as a live call
+    public Block toBlock() {
+        return Block.builder()
+                .blockType(BlockType.fromValue(type))
+                .text(text)
+                .confidence(confidence)
+                .page(page)
+                .geometry(Geometry.builder()
+                        .boundingBox(BoundingBox.builder()
+                                .left(left)
+                                .top(top)
+                                .width(width)
+                                .height(height)
+                                .build())
+                        .build())
+                .build();
+    }
+
+    public static List<Block> toBlocks(List<ArchivedBlock> archived) {
+        List<Block> blocks = new ArrayList<>(archived.size());
+        for (ArchivedBlock block : archived) {
+            blocks.add(block.toBlock());
+        }
+        return blocks;
+    }
+}
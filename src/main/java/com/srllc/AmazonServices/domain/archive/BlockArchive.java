@@ -0,0 +1,202 @@
+package com.srllc.AmazonServices.domain.archive;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.srllc.AmazonServices.domain.entity.Reciepts;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.services.textract.model.Block;
+
+/**
+ * Local archive of the raw Textract blocks behind every extracted receipt,
+ * keyed by the receipt's external id, so receipts can be parsed again after a
+ * parser change without calling Textract. Records are deflated and appended
+ * to segment files of up to {@code segment-bytes}; an in-memory index maps
+ * each external id to its segment and offset, and reads go through memory
+ * mappings. The latest record for an external id wins.
+ */
+@Component
+@Slf4j
+public class BlockArchive {
+    private static final Pattern SEGMENT_FILE = Pattern.compile("blocks-(\\d+)\\.seg");
+
+    private final MeterRegistry meterRegistry;
+    private final String path;
+    private final int segmentBytes;
+
+    // segment number in the high half, offset in the low half
+    private final Map<String, Long> index = new ConcurrentHashMap<>();
+    private final Map<Integer, BlockSegment> segments = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+    private Path dir;
+    private volatile BlockSegment active;
+    private DistributionSummary recordBytes;
+
+    public BlockArchive(MeterRegistry meterRegistry,
+            @Value("${textract.archive.path:}") String path,
+            @Value("${textract.archive.segment-bytes:268435456}") long segmentBytes) {
+        this.meterRegistry = meterRegistry;
+        this.path = path;
+        this.segmentBytes = (int) Math.min(segmentBytes, Integer.MAX_VALUE);
+    }
+
+    @PostConstruct
+    void open() throws IOException {
+        if (path.isBlank()) {
+            return;
+        }
+        dir = Path.of(path);
+        Files.createDirectories(dir);
+
+        List<Integer> numbers;
+        try (Stream<Path> files = Files.list(dir)) {
+            numbers = files.map(file -> SEGMENT_FILE.matcher(file.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(matcher -> Integer.parseInt(matcher.group(1)))
+                    .sorted()
+                    .toList();
+        }
+
+        BlockSegment last = null;
+        for (int number : numbers) {
+            BlockSegment segment = BlockSegment.open(dir, number);
+            segments.put(number, segment);
+            boolean isLast = number == numbers.get(numbers.size() - 1);
+            if (!isLast && segment.hasIndex()) {
+                segment.loadIndex((key, offset) -> index.put(key, location(number, offset)));
+            } else {
+                segment.recover((key, offset) -> index.put(key, location(number, offset)));
+                if (!isLast) {
+                    segment.seal();
+                }
+            }
+            last = segment;
+        }
+        active = last != null ? last : newSegment(1);
+
+        recordBytes = DistributionSummary.builder("textract.archive.record.bytes")
+                .description("Compressed size of one archived receipt")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("textract.archive.receipts", index, Map::size)
+                .description("Receipts whose Textract blocks are archived on this node")
+                .register(meterRegistry);
+        log.info("Opened block archive {} with {} receipts in {} segments", dir, index.size(), segments.size());
+    }
+
+    public boolean isEnabled() {
+        return active != null;
+    }
+
+    /**
+     * Holds the blocks on the parsed receipt until it is saved; see
+     * {@link #archiveSaved}. Nothing is kept when the archive is disabled.
+     */
+    public void attach(Reciepts receipt, List<Block> blocks) {
+        if (isEnabled()) {
+            receipt.setPendingBlocks(ArchivedBlock.ofAll(blocks));
+        }
+    }
+
+    /**
+     * Archives the blocks held on a receipt that has just been saved (or
+     * accepted by write-behind), under its external id. A receipt whose direct
+     * save fails never reaches here. A write-behind receipt is archived when it
+     * is accepted, so its record is an orphan if the receipt is lost before
+     * the writer commits it (no journal, and a shutdown that cannot drain the
+     * queue); a re-parse counts such records as missing.
+     */
+    public void archiveSaved(Reciepts receipt) {
+        List<ArchivedBlock> blocks = receipt.getPendingBlocks();
+        receipt.setPendingBlocks(null);
+        if (blocks != null) {
+            archiveBlocks(receipt, blocks);
+        }
+    }
+
+    /**
+     * Appends the blocks under the receipt's external id, assigning one first
+     * if needed. Failures are logged and counted; they never fail the extraction.
+     */
+    public void archiveBlocks(Reciepts receipt, List<ArchivedBlock> blocks) {
+        if (!isEnabled()) {
+            return;
+        }
+        if (receipt.getExternalId() == null) {
+            receipt.setExternalId(UUID.randomUUID().toString());
+        }
+        String key = receipt.getExternalId();
+
+        try {
+            byte[] record = BlockCodec.encode(key, blocks);
+            synchronized (writeLock) {
+                if (active.size() > 0 && (long) active.size() + record.length > segmentBytes) {
+                    active.seal();
+                    active = newSegment(active.number() + 1);
+                }
+                int offset = active.append(key, record);
+                index.put(key, location(active.number(), offset));
+            }
+            recordBytes.record(record.length);
+        } catch (IOException | RuntimeException e) {
+            meterRegistry.counter("textract.archive.errors").increment();
+            log.error("Could not archive Textract blocks for receipt {}: {}", key, e.getMessage());
+        }
+    }
+
+    public Optional<List<ArchivedBlock>> read(String externalId) throws IOException {
+        Long location = index.get(externalId);
+        if (location == null) {
+            return Optional.empty();
+        }
+        return Optional.of(segments.get((int) (location >>> 32)).read((int) location.longValue()));
+    }
+
+    public List<String> externalIds() {
+        return List.copyOf(index.keySet());
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    private BlockSegment newSegment(int number) throws IOException {
+        BlockSegment segment = BlockSegment.open(dir, number);
+        segments.put(number, segment);
+        return segment;
+    }
+
+    private static long location(int segment, int offset) {
+        return ((long) segment << 32) | (offset & 0xFFFFFFFFL);
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        synchronized (writeLock) {
+            if (active != null) {
+                active.force();
+            }
+            for (BlockSegment segment : segments.values()) {
+                segment.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.srllc.AmazonServices.domain.archive;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Binary layout of one archived receipt:
+ *
+ * <pre>
+ * int    magic "TXB1"
+ * short  key length, key bytes (UTF-8 external id)
+ * int    raw payload length
+ * int    compressed payload length
+ * int    CRC-32 of the compressed payload
+ * byte[] deflated payload: block count, then type, text, confidence, page and box per block
+ * </pre>
+ */
+final class BlockCodec {
+    static final int MAGIC = 0x54584231;
+    private static final int FIXED_HEADER = 18;
+
+    record Header(String key, int offset, int keyLength, int rawLength, int compressedLength, int crc) {
+        int payloadOffset() {
+            return offset + FIXED_HEADER + keyLength;
+        }
+
+        int end() {
+            return payloadOffset() + compressedLength;
+        }
+    }
+
+    private BlockCodec() {
+    }
+
+    static byte[] encode(String key, List<ArchivedBlock> blocks) throws IOException {
+        ByteArrayOutputStream raw = new ByteArrayOutputStream(64 + blocks.size() * 48);
+        try (DataOutputStream out = new DataOutputStream(raw)) {
+            out.writeInt(blocks.size());
+            for (ArchivedBlock block : blocks) {
+                out.writeUTF(block.type() == null ? "" : block.type());
+                out.writeBoolean(block.text() != null);
+                if (block.text() != null) {
+                    out.writeUTF(block.text());
+                }
+                out.writeFloat(block.confidence());
+                out.writeInt(block.page());
+                out.writeFloat(block.left());
+                out.writeFloat(block.top());
+                out.writeFloat(block.width());
+                out.writeFloat(block.height());
+            }
+        }
+        byte[] payload = raw.toByteArray();
+        byte[] compressed = deflate(payload);
+
+        CRC32 crc = new CRC32();
+        crc.update(compressed);
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(FIXED_HEADER + keyBytes.length + compressed.length)
+                .putInt(MAGIC)
+                .putShort((short) keyBytes.length)
+                .put(keyBytes)
+                .putInt(payload.length)
+                .putInt(compressed.length)
+                .putInt((int) crc.getValue())
+                .put(compressed)
+                .array();
+    }
+
+    /**
+     * Reads the header of the record at {@code offset}. Returns null when the
+     * bytes there are not a complete record; with {@code verify} the payload
+     * checksum must match too.
+     */
+    static Header readHeader(ByteBuffer buffer, int offset, boolean verify) {
+        int limit = buffer.limit();
+        if (offset + FIXED_HEADER > limit || buffer.getInt(offset) != MAGIC) {
+            return null;
+        }
+        int keyLength = Short.toUnsignedInt(buffer.getShort(offset + 4));
+        int lengths = offset + 6 + keyLength;
+        if (lengths + 12 > limit) {
+            return null;
+        }
+        byte[] keyBytes = new byte[keyLength];
+        buffer.get(offset + 6, keyBytes);
+        Header header = new Header(new String(keyBytes, StandardCharsets.UTF_8), offset, keyLength, buffer.getInt(lengths),
+                buffer.getInt(lengths + 4), buffer.getInt(lengths + 8));
+        if (header.compressedLength() < 0 || header.rawLength() < 0 || (long) header.end() > limit) {
+            return null;
+        }
+        if (verify) {
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(header.payloadOffset(), header.compressedLength()));
+            if ((int) crc.getValue() != header.crc()) {
+                return null;
+            }
+        }
+        return header;
+    }
+
+    static List<ArchivedBlock> decode(ByteBuffer buffer, Header header) throws IOException {
+        byte[] payload = inflate(buffer.slice(header.payloadOffset(), header.compressedLength()), header.rawLength());
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            int count = in.readInt();
+            List<ArchivedBlock> blocks = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String type = in.readUTF();
+                String text = in.readBoolean() ? in.readUTF() : null;
+                blocks.add(new ArchivedBlock(type.isEmpty() ? null : type, text, in.readFloat(), in.readInt(),
+                        in.readFloat(), in.readFloat(), in.readFloat(), in.readFloat()));
+            }
+            return blocks;
+        }
+    }
+
+    private static byte[] deflate(byte[] payload) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setInput(payload);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length / 3 + 16);
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(ByteBuffer compressed, int rawLength) throws IOException {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(compressed);
+            byte[] payload = new byte[rawLength];
+            int read = 0;
+            while (read < rawLength && !inflater.finished()) {
+                int n = inflater.inflate(payload, read, rawLength - read);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += n;
+            }
+            if (read != rawLength) {
+                throw new IOException("Archived blocks are truncated: " + read + " of " + rawLength + " bytes");
+            }
+            return payload;
+        } catch (DataFormatException e) {
+            throw new IOException("Archived blocks are corrupt: " + e.getMessage(), e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.srllc.AmazonServices.domain.archive;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * One append-only segment file of the block archive. Reads go through a
+ * read-only memory mapping that is widened when a record past its end is
+ * requested. A sealed segment gets a sidecar index of key and offset pairs,
+ * so reopening it does not have to walk its records.
+ */
+@Slf4j
+final class BlockSegment implements Closeable {
+    private final int number;
+    private final Path path;
+    private final Path indexPath;
+    private final FileChannel channel;
+    private volatile int size;
+    private MappedByteBuffer mapped;
+    // records appended since opening, written to the sidecar index on seal
+    private final List<String> keys = new ArrayList<>();
+    private final List<Integer> offsets = new ArrayList<>();
+
+    private BlockSegment(int number, Path path, Path indexPath, FileChannel channel) throws IOException {
+        this.number = number;
+        this.path = path;
+        this.indexPath = indexPath;
+        this.channel = channel;
+        this.size = Math.toIntExact(channel.size());
+    }
+
+    static BlockSegment open(Path dir, int number) throws IOException {
+        String name = String.format("blocks-%06d", number);
+        FileChannel channel = FileChannel.open(dir.resolve(name + ".seg"), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new BlockSegment(number, dir.resolve(name + ".seg"), dir.resolve(name + ".idx"), channel);
+    }
+
+    int number() {
+        return number;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean hasIndex() {
+        return Files.exists(indexPath);
+    }
+
+    void loadIndex(ObjIntConsumer<String> sink) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexPath)))) {
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                sink.accept(in.readUTF(), in.readInt());
+            }
+        }
+    }
+
+    /**
+     * Walks the records from the start and truncates the file at the first one
+     * that is incomplete or fails its checksum, i.e. a write cut short by a crash.
+     */
+    void recover(ObjIntConsumer<String> sink) throws IOException {
+        ByteBuffer buffer = view(size);
+        int offset = 0;
+        while (offset < size) {
+            BlockCodec.Header header = BlockCodec.readHeader(buffer, offset, true);
+            if (header == null) {
+                break;
+            }
+            sink.accept(header.key(), offset);
+            keys.add(header.key());
+            offsets.add(offset);
+            offset = header.end();
+        }
+        if (offset < size) {
+            log.warn("Truncating {} unreadable bytes at the end of {}", size - offset, path);
+            channel.truncate(offset);
+            synchronized (this) {
+                size = offset;
+                mapped = null;
+            }
+        }
+    }
+
+    int append(String key, byte[] record) throws IOException {
+        int offset = size;
+        ByteBuffer source = ByteBuffer.wrap(record);
+        while (source.hasRemaining()) {
+            channel.write(source, offset + source.position());
+        }
+        keys.add(key);
+        offsets.add(offset);
+        size = offset + record.length;
+        return offset;
+    }
+
+    List<ArchivedBlock> read(int offset) throws IOException {
+        ByteBuffer buffer = view(offset + 1);
+        BlockCodec.Header header = BlockCodec.readHeader(buffer, offset, false);
+        if (header == null) {
+            // the record may end past the current mapping
+            buffer = view(size);
+            header = BlockCodec.readHeader(buffer, offset, false);
+        }
+        if (header == null) {
+            throw new IOException("No archived record at " + path + ":" + offset);
+        }
+        return BlockCodec.decode(buffer, header);
+    }
+
+    // Flushes the segment and writes its sidecar index; no more appends follow
+    void seal() throws IOException {
+        channel.force(false);
+        Path temp = indexPath.resolveSibling(indexPath.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(keys.size());
+            for (int i = 0; i < keys.size(); i++) {
+                out.writeUTF(keys.get(i));
+                out.writeInt(offsets.get(i));
+            }
+        }
+        Files.move(temp, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        keys.clear();
+        offsets.clear();
+    }
+
+    void force() throws IOException {
+        channel.force(false);
+    }
+
+    private synchronized ByteBuffer view(int end) throws IOException {
+        if (mapped == null || mapped.capacity() < end) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        return mapped.duplicate();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
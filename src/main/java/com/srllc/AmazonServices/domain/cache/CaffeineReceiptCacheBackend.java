@@ -0,0 +1,46 @@
+package com.srllc.AmazonServices.domain.cache;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.srllc.AmazonServices.domain.record.ReceiptView;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+public class CaffeineReceiptCacheBackend implements ReceiptCacheBackend {
+    private final Cache<Long, ReceiptView> receipts;
+
+    public CaffeineReceiptCacheBackend(MeterRegistry meterRegistry, long maxSize, long ttlMinutes) {
+        this(meterRegistry, maxSize, ttlMinutes, Ticker.systemTicker());
+    }
+
+    CaffeineReceiptCacheBackend(MeterRegistry meterRegistry, long maxSize, long ttlMinutes, Ticker ticker) {
+        this.receipts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        // cache.gets{result=hit|miss}, cache.evictions, cache.size: hit ratio is hit / (hit + miss)
+        CaffeineCacheMetrics.monitor(meterRegistry, receipts, "receipts");
+    }
+
+    @Override
+    public Optional<ReceiptView> get(Long receiptId) {
+        return Optional.ofNullable(receipts.getIfPresent(receiptId));
+    }
+
+    @Override
+    public void put(ReceiptView receipt) {
+        receipts.put(receipt.id(), receipt);
+    }
+
+    @Override
+    public void evict(Long receiptId) {
+        receipts.invalidate(receiptId);
+    }
+}
@@ -0,0 +1,88 @@
+package com.srllc.AmazonServices.domain.cache;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongPredicate;
+
+import com.srllc.AmazonServices.domain.upload.PerceptualHasher;
+
+/**
+ * Finds 64-bit hashes within {@code maxDistance} bits of a query without
+ * scanning every entry. Each hash is split into {@code maxDistance + 1} bands;
+ * two hashes that differ in at most {@code maxDistance} bits must agree on at
+ * least one whole band, so only entries sharing a band with the query are
+ * compared. At the default distance of 6 that is seven 9-10 bit bands, a few
+ * dozen candidates per lookup at 10k entries instead of all of them.
+ */
+final class HammingIndex {
+    private final int maxDistance;
+    private final int[] shifts;
+    private final long[] masks;
+    // per band: band bits -> hashes having them
+    private final Map<Long, Set<Long>>[] bands;
+
+    @SuppressWarnings("unchecked")
+    HammingIndex(int maxDistance) {
+        this.maxDistance = Math.max(0, maxDistance);
+        int count = Math.min(Long.SIZE, this.maxDistance + 1);
+        this.shifts = new int[count];
+        this.masks = new long[count];
+        this.bands = new Map[count];
+
+        int shift = 0;
+        for (int band = 0; band < count; band++) {
+            int width = Long.SIZE / count + (band < Long.SIZE % count ? 1 : 0);
+            shifts[band] = shift;
+            masks[band] = width == Long.SIZE ? -1L : (1L << width) - 1;
+            bands[band] = new ConcurrentHashMap<>();
+            shift += width;
+        }
+    }
+
+    void add(long hash) {
+        for (int band = 0; band < bands.length; band++) {
+            bands[band].compute(bandKey(hash, band), (key, hashes) -> {
+                Set<Long> updated = hashes != null ? hashes : ConcurrentHashMap.newKeySet();
+                updated.add(hash);
+                return updated;
+            });
+        }
+    }
+
+    void remove(long hash) {
+        for (int band = 0; band < bands.length; band++) {
+            bands[band].computeIfPresent(bandKey(hash, band), (key, hashes) -> {
+                hashes.remove(hash);
+                return hashes.isEmpty() ? null : hashes;
+            });
+        }
+    }
+
+    /**
+     * The closest indexed hash within {@code maxDistance} that {@code present}
+     * accepts, or {@code null}. Ties go to whichever candidate is seen first.
+     */
+    Long nearest(long hash, LongPredicate present) {
+        Long best = null;
+        int bestDistance = maxDistance + 1;
+        for (int band = 0; band < bands.length && bestDistance > 0; band++) {
+            Set<Long> candidates = bands[band].get(bandKey(hash, band));
+            if (candidates == null) {
+                continue;
+            }
+            for (Long candidate : candidates) {
+                int distance = PerceptualHasher.distance(hash, candidate);
+                if (distance < bestDistance && present.test(candidate)) {
+                    best = candidate;
+                    bestDistance = distance;
+                }
+            }
+        }
+        return best;
+    }
+
+    private long bandKey(long hash, int band) {
+        return (hash >>> shifts[band]) & masks[band];
+    }
+}
@@ -0,0 +1,22 @@
+package com.srllc.AmazonServices.domain.cache;
+
+import java.util.Optional;
+
+import com.srllc.AmazonServices.domain.record.ReceiptView;
+
+// receipts.cache.backend=none: every lookup goes to the database
+public class NoOpReceiptCacheBackend implements ReceiptCacheBackend {
+
+    @Override
+    public Optional<ReceiptView> get(Long receiptId) {
+        return Optional.empty();
+    }
+
+    @Override
+    public void put(ReceiptView receipt) {
+    }
+
+    @Override
+    public void evict(Long receiptId) {
+    }
+}
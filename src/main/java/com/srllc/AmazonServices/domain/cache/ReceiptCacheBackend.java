@@ -0,0 +1,19 @@
+package com.srllc.AmazonServices.domain.cache;
+
+import java.util.Optional;
+
+import com.srllc.AmazonServices.domain.record.ReceiptView;
+
+/**
+ * Storage behind {@link ReceiptReadCache}, chosen by receipts.cache.backend in
+ * ReceiptCacheConfig. The in-process Caffeine backend is the default; a shared
+ * backend (Redis, Memcached) only has to implement these three operations and
+ * be added there, and tests substitute a plain map.
+ */
+public interface ReceiptCacheBackend {
+    Optional<ReceiptView> get(Long receiptId);
+
+    void put(ReceiptView receipt);
+
+    void evict(Long receiptId);
+}
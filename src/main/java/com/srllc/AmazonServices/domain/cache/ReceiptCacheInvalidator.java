@@ -0,0 +1,29 @@
+package com.srllc.AmazonServices.domain.cache;
+
+import org.springframework.stereotype.Component;
+
+import com.srllc.AmazonServices.domain.entity.RecieptItem;
+import com.srllc.AmazonServices.domain.entity.Reciepts;
+
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+// JPA entity listener; Hibernate resolves it through Spring, so it can be injected like any bean
+@Component
+public class ReceiptCacheInvalidator {
+    private final ReceiptReadCache receiptReadCache;
+
+    public ReceiptCacheInvalidator(ReceiptReadCache receiptReadCache) {
+        this.receiptReadCache = receiptReadCache;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        if (entity instanceof Reciepts receipt) {
+            receiptReadCache.evict(receipt.getId());
+        } else if (entity instanceof RecieptItem item && item.getReciepts() != null) {
+            receiptReadCache.evict(item.getReciepts().getId());
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.srllc.AmazonServices.domain.cache;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.srllc.AmazonServices.domain.entity.Reciepts;
+import com.srllc.AmazonServices.domain.record.ReceiptView;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Read-through cache of fully loaded receipts for GET /receipts/{id}. Entries
+ * are written when a receipt is saved and evicted by {@link ReceiptCacheInvalidator}
+ * whenever a receipt or one of its items is updated or deleted.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ReceiptReadCache {
+    private final ReceiptCacheBackend backend;
+
+    public Optional<ReceiptView> get(Long receiptId, Function<Long, Optional<Reciepts>> loader) {
+        Optional<ReceiptView> cached = backend.get(receiptId);
+        if (cached.isPresent()) {
+            return cached;
+        }
+
+        Optional<ReceiptView> loaded = loader.apply(receiptId).map(ReceiptView::from);
+        loaded.ifPresent(backend::put);
+        return loaded;
+    }
+
+    // Cached copy only; never loads
+    public Optional<ReceiptView> getIfPresent(Long receiptId) {
+        return backend.get(receiptId);
+    }
+
+    public void put(Reciepts receipt) {
+        if (receipt.getId() != null) {
+            backend.put(ReceiptView.from(receipt));
+        }
+    }
+
+    public void evict(Long receiptId) {
+        if (receiptId == null) {
+            return;
+        }
+        backend.evict(receiptId);
+
+        // evict again once the change is committed, so a concurrent read cannot re-cache the old row
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    backend.evict(receiptId);
+                }
+            });
+        }
+        log.debug("Evicted receipt {} from the read cache", receiptId);
+    }
+}
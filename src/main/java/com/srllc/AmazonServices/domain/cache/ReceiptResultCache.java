@@ -0,0 +1,127 @@
+package com.srllc.AmazonServices.domain.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.srllc.AmazonServices.domain.entity.RecieptItem;
+import com.srllc.AmazonServices.domain.entity.Reciepts;
+import com.srllc.AmazonServices.domain.record.ReceiptItemView;
+import com.srllc.AmazonServices.domain.record.ReceiptView;
+import com.srllc.AmazonServices.domain.repository.RecieptsRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Maps the SHA-256 of an uploaded receipt image to the receipt already
+ * extracted from it, so retried uploads skip the Textract call entirely.
+ * <p>
+ * A memory hit is answered from the {@link ReceiptView} held by
+ * {@link ReceiptReadCache}, without touching the database. That copy is
+ * evicted by {@link ReceiptCacheInvalidator} and the reparse writer, so an
+ * updated or deleted receipt falls through to the database tier instead of
+ * being served stale.
+ */
+@Component
+@Slf4j
+public class ReceiptResultCache {
+
+    private final RecieptsRepository receiptsRepository;
+    private final ReceiptReadCache receiptReadCache;
+    private final Cache<String, Long> receiptIdsByHash;
+    private final Counter memoryHits;
+    private final Counter databaseHits;
+    private final Counter misses;
+
+    public ReceiptResultCache(RecieptsRepository receiptsRepository,
+            ReceiptReadCache receiptReadCache,
+            MeterRegistry meterRegistry,
+            @Value("${textract.result-cache.max-size:10000}") long maxSize,
+            @Value("${textract.result-cache.ttl-minutes:1440}") long ttlMinutes) {
+        this.receiptsRepository = receiptsRepository;
+        this.receiptReadCache = receiptReadCache;
+        this.receiptIdsByHash = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .build();
+        this.memoryHits = lookupCounter(meterRegistry, "hit", "memory");
+        this.databaseHits = lookupCounter(meterRegistry, "hit", "database");
+        this.misses = lookupCounter(meterRegistry, "miss", "none");
+    }
+
+    public Optional<Reciepts> find(String contentHash) {
+        Long receiptId = receiptIdsByHash.getIfPresent(contentHash);
+        if (receiptId != null) {
+            Optional<ReceiptView> cached = receiptReadCache.getIfPresent(receiptId);
+            if (cached.isPresent()) {
+                memoryHits.increment();
+                log.info("Receipt cache hit (memory) for hash {} -> receipt {}", contentHash, receiptId);
+                return Optional.of(detached(cached.get(), contentHash));
+            }
+            // the receipt changed since it was cached (or the read cache is off): ask the database again
+            receiptIdsByHash.invalidate(contentHash);
+        }
+
+        Optional<Reciepts> receipt = receiptsRepository.findFirstByContentHash(contentHash);
+        if (receipt.isPresent()) {
+            databaseHits.increment();
+            put(contentHash, receipt.get());
+            log.info("Receipt cache hit (database) for hash {} -> receipt {}", contentHash, receipt.get().getId());
+            return receipt;
+        }
+
+        misses.increment();
+        return Optional.empty();
+    }
+
+    public void put(String contentHash, Reciepts receipt) {
+        if (contentHash != null && receipt.getId() != null) {
+            receiptIdsByHash.put(contentHash, receipt.getId());
+            receiptReadCache.put(receipt);
+        }
+    }
+
+    // A fresh, unmanaged entity per hit, so callers can't mutate the shared cached copy
+    private static Reciepts detached(ReceiptView view, String contentHash) {
+        Reciepts receipt = new Reciepts();
+        receipt.setId(view.id());
+        receipt.setExternalId(view.externalId());
+        receipt.setCompanyName(view.companyName());
+        receipt.setBranch(view.branch());
+        receipt.setManagerName(view.managerName());
+        receipt.setCashierNumber(view.cashierNumber());
+        receipt.setSubTotal(view.subTotal());
+        receipt.setCash(view.cash());
+        receipt.setChange(view.change());
+        receipt.setContentHash(contentHash);
+
+        List<RecieptItem> items = new ArrayList<>(view.items().size());
+        for (ReceiptItemView itemView : view.items()) {
+            RecieptItem item = new RecieptItem();
+            item.setId(itemView.id());
+            item.setProductName(itemView.productName());
+            item.setQuantity(itemView.quantity());
+            item.setPrice(itemView.price());
+            item.setReciepts(receipt);
+            items.add(item);
+        }
+        receipt.setItems(items);
+        return receipt;
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String result, String source) {
+        return Counter.builder("textract.result.cache")
+                .description("Receipt extraction lookups by uploaded content hash; every hit is one Textract call saved")
+                .tag("result", result)
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+}
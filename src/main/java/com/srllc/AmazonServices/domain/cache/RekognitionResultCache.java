@@ -0,0 +1,172 @@
+package com.srllc.AmazonServices.domain.cache;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.srllc.AmazonServices.domain.entity.AnalyzedImage;
+import com.srllc.AmazonServices.domain.mapper.RekognitionResponseMapper;
+import com.srllc.AmazonServices.domain.repository.AnalyzedImageRepository;
+import com.srllc.AmazonServices.domain.upload.PerceptualHasher;
+import com.srllc.AmazonServices.dto.RekognitionResponse;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Celebrity recognition results keyed by the perceptual hash of the photo.
+ * A lookup hits when a cached photo is within {@code max-distance} bits of the
+ * new one, so burst shots and re-encoded copies of the same frame reuse the
+ * recognized celebrities and their (relative) bounding boxes.
+ * <p>
+ * Recognized celebrity ids and face boxes are persisted by the celebrity index
+ * (analyzed_images and celebrity_appearances); on startup the most recent
+ * results within the TTL are loaded back, so a restart does not send every
+ * photo of an ongoing event to Rekognition again.
+ */
+@Component
+@Slf4j
+public class RekognitionResultCache {
+    private static final int LOAD_BATCH_SIZE = 500;
+
+    private final AnalyzedImageRepository imageRepository;
+    private final RekognitionResponseMapper responseMapper;
+    private final Cache<Long, RekognitionResponse> responses;
+    private final HammingIndex index;
+    private final boolean enabled;
+    private final boolean loadStored;
+    private final long maxSize;
+    private final Duration ttl;
+    private final Counter exactHits;
+    private final Counter nearHits;
+    private final Counter misses;
+    private final DistributionSummary hitDistance;
+
+    public RekognitionResultCache(AnalyzedImageRepository imageRepository,
+            RekognitionResponseMapper responseMapper,
+            MeterRegistry meterRegistry,
+            @Value("${rekognition.result-cache.enabled:true}") boolean enabled,
+            @Value("${rekognition.result-cache.max-size:10000}") long maxSize,
+            @Value("${rekognition.result-cache.ttl-hours:24}") long ttlHours,
+            @Value("${rekognition.result-cache.max-distance:6}") int maxDistance,
+            @Value("${rekognition.result-cache.load-on-startup:true}") boolean loadOnStartup,
+            @Value("${rekognition.index.enabled:true}") boolean indexEnabled) {
+        this.imageRepository = imageRepository;
+        this.responseMapper = responseMapper;
+        this.maxSize = maxSize;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .<Long, RekognitionResponse>removalListener(this::onRemoval)
+                .recordStats()
+                .build();
+        this.index = new HammingIndex(maxDistance);
+        this.enabled = enabled;
+        // nothing is persisted while the index is off
+        this.loadStored = enabled && loadOnStartup && indexEnabled;
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "rekognition");
+        this.exactHits = lookupCounter(meterRegistry, "hit", "exact");
+        this.nearHits = lookupCounter(meterRegistry, "hit", "near");
+        this.misses = lookupCounter(meterRegistry, "miss", "none");
+        this.hitDistance = DistributionSummary.builder("rekognition.result.cache.distance")
+                .description("Hamming distance between a photo and the cached photo it matched")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void loadStoredResults() {
+        if (!loadStored) {
+            return;
+        }
+        try {
+            // newest first, so the most recent result wins when a hash was recognized more than once
+            List<Long> ids = imageRepository.findRecentHashedIds(Instant.now().minus(ttl),
+                    PageRequest.of(0, (int) Math.min(maxSize, Integer.MAX_VALUE)));
+            int loaded = 0;
+            for (int from = 0; from < ids.size(); from += LOAD_BATCH_SIZE) {
+                List<Long> batch = ids.subList(from, Math.min(ids.size(), from + LOAD_BATCH_SIZE));
+                List<AnalyzedImage> images = imageRepository.findWithAppearancesByIdIn(batch).stream()
+                        .sorted(Comparator.comparing(AnalyzedImage::getId).reversed())
+                        .toList();
+                for (AnalyzedImage image : images) {
+                    if (responses.asMap().putIfAbsent(image.getImageHash(),
+                            responseMapper.fromAnalyzedImage(image)) == null) {
+                        index.add(image.getImageHash());
+                        loaded++;
+                    }
+                }
+            }
+            log.info("Loaded {} stored celebrity recognition results into the cache", loaded);
+        } catch (RuntimeException e) {
+            // a cold cache only costs Rekognition calls; don't fail startup over it
+            log.warn("Could not load stored celebrity recognition results: {}", e.getMessage());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Optional<RekognitionResponse> find(long imageHash) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        RekognitionResponse exact = responses.getIfPresent(imageHash);
+        if (exact != null) {
+            exactHits.increment();
+            hitDistance.record(0);
+            return Optional.of(exact);
+        }
+
+        // asMap().get skips the cache stats, so probing candidates doesn't count as misses
+        Long nearest = index.nearest(imageHash, hash -> responses.asMap().containsKey(hash));
+        RekognitionResponse near = nearest == null ? null : responses.asMap().get(nearest);
+        if (near == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        int distance = PerceptualHasher.distance(imageHash, nearest);
+        nearHits.increment();
+        hitDistance.record(distance);
+        log.info("Rekognition cache hit at distance {} for image hash {}", distance, Long.toHexString(imageHash));
+        return Optional.of(near);
+    }
+
+    public void put(long imageHash, RekognitionResponse response) {
+        if (!enabled) {
+            return;
+        }
+        // indexed first, so an eviction racing with the put can't leave a cached entry unindexed
+        index.add(imageHash);
+        responses.put(imageHash, response);
+    }
+
+    private void onRemoval(Long imageHash, RekognitionResponse response, RemovalCause cause) {
+        // a replaced value keeps its key, and an evicted key may have been put back since
+        if (imageHash != null && cause != RemovalCause.REPLACED && !responses.asMap().containsKey(imageHash)) {
+            index.remove(imageHash);
+        }
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String result, String match) {
+        return Counter.builder("rekognition.result.cache")
+                .description("Celebrity recognition lookups by perceptual hash; every hit is one Rekognition call saved")
+                .tag("result", result)
+                .tag("match", match)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,224 @@
+package com.srllc.AmazonServices.domain.client;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.srllc.AmazonServices.common.AsyncResults;
+import com.srllc.AmazonServices.common.AwsErrors;
+import com.srllc.AmazonServices.common.Deadline;
+import com.srllc.AmazonServices.domain.exception.DeadlineExceededException;
+import com.srllc.AmazonServices.domain.exception.TooManyRequestsException;
+
+import io.micrometer.core.instrument.Counter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Resilience around one AWS service: circuit breaker, then the token bucket,
+ * then the adaptive concurrency limit, with jittered retries of retryable
+ * failures on top. The SDK's own retries are disabled so this is the only
+ * place that decides whether to call AWS again.
+ * <p>
+ * The async path never blocks the caller's thread: the token wait is
+ * scheduled on a delayed executor and a full concurrency limit queues the
+ * call until a slot frees up or the acquire timeout rejects it with a 429.
+ * <p>
+ * A retry never waits past the caller's {@link Deadline}: when less time is
+ * left than the backoff, the call fails with the deadline straight away.
+ */
+@Slf4j
+public class AwsCallGuard {
+
+    private final String serviceName;
+    private final CircuitBreaker circuitBreaker;
+    private final TokenBucket rateLimiter;
+    private final AwsConcurrencyLimiter concurrencyLimiter;
+    private final RetryPolicy retryPolicy;
+    private final Counter retries;
+
+    public AwsCallGuard(String serviceName, CircuitBreaker circuitBreaker, TokenBucket rateLimiter,
+            AwsConcurrencyLimiter concurrencyLimiter, RetryPolicy retryPolicy, Counter retries) {
+        this.serviceName = serviceName;
+        this.circuitBreaker = circuitBreaker;
+        this.rateLimiter = rateLimiter;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.retryPolicy = retryPolicy;
+        this.retries = retries;
+    }
+
+    public <T> T call(Supplier<T> call) {
+        return call(call, Deadline.current());
+    }
+
+    public <T> T call(Supplier<T> call, Deadline deadline) {
+        for (int attempt = 1;; attempt++) {
+            try {
+                return attempt(call);
+            } catch (RuntimeException e) {
+                if (!retryPolicy.shouldRetry(e, attempt)) {
+                    throw exhausted(e);
+                }
+                long backoff = retryPolicy.backoffMillis(attempt);
+                DeadlineExceededException late = outlives(deadline, backoff, e);
+                if (late != null) {
+                    throw late;
+                }
+                retries.increment();
+                log.warn("{} call failed ({}), retry {} in {} ms", serviceName, AwsErrors.code(e), attempt, backoff);
+                sleep(backoff);
+            }
+        }
+    }
+
+    public <T> CompletableFuture<T> callAsync(Supplier<CompletableFuture<T>> call) {
+        return callAsync(call, Deadline.current());
+    }
+
+    public <T> CompletableFuture<T> callAsync(Supplier<CompletableFuture<T>> call, Deadline deadline) {
+        return callAsync(call, deadline, 1);
+    }
+
+    public CircuitBreaker circuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public AwsConcurrencyLimiter concurrencyLimiter() {
+        return concurrencyLimiter;
+    }
+
+    private <T> CompletableFuture<T> callAsync(Supplier<CompletableFuture<T>> call, Deadline deadline, int attempt) {
+        CompletableFuture<T> result;
+        try {
+            result = attemptAsync(call);
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+
+        return result.handle((value, error) -> {
+            if (error == null) {
+                return CompletableFuture.completedFuture(value);
+            }
+            Throwable cause = AsyncResults.unwrap(error);
+            if (!retryPolicy.shouldRetry(cause, attempt)) {
+                return CompletableFuture.<T>failedFuture(exhausted(cause));
+            }
+            long backoff = retryPolicy.backoffMillis(attempt);
+            DeadlineExceededException late = outlives(deadline, backoff, cause);
+            if (late != null) {
+                return CompletableFuture.<T>failedFuture(late);
+            }
+            retries.increment();
+            log.warn("{} call failed ({}), retry {} in {} ms", serviceName, AwsErrors.code(cause), attempt, backoff);
+            return CompletableFuture.runAsync(() -> { },
+                    CompletableFuture.delayedExecutor(backoff, TimeUnit.MILLISECONDS))
+                    .thenCompose(ignored -> callAsync(call, deadline, attempt + 1));
+        }).thenCompose(Function.identity());
+    }
+
+    private <T> T attempt(Supplier<T> call) {
+        long permit = admit();
+        T value;
+        try {
+            value = call.get();
+        } catch (RuntimeException e) {
+            record(permit, e);
+            throw e;
+        }
+        record(permit, null);
+        return value;
+    }
+
+    private <T> CompletableFuture<T> attemptAsync(Supplier<CompletableFuture<T>> call) {
+        long permit = circuitBreaker.acquirePermission();
+        CompletableFuture<Void> admitted;
+        try {
+            long waitNanos = rateLimiter.reserve();
+            admitted = waitNanos > 0
+                    ? CompletableFuture.runAsync(() -> { },
+                            CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS))
+                            .thenCompose(ignored -> concurrencyLimiter.acquireAsync())
+                    : concurrencyLimiter.acquireAsync();
+        } catch (RuntimeException e) {
+            circuitBreaker.onIgnored(permit);
+            throw e;
+        }
+
+        return admitted.handle((ignored, error) -> {
+            if (error != null) {
+                circuitBreaker.onIgnored(permit);
+                return CompletableFuture.<T>failedFuture(AsyncResults.unwrap(error));
+            }
+            CompletableFuture<T> future;
+            try {
+                future = call.get();
+            } catch (RuntimeException e) {
+                record(permit, e);
+                return CompletableFuture.<T>failedFuture(e);
+            }
+            return future.whenComplete((value, failure) -> record(permit, failure));
+        }).thenCompose(Function.identity());
+    }
+
+    private long admit() {
+        long permit = circuitBreaker.acquirePermission();
+        try {
+            rateLimiter.acquire();
+            concurrencyLimiter.acquire();
+        } catch (RuntimeException e) {
+            circuitBreaker.onIgnored(permit);
+            throw e;
+        }
+        return permit;
+    }
+
+    private void record(long permit, Throwable error) {
+        if (error == null) {
+            concurrencyLimiter.onSuccess();
+            circuitBreaker.onSuccess(permit);
+        } else if (AsyncResults.unwrap(error) instanceof DeadlineExceededException) {
+            // the caller gave up; says nothing about the service's health
+            concurrencyLimiter.onIgnored();
+            circuitBreaker.onIgnored(permit);
+        } else if (AwsErrors.isThrottling(error)) {
+            concurrencyLimiter.onThrottled();
+            circuitBreaker.onFailure(permit);
+        } else if (AwsErrors.isRetryable(error)) {
+            concurrencyLimiter.onIgnored();
+            circuitBreaker.onFailure(permit);
+        } else {
+            // the service answered, it just rejected this request
+            concurrencyLimiter.onIgnored();
+            circuitBreaker.onSuccess(permit);
+        }
+    }
+
+    // The deadline error to fail with instead of backing off, or null while the retry can still start in time
+    private DeadlineExceededException outlives(Deadline deadline, long backoffMillis, Throwable failure) {
+        if (!deadline.isExpired() && (!deadline.isBounded() || deadline.remaining().toMillis() >= backoffMillis)) {
+            return null;
+        }
+        log.warn("{} call failed ({}), not retrying: the request deadline ends before a {} ms backoff",
+                serviceName, AwsErrors.code(failure), backoffMillis);
+        DeadlineExceededException exceeded = deadline.exceeded();
+        exceeded.addSuppressed(failure);
+        return exceeded;
+    }
+
+    // Still throttled after every retry: tell the client to back off instead of surfacing a 500
+    private RuntimeException exhausted(Throwable error) {
+        if (AwsErrors.isThrottling(error)) {
+            return new TooManyRequestsException(serviceName + " is throttling requests, retry later");
+        }
+        return error instanceof RuntimeException runtime ? runtime : new IllegalStateException(error);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TooManyRequestsException("Interrupted while backing off before a retry");
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.srllc.AmazonServices.domain.client;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Builds one {@link AwsCallGuard} per service and region. Retry and
+ * circuit-breaker settings are shared; the concurrency ceiling and request
+ * rate are read per service ({@code aws.textract.*}, {@code aws.rekognition.*})
+ * because each has its own quota, and apply in every region since AWS quotas
+ * are regional.
+ */
+@Component
+public class AwsCallGuardFactory {
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${aws.limit.acquire-timeout-ms:2000}")
+    private long acquireTimeoutMillis;
+
+    @Value("${aws.limit.backoff-ratio:0.9}")
+    private double backoffRatio;
+
+    @Value("${aws.retry.max-attempts:3}")
+    private int retryMaxAttempts;
+
+    @Value("${aws.retry.base-delay-ms:100}")
+    private long retryBaseDelayMillis;
+
+    @Value("${aws.retry.max-delay-ms:2000}")
+    private long retryMaxDelayMillis;
+
+    @Value("${aws.circuit-breaker.window-size:20}")
+    private int breakerWindowSize;
+
+    @Value("${aws.circuit-breaker.minimum-calls:10}")
+    private int breakerMinimumCalls;
+
+    @Value("${aws.circuit-breaker.failure-rate-threshold:0.5}")
+    private double breakerFailureRateThreshold;
+
+    @Value("${aws.circuit-breaker.open-seconds:30}")
+    private long breakerOpenSeconds;
+
+    @Value("${aws.circuit-breaker.half-open-calls:3}")
+    private int breakerHalfOpenCalls;
+
+    public AwsCallGuardFactory(Environment environment, MeterRegistry meterRegistry) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public AwsCallGuard create(String serviceName, String propertyPrefix, String region) {
+        int maxConcurrency = environment.getProperty(propertyPrefix + ".max-concurrency", Integer.class, 50);
+        int initialConcurrency = environment.getProperty(propertyPrefix + ".initial-concurrency", Integer.class,
+                maxConcurrency);
+        int minConcurrency = environment.getProperty(propertyPrefix + ".min-concurrency", Integer.class, 1);
+        double ratePerSecond = environment.getProperty(propertyPrefix + ".rate-limit-per-second", Double.class, 0.0);
+        int burst = environment.getProperty(propertyPrefix + ".rate-limit-burst", Integer.class,
+                (int) Math.max(1, Math.ceil(ratePerSecond)));
+
+        AwsConcurrencyLimiter limiter = new AwsConcurrencyLimiter(serviceName, initialConcurrency, minConcurrency,
+                maxConcurrency, backoffRatio, acquireTimeoutMillis);
+        CircuitBreaker breaker = new CircuitBreaker(serviceName, breakerWindowSize, breakerMinimumCalls,
+                breakerFailureRateThreshold, breakerOpenSeconds * 1000, breakerHalfOpenCalls);
+
+        String tag = serviceName.toLowerCase();
+        Gauge.builder("aws.concurrency.limit", limiter, AwsConcurrencyLimiter::currentLimit)
+                .description("Current adaptive concurrency limit")
+                .tag("service", tag)
+                .tag("region", region)
+                .register(meterRegistry);
+        Gauge.builder("aws.concurrency.in-flight", limiter, AwsConcurrencyLimiter::inFlight)
+                .tag("service", tag)
+                .tag("region", region)
+                .register(meterRegistry);
+        Gauge.builder("aws.circuit.state", breaker, b -> b.state().ordinal())
+                .description("0 closed, 1 open, 2 half-open")
+                .tag("service", tag)
+                .tag("region", region)
+                .register(meterRegistry);
+
+        return new AwsCallGuard(serviceName, breaker,
+                new TokenBucket(serviceName, ratePerSecond, burst, acquireTimeoutMillis),
+                limiter,
+                new RetryPolicy(retryMaxAttempts, retryBaseDelayMillis, retryMaxDelayMillis),
+                meterRegistry.counter("aws.retries", "service", tag, "region", region));
+    }
+}
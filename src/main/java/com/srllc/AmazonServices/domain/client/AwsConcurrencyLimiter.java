@@ -0,0 +1,146 @@
+package com.srllc.AmazonServices.domain.client;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleUnaryOperator;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.srllc.AmazonServices.domain.exception.TooManyRequestsException;
+
+/**
+ * Caps the number of in-flight calls to one AWS service. The cap adapts with
+ * AIMD: every successful call nudges it up by 1/limit (about +1 per window of
+ * calls), every throttled call cuts it by the backoff ratio, so we settle just
+ * under the point where AWS starts pushing back instead of at a fixed guess.
+ * <p>
+ * Async callers must not park the event-loop or servlet thread they run on,
+ * so {@link #acquireAsync} queues them and hands out slots as calls finish.
+ */
+public class AwsConcurrencyLimiter {
+
+    private final String serviceName;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long acquireTimeoutMillis;
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition slotFreed = lock.newCondition();
+    private final ArrayDeque<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+    private volatile double limit;
+    private volatile int inFlight;
+
+    public AwsConcurrencyLimiter(String serviceName, int initialLimit, int minLimit, int maxLimit,
+            double backoffRatio, long acquireTimeoutMillis) {
+        this.serviceName = serviceName;
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.backoffRatio = backoffRatio;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+    }
+
+    public void acquire() {
+        long remaining = TimeUnit.MILLISECONDS.toNanos(acquireTimeoutMillis);
+        lock.lock();
+        try {
+            while (inFlight >= (int) limit) {
+                if (remaining <= 0) {
+                    throw new TooManyRequestsException(serviceName + " concurrency limit reached, retry later");
+                }
+                remaining = slotFreed.awaitNanos(remaining);
+            }
+            inFlight++;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TooManyRequestsException("Interrupted while waiting for a " + serviceName + " call slot");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes a slot if one is free, otherwise completes once a finishing call
+     * hands one over, or fails with a 429 after the acquire timeout. Never
+     * blocks the calling thread.
+     */
+    public CompletableFuture<Void> acquireAsync() {
+        CompletableFuture<Void> waiter;
+        lock.lock();
+        try {
+            if (waiters.isEmpty() && inFlight < (int) limit) {
+                inFlight++;
+                return CompletableFuture.completedFuture(null);
+            }
+            waiter = new CompletableFuture<>();
+            waiters.add(waiter);
+        } finally {
+            lock.unlock();
+        }
+
+        CompletableFuture.delayedExecutor(acquireTimeoutMillis, TimeUnit.MILLISECONDS).execute(() -> {
+            boolean expired;
+            lock.lock();
+            try {
+                expired = waiters.remove(waiter);
+            } finally {
+                lock.unlock();
+            }
+            if (expired) {
+                waiter.completeExceptionally(
+                        new TooManyRequestsException(serviceName + " concurrency limit reached, retry later"));
+            }
+        });
+        return waiter;
+    }
+
+    public void onSuccess() {
+        release(l -> Math.min(maxLimit, l + 1.0 / l));
+    }
+
+    public void onThrottled() {
+        release(l -> Math.max(minLimit, l * backoffRatio));
+    }
+
+    // Failures that say nothing about capacity (bad input, auth) leave the limit alone
+    public void onIgnored() {
+        release(DoubleUnaryOperator.identity());
+    }
+
+    public int currentLimit() {
+        return (int) limit;
+    }
+
+    public int inFlight() {
+        return inFlight;
+    }
+
+    // The new limit is computed under the lock so concurrent completions don't overwrite each other
+    private void release(DoubleUnaryOperator adjustLimit) {
+        List<CompletableFuture<Void>> granted = new ArrayList<>();
+        lock.lock();
+        try {
+            inFlight--;
+            limit = adjustLimit.applyAsDouble(limit);
+            while (!waiters.isEmpty() && inFlight < (int) limit) {
+                granted.add(waiters.poll());
+                inFlight++;
+            }
+            slotFreed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        // complete outside the lock; the caller's continuation runs on this thread
+        for (CompletableFuture<Void> waiter : granted) {
+            if (!waiter.complete(null)) {
+                // cancelled by its caller meanwhile: hand the slot back
+                onIgnored();
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.srllc.AmazonServices.domain.client;
+
+import java.util.concurrent.TimeUnit;
+
+import com.srllc.AmazonServices.domain.exception.ServiceUnavailableException;
+
+/**
+ * Count-based circuit breaker. Once the failure rate over the last
+ * {@code windowSize} calls crosses the threshold, calls fail fast with a 503
+ * for {@code openMillis}; after that a few trial calls decide whether to
+ * close again or re-open.
+ * <p>
+ * {@link #acquirePermission} returns a permit naming the state it was granted
+ * in; the outcome is reported with it. A call admitted before the current
+ * half-open round (while closed, or in an earlier round) can finish during
+ * the round, and its result must not count as, or release, a trial.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String serviceName;
+    private final boolean[] window;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openNanos;
+    private final int halfOpenCalls;
+
+    private State state = State.CLOSED;
+    private int next;
+    private int recorded;
+    private int failures;
+    private long openedAtNanos;
+    // bumped on every state change; a permit from an older epoch is stale
+    private long epoch;
+    private int trialsInFlight;
+    private int trialSuccesses;
+
+    public CircuitBreaker(String serviceName, int windowSize, int minimumCalls, double failureRateThreshold,
+            long openMillis, int halfOpenCalls) {
+        this.serviceName = serviceName;
+        this.window = new boolean[Math.max(1, windowSize)];
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, window.length));
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+        this.halfOpenCalls = Math.max(1, halfOpenCalls);
+    }
+
+    public synchronized long acquirePermission() {
+        if (state == State.OPEN) {
+            long remaining = openedAtNanos + openNanos - System.nanoTime();
+            if (remaining > 0) {
+                throw new ServiceUnavailableException(serviceName + " is failing, not sending requests for now",
+                        Math.max(1, TimeUnit.NANOSECONDS.toSeconds(remaining) + 1));
+            }
+            state = State.HALF_OPEN;
+            epoch++;
+            trialsInFlight = 0;
+            trialSuccesses = 0;
+        }
+
+        if (state == State.HALF_OPEN) {
+            if (trialsInFlight + trialSuccesses >= halfOpenCalls) {
+                throw new ServiceUnavailableException(serviceName + " is recovering, retry shortly", 1);
+            }
+            trialsInFlight++;
+        }
+        return epoch;
+    }
+
+    public synchronized void onSuccess(long permit) {
+        if (state == State.HALF_OPEN) {
+            if (isTrial(permit)) {
+                trialsInFlight--;
+                if (++trialSuccesses >= halfOpenCalls) {
+                    close();
+                }
+            }
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void onFailure(long permit) {
+        if (state == State.HALF_OPEN) {
+            if (isTrial(permit)) {
+                open();
+            }
+            return;
+        }
+        record(true);
+        if (state == State.CLOSED && recorded >= minimumCalls
+                && (double) failures / recorded >= failureRateThreshold) {
+            open();
+        }
+    }
+
+    // Permission was granted but the call was not attributable to the service (e.g. rejected locally)
+    public synchronized void onIgnored(long permit) {
+        if (state == State.HALF_OPEN && isTrial(permit)) {
+            trialsInFlight--;
+        }
+    }
+
+    // Whether acquirePermission would let a call through right now, without taking a trial slot
+    public synchronized boolean isCallPermitted() {
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> System.nanoTime() - openedAtNanos >= openNanos;
+            case HALF_OPEN -> trialsInFlight + trialSuccesses < halfOpenCalls;
+        };
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    private boolean isTrial(long permit) {
+        return permit == epoch && trialsInFlight > 0;
+    }
+
+    private void record(boolean failed) {
+        if (recorded == window.length) {
+            if (window[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        window[next] = failed;
+        if (failed) {
+            failures++;
+        }
+        next = (next + 1) % window.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        epoch++;
+        openedAtNanos = System.nanoTime();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        epoch++;
+        next = 0;
+        recorded = 0;
+        failures = 0;
+    }
+}
@@ -0,0 +1,51 @@
+package com.srllc.AmazonServices.domain.client;
+
+import java.util.Arrays;
+
+/**
+ * Observed call latency for one region: an EWMA for routing and a sliding
+ * window of recent samples for the percentile that triggers a hedge.
+ */
+public final class RegionLatency {
+    private static final int WINDOW = 256;
+
+    private final double alpha;
+    private final long[] window = new long[WINDOW];
+    private int next;
+    private int samples;
+    private double ewmaNanos;
+    private long[] sorted;
+
+    public RegionLatency(double alpha) {
+        this.alpha = alpha;
+    }
+
+    public synchronized void record(long nanos) {
+        ewmaNanos = samples == 0 ? nanos : ewmaNanos + alpha * (nanos - ewmaNanos);
+        window[next] = nanos;
+        next = (next + 1) % WINDOW;
+        samples++;
+        sorted = null;
+    }
+
+    // 0 until the first sample, so a region nobody has tried yet gets tried
+    public synchronized double ewmaNanos() {
+        return ewmaNanos;
+    }
+
+    public synchronized int samples() {
+        return samples;
+    }
+
+    public synchronized long percentileNanos(double quantile) {
+        if (samples == 0) {
+            return 0L;
+        }
+        if (sorted == null) {
+            sorted = Arrays.copyOf(window, Math.min(samples, WINDOW));
+            Arrays.sort(sorted);
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
@@ -0,0 +1,272 @@
+package com.srllc.AmazonServices.domain.client;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import com.srllc.AmazonServices.common.AsyncResults;
+import com.srllc.AmazonServices.common.Deadline;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Spreads the calls for one AWS service over the configured regions. A call
+ * goes to the healthy region with the lowest latency EWMA, with a small share
+ * sent elsewhere so a region that was slow once gets measured again. With
+ * hedging on, an async call still running after the primary region's p95 is
+ * duplicated to the next best region; the first answer wins and the other
+ * copy is cancelled. Hedges are capped at a fraction of calls so a slow
+ * region cannot double the load on the others.
+ */
+public class RegionRouter<S, A> {
+
+    public record Route<S, A>(String region, S client, A asyncClient, AwsCallGuard guard, RegionLatency latency) {
+
+        boolean isHealthy() {
+            return guard.circuitBreaker().isCallPermitted();
+        }
+    }
+
+    public record HedgePolicy(boolean enabled, double percentile, int minSamples, long minDelayMillis,
+            double maxRatio) {
+    }
+
+    private static final double MAX_HEDGE_CREDITS = 10.0;
+
+    private final List<Route<S, A>> routes;
+    private final double exploreRatio;
+    private final HedgePolicy hedge;
+    private final Map<String, Counter> calls = new HashMap<>();
+    private final Counter hedges;
+    private final Counter primaryWins;
+    private final Counter hedgeWins;
+    private final Object hedgeLock = new Object();
+    private double hedgeCredits = MAX_HEDGE_CREDITS;
+
+    public RegionRouter(String serviceName, List<Route<S, A>> routes, double exploreRatio, HedgePolicy hedge,
+            MeterRegistry meterRegistry) {
+        if (routes.isEmpty()) {
+            throw new IllegalArgumentException(serviceName + " needs at least one region");
+        }
+        this.routes = List.copyOf(routes);
+        this.exploreRatio = exploreRatio;
+        this.hedge = hedge;
+
+        String tag = serviceName.toLowerCase();
+        for (Route<S, A> route : this.routes) {
+            calls.put(route.region(),
+                    meterRegistry.counter("aws.region.calls", "service", tag, "region", route.region()));
+            Gauge.builder("aws.region.latency.ewma", route.latency(), latency -> latency.ewmaNanos() / 1e9)
+                    .description("Smoothed call latency used to pick a region")
+                    .baseUnit("seconds")
+                    .tag("service", tag)
+                    .tag("region", route.region())
+                    .register(meterRegistry);
+        }
+        this.hedges = meterRegistry.counter("aws.hedge.sent", "service", tag);
+        this.primaryWins = meterRegistry.counter("aws.hedge.wins", "service", tag, "winner", "primary");
+        this.hedgeWins = meterRegistry.counter("aws.hedge.wins", "service", tag, "winner", "hedge");
+    }
+
+    // Region-bound work (async Textract jobs, S3 staging) stays in the home region
+    public Route<S, A> home() {
+        return routes.get(0);
+    }
+
+    public boolean isHedging() {
+        return hedge.enabled() && routes.size() > 1;
+    }
+
+    public <T> T call(Function<Route<S, A>, T> attempt) {
+        Route<S, A> route = primary();
+        calls.get(route.region()).increment();
+        long start = System.nanoTime();
+        T value = attempt.apply(route);
+        route.latency().record(System.nanoTime() - start);
+        return value;
+    }
+
+    /**
+     * Runs {@code attempt} in the best region and, if hedging, in a second one
+     * once the first is slower than usual. Each copy gets its own child of
+     * {@code deadline}; the losing copy's is cancelled, which aborts its call.
+     */
+    public <T> CompletableFuture<T> callAsync(Deadline deadline,
+            BiFunction<Route<S, A>, Deadline, CompletableFuture<T>> attempt) {
+        earnHedgeCredit();
+        Route<S, A> primary = primary();
+        Race<T> race = new Race<>();
+        race.launch(primary, deadline, attempt, false);
+
+        Route<S, A> standby = isHedging() ? standby(primary) : null;
+        if (standby != null && primary.latency().samples() >= hedge.minSamples()) {
+            long delayNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(hedge.minDelayMillis()),
+                    primary.latency().percentileNanos(hedge.percentile()));
+            if (!deadline.isBounded() || deadline.remaining().toNanos() > delayNanos) {
+                CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS).execute(() -> {
+                    if (!race.result.isDone() && takeHedgeCredit()) {
+                        hedges.increment();
+                        race.launch(standby, deadline, attempt, true);
+                    }
+                });
+            }
+        }
+        return race.result;
+    }
+
+    private Route<S, A> primary() {
+        Route<S, A> best = null;
+        for (Route<S, A> route : routes) {
+            if (route.isHealthy() && (best == null || route.latency().ewmaNanos() < best.latency().ewmaNanos())) {
+                best = route;
+            }
+        }
+        if (best == null) {
+            // every region is failing fast; let the home region's breaker answer
+            return home();
+        }
+        if (routes.size() > 1 && ThreadLocalRandom.current().nextDouble() < exploreRatio) {
+            Route<S, A> other = routes.get(ThreadLocalRandom.current().nextInt(routes.size()));
+            if (other != best && other.isHealthy()) {
+                return other;
+            }
+        }
+        return best;
+    }
+
+    private Route<S, A> standby(Route<S, A> primary) {
+        Route<S, A> best = null;
+        for (Route<S, A> route : routes) {
+            if (route != primary && route.isHealthy()
+                    && (best == null || route.latency().ewmaNanos() < best.latency().ewmaNanos())) {
+                best = route;
+            }
+        }
+        return best;
+    }
+
+    private void earnHedgeCredit() {
+        synchronized (hedgeLock) {
+            hedgeCredits = Math.min(MAX_HEDGE_CREDITS, hedgeCredits + hedge.maxRatio());
+        }
+    }
+
+    private boolean takeHedgeCredit() {
+        synchronized (hedgeLock) {
+            if (hedgeCredits < 1.0) {
+                return false;
+            }
+            hedgeCredits -= 1.0;
+            return true;
+        }
+    }
+
+    // The copies of one call: the first success cancels the rest, then completes the result
+    private final class Race<T> {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        private final List<Runnable> cancellations = new ArrayList<>();
+        private int pending;
+        private boolean hedged;
+        private boolean decided;
+
+        Race() {
+            result.whenComplete((value, error) -> cancelAll());
+        }
+
+        void launch(Route<S, A> route, Deadline deadline,
+                BiFunction<Route<S, A>, Deadline, CompletableFuture<T>> attempt, boolean hedge) {
+            synchronized (this) {
+                if (decided || result.isDone()) {
+                    return;
+                }
+                pending++;
+                hedged |= hedge;
+            }
+            calls.get(route.region()).increment();
+
+            Deadline attemptDeadline = deadline.child();
+            long start = System.nanoTime();
+            CompletableFuture<T> call;
+            try {
+                call = attempt.apply(route, attemptDeadline);
+            } catch (RuntimeException e) {
+                call = CompletableFuture.failedFuture(e);
+            }
+            CompletableFuture<T> launched = call;
+            onCancel(() -> {
+                attemptDeadline.cancel();
+                launched.cancel(true);
+            });
+
+            launched.whenComplete((value, error) -> {
+                long elapsed = System.nanoTime() - start;
+                if (error == null) {
+                    route.latency().record(elapsed);
+                    won(value, hedge);
+                } else if (isDecided()) {
+                    // the loser took at least this long; only worth recording if that is slower than usual
+                    if (elapsed > route.latency().ewmaNanos()) {
+                        route.latency().record(elapsed);
+                    }
+                } else {
+                    failed(error);
+                }
+            });
+        }
+
+        private void won(T value, boolean hedge) {
+            synchronized (this) {
+                if (decided) {
+                    return;
+                }
+                decided = true;
+                if (hedged) {
+                    (hedge ? hedgeWins : primaryWins).increment();
+                }
+            }
+            cancelAll();
+            result.complete(value);
+        }
+
+        private void failed(Throwable error) {
+            synchronized (this) {
+                if (decided || --pending > 0) {
+                    return;
+                }
+                decided = true;
+            }
+            result.completeExceptionally(AsyncResults.unwrap(error));
+        }
+
+        private synchronized boolean isDecided() {
+            return decided;
+        }
+
+        private void onCancel(Runnable cancellation) {
+            synchronized (this) {
+                if (!decided && !result.isDone()) {
+                    cancellations.add(cancellation);
+                    return;
+                }
+            }
+            cancellation.run();
+        }
+
+        private void cancelAll() {
+            List<Runnable> pendingCancellations;
+            synchronized (this) {
+                pendingCancellations = new ArrayList<>(cancellations);
+                cancellations.clear();
+            }
+            pendingCancellations.forEach(Runnable::run);
+        }
+    }
+}
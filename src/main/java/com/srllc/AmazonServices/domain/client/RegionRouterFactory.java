@@ -0,0 +1,61 @@
+package com.srllc.AmazonServices.domain.client;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Builds a {@link RegionRouter} over a service's regional clients, with its
+ * own {@link AwsCallGuard} per region so one region's throttling or outage
+ * does not trip the breaker for the others.
+ */
+@Component
+public class RegionRouterFactory {
+    private final AwsCallGuardFactory guardFactory;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${aws.routing.ewma-alpha:0.2}")
+    private double ewmaAlpha;
+
+    @Value("${aws.routing.explore-ratio:0.02}")
+    private double exploreRatio;
+
+    @Value("${aws.routing.hedge.enabled:false}")
+    private boolean hedgeEnabled;
+
+    @Value("${aws.routing.hedge.percentile:0.95}")
+    private double hedgePercentile;
+
+    @Value("${aws.routing.hedge.min-samples:20}")
+    private int hedgeMinSamples;
+
+    @Value("${aws.routing.hedge.min-delay-ms:50}")
+    private long hedgeMinDelayMillis;
+
+    @Value("${aws.routing.hedge.max-ratio:0.1}")
+    private double hedgeMaxRatio;
+
+    public RegionRouterFactory(AwsCallGuardFactory guardFactory, MeterRegistry meterRegistry) {
+        this.guardFactory = guardFactory;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <S, A> RegionRouter<S, A> create(String serviceName, String propertyPrefix, RegionalClients<S, A> clients) {
+        List<RegionRouter.Route<S, A>> routes = new ArrayList<>();
+        for (String region : clients.regions()) {
+            routes.add(new RegionRouter.Route<>(region,
+                    clients.clients().get(region),
+                    clients.asyncClients().get(region),
+                    guardFactory.create(serviceName, propertyPrefix, region),
+                    new RegionLatency(ewmaAlpha)));
+        }
+        return new RegionRouter<>(serviceName, routes, exploreRatio,
+                new RegionRouter.HedgePolicy(hedgeEnabled, hedgePercentile, hedgeMinSamples, hedgeMinDelayMillis,
+                        hedgeMaxRatio),
+                meterRegistry);
+    }
+}
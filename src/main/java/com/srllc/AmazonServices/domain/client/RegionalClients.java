@@ -0,0 +1,29 @@
+package com.srllc.AmazonServices.domain.client;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The blocking and async client of one AWS service for each configured
+ * region, home region first.
+ */
+public record RegionalClients<S, A>(Map<String, S> clients, Map<String, A> asyncClients) implements AutoCloseable {
+
+    public List<String> regions() {
+        return List.copyOf(clients.keySet());
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (Object client : clients.values()) {
+            if (client instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+        for (Object client : asyncClients.values()) {
+            if (client instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.srllc.AmazonServices.domain.client;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.srllc.AmazonServices.common.AsyncResults;
+import com.srllc.AmazonServices.common.Deadline;
+import com.srllc.AmazonServices.domain.metrics.PipelineMetrics;
+
+import io.micrometer.core.instrument.Timer;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.rekognition.RekognitionAsyncClient;
+import software.amazon.awssdk.services.rekognition.RekognitionClient;
+import software.amazon.awssdk.services.rekognition.model.RecognizeCelebritiesRequest;
+import software.amazon.awssdk.services.rekognition.model.RecognizeCelebritiesResponse;
+
+/**
+ * Single entry point for Rekognition calls. With virtual threads enabled the
+ * blocking client runs on a virtual thread per call, otherwise the async
+ * client is used; both go through the region's {@link AwsCallGuard}. Calls
+ * are routed across regions by {@link RegionRouter}.
+ */
+@Component
+public class RekognitionGateway {
+    private final RegionRouter<RekognitionClient, RekognitionAsyncClient> router;
+    private final ExecutorService awsCallExecutor;
+    private final PipelineMetrics metrics;
+    private final boolean virtualThreads;
+
+    public RekognitionGateway(RegionalClients<RekognitionClient, RekognitionAsyncClient> rekognitionClients,
+            @Qualifier("awsCallExecutor") ExecutorService awsCallExecutor,
+            PipelineMetrics metrics,
+            RegionRouterFactory routerFactory,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.awsCallExecutor = awsCallExecutor;
+        this.metrics = metrics;
+        this.virtualThreads = virtualThreads;
+        this.router = routerFactory.create("Rekognition", "aws.rekognition", rekognitionClients);
+    }
+
+    public RecognizeCelebritiesResponse recognizeCelebrities(RecognizeCelebritiesRequest request) {
+        return recognizeCelebrities(request, Deadline.none());
+    }
+
+    public RecognizeCelebritiesResponse recognizeCelebrities(RecognizeCelebritiesRequest request, Deadline deadline) {
+        if (router.isHedging()) {
+            return AsyncResults.join(recognizeCelebritiesAsync(request, deadline));
+        }
+        return router.call(route -> recognize(route, request, deadline));
+    }
+
+    public CompletableFuture<RecognizeCelebritiesResponse> recognizeCelebritiesAsync(
+            RecognizeCelebritiesRequest request) {
+        return recognizeCelebritiesAsync(request, Deadline.none());
+    }
+
+    public CompletableFuture<RecognizeCelebritiesResponse> recognizeCelebritiesAsync(
+            RecognizeCelebritiesRequest request, Deadline deadline) {
+        return router.callAsync(deadline, (route, attempt) -> virtualThreads
+                ? AsyncResults.supplyInterruptibly(() -> recognize(route, request, attempt), awsCallExecutor)
+                : recognizeAsync(route, request, attempt));
+    }
+
+    private RecognizeCelebritiesResponse recognize(RegionRouter.Route<RekognitionClient, RekognitionAsyncClient> route,
+            RecognizeCelebritiesRequest request, Deadline deadline) {
+        return route.guard().call(() -> {
+            RecognizeCelebritiesRequest bounded = withDeadline(request, deadline);
+            try {
+                return metrics.time(PipelineMetrics.REKOGNITION, "aws_call",
+                        () -> route.client().recognizeCelebrities(bounded));
+            } catch (SdkClientException e) {
+                throw deadline.isExpired() ? deadline.exceeded() : e;
+            }
+        }, deadline);
+    }
+
+    private CompletableFuture<RecognizeCelebritiesResponse> recognizeAsync(
+            RegionRouter.Route<RekognitionClient, RekognitionAsyncClient> route, RecognizeCelebritiesRequest request,
+            Deadline deadline) {
+        return route.guard().callAsync(() -> {
+            RecognizeCelebritiesRequest bounded = withDeadline(request, deadline);
+            Timer.Sample sample = metrics.start();
+            CompletableFuture<RecognizeCelebritiesResponse> call = route.asyncClient().recognizeCelebrities(bounded);
+            deadline.onCancel(() -> call.cancel(true));
+            return call
+                    .whenComplete((response, error) -> sample.stop(
+                            metrics.stage(PipelineMetrics.REKOGNITION, "aws_call")))
+                    .exceptionally(error -> {
+                        if (deadline.isExpired()) {
+                            throw deadline.exceeded();
+                        }
+                        throw new CompletionException(AsyncResults.unwrap(error));
+                    });
+        }, deadline);
+    }
+
+    // The remaining budget becomes the SDK's own call and attempt timeouts, so a late answer is abandoned
+    private static RecognizeCelebritiesRequest withDeadline(RecognizeCelebritiesRequest request, Deadline deadline) {
+        deadline.check("rekognition.aws_call");
+        if (!deadline.isBounded()) {
+            return request;
+        }
+        return request.toBuilder()
+                .overrideConfiguration(deadline::applyTo)
+                .build();
+    }
+}
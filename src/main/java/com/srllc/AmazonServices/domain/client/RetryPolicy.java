@@ -0,0 +1,31 @@
+package com.srllc.AmazonServices.domain.client;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.srllc.AmazonServices.common.AwsErrors;
+
+/**
+ * Exponential backoff with full jitter, applied only to errors AWS documents
+ * as retryable (throttling, 5xx, transport failures).
+ */
+public class RetryPolicy {
+
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+
+    public RetryPolicy(int maxAttempts, long baseDelayMillis, long maxDelayMillis) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    public boolean shouldRetry(Throwable error, int attempt) {
+        return attempt < maxAttempts && AwsErrors.isRetryable(error);
+    }
+
+    public long backoffMillis(int attempt) {
+        long ceiling = Math.min(maxDelayMillis, baseDelayMillis << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+}
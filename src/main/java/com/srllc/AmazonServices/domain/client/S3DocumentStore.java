@@ -0,0 +1,70 @@
+package com.srllc.AmazonServices.domain.client;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.srllc.AmazonServices.domain.exception.BadRequestException;
+import com.srllc.AmazonServices.domain.record.S3DocumentRef;
+import com.srllc.AmazonServices.domain.upload.SpooledUpload;
+
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+@Component
+@Slf4j
+public class S3DocumentStore {
+    private final S3Client s3Client;
+    private final String stagingBucket;
+    private final String keyPrefix;
+
+    public S3DocumentStore(S3Client s3Client,
+            @Value("${textract.documents.staging-bucket:}") String stagingBucket,
+            @Value("${textract.documents.key-prefix:textract-staging/}") String keyPrefix) {
+        this.s3Client = s3Client;
+        this.stagingBucket = stagingBucket;
+        this.keyPrefix = keyPrefix;
+    }
+
+    public S3DocumentRef stage(SpooledUpload upload) {
+        if (stagingBucket == null || stagingBucket.isBlank()) {
+            throw new BadRequestException("No staging bucket configured for document uploads");
+        }
+
+        String key = keyPrefix + LocalDate.now() + "/" + UUID.randomUUID() + extension(upload.fileName());
+        s3Client.putObject(PutObjectRequest.builder()
+                .bucket(stagingBucket)
+                .key(key)
+                .contentLength((long) upload.size())
+                .build(),
+                RequestBody.fromContentProvider(upload::inputStream, upload.size(), "application/octet-stream"));
+
+        log.info("Staged {} ({} bytes) at s3://{}/{}", upload.fileName(), upload.size(), stagingBucket, key);
+        return new S3DocumentRef(stagingBucket, key);
+    }
+
+    public void delete(S3DocumentRef document) {
+        try {
+            s3Client.deleteObject(DeleteObjectRequest.builder()
+                    .bucket(document.bucket())
+                    .key(document.key())
+                    .build());
+        } catch (RuntimeException e) {
+            log.warn("Could not delete staged document s3://{}/{}: {}", document.bucket(), document.key(),
+                    e.getMessage());
+        }
+    }
+
+    private static String extension(String fileName) {
+        if (fileName == null) {
+            return "";
+        }
+        int dot = fileName.lastIndexOf('.');
+        return dot >= 0 ? fileName.substring(dot).toLowerCase() : "";
+    }
+}
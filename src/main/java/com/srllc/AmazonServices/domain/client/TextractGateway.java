@@ -0,0 +1,127 @@
+package com.srllc.AmazonServices.domain.client;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.srllc.AmazonServices.common.AsyncResults;
+import com.srllc.AmazonServices.common.Deadline;
+import com.srllc.AmazonServices.domain.metrics.PipelineMetrics;
+
+import io.micrometer.core.instrument.Timer;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.textract.TextractAsyncClient;
+import software.amazon.awssdk.services.textract.TextractClient;
+import software.amazon.awssdk.services.textract.model.DetectDocumentTextRequest;
+import software.amazon.awssdk.services.textract.model.DetectDocumentTextResponse;
+import software.amazon.awssdk.services.textract.model.GetDocumentTextDetectionRequest;
+import software.amazon.awssdk.services.textract.model.GetDocumentTextDetectionResponse;
+import software.amazon.awssdk.services.textract.model.StartDocumentTextDetectionRequest;
+import software.amazon.awssdk.services.textract.model.StartDocumentTextDetectionResponse;
+
+/**
+ * Single entry point for Textract calls. With virtual threads enabled the
+ * blocking client runs on a virtual thread per call, otherwise the async
+ * client is used; both go through the region's {@link AwsCallGuard}. Document
+ * detection is routed across regions by {@link RegionRouter}; the multi-page
+ * job APIs stay in the home region, where the job and its S3 object live.
+ */
+@Component
+public class TextractGateway {
+    private final RegionRouter<TextractClient, TextractAsyncClient> router;
+    private final ExecutorService awsCallExecutor;
+    private final PipelineMetrics metrics;
+    private final boolean virtualThreads;
+
+    public TextractGateway(RegionalClients<TextractClient, TextractAsyncClient> textractClients,
+            @Qualifier("awsCallExecutor") ExecutorService awsCallExecutor,
+            PipelineMetrics metrics,
+            RegionRouterFactory routerFactory,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.awsCallExecutor = awsCallExecutor;
+        this.metrics = metrics;
+        this.virtualThreads = virtualThreads;
+        this.router = routerFactory.create("Textract", "aws.textract", textractClients);
+    }
+
+    public DetectDocumentTextResponse detectDocumentText(DetectDocumentTextRequest request) {
+        return detectDocumentText(request, Deadline.none());
+    }
+
+    public DetectDocumentTextResponse detectDocumentText(DetectDocumentTextRequest request, Deadline deadline) {
+        if (router.isHedging()) {
+            return AsyncResults.join(detectDocumentTextAsync(request, deadline));
+        }
+        return router.call(route -> detect(route, request, deadline));
+    }
+
+    public CompletableFuture<DetectDocumentTextResponse> detectDocumentTextAsync(DetectDocumentTextRequest request) {
+        return detectDocumentTextAsync(request, Deadline.none());
+    }
+
+    public CompletableFuture<DetectDocumentTextResponse> detectDocumentTextAsync(DetectDocumentTextRequest request,
+            Deadline deadline) {
+        return router.callAsync(deadline, (route, attempt) -> virtualThreads
+                ? AsyncResults.supplyInterruptibly(() -> detect(route, request, attempt), awsCallExecutor)
+                : detectAsync(route, request, attempt));
+    }
+
+    public StartDocumentTextDetectionResponse startDocumentTextDetection(StartDocumentTextDetectionRequest request) {
+        RegionRouter.Route<TextractClient, TextractAsyncClient> home = router.home();
+        return home.guard().call(() -> metrics.time(PipelineMetrics.TEXTRACT, "aws_start_job",
+                () -> home.client().startDocumentTextDetection(request)));
+    }
+
+    public GetDocumentTextDetectionResponse getDocumentTextDetection(GetDocumentTextDetectionRequest request) {
+        RegionRouter.Route<TextractClient, TextractAsyncClient> home = router.home();
+        return home.guard().call(() -> metrics.time(PipelineMetrics.TEXTRACT, "aws_get_results",
+                () -> home.client().getDocumentTextDetection(request)));
+    }
+
+    private DetectDocumentTextResponse detect(RegionRouter.Route<TextractClient, TextractAsyncClient> route,
+            DetectDocumentTextRequest request, Deadline deadline) {
+        return route.guard().call(() -> {
+            DetectDocumentTextRequest bounded = withDeadline(request, deadline);
+            try {
+                return metrics.time(PipelineMetrics.TEXTRACT, "aws_call",
+                        () -> route.client().detectDocumentText(bounded));
+            } catch (SdkClientException e) {
+                throw deadline.isExpired() ? deadline.exceeded() : e;
+            }
+        }, deadline);
+    }
+
+    private CompletableFuture<DetectDocumentTextResponse> detectAsync(
+            RegionRouter.Route<TextractClient, TextractAsyncClient> route, DetectDocumentTextRequest request,
+            Deadline deadline) {
+        return route.guard().callAsync(() -> {
+            DetectDocumentTextRequest bounded = withDeadline(request, deadline);
+            Timer.Sample sample = metrics.start();
+            CompletableFuture<DetectDocumentTextResponse> call = route.asyncClient().detectDocumentText(bounded);
+            deadline.onCancel(() -> call.cancel(true));
+            return call
+                    .whenComplete((response, error) -> sample.stop(metrics.stage(PipelineMetrics.TEXTRACT, "aws_call")))
+                    .exceptionally(error -> {
+                        if (deadline.isExpired()) {
+                            throw deadline.exceeded();
+                        }
+                        throw new CompletionException(AsyncResults.unwrap(error));
+                    });
+        }, deadline);
+    }
+
+    // The remaining budget becomes the SDK's own call and attempt timeouts, so a late answer is abandoned
+    private static DetectDocumentTextRequest withDeadline(DetectDocumentTextRequest request, Deadline deadline) {
+        deadline.check("textract.aws_call");
+        if (!deadline.isBounded()) {
+            return request;
+        }
+        return request.toBuilder()
+                .overrideConfiguration(deadline::applyTo)
+                .build();
+    }
+}
@@ -0,0 +1,67 @@
+package com.srllc.AmazonServices.domain.client;
+
+import java.util.concurrent.TimeUnit;
+
+import com.srllc.AmazonServices.domain.exception.TooManyRequestsException;
+
+/**
+ * Request-rate limiter matched to the account's TPS quota. Callers reserve a
+ * token and sleep until it is due; if the wait would exceed the timeout the
+ * call is rejected locally rather than sent to AWS to be throttled.
+ */
+public class TokenBucket {
+
+    private final String serviceName;
+    private final double permitsPerNano;
+    private final double capacity;
+    private final long timeoutNanos;
+
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucket(String serviceName, double permitsPerSecond, int burst, long timeoutMillis) {
+        this.serviceName = serviceName;
+        this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.capacity = Math.max(1, burst);
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    public void acquire() {
+        long waitNanos = reserve();
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TooManyRequestsException("Interrupted while waiting for a " + serviceName + " rate limit token");
+            }
+        }
+    }
+
+    /**
+     * Reserves a token without waiting for it. Returns how long the caller
+     * must hold off before using it, so async callers can schedule the call
+     * instead of sleeping on their own thread.
+     */
+    public long reserve() {
+        if (permitsPerNano <= 0) {
+            return 0;
+        }
+
+        synchronized (this) {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * permitsPerNano);
+            lastRefillNanos = now;
+
+            long waitNanos = tokens >= 1 ? 0 : (long) ((1 - tokens) / permitsPerNano);
+            if (waitNanos > timeoutNanos) {
+                throw new TooManyRequestsException(serviceName + " request rate limit reached, retry later");
+            }
+            // reserve the token now; the balance may go negative until the wait is over
+            tokens -= 1;
+            return waitNanos;
+        }
+    }
+}
@@ -1,19 +1,36 @@
 package com.srllc.AmazonServices.domain.controller;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.srllc.AmazonServices.common.ApiResponse;
+import com.srllc.AmazonServices.domain.record.CelebrityAppearancePage;
+import com.srllc.AmazonServices.domain.record.CelebrityStatsView;
+import com.srllc.AmazonServices.domain.service.CelebrityBatchService;
+import com.srllc.AmazonServices.domain.service.CelebrityIndexService;
 import com.srllc.AmazonServices.domain.service.RekognitionService;
 import com.srllc.AmazonServices.dto.RekognitionResponse;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 
@@ -23,18 +40,90 @@ import lombok.RequiredArgsConstructor;
 @Tag(name = "Rekognition", description = "Celebrity Recognition API")
 public class RekognitionController {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final RekognitionService rekognitionService;
+    private final CelebrityBatchService celebrityBatchService;
+    private final CelebrityIndexService celebrityIndexService;
+
+    @Value("${rekognition.batch.stream-timeout-ms:600000}")
+    private long streamTimeoutMs;
 
     @PostMapping(value = "/celebrities", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @Operation(summary = "Recognize celebrities in image")
-    public ResponseEntity<RekognitionResponse> recognizeCelebrities(
+    public CompletableFuture<ResponseEntity<RekognitionResponse>> recognizeCelebrities(
             @RequestParam("file") MultipartFile file) throws IOException {
 
         if (file.isEmpty()) {
-            return ResponseEntity.badRequest().build();
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
         }
 
-        RekognitionResponse response = rekognitionService.recognizeCelebrities(file);
-        return ResponseEntity.ok(response);
+        return rekognitionService.recognizeCelebritiesAsync(file)
+                .thenApply(ResponseEntity::ok);
+    }
+
+    @PostMapping(value = "/celebrities/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+            produces = { "application/x-ndjson", MediaType.TEXT_EVENT_STREAM_VALUE })
+    @Operation(summary = "Recognize celebrities in many images",
+            description = "Recognize celebrities in many images (individual files and/or ZIP archives) concurrently and stream each result as it completes, as NDJSON or server-sent events (Accept: text/event-stream)")
+    public ResponseEntity<ResponseBodyEmitter> recognizeCelebritiesBatch(
+            @Parameter(description = "Image files or ZIP archives of images", required = true) @RequestPart("files") List<MultipartFile> files,
+            @Parameter(description = "Emit results in upload order instead of completion order") @RequestParam(defaultValue = "false") boolean ordered,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+
+        boolean sse = accept != null && accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE);
+        ResponseBodyEmitter emitter = sse ? new SseEmitter(streamTimeoutMs) : new ResponseBodyEmitter(streamTimeoutMs);
+
+        celebrityBatchService.recognizeBatch(files, ordered, result -> {
+            if (sse) {
+                ((SseEmitter) emitter).send(SseEmitter.event()
+                        .id(String.valueOf(result.index()))
+                        .name("result")
+                        .data(result, MediaType.APPLICATION_JSON));
+            } else {
+                emitter.send(result, MediaType.APPLICATION_JSON);
+                emitter.send("\n", MediaType.TEXT_PLAIN);
+            }
+        }).whenComplete((done, error) -> emitter.complete());
+
+        return ResponseEntity.ok()
+                .contentType(sse ? MediaType.TEXT_EVENT_STREAM : NDJSON)
+                .body(emitter);
+    }
+
+    @GetMapping("/appearances")
+    @Operation(summary = "Find celebrity appearances",
+            description = "List previously analyzed images containing a celebrity (by Rekognition id or exact name), newest first, paginated by cursor")
+    public ResponseEntity<ApiResponse<CelebrityAppearancePage>> findAppearances(
+            @Parameter(description = "Rekognition celebrity id") @RequestParam(required = false) String celebrityId,
+            @Parameter(description = "Exact celebrity name") @RequestParam(required = false) String name,
+            @Parameter(description = "Minimum match confidence (0-100)") @RequestParam(defaultValue = "0") float minConfidence,
+            @Parameter(description = "Cursor from the previous page") @RequestParam(required = false) Long cursor,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "50") int size) {
+
+        CelebrityAppearancePage page = celebrityIndexService.findAppearances(celebrityId, name, minConfidence, cursor,
+                size);
+
+        return ResponseEntity.ok(ApiResponse.success(HttpStatus.OK,
+                "Appearances retrieved successfully", page, "/api/v1/rekognition/appearances"));
+    }
+
+    @GetMapping("/celebrities/stats")
+    @Operation(summary = "Most seen celebrities", description = "Celebrities ranked by number of recorded appearances")
+    public ResponseEntity<ApiResponse<List<CelebrityStatsView>>> topCelebrities(
+            @Parameter(description = "Number of celebrities") @RequestParam(defaultValue = "20") int size) {
+
+        return ResponseEntity.ok(ApiResponse.success(HttpStatus.OK,
+                "Celebrity stats retrieved successfully", celebrityIndexService.topCelebrities(size),
+                "/api/v1/rekognition/celebrities/stats"));
+    }
+
+    @GetMapping("/celebrities/{celebrityId}/stats")
+    @Operation(summary = "Celebrity stats", description = "Appearance count, best confidence and last sighting of one celebrity")
+    public ResponseEntity<ApiResponse<CelebrityStatsView>> celebrityStats(@PathVariable String celebrityId) {
+
+        return ResponseEntity.ok(ApiResponse.success(HttpStatus.OK,
+                "Celebrity stats retrieved successfully", celebrityIndexService.getStats(celebrityId),
+                "/api/v1/rekognition/celebrities/" + celebrityId + "/stats"));
     }
 }
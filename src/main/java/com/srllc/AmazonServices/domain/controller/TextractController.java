@@ -1,26 +1,42 @@
 package com.srllc.AmazonServices.domain.controller;
 
-import java.time.LocalDateTime;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.srllc.AmazonServices.common.ApiResponse;
-import com.srllc.AmazonServices.domain.entity.Reciepts;
+import com.srllc.AmazonServices.domain.record.BatchExtractResponse;
+import com.srllc.AmazonServices.domain.record.ReceiptFilter;
+import com.srllc.AmazonServices.domain.record.ReceiptJob;
+import com.srllc.AmazonServices.domain.record.ReceiptPage;
+import com.srllc.AmazonServices.domain.record.ReceiptView;
+import com.srllc.AmazonServices.domain.record.ReparseProgress;
+import com.srllc.AmazonServices.domain.record.S3DocumentRef;
+import com.srllc.AmazonServices.domain.service.ReceiptBatchService;
+import com.srllc.AmazonServices.domain.service.ReceiptJobService;
+import com.srllc.AmazonServices.domain.service.ReceiptQueryService;
+import com.srllc.AmazonServices.domain.service.ReceiptReparseService;
 import com.srllc.AmazonServices.domain.service.TextractServiceInterface;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 
 @RestController
@@ -29,29 +45,36 @@ import lombok.RequiredArgsConstructor;
 @Tag(name = "AWS Textract Controller", description = "API for extracting text from receipt images and managing receipt data")
 public class TextractController {
     private final TextractServiceInterface textractService;
+    private final ReceiptJobService receiptJobService;
+    private final ReceiptBatchService receiptBatchService;
+    private final ReceiptQueryService receiptQueryService;
+    private final ReceiptReparseService receiptReparseService;
 
     @PostMapping(value = "/extract", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @Operation(summary = "Extract Receipt Data", description = "Extract structured data from receipt image using Amazon Textract")
     @ApiResponses({
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Receipt data extracted successfully"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "202", description = "Receipt parsed, write-behind save queued"),
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Invalid input file"),
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<ApiResponse<Reciepts>> extractReceiptData(
+    public CompletableFuture<ResponseEntity<ApiResponse<ReceiptView>>> extractReceiptData(
             @Parameter(description = "Receipt image file to extract data from", required = true) @RequestPart("file") MultipartFile file) {
 
-        Reciepts receipt = textractService.extractReceiptData(file);
+        return textractService.extractReceiptDataAsync(file).thenApply(receipt -> {
+            if (receipt.getId() != null) {
+                return ResponseEntity.ok(ApiResponse.success(HttpStatus.OK,
+                        "Receipt data extracted and saved successfully", ReceiptView.from(receipt),
+                        "/api/v1/textract/extract"));
+            }
 
-        ApiResponse<Reciepts> response = new ApiResponse<>();
-        response.setHttpStatus(HttpStatus.OK);
-        response.setSuccess(true);
-        response.setMessage("Receipt data extracted and saved successfully");
-        response.setPayload(receipt);
-        response.setErrorCode(200);
-        response.setTimestamp(LocalDateTime.now());
-        response.setPath("/api/v1/textract/extract");
-
-        return ResponseEntity.ok(response);
+            // no database id yet means the receipt is queued for a write-behind save; it is addressable by external id
+            String location = "/api/v1/textract/receipts/external/" + receipt.getExternalId();
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .header(HttpHeaders.LOCATION, location)
+                    .body(ApiResponse.success(HttpStatus.ACCEPTED, "Receipt data extracted, save queued",
+                            ReceiptView.from(receipt), location));
+        });
     }
 
     @GetMapping("/receipts/{id}")
@@ -60,19 +83,192 @@ public class TextractController {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Receipt found"),
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Receipt not found")
     })
-    public ResponseEntity<ApiResponse<Reciepts>> getReceiptById(
+    public ResponseEntity<ApiResponse<ReceiptView>> getReceiptById(
             @Parameter(description = "Receipt ID", required = true) @PathVariable Long id) {
 
-        Reciepts receipt = textractService.getReceiptById(id);
+        ReceiptView receipt = textractService.getReceiptById(id);
+
+        ApiResponse<ReceiptView> response = ApiResponse.success(HttpStatus.OK,
+                "Receipt retrieved successfully", receipt, "/api/v1/textract/receipts/" + id);
+
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/receipts/external/{externalId}")
+    @Operation(summary = "Get Receipt by External ID", description = "Retrieve a receipt by the external id returned at extraction, including one still queued for saving")
+    @ApiResponses({
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Receipt found"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Receipt not found")
+    })
+    public ResponseEntity<ApiResponse<ReceiptView>> getReceiptByExternalId(
+            @Parameter(description = "Receipt external ID", required = true) @PathVariable String externalId) {
+
+        ReceiptView receipt = textractService.getReceiptByExternalId(externalId);
+
+        ApiResponse<ReceiptView> response = ApiResponse.success(HttpStatus.OK,
+                "Receipt retrieved successfully", receipt, "/api/v1/textract/receipts/external/" + externalId);
+
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/receipts")
+    @Operation(summary = "List Receipts", description = "List receipts newest first with optional filters, paginated by cursor (pass nextCursor from the previous page)")
+    @ApiResponses({
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Receipts retrieved"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Invalid page size")
+    })
+    public ResponseEntity<ApiResponse<ReceiptPage>> listReceipts(
+            @Parameter(description = "Exact company name") @RequestParam(required = false) String companyName,
+            @Parameter(description = "Exact branch") @RequestParam(required = false) String branch,
+            @Parameter(description = "Exact cashier number") @RequestParam(required = false) String cashierNumber,
+            @Parameter(description = "Minimum sub total") @RequestParam(required = false) Double minSubTotal,
+            @Parameter(description = "Maximum sub total") @RequestParam(required = false) Double maxSubTotal,
+            @Parameter(description = "Cursor from the previous page") @RequestParam(required = false) Long cursor,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "50") int size) {
+
+        ReceiptFilter filter = new ReceiptFilter(companyName, branch, cashierNumber, minSubTotal, maxSubTotal);
+        ReceiptPage page = receiptQueryService.findReceipts(filter, cursor, size);
+
+        ApiResponse<ReceiptPage> response = ApiResponse.success(HttpStatus.OK,
+                "Receipts retrieved successfully", page, "/api/v1/textract/receipts");
+
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping(value = "/receipts/export", produces = "application/x-ndjson")
+    @Operation(summary = "Export Receipts", description = "Stream every matching receipt as newline-delimited JSON, one receipt per line")
+    public void exportReceipts(
+            @Parameter(description = "Exact company name") @RequestParam(required = false) String companyName,
+            @Parameter(description = "Exact branch") @RequestParam(required = false) String branch,
+            @Parameter(description = "Exact cashier number") @RequestParam(required = false) String cashierNumber,
+            @Parameter(description = "Minimum sub total") @RequestParam(required = false) Double minSubTotal,
+            @Parameter(description = "Maximum sub total") @RequestParam(required = false) Double maxSubTotal,
+            HttpServletResponse response) throws IOException {
+
+        ReceiptFilter filter = new ReceiptFilter(companyName, branch, cashierNumber, minSubTotal, maxSubTotal);
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        receiptQueryService.exportReceipts(filter, response.getOutputStream());
+    }
+
+    @PostMapping(value = "/jobs", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Submit Receipt Extraction Job", description = "Queue a receipt image for asynchronous extraction and return the job id immediately")
+    @ApiResponses({
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "202", description = "Receipt job accepted"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Invalid input file"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "429", description = "Job queue is full")
+    })
+    public ResponseEntity<ApiResponse<ReceiptJob>> submitReceiptJob(
+            @Parameter(description = "Receipt image file to extract data from", required = true) @RequestPart("file") MultipartFile file) {
+
+        ReceiptJob job = receiptJobService.submit(file);
+
+        ApiResponse<ReceiptJob> response = ApiResponse.success(HttpStatus.ACCEPTED,
+                "Receipt job accepted", job, "/api/v1/textract/jobs");
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    @PostMapping(value = "/documents", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Submit Document Extraction Job", description = "Stage a large or multi-page document (PDF/TIFF) in S3 and extract it with an asynchronous Textract job")
+    @ApiResponses({
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "202", description = "Document job accepted"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Invalid input file"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "429", description = "Job queue is full")
+    })
+    public ResponseEntity<ApiResponse<ReceiptJob>> submitDocumentJob(
+            @Parameter(description = "Document file to extract data from", required = true) @RequestPart("file") MultipartFile file) {
+
+        ReceiptJob job = receiptJobService.submitDocument(file);
+
+        ApiResponse<ReceiptJob> response = ApiResponse.success(HttpStatus.ACCEPTED,
+                "Document job accepted", job, "/api/v1/textract/documents");
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    @PostMapping(value = "/documents/s3", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Submit S3 Document Extraction Job", description = "Extract a document that already lives in S3 without uploading it through this service")
+    @ApiResponses({
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "202", description = "Document job accepted"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Missing bucket or key"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "429", description = "Job queue is full")
+    })
+    public ResponseEntity<ApiResponse<ReceiptJob>> submitS3DocumentJob(@RequestBody S3DocumentRef document) {
+
+        ReceiptJob job = receiptJobService.submitS3Document(document);
+
+        ApiResponse<ReceiptJob> response = ApiResponse.success(HttpStatus.ACCEPTED,
+                "Document job accepted", job, "/api/v1/textract/documents/s3");
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    @GetMapping("/jobs/{id}")
+    @Operation(summary = "Get Receipt Job", description = "Retrieve the status of a receipt extraction job, including the receipt once completed")
+    @ApiResponses({
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Receipt job found"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Receipt job not found")
+    })
+    public ResponseEntity<ApiResponse<ReceiptJob>> getReceiptJob(
+            @Parameter(description = "Receipt job ID", required = true) @PathVariable String id) {
+
+        ReceiptJob job = receiptJobService.getJob(id);
+
+        ApiResponse<ReceiptJob> response = ApiResponse.success(HttpStatus.OK,
+                "Receipt job retrieved successfully", job, "/api/v1/textract/jobs/" + id);
+
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Extract Receipt Batch", description = "Extract many receipt images (individual files and/or ZIP archives) concurrently and save them in one transaction")
+    @ApiResponses({
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Batch processed, see per-file status"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Invalid or oversized batch")
+    })
+    public ResponseEntity<ApiResponse<BatchExtractResponse>> extractReceiptBatch(
+            @Parameter(description = "Receipt image files or ZIP archives of receipt images", required = true) @RequestPart("files") List<MultipartFile> files) {
+
+        BatchExtractResponse batch = receiptBatchService.extractBatch(files);
+
+        ApiResponse<BatchExtractResponse> response = ApiResponse.success(HttpStatus.OK,
+                "Processed " + batch.total() + " receipts, " + batch.failed() + " failed", batch,
+                "/api/v1/textract/batch");
+        response.setSuccess(batch.failed() == 0);
+
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/archive/reparse")
+    @Operation(summary = "Re-parse Archived Receipts", description = "Rebuild every stored receipt from its archived Textract blocks with the current parser, without calling Textract")
+    @ApiResponses({
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "202", description = "Re-parse started, or already running"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Block archive is disabled")
+    })
+    public ResponseEntity<ApiResponse<ReparseProgress>> startReparse() {
+
+        ReparseProgress progress = receiptReparseService.start();
+
+        ApiResponse<ReparseProgress> response = ApiResponse.success(HttpStatus.ACCEPTED,
+                "Re-parse of " + progress.total() + " archived receipts started", progress,
+                "/api/v1/textract/archive/reparse");
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    @GetMapping("/archive/reparse")
+    @Operation(summary = "Get Re-parse Progress", description = "Progress and throughput of the latest re-parse")
+    @ApiResponses({
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Re-parse progress"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "No re-parse has been started")
+    })
+    public ResponseEntity<ApiResponse<ReparseProgress>> getReparseProgress() {
+
+        ReparseProgress progress = receiptReparseService.progress();
 
-        ApiResponse<Reciepts> response = new ApiResponse<>();
-        response.setHttpStatus(HttpStatus.OK);
-        response.setSuccess(true);
-        response.setMessage("Receipt retrieved successfully");
-        response.setPayload(receipt);
-        response.setErrorCode(200);
-        response.setTimestamp(LocalDateTime.now());
-        response.setPath("/api/v1/textract/receipts/" + id);
+        ApiResponse<ReparseProgress> response = ApiResponse.success(HttpStatus.OK,
+                "Re-parse progress retrieved successfully", progress, "/api/v1/textract/archive/reparse");
 
         return ResponseEntity.ok(response);
     }
@@ -0,0 +1,49 @@
+package com.srllc.AmazonServices.domain.entity;
+
+import java.time.Instant;
+import java.util.List;
+
+import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Entity
+// unique: concurrent writers of the same photo race on this key, and only one insert wins
+@Table(name = "analyzed_images", indexes = @Index(name = "idx_analyzed_images_content_hash_unique",
+        columnList = "content_hash", unique = true))
+public class AnalyzedImage {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "analyzed_images_seq")
+    @SequenceGenerator(name = "analyzed_images_seq", sequenceName = "analyzed_images_seq", allocationSize = 50)
+    private Long id;
+    private String fileName;
+
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    // 64-bit dHash of the photo, for near-duplicate lookups
+    @Column(name = "image_hash")
+    private Long imageHash;
+
+    private Integer celebrityCount;
+    private Integer unrecognizedFaces;
+    private Instant analyzedAt;
+
+    @OneToMany(mappedBy = "image", cascade = CascadeType.ALL)
+    @ToString.Exclude
+    private List<CelebrityAppearance> appearances;
+}
@@ -0,0 +1,56 @@
+package com.srllc.AmazonServices.domain.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "celebrity_appearances", indexes = {
+        @Index(name = "idx_celebrity_appearances_celebrity_id", columnList = "celebrity_id, id"),
+        @Index(name = "idx_celebrity_appearances_celebrity_name", columnList = "celebrity_name, id"),
+        @Index(name = "idx_celebrity_appearances_image_id", columnList = "analyzed_image_id")
+})
+public class CelebrityAppearance {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "celebrity_appearances_seq")
+    @SequenceGenerator(name = "celebrity_appearances_seq", sequenceName = "celebrity_appearances_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "celebrity_id", length = 64)
+    private String celebrityId;
+
+    @Column(name = "celebrity_name")
+    private String celebrityName;
+
+    private Float confidence;
+
+    // Space-separated; kept so a result served from the index matches the original response
+    @Column(length = 1024)
+    private String urls;
+
+    // Relative to the image size, as returned by Rekognition
+    private Float boxWidth;
+    private Float boxHeight;
+    private Float boxLeft;
+    private Float boxTop;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "analyzed_image_id")
+    @ToString.Exclude
+    private AnalyzedImage image;
+}
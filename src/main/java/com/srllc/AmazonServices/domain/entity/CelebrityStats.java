@@ -0,0 +1,38 @@
+package com.srllc.AmazonServices.domain.entity;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One row per celebrity, kept up to date by an upsert whenever appearances are
+ * saved, so counts and rankings never aggregate over the appearance table.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Entity
+@Table(name = "celebrity_stats", indexes = @Index(name = "idx_celebrity_stats_appearances", columnList = "appearances"))
+public class CelebrityStats {
+    @Id
+    @Column(name = "celebrity_id", length = 64)
+    private String celebrityId;
+
+    @Column(name = "celebrity_name")
+    private String celebrityName;
+
+    private Long appearances;
+
+    @Column(name = "max_confidence")
+    private Float maxConfidence;
+
+    @Column(name = "last_seen_at")
+    private Instant lastSeenAt;
+}
@@ -0,0 +1,86 @@
+package com.srllc.AmazonServices.domain.entity;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A queued extraction, shared by every node. Workers claim pending rows with
+ * {@code FOR UPDATE SKIP LOCKED} and hold a lease on them while they run;
+ * a row whose lease ran out belongs to a crashed node and is handed out again.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Entity
+@Table(name = "extraction_jobs", indexes = {
+        @Index(name = "idx_extraction_jobs_claim", columnList = "status, submitted_at"),
+        @Index(name = "idx_extraction_jobs_lease", columnList = "status, lease_expires_at") })
+public class ExtractionJob {
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private JobKind kind;
+
+    @Column(length = 1024)
+    private String fileName;
+
+    private String s3Bucket;
+
+    @Column(length = 1024)
+    private String s3Key;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private JobStatus status;
+
+    private int attempts;
+
+    @Column(name = "lease_owner", length = 128)
+    private String leaseOwner;
+
+    @Column(name = "lease_expires_at")
+    private Instant leaseExpiresAt;
+
+    // set when a transient failure put the job back; it is not claimed again before then
+    @Column(name = "not_before")
+    private Instant notBefore;
+
+    private Long receiptId;
+
+    // the only handle on a receipt still waiting for its write-behind save
+    @Column(name = "receipt_external_id", length = 36)
+    private String receiptExternalId;
+
+    @Column(length = 1024)
+    private String error;
+
+    @Column(name = "submitted_at", nullable = false)
+    private Instant submittedAt;
+
+    private Instant startedAt;
+    private Instant completedAt;
+
+    public static ExtractionJob pending(JobKind kind, String fileName) {
+        ExtractionJob job = new ExtractionJob();
+        job.setId(UUID.randomUUID().toString());
+        job.setKind(kind);
+        job.setFileName(fileName);
+        job.setStatus(JobStatus.PENDING);
+        job.setSubmittedAt(Instant.now());
+        return job;
+    }
+}
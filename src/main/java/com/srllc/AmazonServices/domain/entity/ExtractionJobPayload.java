@@ -0,0 +1,29 @@
+package com.srllc.AmazonServices.domain.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+// Uploaded bytes of a queued job, kept apart so claiming and polling never read them.
+// ExtractionJobQueue streams the content column over JDBC; the entity defines the table.
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Entity
+@Table(name = "extraction_job_payloads")
+public class ExtractionJobPayload {
+    @Id
+    @Column(name = "job_id", length = 36)
+    private String jobId;
+
+    @Lob
+    @Column(nullable = false, length = 64 * 1024 * 1024)
+    @ToString.Exclude
+    private byte[] content;
+}
@@ -0,0 +1,7 @@
+package com.srllc.AmazonServices.domain.entity;
+
+public enum JobKind {
+    RECEIPT,
+    DOCUMENT,
+    S3_DOCUMENT
+}
@@ -0,0 +1,8 @@
+package com.srllc.AmazonServices.domain.entity;
+
+public enum JobStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -1,24 +1,32 @@
 package com.srllc.AmazonServices.domain.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.srllc.AmazonServices.domain.cache.ReceiptCacheInvalidator;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
+@EntityListeners(ReceiptCacheInvalidator.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@Table(indexes = @Index(name = "idx_reciept_item_reciept_id", columnList = "reciept_id"))
 public class RecieptItem {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reciept_item_seq")
+    @SequenceGenerator(name = "reciept_item_seq", sequenceName = "reciept_item_seq", allocationSize = 50)
     private Long id;
     private String productName;
     private Integer quantity;
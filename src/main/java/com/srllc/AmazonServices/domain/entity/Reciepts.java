@@ -1,26 +1,54 @@
 package com.srllc.AmazonServices.domain.entity;
 
 import java.util.List;
+import java.util.UUID;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.srllc.AmazonServices.domain.archive.ArchivedBlock;
+import com.srllc.AmazonServices.domain.cache.ReceiptCacheInvalidator;
 
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 @NoArgsConstructor
 @AllArgsConstructor
 @Data
 @Entity
+@EntityListeners(ReceiptCacheInvalidator.class)
+@Table(indexes = {
+        @Index(name = "idx_reciepts_content_hash", columnList = "content_hash"),
+        @Index(name = "idx_reciepts_external_id", columnList = "external_id", unique = true),
+        @Index(name = "idx_reciepts_company_id", columnList = "company_name, id"),
+        @Index(name = "idx_reciepts_branch_id", columnList = "branch, id"),
+        @Index(name = "idx_reciepts_cashier_id", columnList = "cashier_number, id"),
+        @Index(name = "idx_reciepts_sub_total", columnList = "sub_total")
+})
 public class Reciepts {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reciepts_seq")
+    @SequenceGenerator(name = "reciepts_seq", sequenceName = "reciepts_seq", allocationSize = 50)
     private Long id;
+
+    // Client-facing id, known before the row is written (see ReceiptWriteBehind)
+    @Column(name = "external_id", length = 36)
+    private String externalId;
+
     private String companyName;
     private String branch;
     private String managerName;
@@ -31,6 +59,24 @@ public class Reciepts {
     @Column(name = "change_amount")
     private Double change;
 
+    @Column(name = "content_hash", length = 64)
+    @JsonIgnore
+    private String contentHash;
+
     @OneToMany(mappedBy = "reciepts", cascade = CascadeType.ALL)
     private List<RecieptItem> items;
+
+    // Textract blocks parsed into this receipt, archived only once the receipt is saved; never stored
+    @Transient
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private List<ArchivedBlock> pendingBlocks;
+
+    @PrePersist
+    void assignExternalId() {
+        if (externalId == null) {
+            externalId = UUID.randomUUID().toString();
+        }
+    }
 }
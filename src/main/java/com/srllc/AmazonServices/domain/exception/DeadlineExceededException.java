@@ -0,0 +1,14 @@
+package com.srllc.AmazonServices.domain.exception;
+
+public class DeadlineExceededException extends RuntimeException {
+    private final String stage;
+
+    public DeadlineExceededException(String message, String stage) {
+        super(message);
+        this.stage = stage;
+    }
+
+    public String getStage() {
+        return stage;
+    }
+}
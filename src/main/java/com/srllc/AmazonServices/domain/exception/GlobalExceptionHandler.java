@@ -5,6 +5,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -15,15 +16,28 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 
 import com.srllc.AmazonServices.common.ApiResponse;
+import com.srllc.AmazonServices.domain.metrics.PipelineMetrics;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 @RestControllerAdvice
 @Slf4j
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
+    private final MeterRegistry meterRegistry;
+    private final PipelineMetrics pipelineMetrics;
+
+    private void countError(HttpStatus status, Exception ex) {
+        meterRegistry.counter("api.errors",
+                "status", String.valueOf(status.value()),
+                "exception", ex.getClass().getSimpleName()).increment();
+    }
 
     private String getCurrentPath() {
         ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
@@ -33,6 +47,7 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ApiResponse<Map<String, String>>> handleArgumentMethod(MethodArgumentNotValidException ex) {
+        countError(HttpStatus.BAD_REQUEST, ex);
         Map<String, String> errors = new HashMap<>();
         ex.getBindingResult().getAllErrors().forEach(error -> {
             String fieldName = ((FieldError) error).getField();
@@ -53,6 +68,7 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(ResourceNotFoundException.class)
     public ResponseEntity<ApiResponse<String>> handleResourceNotFoundException(ResourceNotFoundException ex) {
+        countError(HttpStatus.NOT_FOUND, ex);
         ApiResponse<String> response = new ApiResponse<>();
         response.setHttpStatus(HttpStatus.NOT_FOUND);
         response.setMessage(ex.getMessage());
@@ -65,6 +81,7 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(BadRequestException.class)
     public ResponseEntity<ApiResponse<String>> handleBadRequestException(BadRequestException ex) {
+        countError(HttpStatus.BAD_REQUEST, ex);
         ApiResponse<String> response = new ApiResponse<>();
         response.setHttpStatus(HttpStatus.BAD_REQUEST);
         response.setMessage("Bad Request: " + ex.getMessage());
@@ -77,6 +94,7 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(UnauthorizedException.class)
     public ResponseEntity<ApiResponse<String>> handleUnauthorizedException(UnauthorizedException ex) {
+        countError(HttpStatus.UNAUTHORIZED, ex);
         ApiResponse<String> response = new ApiResponse<>();
         response.setHttpStatus(HttpStatus.UNAUTHORIZED);
         response.setMessage("Invalid action: " + ex.getMessage());
@@ -89,6 +107,7 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(ForbiddenRequestException.class)
     public ResponseEntity<ApiResponse<String>> handleForbiddenException(ForbiddenRequestException ex) {
+        countError(HttpStatus.FORBIDDEN, ex);
         ApiResponse<String> response = new ApiResponse<>();
         response.setHttpStatus(HttpStatus.FORBIDDEN);
         response.setMessage("Access Denied: " + ex.getMessage());
@@ -99,8 +118,51 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.FORBIDDEN);
     }
 
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ApiResponse<String>> handleTooManyRequestsException(TooManyRequestsException ex) {
+        countError(HttpStatus.TOO_MANY_REQUESTS, ex);
+        ApiResponse<String> response = new ApiResponse<>();
+        response.setHttpStatus(HttpStatus.TOO_MANY_REQUESTS);
+        response.setMessage("Too many requests: " + ex.getMessage());
+        response.setPayload(null);
+        response.setErrorCode(429);
+        response.setTimestamp(LocalDateTime.now());
+        response.setPath(getCurrentPath());
+        return new ResponseEntity<>(response, HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ApiResponse<String>> handleServiceUnavailableException(ServiceUnavailableException ex) {
+        countError(HttpStatus.SERVICE_UNAVAILABLE, ex);
+        ApiResponse<String> response = new ApiResponse<>();
+        response.setHttpStatus(HttpStatus.SERVICE_UNAVAILABLE);
+        response.setMessage("Service unavailable: " + ex.getMessage());
+        response.setPayload(null);
+        response.setErrorCode(503);
+        response.setTimestamp(LocalDateTime.now());
+        response.setPath(getCurrentPath());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(response);
+    }
+
+    @ExceptionHandler(DeadlineExceededException.class)
+    public ResponseEntity<ApiResponse<String>> handleDeadlineExceededException(DeadlineExceededException ex) {
+        countError(HttpStatus.GATEWAY_TIMEOUT, ex);
+        pipelineMetrics.recordDeadlineExceeded(ex.getStage());
+        ApiResponse<String> response = new ApiResponse<>();
+        response.setHttpStatus(HttpStatus.GATEWAY_TIMEOUT);
+        response.setMessage(ex.getMessage());
+        response.setPayload(null);
+        response.setErrorCode(504);
+        response.setTimestamp(LocalDateTime.now());
+        response.setPath(getCurrentPath());
+        return new ResponseEntity<>(response, HttpStatus.GATEWAY_TIMEOUT);
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ApiResponse<String>> handleIllegalArgumentException(IllegalArgumentException ex) {
+        countError(HttpStatus.BAD_REQUEST, ex);
         ApiResponse<String> response = new ApiResponse<>();
         response.setHttpStatus(HttpStatus.BAD_REQUEST);
         response.setMessage("Illegal argument: " + ex.getMessage());
@@ -113,6 +175,7 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(HttpMessageNotReadableException.class)
     public ResponseEntity<ApiResponse<String>> handleHttpMessageNotReadable(HttpMessageNotReadableException ex) {
+        countError(HttpStatus.BAD_REQUEST, ex);
         ApiResponse<String> response = new ApiResponse<>();
         response.setHttpStatus(HttpStatus.BAD_REQUEST);
         response.setMessage("Malformed JSON request.");
@@ -126,6 +189,7 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(MissingServletRequestParameterException.class)
     public ResponseEntity<ApiResponse<String>> handleMissingServletRequestParameter(
             MissingServletRequestParameterException ex) {
+        countError(HttpStatus.BAD_REQUEST, ex);
         ApiResponse<String> response = new ApiResponse<>();
         response.setHttpStatus(HttpStatus.BAD_REQUEST);
         response.setMessage("Missing required parameter: " + ex.getParameterName());
@@ -136,8 +200,25 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(MaxUploadSizeExceededException.class)
+    public ResponseEntity<ApiResponse<String>> handleMaxUploadSizeExceeded(MaxUploadSizeExceededException ex) {
+        countError(HttpStatus.PAYLOAD_TOO_LARGE, ex);
+        ApiResponse<String> response = new ApiResponse<>();
+        response.setHttpStatus(HttpStatus.PAYLOAD_TOO_LARGE);
+        response.setMessage("Upload exceeds the maximum allowed size.");
+        response.setPayload(null);
+        response.setErrorCode(413);
+        response.setTimestamp(LocalDateTime.now());
+        response.setPath(getCurrentPath());
+        return new ResponseEntity<>(response, HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+
     @ExceptionHandler(TextractException.class)
     public ResponseEntity<ApiResponse<String>> handleTextractException(TextractException ex) {
+        countError(HttpStatus.INTERNAL_SERVER_ERROR, ex);
+        if (ex.getErrorCode() != null) {
+            pipelineMetrics.recordAwsError(PipelineMetrics.TEXTRACT, ex.getErrorCode());
+        }
         ApiResponse<String> response = new ApiResponse<>();
         response.setHttpStatus(HttpStatus.INTERNAL_SERVER_ERROR);
         response.setMessage("AWS Textract error: " + ex.getMessage());
@@ -150,6 +231,10 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(RekognitionException.class)
     public ResponseEntity<ApiResponse<String>> handleRekognitionException(RekognitionException ex) {
+        countError(HttpStatus.INTERNAL_SERVER_ERROR, ex);
+        if (ex.getErrorCode() != null) {
+            pipelineMetrics.recordAwsError(PipelineMetrics.REKOGNITION, ex.getErrorCode());
+        }
         ApiResponse<String> response = new ApiResponse<>();
         response.setHttpStatus(HttpStatus.INTERNAL_SERVER_ERROR);
         response.setMessage("AWS Rekognition error: " + ex.getMessage());
@@ -162,6 +247,7 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiResponse<String>> handleGeneralException(Exception ex) {
+        countError(HttpStatus.INTERNAL_SERVER_ERROR, ex);
         ApiResponse<String> response = new ApiResponse<>();
         response.setHttpStatus(HttpStatus.INTERNAL_SERVER_ERROR);
         response.setMessage(ex.getMessage());
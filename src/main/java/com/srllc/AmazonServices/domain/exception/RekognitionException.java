@@ -1,7 +1,19 @@
 package com.srllc.AmazonServices.domain.exception;
 
 public class RekognitionException extends RuntimeException {
+    private final String errorCode;
+
     public RekognitionException(String message) {
+        this(message, null);
+    }
+
+    public RekognitionException(String message, String errorCode) {
         super(message);
+        this.errorCode = errorCode;
+    }
+
+    // AWS error code (e.g. ThrottlingException) when the failure came from the service itself
+    public String getErrorCode() {
+        return errorCode;
     }
-}
\ No newline at end of file
+}
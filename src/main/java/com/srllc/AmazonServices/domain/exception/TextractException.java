@@ -1,7 +1,23 @@
 package com.srllc.AmazonServices.domain.exception;
 
 public class TextractException extends RuntimeException {
+    private final String errorCode;
+
     public TextractException(String message) {
-        super(message);
+        this(message, null);
+    }
+
+    public TextractException(String message, String errorCode) {
+        this(message, errorCode, null);
+    }
+
+    public TextractException(String message, String errorCode, Throwable cause) {
+        super(message, cause);
+        this.errorCode = errorCode;
+    }
+
+    // AWS error code (e.g. ThrottlingException) when the failure came from the service itself
+    public String getErrorCode() {
+        return errorCode;
     }
 }
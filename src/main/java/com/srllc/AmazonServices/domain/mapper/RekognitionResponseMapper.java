@@ -0,0 +1,90 @@
+package com.srllc.AmazonServices.domain.mapper;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Component;
+
+import com.srllc.AmazonServices.domain.entity.AnalyzedImage;
+import com.srllc.AmazonServices.domain.entity.CelebrityAppearance;
+import com.srllc.AmazonServices.dto.RekognitionResponse;
+
+import software.amazon.awssdk.services.rekognition.model.Celebrity;
+import software.amazon.awssdk.services.rekognition.model.RecognizeCelebritiesResponse;
+
+@Component
+public class RekognitionResponseMapper {
+
+    public RekognitionResponse buildResponse(RecognizeCelebritiesResponse awsResponse) {
+        List<RekognitionResponse.Celebrity> celebrities = awsResponse.celebrityFaces().stream()
+                .map(this::mapCelebrity)
+                .collect(Collectors.toList());
+
+        return RekognitionResponse.builder()
+                .celebrities(celebrities)
+                .unrecognizedFaces(awsResponse.unrecognizedFaces().size())
+                .build();
+    }
+
+    // Rebuilds the response from the celebrity index, for photos recognized before this instance started
+    public RekognitionResponse fromAnalyzedImage(AnalyzedImage image) {
+        List<RekognitionResponse.Celebrity> celebrities = image.getAppearances() == null
+                ? List.of()
+                : image.getAppearances().stream()
+                        .sorted(Comparator.comparing(CelebrityAppearance::getId))
+                        .map(this::mapAppearance)
+                        .collect(Collectors.toList());
+
+        return RekognitionResponse.builder()
+                .celebrities(celebrities)
+                .unrecognizedFaces(image.getUnrecognizedFaces() == null ? 0 : image.getUnrecognizedFaces())
+                .build();
+    }
+
+    private RekognitionResponse.Celebrity mapCelebrity(Celebrity celebrity) {
+        return RekognitionResponse.Celebrity.builder()
+                .name(celebrity.name())
+                .id(celebrity.id())
+                .confidence(celebrity.matchConfidence())
+                .urls(celebrity.urls())
+                .boundingBox(mapBoundingBox(celebrity.face() != null ? celebrity.face().boundingBox() : null))
+                .build();
+    }
+
+    private RekognitionResponse.Celebrity mapAppearance(CelebrityAppearance appearance) {
+        RekognitionResponse.BoundingBox boundingBox = appearance.getBoxWidth() == null
+                ? null
+                : RekognitionResponse.BoundingBox.builder()
+                        .width(appearance.getBoxWidth())
+                        .height(appearance.getBoxHeight())
+                        .left(appearance.getBoxLeft())
+                        .top(appearance.getBoxTop())
+                        .build();
+
+        return RekognitionResponse.Celebrity.builder()
+                .name(appearance.getCelebrityName())
+                .id(appearance.getCelebrityId())
+                .confidence(appearance.getConfidence())
+                .urls(appearance.getUrls() == null || appearance.getUrls().isEmpty()
+                        ? List.of()
+                        : Arrays.asList(appearance.getUrls().split(" ")))
+                .boundingBox(boundingBox)
+                .build();
+    }
+
+    private RekognitionResponse.BoundingBox mapBoundingBox(
+            software.amazon.awssdk.services.rekognition.model.BoundingBox awsBoundingBox) {
+        if (awsBoundingBox == null) {
+            return null;
+        }
+
+        return RekognitionResponse.BoundingBox.builder()
+                .width(awsBoundingBox.width())
+                .height(awsBoundingBox.height())
+                .left(awsBoundingBox.left())
+                .top(awsBoundingBox.top())
+                .build();
+    }
+}
@@ -0,0 +1,75 @@
+package com.srllc.AmazonServices.domain.metrics;
+
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Stage timers and size summaries for the Textract and Rekognition pipelines.
+ * Everything is published with percentile histograms so p99 can be computed
+ * (and alerted on) in Prometheus across instances.
+ */
+@Component
+public class PipelineMetrics {
+    public static final String TEXTRACT = "textract";
+    public static final String REKOGNITION = "rekognition";
+
+    private final MeterRegistry meterRegistry;
+
+    public PipelineMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public Timer stage(String pipeline, String stage) {
+        return Timer.builder("pipeline.stage")
+                .description("Time spent in each stage of a recognition pipeline")
+                .tag("pipeline", pipeline)
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public <T> T time(String pipeline, String stage, Supplier<T> work) {
+        return stage(pipeline, stage).record(work);
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    public void recordBlocks(int blocks) {
+        summary("textract.blocks", TEXTRACT, "blocks").record(blocks);
+    }
+
+    public void recordItems(int items) {
+        summary("textract.items", TEXTRACT, "items").record(items);
+    }
+
+    public void recordCelebrities(int celebrities) {
+        summary("rekognition.celebrities", REKOGNITION, "faces").record(celebrities);
+    }
+
+    public void recordCoalesced(String pipeline) {
+        meterRegistry.counter("requests.coalesced", "pipeline", pipeline).increment();
+    }
+
+    public void recordDeadlineExceeded(String stage) {
+        meterRegistry.counter("requests.deadline.exceeded", "stage", stage).increment();
+    }
+
+    public void recordAwsError(String service, String errorCode) {
+        meterRegistry.counter("aws.errors", "service", service, "code", errorCode).increment();
+    }
+
+    private DistributionSummary summary(String name, String pipeline, String unit) {
+        return DistributionSummary.builder(name)
+                .baseUnit(unit)
+                .tag("pipeline", pipeline)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
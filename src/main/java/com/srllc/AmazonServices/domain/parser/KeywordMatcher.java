@@ -0,0 +1,87 @@
+package com.srllc.AmazonServices.domain.parser;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Map;
+
+/**
+ * Aho-Corasick automaton over ASCII keywords. Each keyword carries a bit
+ * flag and {@link #match(CharSequence)} returns the OR of the flags of
+ * every keyword contained in the input, in a single pass.
+ */
+final class KeywordMatcher {
+
+    private static final int ALPHABET = 128;
+
+    private final int[][] transitions;
+    private final int[] outputs;
+
+    KeywordMatcher(Map<String, Integer> keywordFlags) {
+        int maxStates = 1;
+        for (String keyword : keywordFlags.keySet()) {
+            maxStates += keyword.length();
+        }
+
+        int[][] next = new int[maxStates][ALPHABET];
+        for (int[] row : next) {
+            Arrays.fill(row, -1);
+        }
+        int[] out = new int[maxStates];
+        int states = 1;
+
+        for (Map.Entry<String, Integer> entry : keywordFlags.entrySet()) {
+            int state = 0;
+            for (char c : entry.getKey().toCharArray()) {
+                if (c >= ALPHABET) {
+                    throw new IllegalArgumentException("Keywords must be ASCII: " + entry.getKey());
+                }
+                if (next[state][c] == -1) {
+                    next[state][c] = states++;
+                }
+                state = next[state][c];
+            }
+            out[state] |= entry.getValue();
+        }
+
+        int[] fail = new int[states];
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < ALPHABET; c++) {
+            int child = next[0][c];
+            if (child == -1) {
+                next[0][c] = 0;
+            } else {
+                fail[child] = 0;
+                queue.add(child);
+            }
+        }
+
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            out[state] |= out[fail[state]];
+            for (int c = 0; c < ALPHABET; c++) {
+                int child = next[state][c];
+                if (child == -1) {
+                    next[state][c] = next[fail[state]][c];
+                } else {
+                    fail[child] = next[fail[state]][c];
+                    queue.add(child);
+                }
+            }
+        }
+
+        this.transitions = Arrays.copyOf(next, states);
+        this.outputs = Arrays.copyOf(out, states);
+    }
+
+    int match(CharSequence text) {
+        int state = 0;
+        int flags = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = text.charAt(i);
+            state = c < ALPHABET ? transitions[state][c] : 0;
+            flags |= outputs[state];
+        }
+        return flags;
+    }
+}
@@ -0,0 +1,155 @@
+package com.srllc.AmazonServices.domain.parser;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Classifies a receipt line with one lower-casing and one keyword scan,
+ * replacing the per-check toLowerCase/contains/regex cascade.
+ */
+@Component
+public class ReceiptLineClassifier {
+
+    static final int SKIP = 1;
+    static final int COMPANY = 1 << 1;
+    static final int BRANCH = 1 << 2;
+    static final int NOT_PRODUCT = 1 << 3;
+
+    private static final int MAX_LINE_LENGTH = 50;
+
+    private static final KeywordMatcher KEYWORDS = new KeywordMatcher(keywordFlags());
+
+    public enum Label {
+        NONE,
+        MANAGER,
+        CASHIER,
+        SUBTOTAL,
+        CASH,
+        CHANGE
+    }
+
+    public record ClassifiedLine(String text, int flags, Label label) {
+
+        public boolean isSkipped() {
+            return (flags & SKIP) != 0 || text.length() > MAX_LINE_LENGTH;
+        }
+
+        public boolean isCompany() {
+            return (flags & COMPANY) != 0;
+        }
+
+        public boolean isBranch() {
+            return (flags & BRANCH) != 0;
+        }
+
+        public boolean isProductName() {
+            return text.length() > 1 && isAsciiLetter(text.charAt(0)) && (flags & NOT_PRODUCT) == 0;
+        }
+    }
+
+    public ClassifiedLine classify(String line) {
+        String lower = line.toLowerCase(Locale.ROOT);
+        return new ClassifiedLine(line, KEYWORDS.match(lower), label(lower));
+    }
+
+    public static boolean isQuantity(String line) {
+        if (line.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < line.length(); i++) {
+            if (!isDigit(line.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static boolean isPrice(String line) {
+        return !line.isEmpty() && line.charAt(0) == '$' && amountEnd(line, 1) == line.length();
+    }
+
+    /**
+     * First "$12.34" amount in the line, otherwise the first bare "12.34".
+     */
+    public static Double extractAmount(String line) {
+        int n = line.length();
+        for (int i = 0; i < n; i++) {
+            if (line.charAt(i) == '$') {
+                int end = amountEnd(line, i + 1);
+                if (end > 0) {
+                    return Double.parseDouble(line.substring(i + 1, end));
+                }
+            }
+        }
+
+        int i = 0;
+        while (i < n) {
+            if (!isDigit(line.charAt(i))) {
+                i++;
+                continue;
+            }
+            int end = amountEnd(line, i);
+            if (end > 0) {
+                return Double.parseDouble(line.substring(i, end));
+            }
+            while (i < n && isDigit(line.charAt(i))) {
+                i++;
+            }
+        }
+        return null;
+    }
+
+    // Matches \d+\.\d{2} starting at start; returns the end index or -1.
+    private static int amountEnd(String line, int start) {
+        int n = line.length();
+        int i = start;
+        while (i < n && isDigit(line.charAt(i))) {
+            i++;
+        }
+        if (i == start || i + 2 >= n || line.charAt(i) != '.'
+                || !isDigit(line.charAt(i + 1)) || !isDigit(line.charAt(i + 2))) {
+            return -1;
+        }
+        return i + 3;
+    }
+
+    private static Label label(String lower) {
+        return switch (lower) {
+            case "manager:" -> Label.MANAGER;
+            case "cashier:" -> Label.CASHIER;
+            case "sub total", "subtotal" -> Label.SUBTOTAL;
+            case "cash" -> Label.CASH;
+            case "change" -> Label.CHANGE;
+            default -> Label.NONE;
+        };
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+    }
+
+    private static Map<String, Integer> keywordFlags() {
+        Map<String, Integer> flags = new LinkedHashMap<>();
+        for (String keyword : new String[] { "index", "confidence", "coord" }) {
+            flags.merge(keyword, SKIP, (a, b) -> a | b);
+        }
+        for (String keyword : new String[] { "hypermarket", "store", "mall", "market" }) {
+            flags.merge(keyword, COMPANY, (a, b) -> a | b);
+        }
+        for (String keyword : new String[] { "branch", "quezon", "manila", "city" }) {
+            flags.merge(keyword, BRANCH, (a, b) -> a | b);
+        }
+        for (String keyword : new String[] { "name", "qty", "price", "total", "cash", "change", "manager",
+                "cashier", "tel", "thank" }) {
+            flags.merge(keyword, NOT_PRODUCT, (a, b) -> a | b);
+        }
+        return flags;
+    }
+}
@@ -0,0 +1,212 @@
+package com.srllc.AmazonServices.domain.parser;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.srllc.AmazonServices.domain.entity.RecieptItem;
+import com.srllc.AmazonServices.domain.entity.Reciepts;
+import com.srllc.AmazonServices.domain.parser.ReceiptLineClassifier.ClassifiedLine;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.services.textract.model.Block;
+import software.amazon.awssdk.services.textract.model.BlockType;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ReceiptParser {
+    private final ReceiptLineClassifier classifier;
+
+    public List<String> extractLines(List<Block> blocks) {
+        List<String> lines = new ArrayList<>(blocks.size());
+        for (Block block : blocks) {
+            if (block.blockType() == BlockType.LINE) {
+                lines.add(block.text());
+            }
+        }
+        return lines;
+    }
+
+    public Reciepts parse(List<String> lines) {
+        Session session = newSession();
+        for (String line : lines) {
+            session.accept(line);
+        }
+        return session.finish();
+    }
+
+    public Session newSession() {
+        return new Session();
+    }
+
+    /**
+     * Incremental parse over a stream of lines. Items span three consecutive
+     * lines, so at most two lines of lookahead are buffered at any time.
+     */
+    public final class Session {
+        private final Reciepts receipt = new Reciepts();
+        private final List<RecieptItem> items = new ArrayList<>();
+        private final Deque<String> window = new ArrayDeque<>(3);
+
+        private String companyName;
+        private String branch;
+        private String managerName;
+        private String cashierNumber;
+        private Double subTotal;
+        private Double cash;
+        private Double change;
+
+        private boolean expectingManagerName;
+        private boolean expectingCashierNumber;
+        private boolean expectingSubTotal;
+        private boolean expectingCash;
+        private boolean expectingChange;
+
+        private Session() {
+        }
+
+        public void accept(String line) {
+            window.addLast(line);
+            while (window.size() >= 3) {
+                processHead();
+            }
+        }
+
+        public Reciepts finish() {
+            while (!window.isEmpty()) {
+                processHead();
+            }
+
+            log.info("Parsed receipt - Company: {}, Branch: {}, Manager: {}, Cashier: {}, SubTotal: {}, Cash: {}, Change: {}, Items: {}",
+                    companyName, branch, managerName, cashierNumber, subTotal, cash, change, items.size());
+
+            receipt.setCompanyName(companyName);
+            receipt.setBranch(branch);
+            receipt.setManagerName(managerName);
+            receipt.setCashierNumber(cashierNumber);
+            receipt.setSubTotal(subTotal);
+            receipt.setCash(cash);
+            receipt.setChange(change);
+            receipt.setItems(items);
+
+            return receipt;
+        }
+
+        private void processHead() {
+            String line = window.pollFirst().trim();
+            log.debug("Processing line: {}", line);
+
+            ClassifiedLine classified = classifier.classify(line);
+
+            // Skip lines with unwanted texts
+            if (classified.isSkipped()) {
+                return;
+            }
+
+            // Handle expected values from previous lines
+            if (expectingManagerName && managerName == null) {
+                managerName = line;
+                log.debug("Extracted manager from next line: {}", managerName);
+                expectingManagerName = false;
+                return;
+            }
+
+            if (expectingCashierNumber && cashierNumber == null) {
+                cashierNumber = line;
+                log.debug("Extracted cashier from next line: {}", cashierNumber);
+                expectingCashierNumber = false;
+                return;
+            }
+
+            if (expectingSubTotal && subTotal == null) {
+                Double amount = ReceiptLineClassifier.extractAmount(line);
+                if (amount != null) {
+                    subTotal = amount;
+                    log.debug("Extracted subtotal from next line: {}", subTotal);
+                }
+                expectingSubTotal = false;
+                return;
+            }
+
+            if (expectingCash && cash == null) {
+                Double amount = ReceiptLineClassifier.extractAmount(line);
+                if (amount != null) {
+                    cash = amount;
+                    log.debug("Extracted cash from next line: {}", cash);
+                }
+                expectingCash = false;
+                return;
+            }
+
+            if (expectingChange && change == null) {
+                Double amount = ReceiptLineClassifier.extractAmount(line);
+                if (amount != null) {
+                    change = amount;
+                    log.debug("Extracted change from next line: {}", change);
+                }
+                expectingChange = false;
+                return;
+            }
+
+            // Parse current line
+            if (classified.isCompany() && companyName == null) {
+                companyName = line;
+                log.debug("Extracted company name: {}", companyName);
+            }
+
+            else if (classified.isBranch() && branch == null) {
+                branch = line;
+                log.debug("Extracted branch: {}", branch);
+            }
+
+            else if (classified.label() == ReceiptLineClassifier.Label.MANAGER && managerName == null) {
+                expectingManagerName = true;
+            }
+
+            else if (classified.label() == ReceiptLineClassifier.Label.CASHIER && cashierNumber == null) {
+                expectingCashierNumber = true;
+            }
+
+            else if (classified.label() == ReceiptLineClassifier.Label.SUBTOTAL && subTotal == null) {
+                expectingSubTotal = true;
+            }
+
+            else if (classified.label() == ReceiptLineClassifier.Label.CASH && cash == null) {
+                expectingCash = true;
+            }
+
+            else if (classified.label() == ReceiptLineClassifier.Label.CHANGE && change == null) {
+                expectingChange = true;
+            }
+
+            // Items are laid out as product name, quantity and price on consecutive lines
+            else if (classified.isProductName() && window.size() >= 2) {
+                Iterator<String> lookahead = window.iterator();
+                String nextLine = lookahead.next().trim();
+                String priceLine = lookahead.next().trim();
+
+                if (ReceiptLineClassifier.isQuantity(nextLine) && ReceiptLineClassifier.isPrice(priceLine)) {
+                    RecieptItem item = new RecieptItem();
+                    item.setProductName(line);
+                    item.setQuantity(Integer.parseInt(nextLine));
+                    item.setPrice(ReceiptLineClassifier.extractAmount(priceLine));
+                    item.setReciepts(receipt);
+                    items.add(item);
+
+                    log.debug("Parsed item: {} - Qty: {} - Price: {}",
+                            item.getProductName(), item.getQuantity(), item.getPrice());
+
+                    // Skip the next two lines as we've processed them
+                    window.pollFirst();
+                    window.pollFirst();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.srllc.AmazonServices.domain.persistence;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Blob;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.srllc.AmazonServices.domain.entity.ExtractionJob;
+import com.srllc.AmazonServices.domain.repository.ExtractionJobPayloadRepository;
+import com.srllc.AmazonServices.domain.repository.ExtractionJobRepository;
+import com.srllc.AmazonServices.domain.upload.SpooledUpload;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The database side of the shared job queue. Every state change after the
+ * claim is fenced by the lease owner, so a node that stalled past its lease
+ * cannot complete a job that was already handed to someone else.
+ * <p>
+ * Uploads go in and out of the payload table as JDBC streams, so a large
+ * (memory-mapped) upload is never copied into a heap byte[] on the way.
+ */
+@Component
+@RequiredArgsConstructor
+public class ExtractionJobQueue {
+
+    private final ExtractionJobRepository jobRepository;
+    private final ExtractionJobPayloadRepository payloadRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Transactional
+    public void enqueue(ExtractionJob job, SpooledUpload upload) {
+        jobRepository.save(job);
+        if (upload != null) {
+            jdbcTemplate.update("insert into extraction_job_payloads (job_id, content) values (?, ?)", statement -> {
+                statement.setString(1, job.getId());
+                statement.setBinaryStream(2, upload.inputStream(), upload.size());
+            });
+        }
+    }
+
+    /**
+     * Claims up to {@code limit} of the oldest pending jobs for {@code owner}
+     * and leases them until now + {@code lease}. Jobs put back with a
+     * {@code notBefore} in the future are left alone until then.
+     */
+    @Transactional
+    public List<ExtractionJob> claim(String owner, int limit, Duration lease) {
+        Instant now = Instant.now();
+        List<String> ids = jobRepository.lockPendingIds(limit, now);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        jobRepository.markRunning(ids, owner, now, now.plus(lease));
+        return jobRepository.findAllById(ids);
+    }
+
+    // Returns how many of the leases were still held by this owner
+    @Transactional
+    public int renew(String owner, Collection<String> ids, Duration lease) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return jobRepository.renewLeases(ids, owner, Instant.now().plus(lease));
+    }
+
+    // receiptId is null while the receipt waits for a write-behind save; its external id is always set
+    @Transactional
+    public boolean complete(String id, String owner, Long receiptId, String receiptExternalId) {
+        if (jobRepository.markCompleted(id, owner, receiptId, receiptExternalId, Instant.now()) == 0) {
+            return false;
+        }
+        payloadRepository.deleteByJobId(id);
+        return true;
+    }
+
+    @Transactional
+    public boolean fail(String id, String owner, String error) {
+        if (jobRepository.markFailed(id, owner, truncate(error), Instant.now()) == 0) {
+            return false;
+        }
+        payloadRepository.deleteByJobId(id);
+        return true;
+    }
+
+    // Puts the job back for another attempt after notBefore; the upload stays for it
+    @Transactional
+    public boolean requeue(String id, String owner, String error, Instant notBefore) {
+        return jobRepository.markRequeued(id, owner, truncate(error), notBefore) > 0;
+    }
+
+    /**
+     * Puts jobs whose lease ran out back in the queue, fails the ones that
+     * already used {@code maxAttempts}, and drops finished jobs older than
+     * {@code retention}.
+     */
+    @Transactional
+    public int sweep(int maxAttempts, Duration retention) {
+        Instant now = Instant.now();
+        int requeued = jobRepository.requeueExpired(now, maxAttempts);
+        int failed = jobRepository.failExpired(now, maxAttempts,
+                "Abandoned after " + maxAttempts + " attempts whose lease expired");
+        jobRepository.deleteFinishedBefore(now.minus(retention));
+        if (failed > 0) {
+            payloadRepository.deleteFinished();
+        }
+        return requeued + failed;
+    }
+
+    public Optional<ExtractionJob> find(String id) {
+        return jobRepository.findById(id);
+    }
+
+    // Hands the stored upload to the reader while the row is open; empty if the job has none
+    @Transactional(readOnly = true)
+    public <T> Optional<T> readPayload(String id, PayloadReader<T> reader) {
+        return jdbcTemplate.query("select content from extraction_job_payloads where job_id = ?", rows -> {
+            if (!rows.next()) {
+                return Optional.<T>empty();
+            }
+            Blob content = rows.getBlob(1);
+            try (InputStream in = content.getBinaryStream()) {
+                return Optional.of(reader.read(in, content.length()));
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not read the upload for job " + id, e);
+            } finally {
+                content.free();
+            }
+        }, id);
+    }
+
+    public long countPending() {
+        return jobRepository.countPending();
+    }
+
+    @FunctionalInterface
+    public interface PayloadReader<T> {
+        T read(InputStream content, long size) throws IOException;
+    }
+
+    private static String truncate(String error) {
+        return error == null || error.length() <= 1024 ? error : error.substring(0, 1024);
+    }
+}
@@ -0,0 +1,246 @@
+package com.srllc.AmazonServices.domain.persistence;
+
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+import com.srllc.AmazonServices.common.AwsErrors;
+import com.srllc.AmazonServices.domain.entity.ExtractionJob;
+import com.srllc.AmazonServices.domain.entity.Reciepts;
+import com.srllc.AmazonServices.domain.exception.BadRequestException;
+import com.srllc.AmazonServices.domain.exception.ResourceNotFoundException;
+import com.srllc.AmazonServices.domain.exception.ServiceUnavailableException;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+
+/**
+ * Runs jobs from the shared queue on this node. One poller thread claims as
+ * many jobs as there are idle workers, hands them to the worker pool, renews
+ * the leases of the jobs still running every third of a lease, and requeues
+ * jobs whose owner stopped renewing. Any node can enqueue; every node with a
+ * worker takes its share.
+ * <p>
+ * A job that fails on something that may pass next time (throttling, an
+ * unavailable service, a database hiccup) goes back in the queue after an
+ * exponential backoff, counted against {@code maxAttempts} like an expired
+ * lease. Only a rejected input, or the last allowed attempt, fails it.
+ */
+@Slf4j
+public class ExtractionJobWorker {
+    private final ExtractionJobQueue queue;
+    private final String nodeId;
+    private final Executor executor;
+    private final int workers;
+    private final Duration lease;
+    private final long pollIntervalMillis;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final Duration retention;
+    private final Function<ExtractionJob, Reciepts> processor;
+    private final MeterRegistry meterRegistry;
+
+    private final Semaphore idle;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private Thread poller;
+    private volatile boolean running;
+
+    public ExtractionJobWorker(ExtractionJobQueue queue, String nodeId, Executor executor, int workers,
+            Duration lease, long pollIntervalMillis, int maxAttempts, Duration retryBackoff, Duration retention,
+            Function<ExtractionJob, Reciepts> processor, MeterRegistry meterRegistry) {
+        this.queue = queue;
+        this.nodeId = nodeId;
+        this.executor = executor;
+        this.workers = workers;
+        this.lease = lease;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        this.retention = retention;
+        this.processor = processor;
+        this.meterRegistry = meterRegistry;
+        this.idle = new Semaphore(workers);
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    public void start() {
+        Gauge.builder("textract.jobs.in-flight", inFlight, Set::size)
+                .description("Queued jobs running on this node")
+                .register(meterRegistry);
+
+        running = true;
+        poller = new Thread(this::pollLoop, "extraction-job-poller");
+        poller.setDaemon(true);
+        poller.start();
+        log.info("Extraction job worker {} started with {} workers", nodeId, workers);
+    }
+
+    // Cuts the poll wait short after a local submit
+    public void wake() {
+        Thread thread = poller;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private void pollLoop() {
+        long heartbeatNanos = lease.toNanos() / 3;
+        long nextHeartbeat = System.nanoTime();
+        long backoffMillis = pollIntervalMillis;
+
+        while (running) {
+            try {
+                if (System.nanoTime() - nextHeartbeat >= 0) {
+                    heartbeat();
+                    nextHeartbeat = System.nanoTime() + heartbeatNanos;
+                }
+                // all workers busy: come back for the next heartbeat
+                if (!idle.tryAcquire(pollIntervalMillis, TimeUnit.MILLISECONDS)) {
+                    continue;
+                }
+
+                int slots = 1 + idle.drainPermits();
+                List<ExtractionJob> claimed;
+                try {
+                    claimed = queue.claim(nodeId, slots, lease);
+                } catch (RuntimeException e) {
+                    idle.release(slots);
+                    throw e;
+                }
+                idle.release(slots - claimed.size());
+                backoffMillis = pollIntervalMillis;
+
+                if (claimed.isEmpty()) {
+                    LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(pollIntervalMillis));
+                    continue;
+                }
+                meterRegistry.counter("textract.jobs.claimed").increment(claimed.size());
+                claimed.forEach(this::dispatch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                meterRegistry.counter("textract.jobs.poll.errors").increment();
+                log.error("Could not poll the job queue, retrying in {} ms: {}", backoffMillis, e.getMessage());
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(backoffMillis));
+                backoffMillis = Math.min(backoffMillis * 2, 10_000);
+            }
+        }
+    }
+
+    private void heartbeat() {
+        queue.renew(nodeId, List.copyOf(inFlight), lease);
+        int recovered = queue.sweep(maxAttempts, retention);
+        if (recovered > 0) {
+            log.warn("Recovered {} jobs whose lease expired", recovered);
+        }
+    }
+
+    private void dispatch(ExtractionJob job) {
+        inFlight.add(job.getId());
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            // the lease runs out and the job is claimed again
+            inFlight.remove(job.getId());
+            idle.release();
+            log.warn("Worker pool rejected job {}, leaving it to lease expiry", job.getId());
+        }
+    }
+
+    private void run(ExtractionJob job) {
+        try {
+            Reciepts receipt;
+            try {
+                receipt = processor.apply(job);
+            } catch (RuntimeException e) {
+                if (job.getAttempts() < maxAttempts && !isPermanent(e)) {
+                    Duration backoff = backoff(job, e);
+                    log.warn("Extraction job {} failed on attempt {}, retrying in {} ms: {}",
+                            job.getId(), job.getAttempts(), backoff.toMillis(), e.getMessage());
+                    recordOutcome(job, queue.requeue(job.getId(), nodeId, e.getMessage(),
+                            Instant.now().plus(backoff)), "requeued");
+                    return;
+                }
+                log.error("Extraction job {} failed: {}", job.getId(), e.getMessage());
+                recordOutcome(job, queue.fail(job.getId(), nodeId, e.getMessage()), "failed");
+                return;
+            }
+            recordOutcome(job, queue.complete(job.getId(), nodeId, receipt.getId(), receipt.getExternalId()),
+                    "completed");
+        } catch (RuntimeException e) {
+            log.error("Could not record the outcome of job {}, it is retried once its lease expires: {}",
+                    job.getId(), e.getMessage());
+        } finally {
+            inFlight.remove(job.getId());
+            idle.release();
+            wake();
+        }
+    }
+
+    // Input the service or the parser rejected, or an upload that is gone; another attempt would fail the same way
+    private static boolean isPermanent(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof BadRequestException || cause instanceof ResourceNotFoundException
+                    || cause instanceof IllegalArgumentException
+                    || cause instanceof DateTimeException
+                    || cause instanceof AwsServiceException && !AwsErrors.isRetryable(cause)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // retryBackoff doubled per attempt so far, but never sooner than the service asked for
+    private Duration backoff(ExtractionJob job, RuntimeException error) {
+        Duration backoff = retryBackoff.multipliedBy(1L << Math.min(job.getAttempts() - 1, 10));
+        if (error instanceof ServiceUnavailableException unavailable) {
+            Duration retryAfter = Duration.ofSeconds(unavailable.getRetryAfterSeconds());
+            return retryAfter.compareTo(backoff) > 0 ? retryAfter : backoff;
+        }
+        return backoff;
+    }
+
+    private void recordOutcome(ExtractionJob job, boolean applied, String outcome) {
+        if (applied) {
+            meterRegistry.counter("textract.jobs.processed", "outcome", outcome).increment();
+            log.info("Extraction job {} {} on {} (attempt {})", job.getId(), outcome, nodeId, job.getAttempts());
+        } else {
+            meterRegistry.counter("textract.jobs.lease.lost").increment();
+            log.warn("Extraction job {} finished on {} after its lease was taken over; result discarded",
+                    job.getId(), nodeId);
+        }
+    }
+
+    /**
+     * Stops claiming and waits up to one lease for running jobs; anything
+     * still running after that is picked up elsewhere once its lease expires.
+     */
+    public void stop() throws InterruptedException {
+        if (poller == null) {
+            return;
+        }
+        running = false;
+        wake();
+        poller.join(TimeUnit.SECONDS.toMillis(30));
+        if (idle.tryAcquire(workers, lease.toMillis(), TimeUnit.MILLISECONDS)) {
+            idle.release(workers);
+        } else {
+            log.warn("Stopped {} with {} jobs still running", nodeId, inFlight.size());
+        }
+    }
+}
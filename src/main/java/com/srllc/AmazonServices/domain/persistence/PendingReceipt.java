@@ -0,0 +1,47 @@
+package com.srllc.AmazonServices.domain.persistence;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.srllc.AmazonServices.domain.entity.Reciepts;
+import com.srllc.AmazonServices.domain.entity.RecieptItem;
+import com.srllc.AmazonServices.domain.record.ReceiptItemView;
+import com.srllc.AmazonServices.domain.record.ReceiptView;
+
+// A parsed receipt waiting to be written; also the journal line format
+public record PendingReceipt(String contentHash, ReceiptView receipt) {
+
+    public String externalId() {
+        return receipt.externalId();
+    }
+
+    public static PendingReceipt from(Reciepts receipt) {
+        return new PendingReceipt(receipt.getContentHash(), ReceiptView.from(receipt));
+    }
+
+    // A fresh entity every time, so a failed flush can be retried without stale ids
+    public Reciepts toEntity() {
+        Reciepts entity = new Reciepts();
+        entity.setExternalId(receipt.externalId());
+        entity.setCompanyName(receipt.companyName());
+        entity.setBranch(receipt.branch());
+        entity.setManagerName(receipt.managerName());
+        entity.setCashierNumber(receipt.cashierNumber());
+        entity.setSubTotal(receipt.subTotal());
+        entity.setCash(receipt.cash());
+        entity.setChange(receipt.change());
+        entity.setContentHash(contentHash);
+
+        List<RecieptItem> items = new ArrayList<>(receipt.items().size());
+        for (ReceiptItemView view : receipt.items()) {
+            RecieptItem item = new RecieptItem();
+            item.setProductName(view.productName());
+            item.setQuantity(view.quantity());
+            item.setPrice(view.price());
+            item.setReciepts(entity);
+            items.add(item);
+        }
+        entity.setItems(items);
+        return entity;
+    }
+}
@@ -0,0 +1,40 @@
+package com.srllc.AmazonServices.domain.persistence;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.srllc.AmazonServices.domain.entity.Reciepts;
+import com.srllc.AmazonServices.domain.repository.RecieptsRepository;
+
+import lombok.RequiredArgsConstructor;
+
+@Component
+@RequiredArgsConstructor
+public class ReceiptBatchWriter {
+
+    private final RecieptsRepository receiptsRepository;
+
+    /**
+     * Inserts the receipts whose external id is not in the database yet, in
+     * one transaction. Sequence ids let Hibernate send receipts and items as
+     * JDBC batches. Replaying the same entries again is a no-op.
+     */
+    @Transactional
+    public List<Reciepts> write(List<PendingReceipt> batch) {
+        Set<String> existing = new HashSet<>(receiptsRepository.findExistingExternalIds(
+                batch.stream().map(PendingReceipt::externalId).toList()));
+
+        List<Reciepts> fresh = new ArrayList<>(batch.size());
+        for (PendingReceipt pending : batch) {
+            if (existing.add(pending.externalId())) {
+                fresh.add(pending.toEntity());
+            }
+        }
+        return fresh.isEmpty() ? List.of() : receiptsRepository.saveAll(fresh);
+    }
+}
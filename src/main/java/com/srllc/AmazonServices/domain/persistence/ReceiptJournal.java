@@ -0,0 +1,112 @@
+package com.srllc.AmazonServices.domain.persistence;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only NDJSON file of receipts accepted but not yet written to the
+ * database. Lines may repeat receipts that were already written; replay is
+ * idempotent on the external id. Not thread-safe; the owner serializes access.
+ */
+@Slf4j
+class ReceiptJournal implements AutoCloseable {
+    private final Path path;
+    private final ObjectMapper objectMapper;
+    private final boolean sync;
+    private FileChannel channel;
+
+    ReceiptJournal(Path path, ObjectMapper objectMapper, boolean sync) throws IOException {
+        this.path = path;
+        this.objectMapper = objectMapper;
+        this.sync = sync;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.channel = open(path);
+    }
+
+    List<PendingReceipt> readAll() throws IOException {
+        List<PendingReceipt> entries = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    entries.add(objectMapper.readValue(line, PendingReceipt.class));
+                } catch (JsonProcessingException e) {
+                    // a torn last line from a crash mid-append; its request never got a response
+                    log.warn("Skipping unreadable receipt journal line: {}", e.getOriginalMessage());
+                }
+            }
+        }
+        return entries;
+    }
+
+    void append(PendingReceipt entry) throws IOException {
+        ByteBuffer line = encode(entry);
+        while (line.hasRemaining()) {
+            channel.write(line);
+        }
+        if (sync) {
+            channel.force(false);
+        }
+    }
+
+    long size() throws IOException {
+        return channel.size();
+    }
+
+    // Replaces the journal with exactly the given entries, atomically
+    void rewrite(Collection<PendingReceipt> entries) throws IOException {
+        if (entries.isEmpty()) {
+            channel.truncate(0);
+            return;
+        }
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (PendingReceipt entry : entries) {
+                ByteBuffer line = encode(entry);
+                while (line.hasRemaining()) {
+                    out.write(line);
+                }
+            }
+            out.force(true);
+        }
+        channel.close();
+        Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        channel = open(path);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private ByteBuffer encode(PendingReceipt entry) throws JsonProcessingException {
+        byte[] json = objectMapper.writeValueAsBytes(entry);
+        return ByteBuffer.allocate(json.length + 1).put(json).put((byte) '\n').flip();
+    }
+
+    private static FileChannel open(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+}
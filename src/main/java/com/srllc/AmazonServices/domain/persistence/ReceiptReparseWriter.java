@@ -0,0 +1,60 @@
+package com.srllc.AmazonServices.domain.persistence;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.srllc.AmazonServices.domain.cache.ReceiptReadCache;
+import com.srllc.AmazonServices.domain.entity.RecieptItem;
+import com.srllc.AmazonServices.domain.entity.Reciepts;
+import com.srllc.AmazonServices.domain.repository.RecieptItemRepository;
+import com.srllc.AmazonServices.domain.repository.RecieptsRepository;
+
+import lombok.RequiredArgsConstructor;
+
+@Component
+@RequiredArgsConstructor
+public class ReceiptReparseWriter {
+
+    private final RecieptsRepository receiptsRepository;
+    private final RecieptItemRepository recieptItemRepository;
+    private final ReceiptReadCache receiptReadCache;
+
+    /**
+     * Overwrites the parsed fields and items of the stored receipts with the
+     * freshly parsed ones, keyed by external id, in one transaction. Old items
+     * go in a single delete and new ones are inserted as JDBC batches. Returns
+     * how many receipts were found and updated.
+     * <p>
+     * The bulk delete and the inserts bypass the entity listener, and a receipt
+     * whose own fields are unchanged gets no update, so every re-parsed receipt
+     * is evicted from the read cache here (and again after commit).
+     */
+    @Transactional
+    public int apply(Map<String, Reciepts> parsedByExternalId) {
+        List<Reciepts> stored = receiptsRepository.findByExternalIdIn(parsedByExternalId.keySet());
+        if (stored.isEmpty()) {
+            return 0;
+        }
+        recieptItemRepository.deleteByReceiptIds(stored.stream().map(Reciepts::getId).toList());
+
+        for (Reciepts receipt : stored) {
+            Reciepts parsed = parsedByExternalId.get(receipt.getExternalId());
+            receipt.setCompanyName(parsed.getCompanyName());
+            receipt.setBranch(parsed.getBranch());
+            receipt.setManagerName(parsed.getManagerName());
+            receipt.setCashierNumber(parsed.getCashierNumber());
+            receipt.setSubTotal(parsed.getSubTotal());
+            receipt.setCash(parsed.getCash());
+            receipt.setChange(parsed.getChange());
+
+            List<RecieptItem> items = parsed.getItems();
+            items.forEach(item -> item.setReciepts(receipt));
+            receipt.setItems(items);
+            receiptReadCache.evict(receipt.getId());
+        }
+        return stored.size();
+    }
+}
@@ -0,0 +1,281 @@
+package com.srllc.AmazonServices.domain.persistence;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.srllc.AmazonServices.domain.cache.ReceiptResultCache;
+import com.srllc.AmazonServices.domain.entity.Reciepts;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Optional write-behind mode for extracted receipts. Requests hand the parsed
+ * receipt to a bounded queue and answer with its external id straight away; a
+ * single writer thread drains the queue in batches of up to {@code flush-size}
+ * or every {@code flush-interval-ms}. With a journal path set, each accepted
+ * receipt is appended to a local journal before the request returns and
+ * replayed on startup, so a crash loses nothing that was acknowledged.
+ */
+@Component
+@Slf4j
+public class ReceiptWriteBehind {
+    private final ReceiptBatchWriter batchWriter;
+    private final ReceiptResultCache receiptResultCache;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    private final boolean enabled;
+    private final int flushSize;
+    private final long flushIntervalMillis;
+    private final String journalPath;
+    private final boolean journalSync;
+    private final long journalMaxBytes;
+
+    private final BlockingQueue<PendingReceipt> queue;
+    // everything accepted but not yet committed, for read-your-writes and journal compaction
+    private final Map<String, PendingReceipt> pendingByExternalId = new ConcurrentHashMap<>();
+    private final Map<String, PendingReceipt> pendingByContentHash = new ConcurrentHashMap<>();
+    private final Object journalLock = new Object();
+    private ReceiptJournal journal;
+
+    private Timer flushTimer;
+    private DistributionSummary batchSizes;
+    private Thread writerThread;
+    private volatile boolean running;
+
+    public ReceiptWriteBehind(ReceiptBatchWriter batchWriter,
+            ReceiptResultCache receiptResultCache,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${receipts.write-behind.enabled:false}") boolean enabled,
+            @Value("${receipts.write-behind.queue-capacity:10000}") int queueCapacity,
+            @Value("${receipts.write-behind.flush-size:100}") int flushSize,
+            @Value("${receipts.write-behind.flush-interval-ms:200}") long flushIntervalMillis,
+            @Value("${receipts.write-behind.journal-path:}") String journalPath,
+            @Value("${receipts.write-behind.journal-sync:true}") boolean journalSync,
+            @Value("${receipts.write-behind.journal-max-bytes:67108864}") long journalMaxBytes) {
+        this.batchWriter = batchWriter;
+        this.receiptResultCache = receiptResultCache;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.flushSize = flushSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.journalPath = journalPath;
+        this.journalSync = journalSync;
+        this.journalMaxBytes = journalMaxBytes;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+
+        flushTimer = Timer.builder("receipts.write-behind.flush")
+                .description("Time to write one batch of queued receipts")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        batchSizes = DistributionSummary.builder("receipts.write-behind.batch.size")
+                .baseUnit("receipts")
+                .register(meterRegistry);
+        Gauge.builder("receipts.write-behind.queue.depth", pendingByExternalId, Map::size)
+                .description("Receipts accepted but not yet committed")
+                .register(meterRegistry);
+
+        if (!journalPath.isBlank()) {
+            journal = new ReceiptJournal(Path.of(journalPath), objectMapper, journalSync);
+            replay(journal.readAll());
+        }
+
+        running = true;
+        writerThread = new Thread(this::drainLoop, "receipt-write-behind");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    // Runs before the writer starts; a database failure here fails startup and leaves the journal intact
+    private void replay(List<PendingReceipt> recovered) throws IOException {
+        if (recovered.isEmpty()) {
+            return;
+        }
+        log.info("Replaying {} receipts from the write-behind journal {}", recovered.size(), journalPath);
+        for (int from = 0; from < recovered.size(); from += flushSize) {
+            batchWriter.write(recovered.subList(from, Math.min(from + flushSize, recovered.size())));
+        }
+        journal.rewrite(List.of());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Accepts the receipt for a later write and assigns its external id.
+     * Returns false when the queue is full or the receipt could not be
+     * journaled, in which case the caller should write the receipt itself.
+     */
+    public boolean enqueue(Reciepts receipt) {
+        if (receipt.getExternalId() == null) {
+            receipt.setExternalId(UUID.randomUUID().toString());
+        }
+        PendingReceipt entry = PendingReceipt.from(receipt);
+
+        synchronized (journalLock) {
+            // only this method adds to the queue, under this lock, so a free slot seen here is still free below
+            if (queue.remainingCapacity() == 0) {
+                meterRegistry.counter("receipts.write-behind.rejected").increment();
+                return false;
+            }
+            // journaled before it is queued, so the writer never commits a receipt the caller also saves
+            if (journal != null) {
+                try {
+                    journal.append(entry);
+                } catch (IOException e) {
+                    log.error("Could not journal receipt {}, saving it directly: {}", entry.externalId(),
+                            e.getMessage());
+                    meterRegistry.counter("receipts.write-behind.journal.errors").increment();
+                    return false;
+                }
+            }
+            track(entry);
+            queue.add(entry);
+        }
+        return true;
+    }
+
+    public Optional<Reciepts> findPendingByContentHash(String contentHash) {
+        return Optional.ofNullable(pendingByContentHash.get(contentHash)).map(PendingReceipt::toEntity);
+    }
+
+    public Optional<Reciepts> findPendingByExternalId(String externalId) {
+        return Optional.ofNullable(pendingByExternalId.get(externalId)).map(PendingReceipt::toEntity);
+    }
+
+    private void drainLoop() {
+        List<PendingReceipt> batch = new ArrayList<>(flushSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingReceipt first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // wait up to one interval for the batch to fill
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+                while (batch.size() < flushSize) {
+                    queue.drainTo(batch, flushSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= flushSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingReceipt next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                flush(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (!batch.isEmpty()) {
+            log.warn("Write-behind stopped with {} receipts unwritten; they remain in the journal", batch.size());
+        }
+    }
+
+    private void flush(List<PendingReceipt> batch) throws InterruptedException {
+        long backoffMillis = 100;
+        while (true) {
+            try {
+                List<Reciepts> saved = flushTimer.record(() -> batchWriter.write(batch));
+                batchSizes.record(batch.size());
+                for (Reciepts receipt : saved) {
+                    receiptResultCache.put(receipt.getContentHash(), receipt);
+                }
+                batch.forEach(this::untrack);
+                compactJournal();
+                return;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    throw new InterruptedException("Write-behind stopped while the database was failing");
+                }
+                meterRegistry.counter("receipts.write-behind.flush.errors").increment();
+                log.error("Failed to write {} queued receipts, retrying in {} ms: {}", batch.size(), backoffMillis,
+                        e.getMessage());
+                Thread.sleep(backoffMillis);
+                backoffMillis = Math.min(backoffMillis * 2, 10_000);
+            }
+        }
+    }
+
+    // Drop committed entries from the journal: truncate when nothing is pending, rewrite when it grew too large
+    private void compactJournal() {
+        if (journal == null) {
+            return;
+        }
+        synchronized (journalLock) {
+            try {
+                if (pendingByExternalId.isEmpty() || journal.size() > journalMaxBytes) {
+                    journal.rewrite(List.copyOf(pendingByExternalId.values()));
+                }
+            } catch (IOException e) {
+                log.error("Could not compact the write-behind journal: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void track(PendingReceipt entry) {
+        pendingByExternalId.put(entry.externalId(), entry);
+        if (entry.contentHash() != null) {
+            pendingByContentHash.put(entry.contentHash(), entry);
+        }
+    }
+
+    private void untrack(PendingReceipt entry) {
+        pendingByExternalId.remove(entry.externalId());
+        if (entry.contentHash() != null) {
+            pendingByContentHash.remove(entry.contentHash(), entry);
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException, IOException {
+        if (writerThread == null) {
+            return;
+        }
+        running = false;
+        // let the writer flush what is queued; whatever is left stays in the journal
+        writerThread.join(TimeUnit.SECONDS.toMillis(30));
+        if (journal != null) {
+            synchronized (journalLock) {
+                journal.close();
+            }
+        }
+    }
+}
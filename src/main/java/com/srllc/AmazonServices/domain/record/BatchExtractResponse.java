@@ -0,0 +1,8 @@
+package com.srllc.AmazonServices.domain.record;
+
+import java.util.List;
+
+public record BatchExtractResponse(int total, int succeeded, int failed, long elapsedMillis,
+        List<BatchFileResult> results) {
+
+}
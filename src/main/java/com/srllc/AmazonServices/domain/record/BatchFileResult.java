@@ -0,0 +1,8 @@
+package com.srllc.AmazonServices.domain.record;
+
+public record BatchFileResult(String fileName, String status, Long receiptId, String error) {
+
+    public static final String EXTRACTED = "EXTRACTED";
+    public static final String DUPLICATE = "DUPLICATE";
+    public static final String FAILED = "FAILED";
+}
@@ -0,0 +1,10 @@
+package com.srllc.AmazonServices.domain.record;
+
+import java.util.List;
+
+// nextCursor is the appearance id to pass as ?cursor= for the following page, null on the last page
+public record CelebrityAppearancePage(
+        List<CelebrityAppearanceView> appearances,
+        Long nextCursor,
+        boolean hasMore) {
+}
@@ -0,0 +1,25 @@
+package com.srllc.AmazonServices.domain.record;
+
+import java.time.Instant;
+
+import com.srllc.AmazonServices.dto.RekognitionResponse;
+
+public record CelebrityAppearanceView(
+        Long appearanceId,
+        Long imageId,
+        String fileName,
+        String celebrityId,
+        String celebrityName,
+        Float confidence,
+        RekognitionResponse.BoundingBox boundingBox,
+        Instant analyzedAt) {
+
+    // JPQL constructor expression
+    public CelebrityAppearanceView(Long appearanceId, Long imageId, String fileName, String celebrityId,
+            String celebrityName, Float confidence, Float boxWidth, Float boxHeight, Float boxLeft, Float boxTop,
+            Instant analyzedAt) {
+        this(appearanceId, imageId, fileName, celebrityId, celebrityName, confidence,
+                boxWidth == null ? null : new RekognitionResponse.BoundingBox(boxWidth, boxHeight, boxLeft, boxTop),
+                analyzedAt);
+    }
+}
@@ -0,0 +1,10 @@
+package com.srllc.AmazonServices.domain.record;
+
+import com.srllc.AmazonServices.dto.RekognitionResponse;
+
+public record CelebrityFrameResult(int index, String fileName, String status, RekognitionResponse result,
+        String error) {
+
+    public static final String RECOGNIZED = "RECOGNIZED";
+    public static final String FAILED = "FAILED";
+}
@@ -0,0 +1,18 @@
+package com.srllc.AmazonServices.domain.record;
+
+import java.time.Instant;
+
+import com.srllc.AmazonServices.domain.entity.CelebrityStats;
+
+public record CelebrityStatsView(
+        String celebrityId,
+        String celebrityName,
+        Long appearances,
+        Float maxConfidence,
+        Instant lastSeenAt) {
+
+    public static CelebrityStatsView from(CelebrityStats stats) {
+        return new CelebrityStatsView(stats.getCelebrityId(), stats.getCelebrityName(), stats.getAppearances(),
+                stats.getMaxConfidence(), stats.getLastSeenAt());
+    }
+}
@@ -0,0 +1,19 @@
+package com.srllc.AmazonServices.domain.record;
+
+public record ReceiptFilter(
+        String companyName,
+        String branch,
+        String cashierNumber,
+        Double minSubTotal,
+        Double maxSubTotal) {
+
+    public ReceiptFilter {
+        companyName = blankToNull(companyName);
+        branch = blankToNull(branch);
+        cashierNumber = blankToNull(cashierNumber);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
@@ -0,0 +1,14 @@
+package com.srllc.AmazonServices.domain.record;
+
+import com.srllc.AmazonServices.domain.entity.RecieptItem;
+
+public record ReceiptItemView(
+        Long id,
+        String productName,
+        Integer quantity,
+        Double price) {
+
+    public static ReceiptItemView from(RecieptItem item) {
+        return new ReceiptItemView(item.getId(), item.getProductName(), item.getQuantity(), item.getPrice());
+    }
+}
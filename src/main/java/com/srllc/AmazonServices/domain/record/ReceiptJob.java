@@ -0,0 +1,35 @@
+package com.srllc.AmazonServices.domain.record;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import com.srllc.AmazonServices.domain.entity.ExtractionJob;
+import com.srllc.AmazonServices.domain.entity.JobStatus;
+
+public record ReceiptJob(
+        String jobId,
+        String fileName,
+        JobStatus status,
+        Long receiptId,
+        String receiptExternalId,
+        ReceiptView receipt,
+        String error,
+        LocalDateTime submittedAt,
+        LocalDateTime completedAt) {
+
+    public static ReceiptJob of(ExtractionJob job) {
+        return new ReceiptJob(job.getId(), job.getFileName(), job.getStatus(), job.getReceiptId(),
+                job.getReceiptExternalId(), null,
+                job.getError(), localTime(job.getSubmittedAt()), localTime(job.getCompletedAt()));
+    }
+
+    public ReceiptJob withReceipt(ReceiptView receipt) {
+        return new ReceiptJob(jobId, fileName, status, receiptId, receiptExternalId, receipt, error, submittedAt,
+                completedAt);
+    }
+
+    private static LocalDateTime localTime(Instant instant) {
+        return instant == null ? null : LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,10 @@
+package com.srllc.AmazonServices.domain.record;
+
+import java.util.List;
+
+// nextCursor is the id to pass as ?cursor= for the following page, null on the last page
+public record ReceiptPage(
+        List<ReceiptView> receipts,
+        Long nextCursor,
+        boolean hasMore) {
+}
@@ -0,0 +1,28 @@
+package com.srllc.AmazonServices.domain.record;
+
+import java.util.List;
+
+import com.srllc.AmazonServices.domain.entity.Reciepts;
+
+// Detached, immutable copy of a receipt and its items; safe to cache and share between requests
+public record ReceiptView(
+        Long id,
+        String externalId,
+        String companyName,
+        String branch,
+        String managerName,
+        String cashierNumber,
+        Double subTotal,
+        Double cash,
+        Double change,
+        List<ReceiptItemView> items) {
+
+    public static ReceiptView from(Reciepts receipt) {
+        List<ReceiptItemView> items = receipt.getItems() == null
+                ? List.of()
+                : receipt.getItems().stream().map(ReceiptItemView::from).toList();
+        return new ReceiptView(receipt.getId(), receipt.getExternalId(), receipt.getCompanyName(),
+                receipt.getBranch(), receipt.getManagerName(), receipt.getCashierNumber(), receipt.getSubTotal(),
+                receipt.getCash(), receipt.getChange(), items);
+    }
+}
@@ -0,0 +1,23 @@
+package com.srllc.AmazonServices.domain.record;
+
+import java.time.LocalDateTime;
+
+import com.srllc.AmazonServices.domain.entity.JobStatus;
+
+/**
+ * Progress of a bulk re-parse from the block archive. {@code missing} counts
+ * archived receipts with no row to update, {@code failed} the ones that could
+ * not be read or saved.
+ */
+public record ReparseProgress(
+        JobStatus status,
+        int total,
+        long processed,
+        long updated,
+        long missing,
+        long failed,
+        long elapsedMillis,
+        double receiptsPerSecond,
+        LocalDateTime startedAt,
+        LocalDateTime completedAt) {
+}
@@ -0,0 +1,5 @@
+package com.srllc.AmazonServices.domain.record;
+
+public record S3DocumentRef(String bucket, String key) {
+
+}
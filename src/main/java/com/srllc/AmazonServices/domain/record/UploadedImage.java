@@ -0,0 +1,5 @@
+package com.srllc.AmazonServices.domain.record;
+
+public record UploadedImage(String fileName, byte[] content) {
+
+}
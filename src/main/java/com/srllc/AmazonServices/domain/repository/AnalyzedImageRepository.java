@@ -0,0 +1,32 @@
+package com.srllc.AmazonServices.domain.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.srllc.AmazonServices.domain.entity.AnalyzedImage;
+
+@Repository
+public interface AnalyzedImageRepository extends JpaRepository<AnalyzedImage, Long> {
+
+    @Query("select i.contentHash from AnalyzedImage i where i.contentHash in :contentHashes")
+    Set<String> findExistingContentHashes(Collection<String> contentHashes);
+
+    // ids first, then the rows with their appearances: a fetch join cannot be paged in the database
+    @Query("""
+            select i.id from AnalyzedImage i
+            where i.imageHash is not null and i.analyzedAt > :since
+            order by i.id desc
+            """)
+    List<Long> findRecentHashedIds(Instant since, Pageable page);
+
+    @EntityGraph(attributePaths = "appearances")
+    List<AnalyzedImage> findWithAppearancesByIdIn(Collection<Long> ids);
+}
@@ -0,0 +1,42 @@
+package com.srllc.AmazonServices.domain.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.srllc.AmazonServices.domain.entity.CelebrityAppearance;
+import com.srllc.AmazonServices.domain.record.CelebrityAppearanceView;
+
+/**
+ * Keyset queries over the appearance index: the (celebrity_id, id) and
+ * (celebrity_name, id) indexes let the database seek to the cursor and read
+ * one page in id order, however many rows the celebrity has.
+ */
+@Repository
+public interface CelebrityAppearanceRepository extends JpaRepository<CelebrityAppearance, Long> {
+
+    @Query("""
+            select new com.srllc.AmazonServices.domain.record.CelebrityAppearanceView(
+                a.id, i.id, i.fileName, a.celebrityId, a.celebrityName, a.confidence,
+                a.boxWidth, a.boxHeight, a.boxLeft, a.boxTop, i.analyzedAt)
+            from CelebrityAppearance a join a.image i
+            where a.celebrityId = :celebrityId and a.confidence >= :minConfidence and a.id < :cursor
+            order by a.id desc
+            """)
+    List<CelebrityAppearanceView> findByCelebrityId(String celebrityId, float minConfidence, long cursor,
+            Pageable page);
+
+    @Query("""
+            select new com.srllc.AmazonServices.domain.record.CelebrityAppearanceView(
+                a.id, i.id, i.fileName, a.celebrityId, a.celebrityName, a.confidence,
+                a.boxWidth, a.boxHeight, a.boxLeft, a.boxTop, i.analyzedAt)
+            from CelebrityAppearance a join a.image i
+            where a.celebrityName = :celebrityName and a.confidence >= :minConfidence and a.id < :cursor
+            order by a.id desc
+            """)
+    List<CelebrityAppearanceView> findByCelebrityName(String celebrityName, float minConfidence, long cursor,
+            Pageable page);
+}
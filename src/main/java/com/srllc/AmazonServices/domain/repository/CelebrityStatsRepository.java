@@ -0,0 +1,31 @@
+package com.srllc.AmazonServices.domain.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.srllc.AmazonServices.domain.entity.CelebrityStats;
+
+@Repository
+public interface CelebrityStatsRepository extends JpaRepository<CelebrityStats, String> {
+
+    // Single atomic statement, so concurrent writers never lose increments; the row alias needs MySQL 8.0.19+
+    @Modifying
+    @Query(value = """
+            insert into celebrity_stats (celebrity_id, celebrity_name, appearances, max_confidence, last_seen_at)
+            values (:celebrityId, :celebrityName, :appearances, :maxConfidence, :seenAt) as incoming
+            on duplicate key update
+                celebrity_name = incoming.celebrity_name,
+                appearances = celebrity_stats.appearances + incoming.appearances,
+                max_confidence = greatest(celebrity_stats.max_confidence, incoming.max_confidence),
+                last_seen_at = greatest(celebrity_stats.last_seen_at, incoming.last_seen_at)
+            """, nativeQuery = true)
+    int upsert(String celebrityId, String celebrityName, long appearances, float maxConfidence, Instant seenAt);
+
+    List<CelebrityStats> findAllByOrderByAppearancesDesc(Pageable page);
+}
@@ -0,0 +1,24 @@
+package com.srllc.AmazonServices.domain.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.srllc.AmazonServices.domain.entity.ExtractionJobPayload;
+
+@Repository
+public interface ExtractionJobPayloadRepository extends JpaRepository<ExtractionJobPayload, String> {
+
+    // A bulk delete, so the blob is not loaded just to remove it as deleteById would
+    @Modifying
+    @Query("delete from ExtractionJobPayload p where p.jobId = :jobId")
+    int deleteByJobId(String jobId);
+
+    @Modifying
+    @Query(value = """
+            delete from extraction_job_payloads
+            where job_id not in (select id from extraction_jobs where status in ('PENDING', 'RUNNING'))
+            """, nativeQuery = true)
+    int deleteFinished();
+}
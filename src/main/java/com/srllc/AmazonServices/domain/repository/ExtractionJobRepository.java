@@ -0,0 +1,99 @@
+package com.srllc.AmazonServices.domain.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.srllc.AmazonServices.domain.entity.ExtractionJob;
+
+@Repository
+public interface ExtractionJobRepository extends JpaRepository<ExtractionJob, String> {
+
+    // Rows another node is claiming right now are skipped instead of waited on
+    @Query(value = """
+            select id from extraction_jobs
+            where status = 'PENDING' and (not_before is null or not_before <= :now)
+            order by submitted_at
+            limit :limit
+            for update skip locked
+            """, nativeQuery = true)
+    List<String> lockPendingIds(int limit, Instant now);
+
+    @Modifying(clearAutomatically = true)
+    @Query(value = """
+            update extraction_jobs
+            set status = 'RUNNING', lease_owner = :owner, lease_expires_at = :leaseUntil,
+                started_at = :now, attempts = attempts + 1
+            where id in (:ids)
+            """, nativeQuery = true)
+    int markRunning(Collection<String> ids, String owner, Instant now, Instant leaseUntil);
+
+    @Modifying
+    @Query(value = """
+            update extraction_jobs set lease_expires_at = :leaseUntil
+            where id in (:ids) and status = 'RUNNING' and lease_owner = :owner
+            """, nativeQuery = true)
+    int renewLeases(Collection<String> ids, String owner, Instant leaseUntil);
+
+    // Fenced by the lease, so a node that lost its job to another one cannot overwrite the result
+    @Modifying
+    @Query(value = """
+            update extraction_jobs
+            set status = 'COMPLETED', receipt_id = :receiptId, receipt_external_id = :receiptExternalId,
+                error = null, completed_at = :now,
+                lease_owner = null, lease_expires_at = null
+            where id = :id and status = 'RUNNING' and lease_owner = :owner
+            """, nativeQuery = true)
+    int markCompleted(String id, String owner, Long receiptId, String receiptExternalId, Instant now);
+
+    @Modifying
+    @Query(value = """
+            update extraction_jobs
+            set status = 'FAILED', error = :error, completed_at = :now,
+                lease_owner = null, lease_expires_at = null
+            where id = :id and status = 'RUNNING' and lease_owner = :owner
+            """, nativeQuery = true)
+    int markFailed(String id, String owner, String error, Instant now);
+
+    // The attempt already counted when the job was claimed, the same as for an expired lease
+    @Modifying
+    @Query(value = """
+            update extraction_jobs
+            set status = 'PENDING', error = :error, not_before = :notBefore,
+                lease_owner = null, lease_expires_at = null
+            where id = :id and status = 'RUNNING' and lease_owner = :owner
+            """, nativeQuery = true)
+    int markRequeued(String id, String owner, String error, Instant notBefore);
+
+    @Modifying
+    @Query(value = """
+            update extraction_jobs
+            set status = 'PENDING', lease_owner = null, lease_expires_at = null
+            where status = 'RUNNING' and lease_expires_at < :now and attempts < :maxAttempts
+            """, nativeQuery = true)
+    int requeueExpired(Instant now, int maxAttempts);
+
+    @Modifying
+    @Query(value = """
+            update extraction_jobs
+            set status = 'FAILED', error = :error, completed_at = :now,
+                lease_owner = null, lease_expires_at = null
+            where status = 'RUNNING' and lease_expires_at < :now and attempts >= :maxAttempts
+            """, nativeQuery = true)
+    int failExpired(Instant now, int maxAttempts, String error);
+
+    @Modifying
+    @Query(value = """
+            delete from extraction_jobs
+            where status in ('COMPLETED', 'FAILED') and completed_at < :cutoff
+            """, nativeQuery = true)
+    int deleteFinishedBefore(Instant cutoff);
+
+    @Query(value = "select count(*) from extraction_jobs where status = 'PENDING'", nativeQuery = true)
+    long countPending();
+}
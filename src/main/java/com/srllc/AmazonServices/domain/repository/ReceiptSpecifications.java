@@ -0,0 +1,44 @@
+package com.srllc.AmazonServices.domain.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.srllc.AmazonServices.domain.entity.Reciepts;
+import com.srllc.AmazonServices.domain.record.ReceiptFilter;
+
+import jakarta.persistence.criteria.Predicate;
+
+/**
+ * Builds the receipt list query. Every filter is an equality or range on an
+ * indexed column, and the keyset predicate (id below the cursor) lets the
+ * database seek straight to the page instead of counting past an offset.
+ */
+public final class ReceiptSpecifications {
+
+    private ReceiptSpecifications() {
+    }
+
+    public static Specification<Reciepts> matching(ReceiptFilter filter, Long cursor) {
+        return (root, query, cb) -> {
+            Predicate predicates = cb.conjunction();
+            if (cursor != null) {
+                predicates = cb.and(predicates, cb.lessThan(root.get("id"), cursor));
+            }
+            if (filter.companyName() != null) {
+                predicates = cb.and(predicates, cb.equal(root.get("companyName"), filter.companyName()));
+            }
+            if (filter.branch() != null) {
+                predicates = cb.and(predicates, cb.equal(root.get("branch"), filter.branch()));
+            }
+            if (filter.cashierNumber() != null) {
+                predicates = cb.and(predicates, cb.equal(root.get("cashierNumber"), filter.cashierNumber()));
+            }
+            if (filter.minSubTotal() != null) {
+                predicates = cb.and(predicates, cb.greaterThanOrEqualTo(root.get("subTotal"), filter.minSubTotal()));
+            }
+            if (filter.maxSubTotal() != null) {
+                predicates = cb.and(predicates, cb.lessThanOrEqualTo(root.get("subTotal"), filter.maxSubTotal()));
+            }
+            return predicates;
+        };
+    }
+}
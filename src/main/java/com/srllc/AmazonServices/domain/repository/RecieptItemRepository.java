@@ -1,10 +1,18 @@
 package com.srllc.AmazonServices.domain.repository;
 
+import java.util.Collection;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.srllc.AmazonServices.domain.entity.RecieptItem;
 
 @Repository
 public interface RecieptItemRepository extends JpaRepository<RecieptItem, Long> {
-}
\ No newline at end of file
+
+    @Modifying
+    @Query("delete from RecieptItem i where i.reciepts.id in :receiptIds")
+    int deleteByReceiptIds(Collection<Long> receiptIds);
+}
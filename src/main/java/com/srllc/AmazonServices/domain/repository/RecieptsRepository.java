@@ -1,10 +1,34 @@
 package com.srllc.AmazonServices.domain.repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.srllc.AmazonServices.domain.entity.Reciepts;
 
 @Repository
-public interface RecieptsRepository extends JpaRepository<Reciepts, Long> {
-}
\ No newline at end of file
+public interface RecieptsRepository extends JpaRepository<Reciepts, Long>, JpaSpecificationExecutor<Reciepts> {
+
+    @EntityGraph(attributePaths = "items")
+    Optional<Reciepts> findFirstByContentHash(String contentHash);
+
+    @EntityGraph(attributePaths = "items")
+    Optional<Reciepts> findWithItemsById(Long id);
+
+    @EntityGraph(attributePaths = "items")
+    List<Reciepts> findWithItemsByIdInOrderByIdDesc(Collection<Long> ids);
+
+    @EntityGraph(attributePaths = "items")
+    Optional<Reciepts> findWithItemsByExternalId(String externalId);
+
+    List<Reciepts> findByExternalIdIn(Collection<String> externalIds);
+
+    @Query("select r.externalId from Reciepts r where r.externalId in :externalIds")
+    List<String> findExistingExternalIds(Collection<String> externalIds);
+}
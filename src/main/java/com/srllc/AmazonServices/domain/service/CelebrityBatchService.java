@@ -0,0 +1,25 @@
+package com.srllc.AmazonServices.domain.service;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import com.srllc.AmazonServices.domain.record.CelebrityFrameResult;
+
+public interface CelebrityBatchService {
+
+    /**
+     * Reads the upload eagerly (so an invalid batch fails before anything is
+     * streamed), then recognizes the images concurrently and hands each result
+     * to the sink. The returned future completes once every result was sent or
+     * the sink failed.
+     */
+    CompletableFuture<Void> recognizeBatch(List<MultipartFile> files, boolean ordered, ResultSink sink);
+
+    @FunctionalInterface
+    interface ResultSink {
+        void send(CelebrityFrameResult result) throws IOException;
+    }
+}
@@ -0,0 +1,22 @@
+package com.srllc.AmazonServices.domain.service;
+
+import java.util.List;
+import java.util.OptionalLong;
+
+import com.srllc.AmazonServices.domain.record.CelebrityAppearancePage;
+import com.srllc.AmazonServices.domain.record.CelebrityStatsView;
+import com.srllc.AmazonServices.domain.upload.SpooledUpload;
+import com.srllc.AmazonServices.dto.RekognitionResponse;
+
+public interface CelebrityIndexService {
+
+    // Queues the result for persistence; never blocks the recognition response on the database
+    void record(SpooledUpload upload, OptionalLong imageHash, RekognitionResponse response);
+
+    CelebrityAppearancePage findAppearances(String celebrityId, String celebrityName, float minConfidence,
+            Long cursor, int size);
+
+    List<CelebrityStatsView> topCelebrities(int size);
+
+    CelebrityStatsView getStats(String celebrityId);
+}
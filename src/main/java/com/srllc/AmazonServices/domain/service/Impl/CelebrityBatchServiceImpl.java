@@ -0,0 +1,158 @@
+package com.srllc.AmazonServices.domain.service.Impl;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.srllc.AmazonServices.common.AsyncResults;
+import com.srllc.AmazonServices.common.ZipUploads;
+import com.srllc.AmazonServices.domain.record.CelebrityFrameResult;
+import com.srllc.AmazonServices.domain.record.UploadedImage;
+import com.srllc.AmazonServices.domain.service.CelebrityBatchService;
+import com.srllc.AmazonServices.domain.service.RekognitionService;
+import com.srllc.AmazonServices.domain.upload.SpooledUpload;
+import com.srllc.AmazonServices.dto.RekognitionResponse;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@Slf4j
+public class CelebrityBatchServiceImpl implements CelebrityBatchService {
+    private final RekognitionService rekognitionService;
+    private final int parallelism;
+    private final int maxFiles;
+    private final long maxFileBytes;
+    private final long maxTotalBytes;
+
+    public CelebrityBatchServiceImpl(RekognitionService rekognitionService,
+            @Value("${rekognition.batch.parallelism:8}") int parallelism,
+            @Value("${rekognition.batch.max-files:1000}") int maxFiles,
+            @Value("${rekognition.batch.max-file-bytes:10485760}") long maxFileBytes,
+            @Value("${rekognition.batch.max-total-bytes:104857600}") long maxTotalBytes) {
+        this.rekognitionService = rekognitionService;
+        this.parallelism = Math.max(1, parallelism);
+        this.maxFiles = maxFiles;
+        this.maxFileBytes = maxFileBytes;
+        this.maxTotalBytes = maxTotalBytes;
+    }
+
+    @Override
+    public CompletableFuture<Void> recognizeBatch(List<MultipartFile> files, boolean ordered, ResultSink sink) {
+        List<UploadedImage> images = ZipUploads.expand(files, maxFiles, maxFileBytes, maxTotalBytes);
+        log.info("Recognizing celebrities in a batch of {} images (parallelism {}, ordered {})", images.size(),
+                parallelism, ordered);
+
+        return new BatchRun(images, ordered, sink).start();
+    }
+
+    /**
+     * Keeps at most {@code parallelism} recognitions in flight: each completion
+     * sends its result and starts the next image, so no thread waits on AWS.
+     * In ordered mode results are held back until every earlier index was sent.
+     * <p>
+     * A call can complete before {@code whenComplete} is even attached (a cache
+     * hit, a shared in-flight call, a rejected request), which runs the callback
+     * on the launching thread. Launches therefore go through a counter: whoever
+     * takes it from zero launches until it drops back, and a completion that
+     * arrives meanwhile only adds to it, so the stack never grows per image.
+     */
+    private final class BatchRun {
+        private final List<UploadedImage> images;
+        private final ResultSink sink;
+        private final CelebrityFrameResult[] pending;
+        private final AtomicInteger nextIndex = new AtomicInteger();
+        // launches requested but not yet made; non-zero while some thread is launching
+        private final AtomicInteger launchesOwed = new AtomicInteger();
+        private final AtomicInteger remaining;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private final long start = System.nanoTime();
+        private int sendCursor;
+        private volatile boolean cancelled;
+
+        BatchRun(List<UploadedImage> images, boolean ordered, ResultSink sink) {
+            this.images = images;
+            this.sink = sink;
+            this.pending = ordered ? new CelebrityFrameResult[images.size()] : null;
+            this.remaining = new AtomicInteger(images.size());
+        }
+
+        CompletableFuture<Void> start() {
+            for (int i = 0; i < Math.min(parallelism, images.size()); i++) {
+                launchNext();
+            }
+            return done;
+        }
+
+        private void launchNext() {
+            if (launchesOwed.getAndIncrement() != 0) {
+                return;
+            }
+            do {
+                launch();
+            } while (launchesOwed.decrementAndGet() != 0);
+        }
+
+        private void launch() {
+            int index = nextIndex.getAndIncrement();
+            if (index >= images.size() || cancelled) {
+                return;
+            }
+
+            UploadedImage image = images.get(index);
+            CompletableFuture<RekognitionResponse> call;
+            try {
+                call = rekognitionService.recognizeCelebritiesAsync(SpooledUpload.of(image.fileName(), image.content()));
+            } catch (RuntimeException e) {
+                call = CompletableFuture.failedFuture(e);
+            }
+
+            call.whenComplete((response, error) -> {
+                completed(index, error == null
+                        ? new CelebrityFrameResult(index, image.fileName(), CelebrityFrameResult.RECOGNIZED, response,
+                                null)
+                        : new CelebrityFrameResult(index, image.fileName(), CelebrityFrameResult.FAILED, null,
+                                AsyncResults.unwrap(error).getMessage()));
+                launchNext();
+            });
+        }
+
+        private void completed(int index, CelebrityFrameResult result) {
+            synchronized (this) {
+                if (pending == null) {
+                    send(result);
+                } else {
+                    pending[index] = result;
+                    while (sendCursor < pending.length && pending[sendCursor] != null) {
+                        send(pending[sendCursor]);
+                        pending[sendCursor++] = null;
+                    }
+                }
+            }
+
+            if (remaining.decrementAndGet() == 0) {
+                log.info("Celebrity batch complete: {} images, {} ms", images.size(),
+                        (System.nanoTime() - start) / 1_000_000);
+                done.complete(null);
+            }
+        }
+
+        private void send(CelebrityFrameResult result) {
+            if (cancelled) {
+                return;
+            }
+            try {
+                sink.send(result);
+            } catch (IOException | RuntimeException e) {
+                // client went away; let in-flight calls finish but start nothing new
+                log.warn("Stopping celebrity batch at image {}: {}", result.index(), e.getMessage());
+                cancelled = true;
+                done.complete(null);
+            }
+        }
+    }
+}
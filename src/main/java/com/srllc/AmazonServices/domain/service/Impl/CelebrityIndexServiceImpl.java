@@ -0,0 +1,258 @@
+package com.srllc.AmazonServices.domain.service.Impl;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import com.srllc.AmazonServices.domain.entity.AnalyzedImage;
+import com.srllc.AmazonServices.domain.entity.CelebrityAppearance;
+import com.srllc.AmazonServices.domain.exception.BadRequestException;
+import com.srllc.AmazonServices.domain.exception.ResourceNotFoundException;
+import com.srllc.AmazonServices.domain.metrics.PipelineMetrics;
+import com.srllc.AmazonServices.domain.record.CelebrityAppearancePage;
+import com.srllc.AmazonServices.domain.record.CelebrityAppearanceView;
+import com.srllc.AmazonServices.domain.record.CelebrityStatsView;
+import com.srllc.AmazonServices.domain.repository.CelebrityAppearanceRepository;
+import com.srllc.AmazonServices.domain.repository.CelebrityStatsRepository;
+import com.srllc.AmazonServices.domain.service.CelebrityIndexService;
+import com.srllc.AmazonServices.domain.upload.SpooledUpload;
+import com.srllc.AmazonServices.dto.RekognitionResponse;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Recognition results are saved off the request path: {@link #record} puts
+ * the image in a bounded buffer, and one writer thread saves the buffer in
+ * batches of up to {@code flush-size} images, or whatever arrived within
+ * {@code flush-interval-ms}, each in one transaction. A full buffer makes the
+ * caller save its image itself, which slows recognition down to the
+ * database's pace instead of dropping results.
+ */
+@Service
+@Slf4j
+public class CelebrityIndexServiceImpl implements CelebrityIndexService {
+    private final CelebrityIndexWriter writer;
+    private final CelebrityAppearanceRepository appearanceRepository;
+    private final CelebrityStatsRepository statsRepository;
+    private final PipelineMetrics metrics;
+    private final boolean enabled;
+    private final int maxPageSize;
+    private final int flushSize;
+    private final long flushIntervalMillis;
+    private final BlockingQueue<AnalyzedImage> buffer;
+
+    private Thread writerThread;
+    private volatile boolean running;
+
+    public CelebrityIndexServiceImpl(CelebrityIndexWriter writer,
+            CelebrityAppearanceRepository appearanceRepository,
+            CelebrityStatsRepository statsRepository,
+            PipelineMetrics metrics,
+            @Value("${rekognition.index.enabled:true}") boolean enabled,
+            @Value("${rekognition.index.max-page-size:200}") int maxPageSize,
+            @Value("${rekognition.index.queue-capacity:1000}") int queueCapacity,
+            @Value("${rekognition.index.flush-size:100}") int flushSize,
+            @Value("${rekognition.index.flush-interval-ms:200}") long flushIntervalMillis) {
+        this.writer = writer;
+        this.appearanceRepository = appearanceRepository;
+        this.statsRepository = statsRepository;
+        this.metrics = metrics;
+        this.enabled = enabled;
+        this.maxPageSize = maxPageSize;
+        this.flushSize = Math.max(1, flushSize);
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.buffer = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writerThread = new Thread(this::drainLoop, "celebrity-index-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @Override
+    public void record(SpooledUpload upload, OptionalLong imageHash, RekognitionResponse response) {
+        if (!enabled) {
+            return;
+        }
+
+        AnalyzedImage image = toEntity(upload, imageHash, response);
+        if (!buffer.offer(image)) {
+            save(List.of(image));
+        }
+    }
+
+    private void drainLoop() {
+        List<AnalyzedImage> batch = new ArrayList<>(flushSize);
+        while (running || !buffer.isEmpty()) {
+            try {
+                AnalyzedImage first = buffer.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // wait up to one interval for the batch to fill
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+                while (batch.size() < flushSize) {
+                    buffer.drainTo(batch, flushSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= flushSize || remaining <= 0) {
+                        break;
+                    }
+                    AnalyzedImage next = buffer.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                save(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+
+    private void save(List<AnalyzedImage> images) {
+        try {
+            metrics.time(PipelineMetrics.REKOGNITION, "save", () -> write(images));
+        } catch (RuntimeException e) {
+            log.error("Failed to save {} recognition results: {}", images.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Losing a race on a content hash rolls the whole batch back. Each image is
+     * then written on its own, once more if it races again; the retry finds the
+     * winner's row and counts nothing, and the other images are not held up by it.
+     */
+    private int write(List<AnalyzedImage> images) {
+        try {
+            return writer.write(images);
+        } catch (DataIntegrityViolationException e) {
+            log.debug("{} images were indexed concurrently, writing them one by one: {}", images.size(),
+                    e.getMessage());
+        }
+        int written = 0;
+        for (AnalyzedImage image : images) {
+            try {
+                written += writeOne(image);
+            } catch (RuntimeException e) {
+                log.error("Failed to save recognition result for {}: {}", image.getFileName(), e.getMessage());
+            }
+        }
+        return written;
+    }
+
+    private int writeOne(AnalyzedImage image) {
+        try {
+            return writer.write(List.of(image));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Image {} was indexed concurrently, retrying: {}", image.getContentHash(), e.getMessage());
+            return writer.write(List.of(image));
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (writerThread == null) {
+            return;
+        }
+        running = false;
+        // the writer saves what is buffered before it exits
+        writerThread.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    @Override
+    public CelebrityAppearancePage findAppearances(String celebrityId, String celebrityName, float minConfidence,
+            Long cursor, int size) {
+        if (size < 1 || size > maxPageSize) {
+            throw new BadRequestException("Page size must be between 1 and " + maxPageSize);
+        }
+        if ((celebrityId == null) == (celebrityName == null)) {
+            throw new BadRequestException("Exactly one of celebrityId or name is required");
+        }
+
+        // one extra row tells us whether there is a next page without a count query
+        long before = cursor == null ? Long.MAX_VALUE : cursor;
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<CelebrityAppearanceView> appearances = celebrityId != null
+                ? appearanceRepository.findByCelebrityId(celebrityId, minConfidence, before, limit)
+                : appearanceRepository.findByCelebrityName(celebrityName, minConfidence, before, limit);
+
+        boolean hasMore = appearances.size() > size;
+        if (hasMore) {
+            appearances = appearances.subList(0, size);
+        }
+        Long nextCursor = hasMore ? appearances.get(appearances.size() - 1).appearanceId() : null;
+        return new CelebrityAppearancePage(appearances, nextCursor, hasMore);
+    }
+
+    @Override
+    public List<CelebrityStatsView> topCelebrities(int size) {
+        if (size < 1 || size > maxPageSize) {
+            throw new BadRequestException("Page size must be between 1 and " + maxPageSize);
+        }
+        return statsRepository.findAllByOrderByAppearancesDesc(PageRequest.of(0, size)).stream()
+                .map(CelebrityStatsView::from)
+                .toList();
+    }
+
+    @Override
+    public CelebrityStatsView getStats(String celebrityId) {
+        return statsRepository.findById(celebrityId)
+                .map(CelebrityStatsView::from)
+                .orElseThrow(() -> new ResourceNotFoundException("No appearances recorded for celebrity: " + celebrityId));
+    }
+
+    private static AnalyzedImage toEntity(SpooledUpload upload, OptionalLong imageHash, RekognitionResponse response) {
+        AnalyzedImage image = new AnalyzedImage();
+        image.setFileName(upload.fileName());
+        image.setContentHash(upload.contentHash());
+        image.setImageHash(imageHash.isPresent() ? imageHash.getAsLong() : null);
+        image.setCelebrityCount(response.getCelebrities() == null ? 0 : response.getCelebrities().size());
+        image.setUnrecognizedFaces(response.getUnrecognizedFaces());
+        image.setAnalyzedAt(Instant.now());
+
+        List<CelebrityAppearance> appearances = response.getCelebrities() == null
+                ? List.of()
+                : response.getCelebrities().stream().map(celebrity -> {
+                    CelebrityAppearance appearance = new CelebrityAppearance();
+                    appearance.setCelebrityId(celebrity.getId());
+                    appearance.setCelebrityName(celebrity.getName());
+                    appearance.setConfidence(celebrity.getConfidence());
+                    if (celebrity.getUrls() != null) {
+                        appearance.setUrls(String.join(" ", celebrity.getUrls()));
+                    }
+                    if (celebrity.getBoundingBox() != null) {
+                        appearance.setBoxWidth(celebrity.getBoundingBox().getWidth());
+                        appearance.setBoxHeight(celebrity.getBoundingBox().getHeight());
+                        appearance.setBoxLeft(celebrity.getBoundingBox().getLeft());
+                        appearance.setBoxTop(celebrity.getBoundingBox().getTop());
+                    }
+                    appearance.setImage(image);
+                    return appearance;
+                }).toList();
+        image.setAppearances(appearances);
+        return image;
+    }
+}
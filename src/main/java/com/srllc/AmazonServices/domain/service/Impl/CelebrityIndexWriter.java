@@ -0,0 +1,86 @@
+package com.srllc.AmazonServices.domain.service.Impl;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.srllc.AmazonServices.domain.entity.AnalyzedImage;
+import com.srllc.AmazonServices.domain.entity.CelebrityAppearance;
+import com.srllc.AmazonServices.domain.entity.CelebrityStats;
+import com.srllc.AmazonServices.domain.repository.AnalyzedImageRepository;
+import com.srllc.AmazonServices.domain.repository.CelebrityStatsRepository;
+
+import lombok.RequiredArgsConstructor;
+
+@Component
+@RequiredArgsConstructor
+public class CelebrityIndexWriter {
+
+    private final AnalyzedImageRepository analyzedImageRepository;
+    private final CelebrityStatsRepository celebrityStatsRepository;
+
+    /**
+     * Saves images not seen before (by content hash) with their appearances,
+     * then applies one count upsert per distinct celebrity. Returns the number
+     * of images written.
+     * <p>
+     * Two writers can both miss the same hash in the existence check. The
+     * unique key on content_hash lets only one insert through; the other
+     * fails at the flush, before any stats are applied, and its whole
+     * transaction rolls back, so appearances are only counted for images that
+     * were actually inserted. The caller retries, and the retry skips the
+     * hash the winner committed.
+     */
+    @Transactional
+    public int write(List<AnalyzedImage> images) {
+        Set<String> seen = new HashSet<>(analyzedImageRepository.findExistingContentHashes(
+                images.stream().map(AnalyzedImage::getContentHash).toList()));
+        List<AnalyzedImage> fresh = new ArrayList<>();
+        for (AnalyzedImage image : images) {
+            if (seen.add(image.getContentHash())) {
+                fresh.add(image);
+            }
+        }
+        if (fresh.isEmpty()) {
+            return 0;
+        }
+
+        // ids from a rolled-back attempt would make saveAll merge instead of insert
+        for (AnalyzedImage image : fresh) {
+            image.setId(null);
+            image.getAppearances().forEach(appearance -> appearance.setId(null));
+        }
+
+        // saveAll cascades to the appearances; sequence ids let Hibernate batch both inserts.
+        // Flushing here surfaces a duplicate hash before the stats upserts run.
+        analyzedImageRepository.saveAllAndFlush(fresh);
+
+        // sorted, so concurrent writers take the stats row locks in the same order
+        Map<String, CelebrityStats> deltas = new TreeMap<>();
+        for (AnalyzedImage image : fresh) {
+            for (CelebrityAppearance appearance : image.getAppearances()) {
+                if (appearance.getCelebrityId() == null) {
+                    continue;
+                }
+                CelebrityStats delta = deltas.computeIfAbsent(appearance.getCelebrityId(),
+                        id -> new CelebrityStats(id, appearance.getCelebrityName(), 0L, 0f, image.getAnalyzedAt()));
+                delta.setAppearances(delta.getAppearances() + 1);
+                delta.setMaxConfidence(Math.max(delta.getMaxConfidence(),
+                        appearance.getConfidence() == null ? 0f : appearance.getConfidence()));
+                if (image.getAnalyzedAt().isAfter(delta.getLastSeenAt())) {
+                    delta.setLastSeenAt(image.getAnalyzedAt());
+                }
+            }
+        }
+        deltas.values().forEach(delta -> celebrityStatsRepository.upsert(delta.getCelebrityId(),
+                delta.getCelebrityName(), delta.getAppearances(), delta.getMaxConfidence(), delta.getLastSeenAt()));
+
+        return fresh.size();
+    }
+}
@@ -0,0 +1,157 @@
+package com.srllc.AmazonServices.domain.service.Impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.srllc.AmazonServices.common.ContentHash;
+import com.srllc.AmazonServices.common.ZipUploads;
+import com.srllc.AmazonServices.domain.archive.BlockArchive;
+import com.srllc.AmazonServices.domain.cache.ReceiptResultCache;
+import com.srllc.AmazonServices.domain.entity.Reciepts;
+import com.srllc.AmazonServices.domain.record.BatchExtractResponse;
+import com.srllc.AmazonServices.domain.record.BatchFileResult;
+import com.srllc.AmazonServices.domain.record.UploadedImage;
+import com.srllc.AmazonServices.domain.repository.RecieptsRepository;
+import com.srllc.AmazonServices.domain.service.ReceiptBatchService;
+import com.srllc.AmazonServices.domain.service.TextractServiceInterface;
+import com.srllc.AmazonServices.domain.upload.SpooledUpload;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@Slf4j
+public class ReceiptBatchServiceImpl implements ReceiptBatchService {
+    private final TextractServiceInterface textractService;
+    private final RecieptsRepository receiptsRepository;
+    private final ReceiptResultCache receiptResultCache;
+    private final BlockArchive blockArchive;
+    private final ExecutorService receiptBatchExecutor;
+    private final int maxFiles;
+    private final long maxFileBytes;
+    private final long maxTotalBytes;
+
+    public ReceiptBatchServiceImpl(TextractServiceInterface textractService,
+            RecieptsRepository receiptsRepository,
+            ReceiptResultCache receiptResultCache,
+            BlockArchive blockArchive,
+            @Qualifier("receiptBatchExecutor") ExecutorService receiptBatchExecutor,
+            @Value("${textract.batch.max-files:500}") int maxFiles,
+            @Value("${textract.batch.max-file-bytes:10485760}") long maxFileBytes,
+            @Value("${textract.batch.max-total-bytes:104857600}") long maxTotalBytes) {
+        this.textractService = textractService;
+        this.receiptsRepository = receiptsRepository;
+        this.receiptResultCache = receiptResultCache;
+        this.blockArchive = blockArchive;
+        this.receiptBatchExecutor = receiptBatchExecutor;
+        this.maxFiles = maxFiles;
+        this.maxFileBytes = maxFileBytes;
+        this.maxTotalBytes = maxTotalBytes;
+    }
+
+    @Override
+    public BatchExtractResponse extractBatch(List<MultipartFile> files) {
+        long start = System.nanoTime();
+        List<UploadedImage> images = ZipUploads.expand(files, maxFiles, maxFileBytes, maxTotalBytes);
+        log.info("Extracting batch of {} receipt images", images.size());
+
+        BatchFileResult[] results = new BatchFileResult[images.size()];
+        String[] hashes = new String[images.size()];
+        Map<String, Integer> firstIndexByHash = new HashMap<>();
+        Map<Integer, Integer> duplicateOf = new HashMap<>();
+        Map<Integer, CompletableFuture<Reciepts>> extractions = new LinkedHashMap<>();
+
+        for (int i = 0; i < images.size(); i++) {
+            UploadedImage image = images.get(i);
+            hashes[i] = ContentHash.sha256Hex(image.content());
+
+            Integer first = firstIndexByHash.putIfAbsent(hashes[i], i);
+            if (first != null) {
+                duplicateOf.put(i, first);
+                continue;
+            }
+
+            Optional<Reciepts> existing = receiptResultCache.find(hashes[i]);
+            if (existing.isPresent()) {
+                results[i] = new BatchFileResult(image.fileName(), BatchFileResult.DUPLICATE,
+                        existing.get().getId(), null);
+                continue;
+            }
+
+            extractions.put(i, CompletableFuture.supplyAsync(
+                    () -> textractService.analyzeReceipt(SpooledUpload.of(image.fileName(), image.content())), receiptBatchExecutor));
+        }
+
+        List<Integer> parsedIndexes = new ArrayList<>();
+        List<Reciepts> parsed = new ArrayList<>();
+        extractions.forEach((index, extraction) -> {
+            try {
+                parsed.add(extraction.join());
+                parsedIndexes.add(index);
+            } catch (CompletionException e) {
+                String error = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+                results[index] = new BatchFileResult(images.get(index).fileName(), BatchFileResult.FAILED, null, error);
+            }
+        });
+
+        persist(images, hashes, results, parsedIndexes, parsed);
+
+        duplicateOf.forEach((index, first) -> {
+            BatchFileResult original = results[first];
+            String status = BatchFileResult.FAILED.equals(original.status())
+                    ? BatchFileResult.FAILED
+                    : BatchFileResult.DUPLICATE;
+            results[index] = new BatchFileResult(images.get(index).fileName(), status, original.receiptId(),
+                    original.error());
+        });
+
+        int failed = 0;
+        for (BatchFileResult result : results) {
+            if (BatchFileResult.FAILED.equals(result.status())) {
+                failed++;
+            }
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        log.info("Batch complete: {} files, {} failed, {} ms", results.length, failed, elapsedMillis);
+        return new BatchExtractResponse(results.length, results.length - failed, failed, elapsedMillis,
+                List.of(results));
+    }
+
+    private void persist(List<UploadedImage> images, String[] hashes, BatchFileResult[] results,
+            List<Integer> parsedIndexes, List<Reciepts> parsed) {
+        if (parsed.isEmpty()) {
+            return;
+        }
+
+        try {
+            // saveAll runs in a single transaction; sequence ids let Hibernate batch the inserts
+            List<Reciepts> saved = receiptsRepository.saveAll(parsed);
+            for (int k = 0; k < saved.size(); k++) {
+                int index = parsedIndexes.get(k);
+                Long receiptId = saved.get(k).getId();
+                receiptResultCache.put(hashes[index], saved.get(k));
+                blockArchive.archiveSaved(saved.get(k));
+                results[index] = new BatchFileResult(images.get(index).fileName(), BatchFileResult.EXTRACTED,
+                        receiptId, null);
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to persist receipt batch: {}", e.getMessage());
+            for (int index : parsedIndexes) {
+                results[index] = new BatchFileResult(images.get(index).fileName(), BatchFileResult.FAILED, null,
+                        "Failed to save receipt: " + e.getMessage());
+            }
+        }
+    }
+}
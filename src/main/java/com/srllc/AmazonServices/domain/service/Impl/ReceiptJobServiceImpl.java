@@ -0,0 +1,167 @@
+package com.srllc.AmazonServices.domain.service.Impl;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.srllc.AmazonServices.domain.entity.ExtractionJob;
+import com.srllc.AmazonServices.domain.entity.JobKind;
+import com.srllc.AmazonServices.domain.entity.JobStatus;
+import com.srllc.AmazonServices.domain.entity.Reciepts;
+import com.srllc.AmazonServices.domain.exception.BadRequestException;
+import com.srllc.AmazonServices.domain.exception.ResourceNotFoundException;
+import com.srllc.AmazonServices.domain.exception.TooManyRequestsException;
+import com.srllc.AmazonServices.domain.persistence.ExtractionJobQueue;
+import com.srllc.AmazonServices.domain.persistence.ExtractionJobWorker;
+import com.srllc.AmazonServices.domain.record.ReceiptJob;
+import com.srllc.AmazonServices.domain.record.ReceiptView;
+import com.srllc.AmazonServices.domain.record.S3DocumentRef;
+import com.srllc.AmazonServices.domain.service.ReceiptJobService;
+import com.srllc.AmazonServices.domain.service.TextractServiceInterface;
+import com.srllc.AmazonServices.domain.upload.SpooledUpload;
+import com.srllc.AmazonServices.domain.upload.UploadSpooler;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@Slf4j
+public class ReceiptJobServiceImpl implements ReceiptJobService {
+    private final TextractServiceInterface textractService;
+    private final ExtractionJobQueue jobQueue;
+    private final UploadSpooler uploadSpooler;
+    private final ExtractionJobWorker worker;
+    private final long maxPending;
+
+    public ReceiptJobServiceImpl(TextractServiceInterface textractService,
+            ExtractionJobQueue jobQueue,
+            @Qualifier("receiptJobExecutor") ThreadPoolExecutor receiptJobExecutor,
+            UploadSpooler uploadSpooler,
+            MeterRegistry meterRegistry,
+            @Value("${textract.jobs.node-id:}") String nodeId,
+            @Value("${textract.jobs.workers:4}") int workers,
+            @Value("${textract.jobs.max-pending:10000}") long maxPending,
+            @Value("${textract.jobs.lease-seconds:60}") long leaseSeconds,
+            @Value("${textract.jobs.poll-interval-ms:500}") long pollIntervalMillis,
+            @Value("${textract.jobs.max-attempts:3}") int maxAttempts,
+            @Value("${textract.jobs.retry-backoff-ms:5000}") long retryBackoffMillis,
+            @Value("${textract.jobs.retention-minutes:60}") long retentionMinutes) {
+        this.textractService = textractService;
+        this.jobQueue = jobQueue;
+        this.uploadSpooler = uploadSpooler;
+        this.maxPending = maxPending;
+        this.worker = new ExtractionJobWorker(jobQueue, nodeId.isBlank() ? defaultNodeId() : nodeId,
+                receiptJobExecutor, workers, Duration.ofSeconds(leaseSeconds), pollIntervalMillis, maxAttempts,
+                Duration.ofMillis(retryBackoffMillis), Duration.ofMinutes(retentionMinutes), this::process,
+                meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        worker.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        worker.stop();
+    }
+
+    @Override
+    public ReceiptJob submit(MultipartFile file) {
+        return enqueueUpload(ExtractionJob.pending(JobKind.RECEIPT, file.getOriginalFilename()), file);
+    }
+
+    @Override
+    public ReceiptJob submitDocument(MultipartFile file) {
+        return enqueueUpload(ExtractionJob.pending(JobKind.DOCUMENT, file.getOriginalFilename()), file);
+    }
+
+    @Override
+    public ReceiptJob submitS3Document(S3DocumentRef document) {
+        if (document == null || document.bucket() == null || document.bucket().isBlank()
+                || document.key() == null || document.key().isBlank()) {
+            throw new BadRequestException("Both bucket and key are required");
+        }
+        ExtractionJob job = ExtractionJob.pending(JobKind.S3_DOCUMENT,
+                "s3://" + document.bucket() + "/" + document.key());
+        job.setS3Bucket(document.bucket());
+        job.setS3Key(document.key());
+        return enqueue(job, null);
+    }
+
+    private ReceiptJob enqueueUpload(ExtractionJob job, MultipartFile file) {
+        try (SpooledUpload upload = uploadSpooler.spool(file)) {
+            return enqueue(job, upload);
+        }
+    }
+
+    private ReceiptJob enqueue(ExtractionJob job, SpooledUpload upload) {
+        long pending = jobQueue.countPending();
+        if (pending >= maxPending) {
+            log.warn("Receipt job queue is full ({} pending), rejecting upload", pending);
+            throw new TooManyRequestsException("Receipt extraction queue is full, retry later");
+        }
+
+        jobQueue.enqueue(job, upload);
+        worker.wake();
+        log.info("Queued receipt job {} ({} pending)", job.getId(), pending + 1);
+        return ReceiptJob.of(job);
+    }
+
+    @Override
+    public ReceiptJob getJob(String jobId) {
+        ReceiptJob job = jobQueue.find(jobId)
+                .map(ReceiptJob::of)
+                .orElseThrow(() -> new ResourceNotFoundException("Receipt job not found with id: " + jobId));
+
+        if (job.status() == JobStatus.COMPLETED) {
+            // no id means the receipt was queued for a write-behind save when the job finished
+            ReceiptView receipt = job.receiptId() != null
+                    ? textractService.getReceiptById(job.receiptId())
+                    : textractService.getReceiptByExternalId(job.receiptExternalId());
+            return job.withReceipt(receipt);
+        }
+        return job;
+    }
+
+    private Reciepts process(ExtractionJob job) {
+        return switch (job.getKind()) {
+            case RECEIPT -> {
+                try (SpooledUpload upload = load(job)) {
+                    yield textractService.extractReceiptData(upload);
+                }
+            }
+            case DOCUMENT -> {
+                try (SpooledUpload upload = load(job)) {
+                    yield textractService.extractDocument(upload);
+                }
+            }
+            case S3_DOCUMENT -> textractService.extractReceiptDataFromS3(job.getS3Bucket(), job.getS3Key());
+        };
+    }
+
+    private SpooledUpload load(ExtractionJob job) {
+        return jobQueue.readPayload(job.getId(),
+                        (content, size) -> uploadSpooler.spool(job.getFileName(), content, size))
+                .orElseThrow(() -> new ResourceNotFoundException("Upload for job " + job.getId() + " is missing"));
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "node";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,102 @@
+package com.srllc.AmazonServices.domain.service.Impl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.srllc.AmazonServices.domain.entity.Reciepts;
+import com.srllc.AmazonServices.domain.exception.BadRequestException;
+import com.srllc.AmazonServices.domain.record.ReceiptFilter;
+import com.srllc.AmazonServices.domain.record.ReceiptPage;
+import com.srllc.AmazonServices.domain.record.ReceiptView;
+import com.srllc.AmazonServices.domain.repository.ReceiptSpecifications;
+import com.srllc.AmazonServices.domain.repository.RecieptsRepository;
+import com.srllc.AmazonServices.domain.service.ReceiptQueryService;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@Slf4j
+public class ReceiptQueryServiceImpl implements ReceiptQueryService {
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "id");
+
+    private final RecieptsRepository receiptsRepository;
+    private final ObjectMapper objectMapper;
+    private final int maxPageSize;
+    private final int exportChunkSize;
+
+    public ReceiptQueryServiceImpl(RecieptsRepository receiptsRepository,
+            ObjectMapper objectMapper,
+            @Value("${receipts.query.max-page-size:200}") int maxPageSize,
+            @Value("${receipts.export.chunk-size:500}") int exportChunkSize) {
+        this.receiptsRepository = receiptsRepository;
+        this.objectMapper = objectMapper;
+        this.maxPageSize = maxPageSize;
+        this.exportChunkSize = exportChunkSize;
+    }
+
+    @Override
+    public ReceiptPage findReceipts(ReceiptFilter filter, Long cursor, int size) {
+        if (size < 1 || size > maxPageSize) {
+            throw new BadRequestException("Page size must be between 1 and " + maxPageSize);
+        }
+
+        // one extra row tells us whether there is a next page without a count query
+        List<Reciepts> receipts = loadPage(filter, cursor, size + 1);
+        boolean hasMore = receipts.size() > size;
+        if (hasMore) {
+            receipts = receipts.subList(0, size);
+        }
+
+        Long nextCursor = hasMore ? receipts.get(receipts.size() - 1).getId() : null;
+        return new ReceiptPage(receipts.stream().map(ReceiptView::from).toList(), nextCursor, hasMore);
+    }
+
+    @Override
+    public void exportReceipts(ReceiptFilter filter, OutputStream out) throws IOException {
+        long exported = 0;
+        Long cursor = null;
+        // one generator for the whole export; rows are encoded straight into the response buffer
+        ObjectWriter rowWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        do {
+            List<Reciepts> chunk = loadPage(filter, cursor, exportChunkSize);
+            for (Reciepts receipt : chunk) {
+                rowWriter.writeValue(generator, ReceiptView.from(receipt));
+                generator.writeRaw('\n');
+            }
+            generator.flush();
+
+            exported += chunk.size();
+            cursor = chunk.size() < exportChunkSize ? null : chunk.get(chunk.size() - 1).getId();
+        } while (cursor != null);
+        generator.close();
+
+        log.info("Exported {} receipts as NDJSON", exported);
+    }
+
+    // Two statements per page regardless of its size: the filtered keyset query,
+    // then one fetch-join for the items of exactly those receipts.
+    private List<Reciepts> loadPage(ReceiptFilter filter, Long cursor, int limit) {
+        List<Long> ids = receiptsRepository.findBy(ReceiptSpecifications.matching(filter, cursor),
+                query -> query.sortBy(NEWEST_FIRST).limit(limit).all())
+                .stream()
+                .map(Reciepts::getId)
+                .toList();
+
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return receiptsRepository.findWithItemsByIdInOrderByIdDesc(ids);
+    }
+}
@@ -0,0 +1,190 @@
+package com.srllc.AmazonServices.domain.service.Impl;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.srllc.AmazonServices.domain.archive.ArchivedBlock;
+import com.srllc.AmazonServices.domain.archive.BlockArchive;
+import com.srllc.AmazonServices.domain.entity.JobStatus;
+import com.srllc.AmazonServices.domain.entity.Reciepts;
+import com.srllc.AmazonServices.domain.exception.BadRequestException;
+import com.srllc.AmazonServices.domain.exception.ResourceNotFoundException;
+import com.srllc.AmazonServices.domain.parser.ReceiptParser;
+import com.srllc.AmazonServices.domain.persistence.ReceiptReparseWriter;
+import com.srllc.AmazonServices.domain.record.ReparseProgress;
+import com.srllc.AmazonServices.domain.service.ReceiptReparseService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Rebuilds stored receipts from the block archive with the current parser,
+ * without calling Textract. The archived ids are split in half recursively on
+ * a fork-join pool down to {@code batch-size}; each leaf reads and parses its
+ * receipts and writes them back in one transaction. One run at a time.
+ */
+@Service
+@Slf4j
+public class ReceiptReparseServiceImpl implements ReceiptReparseService {
+    private final BlockArchive blockArchive;
+    private final ReceiptParser receiptParser;
+    private final ReceiptReparseWriter reparseWriter;
+    private final MeterRegistry meterRegistry;
+    private final int parallelism;
+    private final int batchSize;
+    private final AtomicReference<Run> current = new AtomicReference<>();
+
+    public ReceiptReparseServiceImpl(BlockArchive blockArchive,
+            ReceiptParser receiptParser,
+            ReceiptReparseWriter reparseWriter,
+            MeterRegistry meterRegistry,
+            @Value("${textract.archive.reparse.parallelism:0}") int parallelism,
+            @Value("${textract.archive.reparse.batch-size:500}") int batchSize) {
+        this.blockArchive = blockArchive;
+        this.receiptParser = receiptParser;
+        this.reparseWriter = reparseWriter;
+        this.meterRegistry = meterRegistry;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    // Starting while a run is in progress returns that run's progress
+    @Override
+    public ReparseProgress start() {
+        if (!blockArchive.isEnabled()) {
+            throw new BadRequestException("The block archive is disabled, set textract.archive.path");
+        }
+        Run previous = current.get();
+        if (previous != null && previous.status == JobStatus.RUNNING) {
+            return previous.progress();
+        }
+        Run run = new Run(blockArchive.externalIds());
+        if (!current.compareAndSet(previous, run)) {
+            return current.get().progress();
+        }
+
+        log.info("Re-parsing {} archived receipts with parallelism {}", run.ids.size(), parallelism);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        CompletableFuture.runAsync(() -> new ReparseTask(run, 0, run.ids.size()).invoke(), pool)
+                .whenComplete((ignored, error) -> {
+                    pool.shutdown();
+                    run.finish(error);
+                    ReparseProgress progress = run.progress();
+                    if (error != null) {
+                        log.error("Re-parse failed after {} receipts: {}", progress.processed(), error.getMessage());
+                    } else {
+                        log.info("Re-parsed {} receipts in {} ms ({} receipts/s): {} updated, {} missing, {} failed",
+                                progress.processed(), progress.elapsedMillis(), Math.round(progress.receiptsPerSecond()),
+                                progress.updated(), progress.missing(), progress.failed());
+                    }
+                });
+        return run.progress();
+    }
+
+    @Override
+    public ReparseProgress progress() {
+        Run run = current.get();
+        if (run == null) {
+            throw new ResourceNotFoundException("No re-parse has been started");
+        }
+        return run.progress();
+    }
+
+    private void reparse(Run run, List<String> ids) {
+        Map<String, Reciepts> parsed = new HashMap<>(ids.size() * 2);
+        for (String id : ids) {
+            try {
+                Optional<List<ArchivedBlock>> blocks = blockArchive.read(id);
+                if (blocks.isEmpty()) {
+                    run.missing.increment();
+                    continue;
+                }
+                List<String> lines = receiptParser.extractLines(ArchivedBlock.toBlocks(blocks.get()));
+                Reciepts receipt = receiptParser.parse(lines);
+                parsed.put(id, receipt);
+            } catch (IOException | RuntimeException e) {
+                run.failed.increment();
+                log.warn("Could not re-parse archived receipt {}: {}", id, e.getMessage());
+            }
+        }
+
+        if (!parsed.isEmpty()) {
+            try {
+                int updated = reparseWriter.apply(parsed);
+                run.updated.add(updated);
+                run.missing.add(parsed.size() - updated);
+                meterRegistry.counter("textract.reparse.receipts", "outcome", "updated").increment(updated);
+            } catch (RuntimeException e) {
+                run.failed.add(parsed.size());
+                log.error("Could not save {} re-parsed receipts: {}", parsed.size(), e.getMessage());
+            }
+        }
+        run.processed.add(ids.size());
+    }
+
+    private final class ReparseTask extends RecursiveAction {
+        private final Run run;
+        private final int from;
+        private final int to;
+
+        ReparseTask(Run run, int from, int to) {
+            this.run = run;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= batchSize) {
+                reparse(run, run.ids.subList(from, to));
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ReparseTask(run, from, middle), new ReparseTask(run, middle, to));
+        }
+    }
+
+    private static final class Run {
+        private final List<String> ids;
+        private final LongAdder processed = new LongAdder();
+        private final LongAdder updated = new LongAdder();
+        private final LongAdder missing = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final long startNanos = System.nanoTime();
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private volatile JobStatus status = JobStatus.RUNNING;
+        private volatile long finishNanos;
+        private volatile LocalDateTime completedAt;
+
+        Run(List<String> ids) {
+            this.ids = ids;
+        }
+
+        void finish(Throwable error) {
+            finishNanos = System.nanoTime();
+            completedAt = LocalDateTime.now();
+            status = error == null ? JobStatus.COMPLETED : JobStatus.FAILED;
+        }
+
+        ReparseProgress progress() {
+            long elapsed = (status == JobStatus.RUNNING ? System.nanoTime() : finishNanos) - startNanos;
+            long done = processed.sum();
+            double perSecond = elapsed > 0 ? done * (double) TimeUnit.SECONDS.toNanos(1) / elapsed : 0;
+            return new ReparseProgress(status, ids.size(), done, updated.sum(), missing.sum(), failed.sum(),
+                    TimeUnit.NANOSECONDS.toMillis(elapsed), perSecond, startedAt, completedAt);
+        }
+    }
+}
@@ -1,21 +1,34 @@
 package com.srllc.AmazonServices.domain.service.Impl;
 
 import java.io.IOException;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
 
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.srllc.AmazonServices.common.AsyncResults;
+import com.srllc.AmazonServices.common.AwsErrors;
+import com.srllc.AmazonServices.common.Deadline;
+import com.srllc.AmazonServices.common.SingleFlight;
+import com.srllc.AmazonServices.domain.cache.RekognitionResultCache;
+import com.srllc.AmazonServices.domain.client.RekognitionGateway;
+import com.srllc.AmazonServices.domain.exception.DeadlineExceededException;
 import com.srllc.AmazonServices.domain.exception.RekognitionException;
+import com.srllc.AmazonServices.domain.exception.ServiceUnavailableException;
+import com.srllc.AmazonServices.domain.exception.TooManyRequestsException;
+import com.srllc.AmazonServices.domain.mapper.RekognitionResponseMapper;
+import com.srllc.AmazonServices.domain.metrics.PipelineMetrics;
+import com.srllc.AmazonServices.domain.service.CelebrityIndexService;
 import com.srllc.AmazonServices.domain.service.RekognitionService;
+import com.srllc.AmazonServices.domain.upload.ImagePreprocessor;
+import com.srllc.AmazonServices.domain.upload.PerceptualHasher;
+import com.srllc.AmazonServices.domain.upload.SpooledUpload;
+import com.srllc.AmazonServices.domain.upload.UploadSpooler;
 import com.srllc.AmazonServices.dto.RekognitionResponse;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import software.amazon.awssdk.core.SdkBytes;
-import software.amazon.awssdk.services.rekognition.RekognitionClient;
-import software.amazon.awssdk.services.rekognition.model.Celebrity;
 import software.amazon.awssdk.services.rekognition.model.Image;
 import software.amazon.awssdk.services.rekognition.model.RecognizeCelebritiesRequest;
 import software.amazon.awssdk.services.rekognition.model.RecognizeCelebritiesResponse;
@@ -25,65 +38,146 @@ import software.amazon.awssdk.services.rekognition.model.RecognizeCelebritiesRes
 @Slf4j
 public class RekognitionServiceImpl implements RekognitionService {
 
-    private final RekognitionClient rekognitionClient;
+    private final RekognitionGateway rekognitionGateway;
+    private final RekognitionResponseMapper rekognitionResponseMapper;
+    private final UploadSpooler uploadSpooler;
+    private final ImagePreprocessor imagePreprocessor;
+    private final PipelineMetrics metrics;
+    private final PerceptualHasher perceptualHasher;
+    private final RekognitionResultCache resultCache;
+    private final CelebrityIndexService celebrityIndexService;
+    // identical photos arriving together share one Rekognition call, keyed by content hash
+    private final SingleFlight<String, RekognitionResponse> inFlight =
+            new SingleFlight<>(this::recordCoalesced);
 
     @Override
     public RekognitionResponse recognizeCelebrities(MultipartFile file) throws IOException {
         log.info("Recognizing celebrities from uploaded file");
 
-        try {
-            SdkBytes imageBytes = SdkBytes.fromInputStream(file.getInputStream());
-
-            Image image = Image.builder()
-                    .bytes(imageBytes)
-                    .build();
-
-            RecognizeCelebritiesRequest request = RecognizeCelebritiesRequest.builder()
-                    .image(image)
-                    .build();
-
-            RecognizeCelebritiesResponse response = rekognitionClient.recognizeCelebrities(request);
-
-            return buildResponse(response);
+        Deadline deadline = Deadline.current();
+        try (SpooledUpload upload = uploadSpooler.spool(file)) {
+            return AsyncResults.join(deadline.bound(inFlight.execute(upload.contentHash(),
+                    () -> CompletableFuture.completedFuture(recognize(upload, deadline)))));
 
         } catch (software.amazon.awssdk.services.rekognition.model.RekognitionException e) {
             log.error("Rekognition error: {}", e.getMessage());
-            throw new RekognitionException(e.awsErrorDetails().errorMessage());
+            throw new RekognitionException(e.awsErrorDetails().errorMessage(), AwsErrors.code(e));
         }
     }
 
-    private RekognitionResponse buildResponse(RecognizeCelebritiesResponse awsResponse) {
-        List<RekognitionResponse.Celebrity> celebrities = awsResponse.celebrityFaces().stream()
-                .map(this::mapCelebrity)
-                .collect(Collectors.toList());
+    private RekognitionResponse recognize(SpooledUpload upload, Deadline deadline) {
+        OptionalLong imageHash = resultCache.isEnabled() ? perceptualHasher.hash(upload) : OptionalLong.empty();
+        if (imageHash.isPresent()) {
+            RekognitionResponse cached = resultCache.find(imageHash.getAsLong()).orElse(null);
+            if (cached != null) {
+                celebrityIndexService.record(upload, imageHash, cached);
+                return cached;
+            }
+        }
 
-        return RekognitionResponse.builder()
-                .celebrities(celebrities)
-                .unrecognizedFaces(awsResponse.unrecognizedFaces().size())
+        deadline.check("rekognition.preprocess");
+        Image image = Image.builder()
+                .bytes(imagePreprocessor.prepare(upload, ImagePreprocessor.Profile.FACES))
                 .build();
-    }
 
-    private RekognitionResponse.Celebrity mapCelebrity(Celebrity celebrity) {
-        return RekognitionResponse.Celebrity.builder()
-                .name(celebrity.name())
-                .id(celebrity.id())
-                .confidence(celebrity.matchConfidence())
-                .urls(celebrity.urls())
-                .boundingBox(mapBoundingBox(celebrity.face() != null ? celebrity.face().boundingBox() : null))
+        RecognizeCelebritiesRequest request = RecognizeCelebritiesRequest.builder()
+                .image(image)
                 .build();
+
+        RecognizeCelebritiesResponse response = rekognitionGateway.recognizeCelebrities(request, deadline);
+
+        deadline.check("rekognition.map_response");
+        return remember(upload, imageHash, toResponse(response));
+    }
+
+    @Override
+    public CompletableFuture<RekognitionResponse> recognizeCelebritiesAsync(MultipartFile file) throws IOException {
+        log.info("Recognizing celebrities from uploaded file (async)");
+
+        return recognizeCelebritiesAsync(uploadSpooler.spool(file), Deadline.current());
+    }
+
+    // Batch frames are not tied to any one request deadline
+    @Override
+    public CompletableFuture<RekognitionResponse> recognizeCelebritiesAsync(SpooledUpload upload) {
+        return recognizeCelebritiesAsync(upload, Deadline.none());
     }
 
-    private RekognitionResponse.BoundingBox mapBoundingBox(
-            software.amazon.awssdk.services.rekognition.model.BoundingBox awsBoundingBox) {
-        if (awsBoundingBox == null) {
-            return null;
+    private CompletableFuture<RekognitionResponse> recognizeCelebritiesAsync(SpooledUpload upload, Deadline deadline) {
+        CompletableFuture<RekognitionResponse> call;
+        try {
+            call = inFlight.execute(upload.contentHash(), () -> recognizeAsync(upload, deadline));
+        } catch (RuntimeException e) {
+            upload.close();
+            throw e;
         }
 
-        return RekognitionResponse.BoundingBox.builder()
-                .width(awsBoundingBox.width())
-                .height(awsBoundingBox.height())
-                .left(awsBoundingBox.left())
-                .top(awsBoundingBox.top())
-                .build();
+        // the upload lives as long as the work, even if the caller's deadline ends its wait sooner
+        call.whenComplete((response, error) -> upload.close());
+        return deadline.bound(call)
+                .handle((response, error) -> {
+                    if (error == null) {
+                        return response;
+                    }
+                    Throwable cause = AsyncResults.unwrap(error);
+                    if (cause instanceof TooManyRequestsException || cause instanceof ServiceUnavailableException
+                            || cause instanceof DeadlineExceededException) {
+                        throw (RuntimeException) cause;
+                    }
+                    log.error("Rekognition error: {}", cause.getMessage());
+                    if (cause instanceof software.amazon.awssdk.services.rekognition.model.RekognitionException e
+                            && e.awsErrorDetails() != null) {
+                        throw new RekognitionException(e.awsErrorDetails().errorMessage(), AwsErrors.code(e));
+                    }
+                    throw new RekognitionException(cause.getMessage(), AwsErrors.code(cause));
+                });
+    }
+
+    private CompletableFuture<RekognitionResponse> recognizeAsync(SpooledUpload upload, Deadline deadline) {
+        CompletableFuture<OptionalLong> imageHash = resultCache.isEnabled()
+                ? perceptualHasher.hashAsync(upload)
+                : CompletableFuture.completedFuture(OptionalLong.empty());
+        return imageHash.thenCompose(hash -> {
+            if (hash.isPresent()) {
+                RekognitionResponse cached = resultCache.find(hash.getAsLong()).orElse(null);
+                if (cached != null) {
+                    celebrityIndexService.record(upload, hash, cached);
+                    return CompletableFuture.completedFuture(cached);
+                }
+            }
+            return recognizeRemotely(upload, deadline)
+                    .thenApply(response -> {
+                        deadline.check("rekognition.map_response");
+                        return remember(upload, hash, toResponse(response));
+                    });
+        });
+    }
+
+    private CompletableFuture<RecognizeCelebritiesResponse> recognizeRemotely(SpooledUpload upload, Deadline deadline) {
+        deadline.check("rekognition.preprocess");
+        return imagePreprocessor.prepareAsync(upload, ImagePreprocessor.Profile.FACES)
+                .thenCompose(image -> rekognitionGateway.recognizeCelebritiesAsync(
+                        RecognizeCelebritiesRequest.builder()
+                                .image(Image.builder()
+                                        .bytes(image)
+                                        .build())
+                                .build(), deadline));
+    }
+
+    private RekognitionResponse remember(SpooledUpload upload, OptionalLong imageHash, RekognitionResponse response) {
+        imageHash.ifPresent(hash -> resultCache.put(hash, response));
+        celebrityIndexService.record(upload, imageHash, response);
+        return response;
+    }
+
+    private RekognitionResponse toResponse(RecognizeCelebritiesResponse response) {
+        metrics.recordCelebrities(response.celebrityFaces().size());
+        return metrics.time(PipelineMetrics.REKOGNITION, "map_response",
+                () -> rekognitionResponseMapper.buildResponse(response));
+    }
+
+    // runs once a call is coalesced, long after construction, so the injected metrics are set by then
+    private void recordCoalesced() {
+        metrics.recordCoalesced(PipelineMetrics.REKOGNITION);
     }
-}
\ No newline at end of file
+}
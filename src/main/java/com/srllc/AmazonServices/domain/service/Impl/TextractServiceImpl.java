@@ -1,368 +1,404 @@
 package com.srllc.AmazonServices.domain.service.Impl;
 
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import com.srllc.AmazonServices.domain.entity.RecieptItem;
+import com.srllc.AmazonServices.common.AsyncResults;
+import com.srllc.AmazonServices.common.AwsErrors;
+import com.srllc.AmazonServices.common.Deadline;
+import com.srllc.AmazonServices.common.SingleFlight;
+import com.srllc.AmazonServices.domain.archive.ArchivedBlock;
+import com.srllc.AmazonServices.domain.archive.BlockArchive;
+import com.srllc.AmazonServices.domain.cache.ReceiptReadCache;
+import com.srllc.AmazonServices.domain.cache.ReceiptResultCache;
+import com.srllc.AmazonServices.domain.client.S3DocumentStore;
+import com.srllc.AmazonServices.domain.client.TextractGateway;
 import com.srllc.AmazonServices.domain.entity.Reciepts;
 import com.srllc.AmazonServices.domain.exception.BadRequestException;
+import com.srllc.AmazonServices.domain.exception.DeadlineExceededException;
 import com.srllc.AmazonServices.domain.exception.ResourceNotFoundException;
 import com.srllc.AmazonServices.domain.exception.TextractException;
+import com.srllc.AmazonServices.domain.exception.ServiceUnavailableException;
+import com.srllc.AmazonServices.domain.exception.TooManyRequestsException;
+import com.srllc.AmazonServices.domain.metrics.PipelineMetrics;
+import com.srllc.AmazonServices.domain.parser.ReceiptParser;
+import com.srllc.AmazonServices.domain.persistence.ReceiptWriteBehind;
+import com.srllc.AmazonServices.domain.record.ReceiptView;
+import com.srllc.AmazonServices.domain.record.S3DocumentRef;
 import com.srllc.AmazonServices.domain.repository.RecieptsRepository;
 import com.srllc.AmazonServices.domain.service.TextractServiceInterface;
+import com.srllc.AmazonServices.domain.upload.ImagePreprocessor;
+import com.srllc.AmazonServices.domain.upload.SpooledUpload;
+import com.srllc.AmazonServices.domain.upload.UploadSpooler;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import software.amazon.awssdk.core.SdkBytes;
-import software.amazon.awssdk.services.textract.TextractClient;
 import software.amazon.awssdk.services.textract.model.Block;
 import software.amazon.awssdk.services.textract.model.BlockType;
 import software.amazon.awssdk.services.textract.model.DetectDocumentTextRequest;
+import software.amazon.awssdk.services.textract.model.DetectDocumentTextResponse;
 import software.amazon.awssdk.services.textract.model.Document;
+import software.amazon.awssdk.services.textract.model.DocumentLocation;
+import software.amazon.awssdk.services.textract.model.GetDocumentTextDetectionRequest;
+import software.amazon.awssdk.services.textract.model.GetDocumentTextDetectionResponse;
+import software.amazon.awssdk.services.textract.model.JobStatus;
+import software.amazon.awssdk.services.textract.model.S3Object;
+import software.amazon.awssdk.services.textract.model.StartDocumentTextDetectionRequest;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class TextractServiceImpl implements TextractServiceInterface {
-    private final TextractClient textractClient;
+    private final TextractGateway textractGateway;
     private final RecieptsRepository receiptsRepository;
+    private final ReceiptResultCache receiptResultCache;
+    private final ReceiptReadCache receiptReadCache;
+    private final ReceiptParser receiptParser;
+    private final UploadSpooler uploadSpooler;
+    private final ImagePreprocessor imagePreprocessor;
+    private final S3DocumentStore s3DocumentStore;
+    private final PipelineMetrics metrics;
+    private final ReceiptWriteBehind receiptWriteBehind;
+    private final BlockArchive blockArchive;
+    // identical receipts arriving together share one Textract call and one saved row, keyed by content hash
+    private final SingleFlight<String, Reciepts> inFlight =
+            new SingleFlight<>(this::recordCoalesced);
+    @Qualifier("receiptPersistenceExecutor")
+    private final ExecutorService receiptPersistenceExecutor;
+
+    @Value("${textract.documents.poll-interval-ms:1000}")
+    private long pollIntervalMillis;
+
+    @Value("${textract.documents.timeout-seconds:300}")
+    private long documentTimeoutSeconds;
+
+    @Value("${textract.documents.page-size:1000}")
+    private int documentPageSize;
 
     @Override
     public Reciepts extractReceiptData(MultipartFile file) {
-        if (file == null || file.isEmpty()) {
+        Deadline deadline = Deadline.current();
+        try (SpooledUpload upload = uploadSpooler.spool(file)) {
+            return extractReceiptData(upload, deadline);
+        }
+    }
+
+    // Jobs and batches have no client waiting on a deadline
+    @Override
+    public Reciepts extractReceiptData(SpooledUpload upload) {
+        return extractReceiptData(upload, Deadline.none());
+    }
+
+    private Reciepts extractReceiptData(SpooledUpload upload, Deadline deadline) {
+        if (upload == null || upload.isEmpty()) {
             throw new BadRequestException("File cannot be null or empty");
         }
 
         try {
-            log.info("Extracting receipt data from image using Amazon Textract");
-            byte[] imageBytes = file.getBytes();
-
-            var request = DetectDocumentTextRequest.builder()
-                    .document(Document.builder()
-                            .bytes(SdkBytes.fromByteArray(imageBytes))
-                            .build())
-                    .build();
-
-            var response = textractClient.detectDocumentText(request);
-            log.info("Textract returned {} blocks", response.blocks().size());
-
-            List<String> lines = response.blocks().stream()
-                    .filter(block -> block.blockType() == BlockType.LINE)
-                    .map(Block::text)
-                    .toList();
-
-            log.info("All extracted lines:");
-            for (int i = 0; i < lines.size(); i++) {
-                log.info("Line {}: '{}'", i + 1, lines.get(i));
+            String contentHash = upload.contentHash();
+
+            Optional<Reciepts> existing = findExisting(contentHash);
+            if (existing.isPresent()) {
+                log.info("Receipt image already extracted, returning receipt {}", existing.get().getId());
+                return existing.get();
             }
 
-            Reciepts receipt = parseReceiptData(lines);
-            return receiptsRepository.save(receipt);
+            return AsyncResults.join(deadline.bound(inFlight.execute(contentHash, () -> {
+                Reciepts parsed = detectAndParse(upload, deadline);
+                deadline.check("textract.save");
+                Reciepts saved = save(parsed);
+                receiptResultCache.put(contentHash, saved);
+                return CompletableFuture.completedFuture(saved);
+            })));
 
-        } catch (IOException e) {
-            log.error("Error reading file bytes: {}", e.getMessage());
-            throw new BadRequestException("Invalid file format");
+        } catch (TooManyRequestsException | ServiceUnavailableException | DeadlineExceededException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error extracting text from image: {}", e.getMessage());
-            throw new TextractException("Failed to extract receipt data: " + e.getMessage());
+            throw new TextractException("Failed to extract receipt data: " + e.getMessage(), AwsErrors.code(e), e);
         }
     }
 
     @Override
-    public Reciepts getReceiptById(Long id) {
-        return receiptsRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Receipt not found with id: " + id));
+    public CompletableFuture<Reciepts> extractReceiptDataAsync(MultipartFile file) {
+        Deadline deadline = Deadline.current();
+        SpooledUpload upload = uploadSpooler.spool(file);
+        CompletableFuture<Reciepts> work;
+        try {
+            work = extractReceiptDataAsync(upload, deadline);
+        } catch (RuntimeException e) {
+            upload.close();
+            throw e;
+        }
+        // the upload lives as long as the work, even if the deadline ends the caller's wait sooner
+        work.whenComplete((receipt, error) -> upload.close());
+        return deadline.bound(work);
     }
 
-    private Reciepts parseReceiptData(List<String> lines) {
-        Reciepts receipt = new Reciepts();
-        List<RecieptItem> items = new ArrayList<>();
-
-        String companyName = null;
-        String branch = null;
-        String managerName = null;
-        String cashierNumber = null;
-        Double subTotal = null;
-        Double cash = null;
-        Double change = null;
-
-        boolean expectingManagerName = false;
-        boolean expectingCashierNumber = false;
-        boolean expectingSubTotal = false;
-        boolean expectingCash = false;
-        boolean expectingChange = false;
-
-        for (int i = 0; i < lines.size(); i++) {
-            String line = lines.get(i).trim();
-            log.info("Processing line: {}", line);
-
-            // Skip lines with unwanted texts
-            if (line.toLowerCase().contains("index") || line.toLowerCase().contains("confidence") ||
-                    line.toLowerCase().contains("coord") || line.length() > 50) {
-                continue;
-            }
+    @Override
+    public CompletableFuture<Reciepts> extractReceiptDataAsync(SpooledUpload upload) {
+        return extractReceiptDataAsync(upload, Deadline.none());
+    }
 
-            // Handle expected values from previous lines
-            if (expectingManagerName && managerName == null) {
-                managerName = line;
-                log.info("Extracted manager from next line: {}", managerName);
-                expectingManagerName = false;
-                continue;
-            }
+    private CompletableFuture<Reciepts> extractReceiptDataAsync(SpooledUpload upload, Deadline deadline) {
+        if (upload == null || upload.isEmpty()) {
+            throw new BadRequestException("File cannot be null or empty");
+        }
 
-            if (expectingCashierNumber && cashierNumber == null) {
-                cashierNumber = line;
-                log.info("Extracted cashier from next line: {}", cashierNumber);
-                expectingCashierNumber = false;
-                continue;
-            }
+        String contentHash = upload.contentHash();
+        Optional<Reciepts> existing = findExisting(contentHash);
+        if (existing.isPresent()) {
+            log.info("Receipt image already extracted, returning receipt {}", existing.get().getId());
+            return CompletableFuture.completedFuture(existing.get());
+        }
 
-            if (expectingSubTotal && subTotal == null) {
-                Double amount = extractAmount(line);
-                if (amount != null) {
-                    subTotal = amount;
-                    log.info("Extracted subtotal from next line: {}", subTotal);
-                }
-                expectingSubTotal = false;
-                continue;
-            }
+        log.info("Extracting receipt data from image using Amazon Textract (async)");
+        CompletableFuture<Reciepts> extraction = inFlight.execute(contentHash, () -> {
+            deadline.check("textract.preprocess");
+            return imagePreprocessor.prepareAsync(upload, ImagePreprocessor.Profile.OCR)
+                    .thenCompose(image -> textractGateway.detectDocumentTextAsync(buildRequest(image), deadline))
+                    // parsing is cheap but the JPA save blocks, so keep it off the SDK completion threads
+                    .thenApplyAsync(response -> {
+                        deadline.check("textract.parse");
+                        Reciepts parsed = toReceipt(response, contentHash);
+                        deadline.check("textract.save");
+                        Reciepts saved = save(parsed);
+                        receiptResultCache.put(contentHash, saved);
+                        return saved;
+                    }, receiptPersistenceExecutor);
+        });
+        return extraction
+                .handle((saved, error) -> {
+                    if (error == null) {
+                        return saved;
+                    }
+                    Throwable cause = AsyncResults.unwrap(error);
+                    if (cause instanceof TooManyRequestsException || cause instanceof ServiceUnavailableException
+                            || cause instanceof DeadlineExceededException) {
+                        throw (RuntimeException) cause;
+                    }
+                    log.error("Error extracting text from image: {}", cause.getMessage());
+                    throw new TextractException("Failed to extract receipt data: " + cause.getMessage(),
+                            AwsErrors.code(cause), cause);
+                });
+    }
 
-            if (expectingCash && cash == null) {
-                Double amount = extractAmount(line);
-                if (amount != null) {
-                    cash = amount;
-                    log.info("Extracted cash from next line: {}", cash);
-                }
-                expectingCash = false;
-                continue;
-            }
+    @Override
+    public Reciepts analyzeReceipt(SpooledUpload upload) {
+        if (upload == null || upload.isEmpty()) {
+            throw new BadRequestException("File cannot be null or empty");
+        }
 
-            if (expectingChange && change == null) {
-                Double amount = extractAmount(line);
-                if (amount != null) {
-                    change = amount;
-                    log.info("Extracted change from next line: {}", change);
-                }
-                expectingChange = false;
-                continue;
-            }
+        try {
+            return detectAndParse(upload, Deadline.none());
+        } catch (TooManyRequestsException | ServiceUnavailableException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Error extracting text from image: {}", e.getMessage());
+            throw new TextractException("Failed to extract receipt data: " + e.getMessage(), AwsErrors.code(e), e);
+        }
+    }
 
-            // Parse current line
-            if ((line.toUpperCase().contains("HYPERMARKET") || line.toUpperCase().contains("STORE") ||
-                    line.toUpperCase().contains("MALL") || line.toUpperCase().contains("MARKET"))
-                    && companyName == null) {
-                companyName = line;
-                log.info("Extracted company name: {}", companyName);
-            }
+    @Override
+    public Reciepts extractDocument(SpooledUpload upload) {
+        if (upload == null || upload.isEmpty()) {
+            throw new BadRequestException("File cannot be null or empty");
+        }
 
-            else if ((line.toLowerCase().contains("branch") || line.toLowerCase().contains("quezon") ||
-                    line.toLowerCase().contains("manila") || line.toLowerCase().contains("city")) &&
-                    !line.toLowerCase().contains("index") && branch == null) {
-                branch = line;
-                log.info("Extracted branch: {}", branch);
-            }
+        String contentHash = upload.contentHash();
+        Optional<Reciepts> existing = findExisting(contentHash);
+        if (existing.isPresent()) {
+            log.info("Document already extracted, returning receipt {}", existing.get().getId());
+            return existing.get();
+        }
 
-            else if (line.toLowerCase().equals("manager:") && managerName == null) {
-                log.info("Found manager label, expecting name on next line");
-                expectingManagerName = true;
-            }
+        S3DocumentRef staged = s3DocumentStore.stage(upload);
+        try {
+            Reciepts receipt = detectDocument(staged);
+            receipt.setContentHash(contentHash);
+            Reciepts saved = save(receipt);
+            receiptResultCache.put(contentHash, saved);
+            return saved;
+        } catch (BadRequestException | TooManyRequestsException | ServiceUnavailableException | TextractException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Error extracting text from document: {}", e.getMessage());
+            throw new TextractException("Failed to extract document data: " + e.getMessage(), AwsErrors.code(e), e);
+        } finally {
+            s3DocumentStore.delete(staged);
+        }
+    }
 
-            else if (line.toLowerCase().equals("cashier:") && cashierNumber == null) {
-                log.info("Found cashier label, expecting number on next line");
-                expectingCashierNumber = true;
-            }
+    @Override
+    public Reciepts extractReceiptDataFromS3(String bucket, String key) {
+        if (bucket == null || bucket.isBlank() || key == null || key.isBlank()) {
+            throw new BadRequestException("Both bucket and key are required");
+        }
 
-            else if ((line.toLowerCase().equals("sub total") || line.toLowerCase().equals("subtotal"))
-                    && subTotal == null) {
-                log.info("Found subtotal label, expecting amount on next line");
-                expectingSubTotal = true;
-            }
+        try {
+            return save(detectDocument(new S3DocumentRef(bucket, key)));
+        } catch (BadRequestException | TooManyRequestsException | ServiceUnavailableException | TextractException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Error extracting text from document: {}", e.getMessage());
+            throw new TextractException("Failed to extract document data: " + e.getMessage(), AwsErrors.code(e), e);
+        }
+    }
 
-            else if (line.toLowerCase().equals("cash") && cash == null) {
-                log.info("Found cash label, expecting amount on next line");
-                expectingCash = true;
+    // Multi-page flow: start an async Textract job, wait for it, then stream the
+    // result pages through the parser so only one page of blocks is held at a time.
+    private Reciepts detectDocument(S3DocumentRef document) {
+        String jobId = textractGateway.startDocumentTextDetection(StartDocumentTextDetectionRequest.builder()
+                .documentLocation(DocumentLocation.builder()
+                        .s3Object(S3Object.builder()
+                                .bucket(document.bucket())
+                                .name(document.key())
+                                .build())
+                        .build())
+                .build())
+                .jobId();
+        log.info("Started Textract document job {} for s3://{}/{}", jobId, document.bucket(), document.key());
+
+        metrics.stage(PipelineMetrics.TEXTRACT, "job_wait").record(() -> awaitDocumentTextDetection(jobId));
+
+        ReceiptParser.Session session = receiptParser.newSession();
+        List<ArchivedBlock> archived = blockArchive.isEnabled() ? new ArrayList<>() : null;
+        String nextToken = null;
+        int pages = 0;
+        int blocks = 0;
+        do {
+            GetDocumentTextDetectionResponse page = textractGateway.getDocumentTextDetection(
+                    GetDocumentTextDetectionRequest.builder()
+                            .jobId(jobId)
+                            .maxResults(documentPageSize)
+                            .nextToken(nextToken)
+                            .build());
+            for (Block block : page.blocks()) {
+                if (block.blockType() == BlockType.LINE) {
+                    session.accept(block.text());
+                }
+                if (archived != null) {
+                    archived.add(ArchivedBlock.of(block));
+                }
             }
+            pages++;
+            blocks += page.blocks().size();
+            nextToken = page.nextToken();
+        } while (nextToken != null);
+
+        log.info("Textract document job {} returned {} blocks over {} result pages", jobId, blocks, pages);
+        metrics.recordBlocks(blocks);
+        Reciepts receipt = session.finish();
+        metrics.recordItems(receipt.getItems().size());
+        receipt.setPendingBlocks(archived);
+        return receipt;
+    }
 
-            else if (line.toLowerCase().equals("change") && change == null) {
-                log.info("Found change label, expecting amount on next line");
-                expectingChange = true;
+    private void awaitDocumentTextDetection(String jobId) {
+        long deadline = System.nanoTime() + documentTimeoutSeconds * 1_000_000_000L;
+        while (true) {
+            GetDocumentTextDetectionResponse status = textractGateway.getDocumentTextDetection(
+                    GetDocumentTextDetectionRequest.builder()
+                            .jobId(jobId)
+                            .maxResults(1)
+                            .build());
+
+            if (status.jobStatus() == JobStatus.SUCCEEDED || status.jobStatus() == JobStatus.PARTIAL_SUCCESS) {
+                return;
+            }
+            if (status.jobStatus() == JobStatus.FAILED) {
+                throw new TextractException("Textract document job " + jobId + " failed: " + status.statusMessage());
+            }
+            if (System.nanoTime() > deadline) {
+                throw new TextractException("Textract document job " + jobId + " did not finish within "
+                        + documentTimeoutSeconds + " seconds");
             }
 
-            // Try to extract items using a different approach for this receipt format
-            else if (isProductName(line) && i + 2 < lines.size()) {
-                // Check if next two lines are quantity and price
-                String nextLine = lines.get(i + 1).trim();
-                String priceLine = lines.get(i + 2).trim();
-
-                if (isQuantity(nextLine) && isPrice(priceLine)) {
-                    RecieptItem item = new RecieptItem();
-                    item.setProductName(line);
-                    item.setQuantity(Integer.parseInt(nextLine));
-                    item.setPrice(extractAmount(priceLine));
-                    item.setReciepts(receipt);
-                    items.add(item);
-
-                    log.info("Parsed item: {} - Qty: {} - Price: {}",
-                            item.getProductName(), item.getQuantity(), item.getPrice());
-
-                    // Skip the next two lines as we've processed them
-                    i += 2;
-                }
+            try {
+                Thread.sleep(pollIntervalMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TextractException("Interrupted while waiting for Textract document job " + jobId);
             }
         }
-
-        log.info("Parsing complete. Summary:");
-        log.info("Company: {}, Branch: {}, Manager: {}, Cashier: {}", companyName, branch, managerName, cashierNumber);
-        log.info("Amounts - SubTotal: {}, Cash: {}, Change: {}", subTotal, cash, change);
-        log.info("Items found: {}", items.size());
-
-        receipt.setCompanyName(companyName);
-        receipt.setBranch(branch);
-        receipt.setManagerName(managerName);
-        receipt.setCashierNumber(cashierNumber);
-        receipt.setSubTotal(subTotal);
-        receipt.setCash(cash);
-        receipt.setChange(change);
-        receipt.setItems(items);
-
-        return receipt;
     }
 
-    private boolean isProductName(String line) {
-        // Check if line looks like a product name
-        return line.length() > 1 &&
-                line.matches("^[A-Za-z].*") &&
-                !line.toLowerCase().contains("name") &&
-                !line.toLowerCase().contains("qty") &&
-                !line.toLowerCase().contains("price") &&
-                !line.toLowerCase().contains("total") &&
-                !line.toLowerCase().contains("cash") &&
-                !line.toLowerCase().contains("change") &&
-                !line.toLowerCase().contains("manager") &&
-                !line.toLowerCase().contains("cashier") &&
-                !line.toLowerCase().contains("tel") &&
-                !line.toLowerCase().contains("thank");
+    private Reciepts detectAndParse(SpooledUpload upload, Deadline deadline) {
+        log.info("Extracting receipt data from image using Amazon Textract");
+        deadline.check("textract.preprocess");
+        SdkBytes image = imagePreprocessor.prepare(upload, ImagePreprocessor.Profile.OCR);
+        DetectDocumentTextResponse response = textractGateway.detectDocumentText(buildRequest(image), deadline);
+        deadline.check("textract.parse");
+        return toReceipt(response, upload.contentHash());
     }
 
-    private boolean isQuantity(String line) {
-        return line.matches("^\\d+$");
+    private DetectDocumentTextRequest buildRequest(SdkBytes image) {
+        return DetectDocumentTextRequest.builder()
+                .document(Document.builder()
+                        .bytes(image)
+                        .build())
+                .build();
     }
 
-    private boolean isPrice(String line) {
-        return line.matches("^\\$\\d+\\.\\d{2}$");
-    }
+    private Reciepts toReceipt(DetectDocumentTextResponse response, String contentHash) {
+        log.info("Textract returned {} blocks", response.blocks().size());
 
-    private String extractManagerName(String line) {
-        // Handle "Manager: Eric Steer" format
-        if (line.toLowerCase().contains("manager:")) {
-            String[] parts = line.split(":", 2);
-            if (parts.length > 1) {
-                return parts[1].trim();
-            }
-        }
+        metrics.recordBlocks(response.blocks().size());
 
-        // Fallback pattern for names
-        Pattern pattern = Pattern.compile("([A-Za-z]+\\s+[A-Za-z]+)");
-        Matcher matcher = pattern.matcher(line);
-        if (matcher.find()) {
-            return matcher.group(1);
-        }
-        return null;
+        List<String> lines = metrics.time(PipelineMetrics.TEXTRACT, "filter_blocks",
+                () -> receiptParser.extractLines(response.blocks()));
+        Reciepts receipt = metrics.time(PipelineMetrics.TEXTRACT, "parse", () -> receiptParser.parse(lines));
+        metrics.recordItems(receipt.getItems().size());
+        receipt.setContentHash(contentHash);
+        blockArchive.attach(receipt, response.blocks());
+        return receipt;
     }
 
-    private Double extractAmount(String line) {
-        // Look for amounts with dollar sign first, then without
-        Pattern patternWithDollar = Pattern.compile("\\$(\\d+\\.\\d{2})");
-        Matcher matcherWithDollar = patternWithDollar.matcher(line);
-        if (matcherWithDollar.find()) {
-            return Double.parseDouble(matcherWithDollar.group(1));
+    private Optional<Reciepts> findExisting(String contentHash) {
+        Optional<Reciepts> existing = receiptResultCache.find(contentHash);
+        if (existing.isEmpty() && receiptWriteBehind.isEnabled()) {
+            return receiptWriteBehind.findPendingByContentHash(contentHash);
         }
+        return existing;
+    }
 
-        // Fallback to amount without dollar sign
-        Pattern pattern = Pattern.compile("(\\d+\\.\\d{2})");
-        Matcher matcher = pattern.matcher(line);
-        if (matcher.find()) {
-            return Double.parseDouble(matcher.group(1));
+    // In write-behind mode the receipt comes back with its external id only; the row is written later
+    private Reciepts save(Reciepts receipt) {
+        if (receiptWriteBehind.isEnabled() && receiptWriteBehind.enqueue(receipt)) {
+            blockArchive.archiveSaved(receipt);
+            return receipt;
         }
-        return null;
+        Reciepts saved = metrics.time(PipelineMetrics.TEXTRACT, "save", () -> receiptsRepository.save(receipt));
+        receiptReadCache.put(saved);
+        blockArchive.archiveSaved(saved);
+        return saved;
     }
 
-    private boolean isItemLine(String line) {
-        // More flexible item detection
-        boolean hasPrice = line.matches(".*\\$\\d+\\.\\d{2}.*");
-        boolean isNotHeader = !line.toLowerCase().contains("total") &&
-                !line.toLowerCase().contains("cash") &&
-                !line.toLowerCase().contains("change") &&
-                !line.toLowerCase().contains("index") &&
-                !line.toLowerCase().contains("qty") &&
-                !line.toLowerCase().contains("price") &&
-                !line.toLowerCase().contains("name") &&
-                !line.toLowerCase().contains("manager") &&
-                !line.toLowerCase().contains("cashier") &&
-                !line.toLowerCase().contains("tel:");
-
-        // Check if it looks like a product name (starts with letters)
-        boolean startsWithProduct = line.trim().matches("^[A-Za-z].*");
-
-        return hasPrice && isNotHeader && startsWithProduct && line.length() > 5;
+    @Override
+    public ReceiptView getReceiptByExternalId(String externalId) {
+        return receiptWriteBehind.findPendingByExternalId(externalId)
+                .or(() -> receiptsRepository.findWithItemsByExternalId(externalId))
+                .map(ReceiptView::from)
+                .orElseThrow(() -> new ResourceNotFoundException("Receipt not found with external id: " + externalId));
     }
 
-    private RecieptItem parseItemLine(String line) {
-        log.info("Attempting to parse item line: '{}'", line);
-
-        Pattern pattern1 = Pattern.compile("([A-Za-z][A-Za-z\\s]+?)\\s+(\\d+)\\s+\\$(\\d+\\.\\d{2})");
-        Matcher matcher1 = pattern1.matcher(line);
-
-        if (matcher1.find()) {
-            RecieptItem item = new RecieptItem();
-            item.setProductName(matcher1.group(1).trim());
-            item.setQuantity(Integer.parseInt(matcher1.group(2)));
-            item.setPrice(Double.parseDouble(matcher1.group(3)));
-            log.info("Parsed with pattern 1: {} - Qty: {} - Price: {}",
-                    item.getProductName(), item.getQuantity(), item.getPrice());
-            return item;
-        }
-
-        // Pattern 2: Just ProductName [spaces] $price (assuming quantity 1)
-        Pattern pattern2 = Pattern.compile("([A-Za-z][A-Za-z\\s]+?)\\s+\\$(\\d+\\.\\d{2})");
-        Matcher matcher2 = pattern2.matcher(line);
-
-        if (matcher2.find()) {
-            RecieptItem item = new RecieptItem();
-            item.setProductName(matcher2.group(1).trim());
-            item.setQuantity(1);
-            item.setPrice(Double.parseDouble(matcher2.group(2)));
-            log.info("Parsed with pattern 2: {} - Qty: {} - Price: {}",
-                    item.getProductName(), item.getQuantity(), item.getPrice());
-            return item;
-        }
-
-        // Pattern 3: More flexible - any text followed by digits and price
-        Pattern pattern3 = Pattern.compile("(.+?)\\s+(\\d+)\\s+\\$(\\d+\\.\\d{2})");
-        Matcher matcher3 = pattern3.matcher(line);
-
-        if (matcher3.find()) {
-            String productName = matcher3.group(1).trim();
-            // Make sure it's not a header or unwanted text
-            if (productName.length() > 2 && !productName.toLowerCase().contains("qty") &&
-                    !productName.toLowerCase().contains("price")) {
-                RecieptItem item = new RecieptItem();
-                item.setProductName(productName);
-                item.setQuantity(Integer.parseInt(matcher3.group(2)));
-                item.setPrice(Double.parseDouble(matcher3.group(3)));
-                log.info("Parsed with pattern 3: {} - Qty: {} - Price: {}",
-                        item.getProductName(), item.getQuantity(), item.getPrice());
-                return item;
-            }
-        }
+    @Override
+    public ReceiptView getReceiptById(Long id) {
+        return receiptReadCache.get(id, receiptsRepository::findWithItemsById)
+                .orElseThrow(() -> new ResourceNotFoundException("Receipt not found with id: " + id));
+    }
 
-        log.info("Could not parse item from line: '{}'", line);
-        return null;
+    // runs once a call is coalesced, long after construction, so the injected metrics are set by then
+    private void recordCoalesced() {
+        metrics.recordCoalesced(PipelineMetrics.TEXTRACT);
     }
 }
@@ -0,0 +1,11 @@
+package com.srllc.AmazonServices.domain.service;
+
+import java.util.List;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import com.srllc.AmazonServices.domain.record.BatchExtractResponse;
+
+public interface ReceiptBatchService {
+    BatchExtractResponse extractBatch(List<MultipartFile> files);
+}
@@ -0,0 +1,16 @@
+package com.srllc.AmazonServices.domain.service;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import com.srllc.AmazonServices.domain.record.ReceiptJob;
+import com.srllc.AmazonServices.domain.record.S3DocumentRef;
+
+public interface ReceiptJobService {
+    ReceiptJob submit(MultipartFile file);
+
+    ReceiptJob submitDocument(MultipartFile file);
+
+    ReceiptJob submitS3Document(S3DocumentRef document);
+
+    ReceiptJob getJob(String jobId);
+}
@@ -0,0 +1,13 @@
+package com.srllc.AmazonServices.domain.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.srllc.AmazonServices.domain.record.ReceiptFilter;
+import com.srllc.AmazonServices.domain.record.ReceiptPage;
+
+public interface ReceiptQueryService {
+    ReceiptPage findReceipts(ReceiptFilter filter, Long cursor, int size);
+
+    void exportReceipts(ReceiptFilter filter, OutputStream out) throws IOException;
+}
@@ -0,0 +1,9 @@
+package com.srllc.AmazonServices.domain.service;
+
+import com.srllc.AmazonServices.domain.record.ReparseProgress;
+
+public interface ReceiptReparseService {
+    ReparseProgress start();
+
+    ReparseProgress progress();
+}
@@ -1,12 +1,19 @@
 package com.srllc.AmazonServices.domain.service;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 
 import org.springframework.web.multipart.MultipartFile;
 
+import com.srllc.AmazonServices.domain.upload.SpooledUpload;
 import com.srllc.AmazonServices.dto.RekognitionResponse;
 
 public interface RekognitionService {
 
     RekognitionResponse recognizeCelebrities(MultipartFile file) throws IOException;
+
+    CompletableFuture<RekognitionResponse> recognizeCelebritiesAsync(MultipartFile file) throws IOException;
+
+    // Takes ownership of the upload and closes it when the returned future completes
+    CompletableFuture<RekognitionResponse> recognizeCelebritiesAsync(SpooledUpload upload);
 }
\ No newline at end of file
@@ -1,11 +1,29 @@
 package com.srllc.AmazonServices.domain.service;
 
+import java.util.concurrent.CompletableFuture;
+
 import org.springframework.web.multipart.MultipartFile;
 
 import com.srllc.AmazonServices.domain.entity.Reciepts;
+import com.srllc.AmazonServices.domain.record.ReceiptView;
+import com.srllc.AmazonServices.domain.upload.SpooledUpload;
 
 public interface TextractServiceInterface {
     Reciepts extractReceiptData(MultipartFile file);
 
-    Reciepts getReceiptById(Long id);
+    Reciepts extractReceiptData(SpooledUpload upload);
+
+    CompletableFuture<Reciepts> extractReceiptDataAsync(MultipartFile file);
+
+    CompletableFuture<Reciepts> extractReceiptDataAsync(SpooledUpload upload);
+
+    Reciepts analyzeReceipt(SpooledUpload upload);
+
+    Reciepts extractDocument(SpooledUpload upload);
+
+    Reciepts extractReceiptDataFromS3(String bucket, String key);
+
+    ReceiptView getReceiptById(Long id);
+
+    ReceiptView getReceiptByExternalId(String externalId);
 }
@@ -0,0 +1,193 @@
+package com.srllc.AmazonServices.domain.upload;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.srllc.AmazonServices.common.AsyncResults;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.core.SdkBytes;
+
+/**
+ * Shrinks uploaded photos before they are sent to AWS: decode (subsampled, so
+ * a 12 MP photo is never fully materialized), downscale to a max dimension,
+ * grayscale for OCR, and re-encode as JPEG. Runs on a CPU-sized pool; anything
+ * that cannot be decoded, would not get smaller, or arrives while the pool is
+ * saturated is sent as-is.
+ */
+@Component
+@Slf4j
+public class ImagePreprocessor {
+
+    public enum Profile {
+        OCR, FACES
+    }
+
+    private final ThreadPoolExecutor executor;
+    private final MeterRegistry meterRegistry;
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+    @Value("${image.preprocess.enabled:true}")
+    private boolean enabled;
+
+    @Value("${image.preprocess.min-bytes:262144}")
+    private long minBytes;
+
+    @Value("${image.preprocess.ocr.max-dimension:2000}")
+    private int ocrMaxDimension;
+
+    @Value("${image.preprocess.ocr.quality:0.85}")
+    private float ocrQuality;
+
+    @Value("${image.preprocess.faces.max-dimension:1600}")
+    private int facesMaxDimension;
+
+    @Value("${image.preprocess.faces.quality:0.9}")
+    private float facesQuality;
+
+    public ImagePreprocessor(@Qualifier("imagePreprocessExecutor") ThreadPoolExecutor executor,
+            MeterRegistry meterRegistry) {
+        this.executor = executor;
+        this.meterRegistry = meterRegistry;
+        // keep ImageIO's scratch buffers in memory instead of temp files
+        ImageIO.setUseCache(false);
+    }
+
+    public SdkBytes prepare(SpooledUpload upload, Profile profile) {
+        return AsyncResults.join(prepareAsync(upload, profile));
+    }
+
+    public CompletableFuture<SdkBytes> prepareAsync(SpooledUpload upload, Profile profile) {
+        if (!enabled || upload.size() < minBytes) {
+            return CompletableFuture.completedFuture(upload.sdkBytes());
+        }
+
+        try {
+            return CompletableFuture.supplyAsync(() -> preprocess(upload, profile), executor);
+        } catch (RejectedExecutionException e) {
+            skipped(profile, "busy");
+            return CompletableFuture.completedFuture(upload.sdkBytes());
+        }
+    }
+
+    private SdkBytes preprocess(SpooledUpload upload, Profile profile) {
+        long cpuStart = threadMXBean.getCurrentThreadCpuTime();
+        try {
+            byte[] encoded = downscale(upload, profile);
+            if (encoded == null) {
+                skipped(profile, "unsupported");
+                return upload.sdkBytes();
+            }
+            if (encoded.length >= upload.size()) {
+                skipped(profile, "not_smaller");
+                return upload.sdkBytes();
+            }
+
+            long saved = upload.size() - encoded.length;
+            meterRegistry.summary("image.preprocess.bytes.saved", "profile", profile.name().toLowerCase())
+                    .record(saved);
+            log.info("Preprocessed {} for {}: {} -> {} bytes", upload.fileName(), profile, upload.size(),
+                    encoded.length);
+            return SdkBytes.fromByteArrayUnsafe(encoded);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not preprocess {}, sending the original: {}", upload.fileName(), e.getMessage());
+            skipped(profile, "error");
+            return upload.sdkBytes();
+        } finally {
+            meterRegistry.timer("image.preprocess.cpu", "profile", profile.name().toLowerCase())
+                    .record(threadMXBean.getCurrentThreadCpuTime() - cpuStart, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private byte[] downscale(SpooledUpload upload, Profile profile) throws IOException {
+        int maxDimension = profile == Profile.OCR ? ocrMaxDimension : facesMaxDimension;
+
+        try (ImageInputStream in = ImageIO.createImageInputStream(upload.inputStream())) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int longest = Math.max(reader.getWidth(0), reader.getHeight(0));
+
+                // Drop whole pixels while decoding, but leave ~2x for the filtered resize below
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, longest / (maxDimension * 2));
+                param.setSourceSubsampling(step, step, 0, 0);
+                BufferedImage decoded = reader.read(0, param);
+
+                double scale = Math.min(1.0, (double) maxDimension / Math.max(decoded.getWidth(), decoded.getHeight()));
+                int width = Math.max(1, (int) Math.round(decoded.getWidth() * scale));
+                int height = Math.max(1, (int) Math.round(decoded.getHeight() * scale));
+                int type = profile == Profile.OCR ? BufferedImage.TYPE_BYTE_GRAY : BufferedImage.TYPE_INT_RGB;
+
+                BufferedImage target = new BufferedImage(width, height, type);
+                Graphics2D graphics = target.createGraphics();
+                try {
+                    graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                            RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                    graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                    // transparent PNGs would otherwise turn black
+                    graphics.setColor(Color.WHITE);
+                    graphics.fillRect(0, 0, width, height);
+                    graphics.drawImage(decoded, 0, 0, width, height, null);
+                } finally {
+                    graphics.dispose();
+                }
+
+                return encodeJpeg(target, profile == Profile.OCR ? ocrQuality : facesQuality);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static byte[] encodeJpeg(BufferedImage image, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(quality);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(image.getWidth() * image.getHeight() / 4);
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private void skipped(Profile profile, String reason) {
+        meterRegistry.counter("image.preprocess.skipped", "profile", profile.name().toLowerCase(), "reason", reason)
+                .increment();
+    }
+}
@@ -0,0 +1,117 @@
+package com.srllc.AmazonServices.domain.upload;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 64-bit difference hash (dHash): the image is reduced to a 9x8 grayscale grid
+ * and each bit records whether a cell is brighter than its right neighbour.
+ * Re-encodes, resizes and small crops of the same photo land within a few
+ * bits of each other, so Hamming distance works as a similarity measure.
+ */
+@Component
+@Slf4j
+public class PerceptualHasher {
+    private static final int GRID_WIDTH = 9;
+    private static final int GRID_HEIGHT = 8;
+    // decode at roughly this size; plenty of pixels to average into a 9x8 grid
+    private static final int DECODE_DIMENSION = 128;
+
+    private final ThreadPoolExecutor executor;
+
+    public PerceptualHasher(@Qualifier("imagePreprocessExecutor") ThreadPoolExecutor executor) {
+        this.executor = executor;
+    }
+
+    public static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    public CompletableFuture<OptionalLong> hashAsync(SpooledUpload upload) {
+        try {
+            return CompletableFuture.supplyAsync(() -> hash(upload), executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(OptionalLong.empty());
+        }
+    }
+
+    // Empty when the upload is not an image ImageIO can decode
+    public OptionalLong hash(SpooledUpload upload) {
+        try {
+            BufferedImage image = decodeSmall(upload);
+            return image == null ? OptionalLong.empty() : OptionalLong.of(dHash(image));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not hash {}: {}", upload.fileName(), e.getMessage());
+            return OptionalLong.empty();
+        }
+    }
+
+    static long dHash(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double[] cells = new double[GRID_WIDTH * GRID_HEIGHT];
+        int[] counts = new int[GRID_WIDTH * GRID_HEIGHT];
+
+        // box-average luminance into the grid
+        for (int y = 0; y < height; y++) {
+            int row = Math.min(GRID_HEIGHT - 1, y * GRID_HEIGHT / height);
+            for (int x = 0; x < width; x++) {
+                int col = Math.min(GRID_WIDTH - 1, x * GRID_WIDTH / width);
+                int rgb = image.getRGB(x, y);
+                double luminance = 0.299 * ((rgb >> 16) & 0xFF) + 0.587 * ((rgb >> 8) & 0xFF) + 0.114 * (rgb & 0xFF);
+                cells[row * GRID_WIDTH + col] += luminance;
+                counts[row * GRID_WIDTH + col]++;
+            }
+        }
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = counts[i] == 0 ? 0 : cells[i] / counts[i];
+        }
+
+        long hash = 0;
+        for (int row = 0; row < GRID_HEIGHT; row++) {
+            for (int col = 0; col < GRID_WIDTH - 1; col++) {
+                hash <<= 1;
+                if (cells[row * GRID_WIDTH + col] > cells[row * GRID_WIDTH + col + 1]) {
+                    hash |= 1;
+                }
+            }
+        }
+        return hash;
+    }
+
+    private static BufferedImage decodeSmall(SpooledUpload upload) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(upload.inputStream())) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int longest = Math.max(reader.getWidth(0), reader.getHeight(0));
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, longest / DECODE_DIMENSION);
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.srllc.AmazonServices.domain.upload;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.srllc.AmazonServices.common.ContentHash;
+
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.core.SdkBytes;
+
+/**
+ * An uploaded document held either as a small heap buffer or as a
+ * read-only memory mapping of a spool file. Close it once the AWS call
+ * that consumes it has completed.
+ */
+@Slf4j
+public final class SpooledUpload implements AutoCloseable {
+
+    private final String fileName;
+    private final ByteBuffer content;
+    private final Path spoolFile;
+    private String contentHash;
+
+    SpooledUpload(String fileName, ByteBuffer content, Path spoolFile) {
+        this.fileName = fileName;
+        this.content = content;
+        this.spoolFile = spoolFile;
+    }
+
+    public static SpooledUpload of(String fileName, byte[] content) {
+        return new SpooledUpload(fileName, ByteBuffer.wrap(content), null);
+    }
+
+    public String fileName() {
+        return fileName;
+    }
+
+    public int size() {
+        return content.remaining();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public boolean isMapped() {
+        return spoolFile != null;
+    }
+
+    public ByteBuffer buffer() {
+        return content.asReadOnlyBuffer();
+    }
+
+    // SdkBytes is backed by a byte[]: a heap upload is handed over without copying, a mapped one is copied once
+    public SdkBytes sdkBytes() {
+        if (content.hasArray() && content.arrayOffset() == 0 && content.position() == 0
+                && content.remaining() == content.array().length) {
+            return SdkBytes.fromByteArrayUnsafe(content.array());
+        }
+        return SdkBytes.fromByteBuffer(content.duplicate());
+    }
+
+    public InputStream inputStream() {
+        ByteBuffer source = content.duplicate();
+        return new InputStream() {
+            @Override
+            public int read() {
+                return source.hasRemaining() ? source.get() & 0xFF : -1;
+            }
+
+            @Override
+            public int read(byte[] bytes, int offset, int length) {
+                if (!source.hasRemaining()) {
+                    return -1;
+                }
+                int count = Math.min(length, source.remaining());
+                source.get(bytes, offset, count);
+                return count;
+            }
+
+            @Override
+            public int available() {
+                return source.remaining();
+            }
+        };
+    }
+
+    public String contentHash() {
+        if (contentHash == null) {
+            contentHash = ContentHash.sha256Hex(content);
+        }
+        return contentHash;
+    }
+
+    @Override
+    public void close() {
+        if (spoolFile == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(spoolFile);
+        } catch (IOException e) {
+            log.warn("Could not delete upload spool file {}: {}", spoolFile, e.getMessage());
+        }
+    }
+}
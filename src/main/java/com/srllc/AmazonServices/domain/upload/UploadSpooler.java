@@ -0,0 +1,134 @@
+package com.srllc.AmazonServices.domain.upload;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.srllc.AmazonServices.domain.exception.BadRequestException;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Turns a multipart upload into a {@link SpooledUpload}. Small files are read
+ * onto the heap; anything above the threshold is moved to a spool file and
+ * memory-mapped, so large photos never exist as a heap byte[].
+ */
+@Component
+@Slf4j
+public class UploadSpooler {
+
+    private final long heapThresholdBytes;
+    private final Path spoolDirectory;
+    private final DistributionSummary heapBytes;
+    private final DistributionSummary mappedBytes;
+    private final Timer heapReads;
+    private final Timer mappedReads;
+
+    public UploadSpooler(MeterRegistry meterRegistry,
+            @Value("${upload.spool.heap-threshold-bytes:1048576}") long heapThresholdBytes,
+            @Value("${upload.spool.dir:${java.io.tmpdir}}") String spoolDirectory) {
+        this.heapThresholdBytes = heapThresholdBytes;
+        this.spoolDirectory = Path.of(spoolDirectory);
+        this.heapBytes = bufferedBytes(meterRegistry, "heap");
+        this.mappedBytes = bufferedBytes(meterRegistry, "mapped");
+        this.heapReads = readTimer(meterRegistry, "heap");
+        this.mappedReads = readTimer(meterRegistry, "mapped");
+    }
+
+    public SpooledUpload spool(MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            throw new BadRequestException("File cannot be null or empty");
+        }
+
+        try {
+            if (file.getSize() <= heapThresholdBytes) {
+                heapBytes.record(file.getSize());
+                Timer.Sample sample = Timer.start();
+                SpooledUpload upload = SpooledUpload.of(file.getOriginalFilename(), file.getBytes());
+                sample.stop(heapReads);
+                return upload;
+            }
+            Timer.Sample sample = Timer.start();
+            SpooledUpload upload = map(file);
+            sample.stop(mappedReads);
+            return upload;
+        } catch (IOException e) {
+            log.error("Error reading file bytes: {}", e.getMessage());
+            throw new BadRequestException("Invalid file format");
+        }
+    }
+
+    /**
+     * Spools {@code size} bytes read from a stream, e.g. a queued job's stored
+     * upload, with the same heap/mapped split as a multipart upload.
+     */
+    public SpooledUpload spool(String fileName, InputStream content, long size) throws IOException {
+        if (size <= heapThresholdBytes) {
+            heapBytes.record(size);
+            Timer.Sample sample = Timer.start();
+            SpooledUpload upload = SpooledUpload.of(fileName, content.readNBytes((int) size));
+            sample.stop(heapReads);
+            return upload;
+        }
+        Timer.Sample sample = Timer.start();
+        SpooledUpload upload = map(fileName,
+                spoolFile -> Files.copy(content, spoolFile, StandardCopyOption.REPLACE_EXISTING));
+        sample.stop(mappedReads);
+        return upload;
+    }
+
+    private SpooledUpload map(MultipartFile file) throws IOException {
+        // For disk-backed parts this is a rename of the container's temp file, not a copy through the heap
+        return map(file.getOriginalFilename(), spoolFile -> file.transferTo(spoolFile.toFile()));
+    }
+
+    private SpooledUpload map(String fileName, SpoolWriter writer) throws IOException {
+        Files.createDirectories(spoolDirectory);
+        Path spoolFile = Files.createTempFile(spoolDirectory, "upload-", ".bin");
+        try {
+            writer.write(spoolFile);
+            try (FileChannel channel = FileChannel.open(spoolFile, StandardOpenOption.READ)) {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                mappedBytes.record(channel.size());
+                return new SpooledUpload(fileName, mapped, spoolFile);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(spoolFile);
+            throw e;
+        }
+    }
+
+    @FunctionalInterface
+    private interface SpoolWriter {
+        void write(Path spoolFile) throws IOException;
+    }
+
+    private static DistributionSummary bufferedBytes(MeterRegistry meterRegistry, String storage) {
+        return DistributionSummary.builder("upload.buffered.bytes")
+                .description("Bytes buffered per uploaded file, by where they are held")
+                .baseUnit("bytes")
+                .tag("storage", storage)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static Timer readTimer(MeterRegistry meterRegistry, String storage) {
+        return Timer.builder("upload.read")
+                .description("Time to read an uploaded file into a spooled buffer")
+                .tag("storage", storage)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
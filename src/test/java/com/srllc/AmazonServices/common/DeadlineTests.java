@@ -0,0 +1,82 @@
+package com.srllc.AmazonServices.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.srllc.AmazonServices.domain.exception.DeadlineExceededException;
+
+class DeadlineTests {
+
+	private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+
+	@AfterEach
+	void shutdown() {
+		timer.shutdownNow();
+	}
+
+	@Test
+	void expiryCancelsRegisteredWork() {
+		Deadline deadline = Deadline.after(Duration.ofMillis(50), timer);
+		CompletableFuture<String> call = new CompletableFuture<>();
+		deadline.onCancel(() -> call.cancel(true));
+		deadline.check("textract.aws_call");
+
+		CompletableFuture<String> waiting = deadline.bound(new CompletableFuture<>());
+		CompletionException error = assertThrows(CompletionException.class, waiting::join);
+
+		DeadlineExceededException exceeded = assertInstanceOf(DeadlineExceededException.class, error.getCause());
+		assertEquals("textract.aws_call", exceeded.getStage());
+		assertTrue(call.isCancelled());
+		assertTrue(deadline.isExpired());
+		assertThrows(DeadlineExceededException.class, () -> deadline.check("textract.save"));
+	}
+
+	@Test
+	void finishedWorkIsNotAffected() throws Exception {
+		Deadline deadline = Deadline.after(Duration.ofSeconds(5), timer);
+		CompletableFuture<String> work = new CompletableFuture<>();
+		CompletableFuture<String> waiting = deadline.bound(work);
+
+		work.complete("receipt");
+		deadline.release();
+
+		assertEquals("receipt", waiting.get(1, TimeUnit.SECONDS));
+		assertFalse(deadline.isExpired());
+		assertTrue(deadline.remaining().compareTo(Duration.ZERO) > 0);
+	}
+
+	@Test
+	void clientDisconnectCancelsUnboundedDeadline() {
+		Deadline deadline = Deadline.unbounded();
+		CompletableFuture<String> call = new CompletableFuture<>();
+		deadline.onCancel(() -> call.cancel(true));
+
+		deadline.cancel();
+
+		assertTrue(call.isCancelled());
+		assertThrows(DeadlineExceededException.class, () -> deadline.check("rekognition.preprocess"));
+	}
+
+	@Test
+	void noneIsNeverCancelled() {
+		Deadline none = Deadline.none();
+		none.cancel();
+
+		assertFalse(none.isExpired());
+		assertFalse(none.isBounded());
+		assertEquals(none, Deadline.current());
+	}
+}
@@ -0,0 +1,106 @@
+package com.srllc.AmazonServices.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTests {
+
+	private static final int CALLERS = 500;
+
+	// Stands in for the AWS client: counts calls and answers only when released
+	private static final class StubClient {
+		final AtomicInteger calls = new AtomicInteger();
+		final CompletableFuture<String> response = new CompletableFuture<>();
+
+		CompletableFuture<String> detect() {
+			calls.incrementAndGet();
+			return response;
+		}
+	}
+
+	@Test
+	void concurrentDuplicatesShareOneCall() throws Exception {
+		StubClient client = new StubClient();
+		AtomicInteger coalesced = new AtomicInteger();
+		SingleFlight<String, String> flight = new SingleFlight<>(coalesced::incrementAndGet);
+
+		ExecutorService callers = Executors.newFixedThreadPool(64);
+		CountDownLatch start = new CountDownLatch(1);
+		CountDownLatch arrived = new CountDownLatch(CALLERS);
+		List<CompletableFuture<CompletableFuture<String>>> results = new ArrayList<>();
+		try {
+			for (int i = 0; i < CALLERS; i++) {
+				results.add(CompletableFuture.supplyAsync(() -> {
+					await(start);
+					CompletableFuture<String> result = flight.execute("sha256-of-receipt", client::detect);
+					arrived.countDown();
+					return result;
+				}, callers));
+			}
+			start.countDown();
+			assertTrue(arrived.await(10, TimeUnit.SECONDS));
+
+			client.response.complete("receipt-1");
+
+			for (CompletableFuture<CompletableFuture<String>> result : results) {
+				assertEquals("receipt-1", result.get(10, TimeUnit.SECONDS).get(10, TimeUnit.SECONDS));
+			}
+		} finally {
+			callers.shutdownNow();
+		}
+
+		assertEquals(1, client.calls.get());
+		assertEquals(CALLERS - 1, coalesced.get());
+		assertEquals(0, flight.inFlight());
+	}
+
+	@Test
+	void failureIsSharedAndClearsTheEntry() {
+		SingleFlight<String, String> flight = new SingleFlight<>();
+		CompletableFuture<String> pending = new CompletableFuture<>();
+		IllegalStateException error = new IllegalStateException("throttled");
+
+		CompletableFuture<String> first = flight.execute("key", () -> pending);
+		CompletableFuture<String> second = flight.execute("key", () -> CompletableFuture.completedFuture("unused"));
+		pending.completeExceptionally(error);
+
+		assertSame(error, assertThrows(CompletionException.class, first::join).getCause());
+		assertSame(error, assertThrows(CompletionException.class, second::join).getCause());
+		assertEquals(0, flight.inFlight());
+		assertEquals("retried", flight.execute("key", () -> CompletableFuture.completedFuture("retried")).join());
+	}
+
+	@Test
+	void synchronousCallThatThrowsDoesNotLeak() {
+		SingleFlight<String, String> flight = new SingleFlight<>();
+
+		CompletableFuture<String> result = flight.execute("key", () -> {
+			throw new IllegalArgumentException("bad image");
+		});
+
+		assertThrows(CompletionException.class, result::join);
+		assertEquals(0, flight.inFlight());
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package com.srllc.AmazonServices.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.srllc.AmazonServices.domain.exception.BadRequestException;
+import com.srllc.AmazonServices.domain.record.UploadedImage;
+
+class ZipUploadsTests {
+
+	private static final int MB = 1 << 20;
+
+	@Test
+	void expandsArchivesAlongsidePlainFiles() throws IOException {
+		List<UploadedImage> images = ZipUploads.expand(List.of(
+				new MockMultipartFile("files", "a.jpg", "image/jpeg", new byte[100]),
+				zip("batch.zip", 3, 200)), 10, MB, 10 * MB);
+
+		assertEquals(4, images.size());
+		assertEquals("a.jpg", images.get(0).fileName());
+		assertEquals(200, images.get(3).content().length);
+	}
+
+	@Test
+	void bombOfSmallEntriesIsRejectedOnceTheTotalIsPassed() throws IOException {
+		// 50 zero-filled entries of 1 MB each compress to a few KB; every entry is under the per-file limit
+		MultipartFile bomb = zip("bomb.zip", 50, MB);
+
+		BadRequestException error = assertThrows(BadRequestException.class,
+				() -> ZipUploads.expand(List.of(bomb), 1000, 2L * MB, 8L * MB));
+
+		assertEquals("Batch expands to more than " + 8L * MB + " bytes", error.getMessage());
+	}
+
+	@Test
+	void totalCountsPlainFilesAndArchivesTogether() throws IOException {
+		BadRequestException error = assertThrows(BadRequestException.class, () -> ZipUploads.expand(List.of(
+				new MockMultipartFile("files", "a.jpg", "image/jpeg", new byte[600]),
+				zip("batch.zip", 1, 600)), 10, MB, 1000));
+
+		assertEquals("Batch expands to more than 1000 bytes", error.getMessage());
+	}
+
+	@Test
+	void oversizedEntryIsStillRejectedByItsOwnLimit() throws IOException {
+		BadRequestException error = assertThrows(BadRequestException.class,
+				() -> ZipUploads.expand(List.of(zip("big.zip", 1, 3000)), 10, 1000, MB));
+
+		assertEquals("Archive entry image-0.jpg exceeds 1000 bytes", error.getMessage());
+	}
+
+	private static MockMultipartFile zip(String name, int entries, int entryBytes) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+			for (int i = 0; i < entries; i++) {
+				zip.putNextEntry(new ZipEntry("image-" + i + ".jpg"));
+				zip.write(new byte[entryBytes]);
+				zip.closeEntry();
+			}
+		}
+		return new MockMultipartFile("files", name, "application/zip", bytes.toByteArray());
+	}
+}
@@ -0,0 +1,129 @@
+package com.srllc.AmazonServices.domain.archive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.srllc.AmazonServices.domain.entity.Reciepts;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class BlockArchiveTests {
+
+	@TempDir
+	Path dir;
+
+	private BlockArchive open(long segmentBytes) throws IOException {
+		BlockArchive archive = new BlockArchive(new SimpleMeterRegistry(), dir.toString(), segmentBytes);
+		archive.open();
+		return archive;
+	}
+
+	private static List<ArchivedBlock> blocks(String store) {
+		List<ArchivedBlock> blocks = new ArrayList<>();
+		blocks.add(new ArchivedBlock("PAGE", null, 99.9f, 1, 0f, 0f, 1f, 1f));
+		blocks.add(new ArchivedBlock("LINE", store, 98.5f, 1, 0.1f, 0.05f, 0.5f, 0.02f));
+		blocks.add(new ArchivedBlock("LINE", "Coffee", 97.25f, 1, 0.1f, 0.2f, 0.3f, 0.02f));
+		blocks.add(new ArchivedBlock("WORD", "Coffee", 97.25f, 1, 0.1f, 0.2f, 0.3f, 0.02f));
+		return blocks;
+	}
+
+	private static Reciepts receipt(String externalId) {
+		Reciepts receipt = new Reciepts();
+		receipt.setExternalId(externalId);
+		return receipt;
+	}
+
+	@Test
+	void readsBackWhatWasArchived() throws IOException {
+		BlockArchive archive = open(1 << 20);
+		archive.archiveBlocks(receipt("a"), blocks("ACME"));
+		archive.archiveBlocks(receipt("b"), blocks("Globex"));
+
+		assertEquals(blocks("ACME"), archive.read("a").orElseThrow());
+		assertEquals(blocks("Globex"), archive.read("b").orElseThrow());
+		assertFalse(archive.read("missing").isPresent());
+		archive.close();
+	}
+
+	@Test
+	void archivesHeldBlocksOnlyWhenTheReceiptIsSaved() throws IOException {
+		BlockArchive archive = open(1 << 20);
+		Reciepts saved = receipt("saved");
+		saved.setPendingBlocks(blocks("ACME"));
+		Reciepts failed = receipt("failed");
+		failed.setPendingBlocks(blocks("Globex"));
+
+		archive.archiveSaved(saved);
+
+		assertEquals(blocks("ACME"), archive.read("saved").orElseThrow());
+		assertNull(saved.getPendingBlocks());
+		assertFalse(archive.read("failed").isPresent());
+		assertEquals(1, archive.size());
+		archive.close();
+	}
+
+	@Test
+	void assignsAnExternalIdWhenTheReceiptHasNone() throws IOException {
+		BlockArchive archive = open(1 << 20);
+		Reciepts receipt = new Reciepts();
+		archive.archiveBlocks(receipt, blocks("ACME"));
+
+		assertNotNull(receipt.getExternalId());
+		assertTrue(archive.read(receipt.getExternalId()).isPresent());
+		archive.close();
+	}
+
+	@Test
+	void reopensAcrossRolledSegmentsAndKeepsTheLatestRecord() throws IOException {
+		BlockArchive archive = open(512);
+		for (int i = 0; i < 50; i++) {
+			archive.archiveBlocks(receipt("r" + i), blocks("Store " + i));
+		}
+		archive.archiveBlocks(receipt("r7"), blocks("Corrected"));
+		archive.close();
+
+		try (var files = Files.list(dir)) {
+			assertTrue(files.filter(file -> file.toString().endsWith(".idx")).count() > 1);
+		}
+
+		BlockArchive reopened = open(512);
+		assertEquals(50, reopened.size());
+		assertEquals(blocks("Store 42"), reopened.read("r42").orElseThrow());
+		assertEquals(blocks("Corrected"), reopened.read("r7").orElseThrow());
+		reopened.close();
+	}
+
+	@Test
+	void dropsATornRecordAtTheEndOfTheLastSegment() throws IOException {
+		BlockArchive archive = open(1 << 20);
+		archive.archiveBlocks(receipt("a"), blocks("ACME"));
+		archive.close();
+
+		// a crash in the middle of the next append
+		Path segment = dir.resolve("blocks-000001.seg");
+		byte[] partial = BlockCodec.encode("b", blocks("Globex"));
+		Files.write(segment, Arrays.copyOf(partial, partial.length / 2), StandardOpenOption.APPEND);
+
+		BlockArchive reopened = open(1 << 20);
+		assertEquals(1, reopened.size());
+		assertFalse(reopened.read("b").isPresent());
+		reopened.archiveBlocks(receipt("c"), blocks("Initech"));
+		assertEquals(blocks("Initech"), reopened.read("c").orElseThrow());
+		assertEquals(blocks("ACME"), reopened.read("a").orElseThrow());
+		reopened.close();
+	}
+}
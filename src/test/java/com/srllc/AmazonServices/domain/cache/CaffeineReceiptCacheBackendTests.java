@@ -0,0 +1,72 @@
+package com.srllc.AmazonServices.domain.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.srllc.AmazonServices.config.ReceiptCacheConfig;
+import com.srllc.AmazonServices.domain.record.ReceiptView;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CaffeineReceiptCacheBackendTests {
+
+	private final AtomicLong nanos = new AtomicLong();
+	private final CaffeineReceiptCacheBackend backend =
+			new CaffeineReceiptCacheBackend(new SimpleMeterRegistry(), 100, 10, nanos::get);
+
+	@Test
+	void entryExpiresOnceTheTtlHasPassedSinceItWasWritten() {
+		backend.put(view(1L));
+
+		nanos.addAndGet(TimeUnit.MINUTES.toNanos(9));
+		assertTrue(backend.get(1L).isPresent());
+
+		nanos.addAndGet(TimeUnit.MINUTES.toNanos(1) + 1);
+		assertTrue(backend.get(1L).isEmpty());
+	}
+
+	@Test
+	void rewriteRestartsTheTtl() {
+		backend.put(view(1L));
+		nanos.addAndGet(TimeUnit.MINUTES.toNanos(8));
+		backend.put(view(1L));
+
+		nanos.addAndGet(TimeUnit.MINUTES.toNanos(8));
+		assertTrue(backend.get(1L).isPresent());
+	}
+
+	@Test
+	void evictRemovesTheEntry() {
+		backend.put(view(2L));
+		backend.evict(2L);
+		assertTrue(backend.get(2L).isEmpty());
+	}
+
+	@Test
+	void configSelectsTheBackendByName() {
+		ReceiptCacheConfig config = new ReceiptCacheConfig();
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+		assertInstanceOf(CaffeineReceiptCacheBackend.class, config.receiptCacheBackend(registry, "caffeine", 10, 1));
+		assertInstanceOf(NoOpReceiptCacheBackend.class, config.receiptCacheBackend(registry, "none", 10, 1));
+	}
+
+	@Test
+	void unknownBackendFailsWithTheAcceptedValues() {
+		IllegalStateException error = assertThrows(IllegalStateException.class,
+				() -> new ReceiptCacheConfig().receiptCacheBackend(new SimpleMeterRegistry(), "redis", 10, 1));
+		assertEquals("Unknown receipts.cache.backend 'redis'; expected 'caffeine' or 'none'", error.getMessage());
+	}
+
+	private static ReceiptView view(Long id) {
+		return new ReceiptView(id, "ext-" + id, "ACME", null, null, null, null, null, null, List.of());
+	}
+}
@@ -0,0 +1,81 @@
+package com.srllc.AmazonServices.domain.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.srllc.AmazonServices.domain.upload.PerceptualHasher;
+
+class HammingIndexTests {
+
+	private static long flipBits(long hash, int bits, Random random) {
+		long flipped = hash;
+		while (PerceptualHasher.distance(hash, flipped) < bits) {
+			flipped ^= 1L << random.nextInt(Long.SIZE);
+		}
+		return flipped;
+	}
+
+	@Test
+	void findsTheSameDistanceAsAFullScan() {
+		Random random = new Random(42);
+		HammingIndex index = new HammingIndex(6);
+		List<Long> hashes = new ArrayList<>();
+		for (int i = 0; i < 5_000; i++) {
+			long hash = random.nextLong();
+			hashes.add(hash);
+			index.add(hash);
+		}
+
+		for (int i = 0; i < 2_000; i++) {
+			// half the queries are near an indexed hash, at every distance up to one past the limit
+			long query = i % 2 == 0
+					? flipBits(hashes.get(random.nextInt(hashes.size())), i % 8, random)
+					: random.nextLong();
+
+			int expected = Integer.MAX_VALUE;
+			for (long hash : hashes) {
+				expected = Math.min(expected, PerceptualHasher.distance(query, hash));
+			}
+
+			Long nearest = index.nearest(query, hash -> true);
+			if (expected > 6) {
+				assertNull(nearest);
+			} else {
+				assertEquals(expected, PerceptualHasher.distance(query, nearest));
+			}
+		}
+	}
+
+	@Test
+	void skipsRemovedAndRejectedHashes() {
+		HammingIndex index = new HammingIndex(6);
+		long hash = 0x5a5a_5a5a_5a5a_5a5aL;
+		long close = hash ^ 0b11;
+		long closest = hash ^ 0b1;
+		index.add(close);
+		index.add(closest);
+
+		assertEquals(closest, index.nearest(hash, candidate -> true));
+		assertEquals(close, index.nearest(hash, candidate -> candidate != closest));
+
+		index.remove(closest);
+		assertEquals(close, index.nearest(hash, candidate -> true));
+		index.remove(close);
+		assertNull(index.nearest(hash, candidate -> true));
+	}
+
+	@Test
+	void zeroDistanceMatchesOnlyTheExactHash() {
+		HammingIndex index = new HammingIndex(0);
+		index.add(7L);
+
+		assertEquals(7L, index.nearest(7L, candidate -> true));
+		assertNull(index.nearest(6L, candidate -> true));
+	}
+}
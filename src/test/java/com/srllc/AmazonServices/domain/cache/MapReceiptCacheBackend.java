@@ -0,0 +1,27 @@
+package com.srllc.AmazonServices.domain.cache;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.srllc.AmazonServices.domain.record.ReceiptView;
+
+// Map-backed stand-in for a shared cache; tests inspect the map directly
+class MapReceiptCacheBackend implements ReceiptCacheBackend {
+	final Map<Long, ReceiptView> entries = new ConcurrentHashMap<>();
+
+	@Override
+	public Optional<ReceiptView> get(Long receiptId) {
+		return Optional.ofNullable(entries.get(receiptId));
+	}
+
+	@Override
+	public void put(ReceiptView receipt) {
+		entries.put(receipt.id(), receipt);
+	}
+
+	@Override
+	public void evict(Long receiptId) {
+		entries.remove(receiptId);
+	}
+}
@@ -0,0 +1,144 @@
+package com.srllc.AmazonServices.domain.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.srllc.AmazonServices.domain.entity.RecieptItem;
+import com.srllc.AmazonServices.domain.entity.Reciepts;
+import com.srllc.AmazonServices.domain.persistence.ReceiptReparseWriter;
+import com.srllc.AmazonServices.domain.repository.RecieptsRepository;
+
+/**
+ * The invalidator as Hibernate actually calls it: committed updates and
+ * deletes of a receipt or one of its items evict the cached receipt.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+		"spring.datasource.url=jdbc:h2:mem:receipt-cache;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.show-sql=false" })
+@Import({ ReceiptReadCache.class, ReceiptCacheInvalidator.class, ReceiptReparseWriter.class,
+		ReceiptCacheInvalidatorTests.Config.class })
+// each change commits in its own transaction so the after-commit eviction runs
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReceiptCacheInvalidatorTests {
+
+	@Autowired
+	private MapReceiptCacheBackend backend;
+
+	@Autowired
+	private ReceiptReadCache cache;
+
+	@Autowired
+	private RecieptsRepository receiptsRepository;
+
+	@Autowired
+	private ReceiptReparseWriter reparseWriter;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private TransactionTemplate transaction;
+	private Long receiptId;
+
+	@BeforeEach
+	void saveAndCacheReceipt() {
+		transaction = new TransactionTemplate(transactionManager);
+		Reciepts saved = transaction.execute(status -> receiptsRepository.save(receipt()));
+		receiptId = saved.getId();
+		cache.put(saved);
+		assertTrue(backend.entries.containsKey(receiptId));
+	}
+
+	@Test
+	void updatingTheReceiptEvictsIt() {
+		transaction.executeWithoutResult(status ->
+				receiptsRepository.findById(receiptId).orElseThrow().setCompanyName("Renamed"));
+
+		assertFalse(backend.entries.containsKey(receiptId));
+	}
+
+	@Test
+	void updatingOnlyAnItemEvictsItsReceipt() {
+		transaction.executeWithoutResult(status ->
+				receiptsRepository.findWithItemsById(receiptId).orElseThrow().getItems().get(0).setQuantity(5));
+
+		assertFalse(backend.entries.containsKey(receiptId));
+	}
+
+	@Test
+	void deletingTheReceiptEvictsIt() {
+		transaction.executeWithoutResult(status ->
+				receiptsRepository.delete(receiptsRepository.findWithItemsById(receiptId).orElseThrow()));
+
+		assertFalse(backend.entries.containsKey(receiptId));
+	}
+
+	@Test
+	void reparseThatOnlyReplacesItemsEvictsTheReceipt() {
+		String externalId = receiptsRepository.findById(receiptId).orElseThrow().getExternalId();
+		Reciepts reparsed = receipt();
+		reparsed.getItems().get(0).setProductName("Espresso");
+
+		// same scalar fields, so Hibernate issues no receipt update and the listener never fires
+		assertEquals(1, reparseWriter.apply(Map.of(externalId, reparsed)));
+
+		assertFalse(backend.entries.containsKey(receiptId));
+		assertEquals("Espresso", cache.get(receiptId, receiptsRepository::findWithItemsById)
+				.orElseThrow().items().get(0).productName());
+	}
+
+	@Test
+	void rolledBackChangeStillLeavesNoStaleEntry() {
+		transaction.executeWithoutResult(status -> {
+			receiptsRepository.findById(receiptId).orElseThrow().setCompanyName("Discarded");
+			receiptsRepository.flush();
+			status.setRollbackOnly();
+		});
+
+		// evicted eagerly at flush; the next read reloads the committed row
+		assertFalse(backend.entries.containsKey(receiptId));
+	}
+
+	private static Reciepts receipt() {
+		Reciepts receipt = new Reciepts();
+		receipt.setCompanyName("ACME");
+		RecieptItem item = new RecieptItem();
+		item.setProductName("Coffee");
+		item.setQuantity(1);
+		item.setPrice(2.5);
+		item.setReciepts(receipt);
+		receipt.setItems(new ArrayList<>(List.of(item)));
+		return receipt;
+	}
+
+	@TestConfiguration
+	static class Config {
+
+		@Bean
+		MapReceiptCacheBackend receiptCacheBackend() {
+			return new MapReceiptCacheBackend();
+		}
+	}
+}
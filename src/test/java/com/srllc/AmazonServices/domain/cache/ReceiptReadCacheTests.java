@@ -0,0 +1,89 @@
+package com.srllc.AmazonServices.domain.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+import com.srllc.AmazonServices.domain.entity.Reciepts;
+import com.srllc.AmazonServices.domain.record.ReceiptView;
+
+class ReceiptReadCacheTests {
+
+	private final MapReceiptCacheBackend backend = new MapReceiptCacheBackend();
+	private final ReceiptReadCache cache = new ReceiptReadCache(backend);
+	private final AtomicInteger loads = new AtomicInteger();
+
+	@Test
+	void missLoadsOnceThenServesFromTheBackend() {
+		Function<Long, Optional<Reciepts>> loader = id -> {
+			loads.incrementAndGet();
+			return Optional.of(receipt(id, "ACME"));
+		};
+
+		assertEquals("ACME", cache.get(7L, loader).orElseThrow().companyName());
+		assertEquals("ACME", cache.get(7L, loader).orElseThrow().companyName());
+		assertEquals("ACME", cache.get(7L, loader).orElseThrow().companyName());
+
+		assertEquals(1, loads.get());
+		assertTrue(backend.entries.containsKey(7L));
+	}
+
+	@Test
+	void hitNeverCallsTheLoader() {
+		cache.put(receipt(3L, "Cached"));
+
+		Optional<ReceiptView> view = cache.get(3L, id -> {
+			throw new AssertionError("loader called on a cache hit");
+		});
+
+		assertEquals("Cached", view.orElseThrow().companyName());
+	}
+
+	@Test
+	void missingReceiptIsNotCached() {
+		assertTrue(cache.get(9L, id -> Optional.empty()).isEmpty());
+		assertFalse(backend.entries.containsKey(9L));
+	}
+
+	@Test
+	void unsavedReceiptIsNotCached() {
+		cache.put(receipt(null, "Pending"));
+		assertTrue(backend.entries.isEmpty());
+	}
+
+	@Test
+	void evictForcesTheNextReadToLoad() {
+		cache.put(receipt(5L, "Old"));
+		cache.evict(5L);
+
+		ReceiptView view = cache.get(5L, id -> {
+			loads.incrementAndGet();
+			return Optional.of(receipt(id, "New"));
+		}).orElseThrow();
+
+		assertEquals("New", view.companyName());
+		assertEquals(1, loads.get());
+	}
+
+	@Test
+	void evictIgnoresNullIds() {
+		cache.put(receipt(4L, "Kept"));
+		cache.evict(null);
+		assertTrue(backend.entries.containsKey(4L));
+	}
+
+	private static Reciepts receipt(Long id, String company) {
+		Reciepts receipt = new Reciepts();
+		receipt.setId(id);
+		receipt.setCompanyName(company);
+		receipt.setItems(List.of());
+		return receipt;
+	}
+}
@@ -0,0 +1,148 @@
+package com.srllc.AmazonServices.domain.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.srllc.AmazonServices.domain.entity.RecieptItem;
+import com.srllc.AmazonServices.domain.entity.Reciepts;
+import com.srllc.AmazonServices.domain.repository.RecieptsRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * A memory hit is served from the cached view without a query; once the
+ * receipt changes the view is evicted and the lookup goes to the database.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+		"spring.datasource.url=jdbc:h2:mem:receipt-result-cache;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.show-sql=false" })
+@Import({ ReceiptResultCache.class, ReceiptReadCache.class, ReceiptCacheInvalidator.class,
+		ReceiptResultCacheTests.Config.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReceiptResultCacheTests {
+
+	@Autowired
+	private ReceiptResultCache cache;
+
+	@Autowired
+	private RecieptsRepository receiptsRepository;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private TransactionTemplate transaction;
+	private String contentHash;
+	private Long receiptId;
+	private double memoryHitsBefore;
+	private double databaseHitsBefore;
+
+	@BeforeEach
+	void saveAndCacheReceipt() {
+		transaction = new TransactionTemplate(transactionManager);
+		// the context and its counters are shared across tests, so each one gets its own hash and baseline
+		contentHash = UUID.randomUUID().toString();
+		Reciepts saved = transaction.execute(status -> receiptsRepository.save(receipt(contentHash)));
+		receiptId = saved.getId();
+		cache.put(contentHash, saved);
+		memoryHitsBefore = hits("memory");
+		databaseHitsBefore = hits("database");
+	}
+
+	@Test
+	void memoryHitDoesNotReadTheDatabase() {
+		// remove the rows behind JPA's back; only a lookup that skips the database still finds the receipt
+		jdbcTemplate.update("delete from reciept_item where reciept_id = ?", receiptId);
+		jdbcTemplate.update("delete from reciepts where id = ?", receiptId);
+
+		Reciepts found = cache.find(contentHash).orElseThrow();
+
+		assertEquals(receiptId, found.getId());
+		assertEquals("Coffee", found.getItems().get(0).getProductName());
+		assertEquals(1.0, hits("memory") - memoryHitsBefore);
+		assertEquals(0.0, hits("database") - databaseHitsBefore);
+	}
+
+	@Test
+	void changedReceiptIsReloadedFromTheDatabase() {
+		transaction.executeWithoutResult(status ->
+				receiptsRepository.findById(receiptId).orElseThrow().setCompanyName("Renamed"));
+
+		Reciepts found = cache.find(contentHash).orElseThrow();
+
+		assertEquals("Renamed", found.getCompanyName());
+		assertEquals(0.0, hits("memory") - memoryHitsBefore);
+		assertEquals(1.0, hits("database") - databaseHitsBefore);
+	}
+
+	@Test
+	void callersGetTheirOwnCopy() {
+		cache.find(contentHash).orElseThrow().getItems().get(0).setProductName("Tampered");
+
+		Reciepts found = cache.find(contentHash).orElseThrow();
+
+		assertEquals("Coffee", found.getItems().get(0).getProductName());
+		assertSame(found, found.getItems().get(0).getReciepts());
+	}
+
+	private double hits(String source) {
+		return meterRegistry.get("textract.result.cache").tag("result", "hit").tag("source", source)
+				.counter().count();
+	}
+
+	private static Reciepts receipt(String contentHash) {
+		Reciepts receipt = new Reciepts();
+		receipt.setCompanyName("ACME");
+		receipt.setContentHash(contentHash);
+		RecieptItem item = new RecieptItem();
+		item.setProductName("Coffee");
+		item.setQuantity(1);
+		item.setPrice(2.5);
+		item.setReciepts(receipt);
+		receipt.setItems(new ArrayList<>(List.of(item)));
+		return receipt;
+	}
+
+	@TestConfiguration
+	static class Config {
+
+		@Bean
+		MapReceiptCacheBackend receiptCacheBackend() {
+			return new MapReceiptCacheBackend();
+		}
+
+		@Bean
+		MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+	}
+}
@@ -0,0 +1,284 @@
+package com.srllc.AmazonServices.domain.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+import com.srllc.AmazonServices.common.Deadline;
+import com.srllc.AmazonServices.domain.exception.DeadlineExceededException;
+import com.srllc.AmazonServices.domain.exception.ServiceUnavailableException;
+import com.srllc.AmazonServices.domain.exception.TooManyRequestsException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+
+class AwsCallGuardTests {
+
+	private final AwsConcurrencyLimiter limiter = new AwsConcurrencyLimiter("Stub", 10, 1, 20, 0.5, 100);
+	private final CircuitBreaker breaker = new CircuitBreaker("Stub", 10, 4, 0.5, 60_000, 1);
+	private final AwsCallGuard guard = new AwsCallGuard("Stub", breaker,
+			new TokenBucket("Stub", 0, 1, 100), limiter, new RetryPolicy(3, 1, 5),
+			new SimpleMeterRegistry().counter("aws.retries"));
+
+	private static AwsCallGuard guard(AwsConcurrencyLimiter limiter) {
+		return new AwsCallGuard("Stub", new CircuitBreaker("Stub", 10, 4, 0.5, 60_000, 1),
+				new TokenBucket("Stub", 0, 1, 100), limiter, new RetryPolicy(3, 1, 5),
+				new SimpleMeterRegistry().counter("aws.retries"));
+	}
+
+	// Always backs off the same time, so a test can put it past a deadline
+	private static AwsCallGuard guardBackingOff(long backoffMillis) {
+		RetryPolicy fixed = new RetryPolicy(3, backoffMillis, backoffMillis) {
+			@Override
+			public long backoffMillis(int attempt) {
+				return backoffMillis;
+			}
+		};
+		return new AwsCallGuard("Stub", new CircuitBreaker("Stub", 10, 4, 0.5, 60_000, 1),
+				new TokenBucket("Stub", 0, 1, 100), new AwsConcurrencyLimiter("Stub", 10, 1, 20, 0.5, 100), fixed,
+				new SimpleMeterRegistry().counter("aws.retries"));
+	}
+
+	private static AwsServiceException awsError(String code, int status) {
+		return AwsServiceException.builder()
+				.awsErrorDetails(AwsErrorDetails.builder().errorCode(code).build())
+				.statusCode(status)
+				.build();
+	}
+
+	// Fails with the given error for the first n calls, then answers "ok"
+	private static Supplier<String> failing(int n, RuntimeException error, AtomicInteger calls) {
+		return () -> {
+			if (calls.incrementAndGet() <= n) {
+				throw error;
+			}
+			return "ok";
+		};
+	}
+
+	@Test
+	void retriesThrottlingAndShrinksTheLimit() {
+		AtomicInteger calls = new AtomicInteger();
+
+		String result = guard.call(failing(2, awsError("ThrottlingException", 400), calls));
+
+		assertEquals("ok", result);
+		assertEquals(3, calls.get());
+		assertTrue(limiter.currentLimit() < 10);
+		assertEquals(0, limiter.inFlight());
+	}
+
+	@Test
+	void doesNotRetryValidationErrors() {
+		AtomicInteger calls = new AtomicInteger();
+
+		assertThrows(AwsServiceException.class,
+				() -> guard.call(failing(5, awsError("InvalidParameterException", 400), calls)));
+		assertEquals(1, calls.get());
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+	}
+
+	@Test
+	void persistentThrottlingBecomesTooManyRequests() {
+		AtomicInteger calls = new AtomicInteger();
+
+		assertThrows(TooManyRequestsException.class,
+				() -> guard.call(failing(10, awsError("ProvisionedThroughputExceededException", 400), calls)));
+		assertEquals(3, calls.get());
+	}
+
+	@Test
+	void retryThatWouldOutliveTheDeadlineFailsWithIt() {
+		ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+		try {
+			Deadline deadline = Deadline.after(Duration.ofMillis(500), timer);
+			deadline.check("textract.aws_call");
+			AtomicInteger calls = new AtomicInteger();
+			long start = System.nanoTime();
+
+			DeadlineExceededException exceeded = assertThrows(DeadlineExceededException.class,
+					() -> guardBackingOff(5_000).call(failing(1, awsError("ThrottlingException", 400), calls), deadline));
+
+			// failed without sleeping through the backoff, and the throttling is kept for the logs
+			assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 500);
+			assertEquals(1, calls.get());
+			assertEquals("textract.aws_call", exceeded.getStage());
+			assertInstanceOf(AwsServiceException.class, exceeded.getSuppressed()[0]);
+		} finally {
+			timer.shutdownNow();
+		}
+	}
+
+	@Test
+	void asyncRetryThatWouldOutliveTheDeadlineFailsWithIt() throws Exception {
+		ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+		try {
+			Deadline deadline = Deadline.after(Duration.ofMillis(500), timer);
+			AtomicInteger calls = new AtomicInteger();
+
+			CompletableFuture<String> result = guardBackingOff(5_000).callAsync(() -> {
+				calls.incrementAndGet();
+				return CompletableFuture.failedFuture(awsError("ThrottlingException", 400));
+			}, deadline);
+
+			ExecutionException failed = assertThrows(ExecutionException.class, () -> result.get(1, TimeUnit.SECONDS));
+			assertInstanceOf(DeadlineExceededException.class, failed.getCause());
+			assertEquals(1, calls.get());
+		} finally {
+			timer.shutdownNow();
+		}
+	}
+
+	@Test
+	void retryWithinTheDeadlineStillRuns() {
+		ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+		try {
+			Deadline deadline = Deadline.after(Duration.ofSeconds(5), timer);
+			AtomicInteger calls = new AtomicInteger();
+
+			assertEquals("ok",
+					guardBackingOff(10).call(failing(1, awsError("ThrottlingException", 400), calls), deadline));
+			assertEquals(2, calls.get());
+		} finally {
+			timer.shutdownNow();
+		}
+	}
+
+	@Test
+	void opensTheCircuitAndFailsFast() {
+		AtomicInteger calls = new AtomicInteger();
+		Supplier<String> down = failing(Integer.MAX_VALUE, awsError("InternalServerError", 500), calls);
+
+		// three attempts, three failures: not enough calls to judge yet
+		assertThrows(AwsServiceException.class, () -> guard.call(down));
+		// the fourth failure opens the circuit, so the retry is rejected locally
+		assertThrows(ServiceUnavailableException.class, () -> guard.call(down));
+		assertEquals(4, calls.get());
+
+		ServiceUnavailableException rejected = assertThrows(ServiceUnavailableException.class,
+				() -> guard.call(down));
+		assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+		assertEquals(4, calls.get());
+		assertTrue(rejected.getRetryAfterSeconds() > 0);
+	}
+
+	@Test
+	void asyncCallQueuesInsteadOfBlockingWhenTheLimitIsFull() throws Exception {
+		AwsConcurrencyLimiter single = new AwsConcurrencyLimiter("Stub", 1, 1, 1, 0.5, 5_000);
+		AwsCallGuard guard = guard(single);
+		CompletableFuture<String> first = new CompletableFuture<>();
+		AtomicInteger secondCalls = new AtomicInteger();
+
+		guard.callAsync(() -> first);
+		long start = System.nanoTime();
+		CompletableFuture<String> second = guard.callAsync(() -> {
+			secondCalls.incrementAndGet();
+			return CompletableFuture.completedFuture("second");
+		});
+
+		// returned straight away with the call parked, not after the 5 s acquire timeout
+		assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1_000);
+		assertFalse(second.isDone());
+		assertEquals(0, secondCalls.get());
+
+		first.complete("first");
+		assertEquals("second", second.get(1, TimeUnit.SECONDS));
+		assertEquals(1, secondCalls.get());
+		assertEquals(0, single.inFlight());
+	}
+
+	@Test
+	void queuedAsyncCallTimesOutWithTooManyRequests() throws Exception {
+		AwsConcurrencyLimiter single = new AwsConcurrencyLimiter("Stub", 1, 1, 1, 0.5, 50);
+		AwsCallGuard guard = guard(single);
+		CompletableFuture<String> first = new CompletableFuture<>();
+		AtomicInteger secondCalls = new AtomicInteger();
+
+		guard.callAsync(() -> first);
+		CompletableFuture<String> second = guard.callAsync(() -> {
+			secondCalls.incrementAndGet();
+			return CompletableFuture.completedFuture("second");
+		});
+
+		ExecutionException rejected = assertThrows(ExecutionException.class, () -> second.get(1, TimeUnit.SECONDS));
+		assertInstanceOf(TooManyRequestsException.class, rejected.getCause());
+		assertEquals(0, secondCalls.get());
+
+		// the timed-out waiter must not be handed the slot later
+		first.complete("first");
+		assertEquals(0, single.inFlight());
+	}
+
+	@Test
+	void concurrentSuccessesDoNotLoseLimitUpdates() throws Exception {
+		int threads = 8;
+		int callsPerThread = 1_000;
+		AwsConcurrencyLimiter growing = new AwsConcurrencyLimiter("Stub", threads, 1, 10_000, 0.5, 1_000);
+		double expected = threads;
+		for (int i = 0; i < threads * callsPerThread; i++) {
+			expected += 1.0 / expected;
+		}
+
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<?>> workers = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				workers.add(pool.submit(() -> {
+					for (int i = 0; i < callsPerThread; i++) {
+						growing.acquire();
+						growing.onSuccess();
+					}
+				}));
+			}
+			for (Future<?> worker : workers) {
+				worker.get(10, TimeUnit.SECONDS);
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+
+		assertEquals((int) expected, growing.currentLimit(), 1);
+		assertEquals(0, growing.inFlight());
+	}
+
+	@Test
+	void staleCallDoesNotReleaseOrDecideAHalfOpenTrial() {
+		CircuitBreaker breaker = new CircuitBreaker("Stub", 2, 2, 0.5, 0, 1);
+		long stale = breaker.acquirePermission();
+		breaker.onFailure(breaker.acquirePermission());
+		breaker.onFailure(breaker.acquirePermission());
+		assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+
+		long trial = breaker.acquirePermission();
+		assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+
+		// a call admitted while closed finishes during the trial round
+		breaker.onIgnored(stale);
+		assertFalse(breaker.isCallPermitted());
+		breaker.onSuccess(stale);
+		breaker.onFailure(stale);
+		assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+		assertThrows(ServiceUnavailableException.class, breaker::acquirePermission);
+
+		breaker.onSuccess(trial);
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+	}
+}
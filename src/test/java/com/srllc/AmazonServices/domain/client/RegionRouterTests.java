@@ -0,0 +1,101 @@
+package com.srllc.AmazonServices.domain.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.srllc.AmazonServices.common.Deadline;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RegionRouterTests {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	// Stands in for one regional endpoint: answers with its region after an injected delay
+	private static final class StubEndpoint {
+		final String region;
+		final List<CompletableFuture<String>> calls = new CopyOnWriteArrayList<>();
+		volatile long delayMillis;
+
+		StubEndpoint(String region, long delayMillis) {
+			this.region = region;
+			this.delayMillis = delayMillis;
+		}
+
+		CompletableFuture<String> call() {
+			CompletableFuture<String> response = CompletableFuture.supplyAsync(() -> region,
+					CompletableFuture.delayedExecutor(delayMillis, TimeUnit.MILLISECONDS));
+			calls.add(response);
+			return response;
+		}
+	}
+
+	private RegionRouter<StubEndpoint, StubEndpoint> router(boolean hedging, StubEndpoint... endpoints) {
+		List<RegionRouter.Route<StubEndpoint, StubEndpoint>> routes = new ArrayList<>();
+		for (StubEndpoint endpoint : endpoints) {
+			AwsCallGuard guard = new AwsCallGuard(endpoint.region,
+					new CircuitBreaker(endpoint.region, 10, 4, 0.5, 60_000, 1),
+					new TokenBucket(endpoint.region, 0, 1, 100),
+					new AwsConcurrencyLimiter(endpoint.region, 10, 1, 20, 0.5, 100),
+					new RetryPolicy(1, 1, 5), registry.counter("aws.retries"));
+			routes.add(new RegionRouter.Route<>(endpoint.region, endpoint, endpoint, guard, new RegionLatency(0.5)));
+		}
+		return new RegionRouter<>("Stub", routes, 0.0, new RegionRouter.HedgePolicy(hedging, 0.95, 10, 1, 1.0),
+				registry);
+	}
+
+	private static CompletableFuture<String> send(RegionRouter.Route<StubEndpoint, StubEndpoint> route,
+			Deadline deadline) {
+		return route.guard().callAsync(() -> {
+			CompletableFuture<String> call = route.asyncClient().call();
+			deadline.onCancel(() -> call.cancel(true));
+			return call;
+		});
+	}
+
+	@Test
+	void routesToTheFasterRegion() {
+		StubEndpoint home = new StubEndpoint("us-east-1", 40);
+		StubEndpoint standby = new StubEndpoint("us-west-2", 2);
+		RegionRouter<StubEndpoint, StubEndpoint> router = router(false, home, standby);
+
+		String last = null;
+		for (int i = 0; i < 20; i++) {
+			last = router.callAsync(Deadline.none(), RegionRouterTests::send).join();
+		}
+
+		assertEquals("us-west-2", last);
+		assertEquals(1, home.calls.size());
+		assertEquals(19, standby.calls.size());
+	}
+
+	@Test
+	void hedgesASlowPrimaryAndCancelsTheLoser() {
+		StubEndpoint home = new StubEndpoint("us-east-1", 2);
+		StubEndpoint standby = new StubEndpoint("us-west-2", 30);
+		RegionRouter<StubEndpoint, StubEndpoint> router = router(true, home, standby);
+		for (int i = 0; i < 15; i++) {
+			router.callAsync(Deadline.none(), RegionRouterTests::send).join();
+		}
+
+		home.delayMillis = 5_000;
+		standby.delayMillis = 2;
+		long start = System.nanoTime();
+		String answer = router.callAsync(Deadline.none(), RegionRouterTests::send).join();
+		long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+		assertEquals("us-west-2", answer);
+		assertTrue(elapsedMillis < 1_000, "hedge should answer long before the slow primary");
+		assertTrue(home.calls.get(home.calls.size() - 1).isCancelled());
+		assertEquals(1.0, registry.counter("aws.hedge.wins", "service", "stub", "winner", "hedge").count());
+		assertTrue(registry.counter("aws.hedge.sent", "service", "stub").count() >= 1);
+	}
+}
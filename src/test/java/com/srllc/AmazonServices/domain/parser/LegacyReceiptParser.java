@@ -0,0 +1,194 @@
+package com.srllc.AmazonServices.domain.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.srllc.AmazonServices.domain.entity.RecieptItem;
+import com.srllc.AmazonServices.domain.entity.Reciepts;
+
+/**
+ * Baseline copy of the parser as it was before ReceiptLineClassifier. The
+ * equivalence tests check the current parser against it, and the benchmark
+ * reports the before/after cost side by side. Logging calls are stripped so
+ * the comparison measures parsing only.
+ */
+public class LegacyReceiptParser {
+
+    public Reciepts parse(List<String> lines) {
+        Reciepts receipt = new Reciepts();
+        List<RecieptItem> items = new ArrayList<>();
+
+        String companyName = null;
+        String branch = null;
+        String managerName = null;
+        String cashierNumber = null;
+        Double subTotal = null;
+        Double cash = null;
+        Double change = null;
+
+        boolean expectingManagerName = false;
+        boolean expectingCashierNumber = false;
+        boolean expectingSubTotal = false;
+        boolean expectingCash = false;
+        boolean expectingChange = false;
+
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+
+            // Skip lines with unwanted texts
+            if (line.toLowerCase().contains("index") || line.toLowerCase().contains("confidence") ||
+                    line.toLowerCase().contains("coord") || line.length() > 50) {
+                continue;
+            }
+
+            // Handle expected values from previous lines
+            if (expectingManagerName && managerName == null) {
+                managerName = line;
+                expectingManagerName = false;
+                continue;
+            }
+
+            if (expectingCashierNumber && cashierNumber == null) {
+                cashierNumber = line;
+                expectingCashierNumber = false;
+                continue;
+            }
+
+            if (expectingSubTotal && subTotal == null) {
+                Double amount = extractAmount(line);
+                if (amount != null) {
+                    subTotal = amount;
+                }
+                expectingSubTotal = false;
+                continue;
+            }
+
+            if (expectingCash && cash == null) {
+                Double amount = extractAmount(line);
+                if (amount != null) {
+                    cash = amount;
+                }
+                expectingCash = false;
+                continue;
+            }
+
+            if (expectingChange && change == null) {
+                Double amount = extractAmount(line);
+                if (amount != null) {
+                    change = amount;
+                }
+                expectingChange = false;
+                continue;
+            }
+
+            // Parse current line
+            if ((line.toUpperCase().contains("HYPERMARKET") || line.toUpperCase().contains("STORE") ||
+                    line.toUpperCase().contains("MALL") || line.toUpperCase().contains("MARKET"))
+                    && companyName == null) {
+                companyName = line;
+            }
+
+            else if ((line.toLowerCase().contains("branch") || line.toLowerCase().contains("quezon") ||
+                    line.toLowerCase().contains("manila") || line.toLowerCase().contains("city")) &&
+                    !line.toLowerCase().contains("index") && branch == null) {
+                branch = line;
+            }
+
+            else if (line.toLowerCase().equals("manager:") && managerName == null) {
+                expectingManagerName = true;
+            }
+
+            else if (line.toLowerCase().equals("cashier:") && cashierNumber == null) {
+                expectingCashierNumber = true;
+            }
+
+            else if ((line.toLowerCase().equals("sub total") || line.toLowerCase().equals("subtotal"))
+                    && subTotal == null) {
+                expectingSubTotal = true;
+            }
+
+            else if (line.toLowerCase().equals("cash") && cash == null) {
+                expectingCash = true;
+            }
+
+            else if (line.toLowerCase().equals("change") && change == null) {
+                expectingChange = true;
+            }
+
+            // Try to extract items using a different approach for this receipt format
+            else if (isProductName(line) && i + 2 < lines.size()) {
+                // Check if next two lines are quantity and price
+                String nextLine = lines.get(i + 1).trim();
+                String priceLine = lines.get(i + 2).trim();
+
+                if (isQuantity(nextLine) && isPrice(priceLine)) {
+                    RecieptItem item = new RecieptItem();
+                    item.setProductName(line);
+                    item.setQuantity(Integer.parseInt(nextLine));
+                    item.setPrice(extractAmount(priceLine));
+                    item.setReciepts(receipt);
+                    items.add(item);
+
+
+                    // Skip the next two lines as we've processed them
+                    i += 2;
+                }
+            }
+        }
+
+
+        receipt.setCompanyName(companyName);
+        receipt.setBranch(branch);
+        receipt.setManagerName(managerName);
+        receipt.setCashierNumber(cashierNumber);
+        receipt.setSubTotal(subTotal);
+        receipt.setCash(cash);
+        receipt.setChange(change);
+        receipt.setItems(items);
+
+        return receipt;
+    }
+
+    private boolean isProductName(String line) {
+        // Check if line looks like a product name
+        return line.length() > 1 &&
+                line.matches("^[A-Za-z].*") &&
+                !line.toLowerCase().contains("name") &&
+                !line.toLowerCase().contains("qty") &&
+                !line.toLowerCase().contains("price") &&
+                !line.toLowerCase().contains("total") &&
+                !line.toLowerCase().contains("cash") &&
+                !line.toLowerCase().contains("change") &&
+                !line.toLowerCase().contains("manager") &&
+                !line.toLowerCase().contains("cashier") &&
+                !line.toLowerCase().contains("tel") &&
+                !line.toLowerCase().contains("thank");
+    }
+
+    private boolean isQuantity(String line) {
+        return line.matches("^\\d+$");
+    }
+
+    private boolean isPrice(String line) {
+        return line.matches("^\\$\\d+\\.\\d{2}$");
+    }
+
+    private Double extractAmount(String line) {
+        // Look for amounts with dollar sign first, then without
+        Pattern patternWithDollar = Pattern.compile("\\$(\\d+\\.\\d{2})");
+        Matcher matcherWithDollar = patternWithDollar.matcher(line);
+        if (matcherWithDollar.find()) {
+            return Double.parseDouble(matcherWithDollar.group(1));
+        }
+
+        // Fallback to amount without dollar sign
+        Pattern pattern = Pattern.compile("(\\d+\\.\\d{2})");
+        Matcher matcher = pattern.matcher(line);
+        if (matcher.find()) {
+            return Double.parseDouble(matcher.group(1));
+        }
+        return null;
+    }
+}
@@ -0,0 +1,154 @@
+package com.srllc.AmazonServices.domain.parser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.srllc.AmazonServices.domain.entity.RecieptItem;
+import com.srllc.AmazonServices.domain.entity.Reciepts;
+
+class ReceiptParserTests {
+
+	// the line counts the parsing benchmark runs at
+	private static final int[] BENCHMARK_SIZES = { 10, 100, 1000, 5000 };
+
+	private final ReceiptParser parser = new ReceiptParser(new ReceiptLineClassifier());
+	private final LegacyReceiptParser legacyParser = new LegacyReceiptParser();
+
+	// LINE texts of the recorded receipt, in order
+	private static List<String> recordedLines() throws IOException {
+		try (InputStream in = ReceiptParserTests.class.getResourceAsStream("/fixtures/textract-receipt-blocks.json")) {
+			List<String> lines = new ArrayList<>();
+			for (JsonNode block : new ObjectMapper().readTree(in).get("blocks")) {
+				if ("LINE".equals(block.get("blockType").asText())) {
+					lines.add(block.get("text").asText());
+				}
+			}
+			return lines;
+		}
+	}
+
+	// The recorded receipt repeated up to lineCount lines, as the benchmark fixtures scale it
+	private static List<String> scaled(List<String> recorded, int lineCount) {
+		List<String> lines = new ArrayList<>(lineCount);
+		while (lines.size() < lineCount) {
+			lines.addAll(recorded.subList(0, Math.min(recorded.size(), lineCount - lines.size())));
+		}
+		return lines;
+	}
+
+	private void assertSameAsLegacy(List<String> lines, String input) {
+		Reciepts expected = legacyParser.parse(lines);
+		Reciepts actual = parser.parse(lines);
+
+		assertEquals(expected.getCompanyName(), actual.getCompanyName(), input + ": company name");
+		assertEquals(expected.getBranch(), actual.getBranch(), input + ": branch");
+		assertEquals(expected.getManagerName(), actual.getManagerName(), input + ": manager name");
+		assertEquals(expected.getCashierNumber(), actual.getCashierNumber(), input + ": cashier number");
+		assertEquals(expected.getSubTotal(), actual.getSubTotal(), input + ": sub total");
+		assertEquals(expected.getCash(), actual.getCash(), input + ": cash");
+		assertEquals(expected.getChange(), actual.getChange(), input + ": change");
+		assertEquals(expected.getItems().size(), actual.getItems().size(), input + ": item count");
+		for (int i = 0; i < expected.getItems().size(); i++) {
+			RecieptItem want = expected.getItems().get(i);
+			RecieptItem got = actual.getItems().get(i);
+			assertEquals(want.getProductName(), got.getProductName(), input + ": name of item " + i);
+			assertEquals(want.getQuantity(), got.getQuantity(), input + ": quantity of item " + i);
+			assertEquals(want.getPrice(), got.getPrice(), input + ": price of item " + i);
+			assertSame(actual, got.getReciepts(), input + ": receipt of item " + i);
+		}
+	}
+
+	@Test
+	void matchesTheLegacyParserOnTheRecordedReceipt() throws IOException {
+		List<String> recorded = recordedLines();
+
+		assertSameAsLegacy(recorded, "recorded receipt");
+		for (int size : BENCHMARK_SIZES) {
+			assertSameAsLegacy(scaled(recorded, size), size + " lines");
+		}
+	}
+
+	@Test
+	void matchesTheLegacyParserOnEveryCutOfTheRecordedReceipt() throws IOException {
+		List<String> recorded = recordedLines();
+
+		// a receipt cut short anywhere, including in the middle of an item's three lines
+		for (int end = 0; end <= recorded.size(); end++) {
+			for (int start = 0; start < end; start++) {
+				assertSameAsLegacy(recorded.subList(start, end), "lines " + start + ".." + end);
+			}
+		}
+	}
+
+	@Test
+	void matchesTheLegacyParserOnShuffledLines() throws IOException {
+		List<String> pool = new ArrayList<>(recordedLines());
+		// lines each rule skips or trips over: too long, noise, padded, item-like but not quite
+		pool.addAll(List.of("Index confidence 0.98", "Coordinates 0.1 0.2", "MEGA MARKET " + "x".repeat(39),
+				"Makati City " + "y".repeat(38), "  Cash  ",
+				" Apple ", "2 ", "$9.20 ", "$9.2", "12a", "Name Qty Price", "Total $5.00", "MANAGER:", "SubTotal",
+				"Grand Market Mall", "Manila Branch", "$1,000.00", "7", ""));
+		Random random = new Random(42);
+
+		for (int round = 0; round < 2_000; round++) {
+			Collections.shuffle(pool, random);
+			List<String> lines = pool.subList(0, 1 + random.nextInt(pool.size()));
+			assertSameAsLegacy(lines, "shuffle round " + round);
+		}
+	}
+
+	@Test
+	void parsesHeaderTotalsAndItems() {
+		Reciepts receipt = parser.parse(List.of(
+				"SM HYPERMARKET", "Quezon City", "Manager:", "Eric Steer", "Cashier:", "#3",
+				"Name", "Qty", "Price",
+				"Apple", "1", "$9.20",
+				"Gardenia", "2", "$19.20",
+				"Sub Total", "$107.60", "Cash", "$200.00", "Change", "$92.40",
+				"Index confidence 0.98", "Thank you"));
+
+		assertEquals("SM HYPERMARKET", receipt.getCompanyName());
+		assertEquals("Quezon City", receipt.getBranch());
+		assertEquals("Eric Steer", receipt.getManagerName());
+		assertEquals("#3", receipt.getCashierNumber());
+		assertEquals(107.60, receipt.getSubTotal());
+		assertEquals(200.00, receipt.getCash());
+		assertEquals(92.40, receipt.getChange());
+		assertEquals(2, receipt.getItems().size());
+		assertEquals("Gardenia", receipt.getItems().get(1).getProductName());
+		assertEquals(2, receipt.getItems().get(1).getQuantity());
+		assertEquals(19.20, receipt.getItems().get(1).getPrice());
+	}
+
+	@Test
+	void extractsAmountsLikeTheOriginalPatterns() {
+		assertEquals(12.34, ReceiptLineClassifier.extractAmount("Total 12.345"));
+		assertEquals(2.34, ReceiptLineClassifier.extractAmount("1.2.34"));
+		assertEquals(3.50, ReceiptLineClassifier.extractAmount("$5 and 3.50"));
+		assertEquals(7.25, ReceiptLineClassifier.extractAmount("1.00 then $7.25"));
+		assertNull(ReceiptLineClassifier.extractAmount("no amount"));
+	}
+
+	@Test
+	void recognisesQuantitiesAndPrices() {
+		assertTrue(ReceiptLineClassifier.isQuantity("12"));
+		assertFalse(ReceiptLineClassifier.isQuantity("12a"));
+		assertTrue(ReceiptLineClassifier.isPrice("$19.20"));
+		assertFalse(ReceiptLineClassifier.isPrice("$19.2"));
+		assertFalse(ReceiptLineClassifier.isPrice("19.20"));
+	}
+}
@@ -0,0 +1,294 @@
+package com.srllc.AmazonServices.domain.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.srllc.AmazonServices.config.ReceiptCacheConfig;
+import com.srllc.AmazonServices.domain.cache.ReceiptCacheInvalidator;
+import com.srllc.AmazonServices.domain.cache.ReceiptReadCache;
+import com.srllc.AmazonServices.domain.entity.ExtractionJob;
+import com.srllc.AmazonServices.domain.entity.JobKind;
+import com.srllc.AmazonServices.domain.entity.JobStatus;
+import com.srllc.AmazonServices.domain.entity.Reciepts;
+import com.srllc.AmazonServices.domain.exception.BadRequestException;
+import com.srllc.AmazonServices.domain.exception.ServiceUnavailableException;
+import com.srllc.AmazonServices.domain.repository.ExtractionJobPayloadRepository;
+import com.srllc.AmazonServices.domain.repository.ExtractionJobRepository;
+import com.srllc.AmazonServices.domain.upload.SpooledUpload;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Several worker nodes sharing one database, each with its own pool, as
+ * separate application instances would. Extraction is replaced by a sleep.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+		"spring.datasource.url=jdbc:h2:mem:extraction-jobs;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.show-sql=false" })
+// the receipt entity listener needs the read cache, even though no receipt is saved here
+@Import({ ExtractionJobQueue.class, ReceiptReadCache.class, ReceiptCacheInvalidator.class, ReceiptCacheConfig.class,
+		ExtractionJobWorkerTests.Config.class })
+// workers commit in their own transactions, so the test must not hold one open
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ExtractionJobWorkerTests {
+
+	private static final Duration LEASE = Duration.ofSeconds(2);
+	private static final Duration RETRY_BACKOFF = Duration.ofMillis(50);
+
+	@Autowired
+	private ExtractionJobQueue queue;
+
+	@Autowired
+	private ExtractionJobRepository jobRepository;
+
+	@Autowired
+	private ExtractionJobPayloadRepository payloadRepository;
+
+	private final List<ExtractionJobWorker> workers = new ArrayList<>();
+	private final List<ExecutorService> pools = new ArrayList<>();
+
+	@AfterEach
+	void tearDown() throws InterruptedException {
+		for (ExtractionJobWorker worker : workers) {
+			worker.stop();
+		}
+		pools.forEach(ExecutorService::shutdownNow);
+		payloadRepository.deleteAll();
+		jobRepository.deleteAll();
+	}
+
+	@Test
+	void everyJobRunsExactlyOnceAcrossNodes() throws InterruptedException {
+		int jobs = 200;
+		enqueue(jobs);
+		Map<String, AtomicInteger> runs = new ConcurrentHashMap<>();
+
+		for (int node = 0; node < 4; node++) {
+			startNode("node-" + node, 3, job -> {
+				runs.computeIfAbsent(job.getId(), id -> new AtomicInteger()).incrementAndGet();
+				sleep(5);
+				return receipt(1L);
+			});
+		}
+		awaitCompleted(jobs, Duration.ofSeconds(30));
+
+		assertEquals(jobs, runs.size());
+		runs.forEach((id, count) -> assertEquals(1, count.get(), "job " + id + " ran " + count.get() + " times"));
+		assertTrue(jobRepository.findAll().stream().allMatch(job -> job.getAttempts() == 1));
+		assertEquals(0, payloadRepository.count());
+	}
+
+	@Test
+	void jobsOfACrashedNodeAreRetriedAfterTheirLeaseExpires() throws InterruptedException {
+		enqueue(5);
+		// a node that claims jobs and dies without ever renewing or finishing them
+		List<ExtractionJob> abandoned = queue.claim("crashed", 5, Duration.ofMillis(200));
+		assertEquals(5, abandoned.size());
+
+		startNode("survivor", 2, job -> receipt(7L));
+		awaitCompleted(5, Duration.ofSeconds(10));
+
+		for (ExtractionJob job : jobRepository.findAll()) {
+			assertEquals(7L, job.getReceiptId());
+			assertEquals(2, job.getAttempts());
+		}
+		// the crashed node's late result is rejected by the lease fence
+		assertFalse(queue.complete(abandoned.get(0).getId(), "crashed", 99L, "late"));
+	}
+
+	@Test
+	void transientFailureIsRetriedAfterABackoff() throws InterruptedException {
+		enqueue(1);
+		AtomicInteger calls = new AtomicInteger();
+
+		startNode("node", 1, job -> {
+			if (calls.incrementAndGet() == 1) {
+				throw new ServiceUnavailableException("Textract is unavailable", 0);
+			}
+			return receipt(3L);
+		});
+		awaitCompleted(1, Duration.ofSeconds(10));
+
+		ExtractionJob job = jobRepository.findAll().get(0);
+		assertEquals(2, calls.get());
+		assertEquals(2, job.getAttempts());
+		assertEquals(3L, job.getReceiptId());
+		assertNull(job.getError());
+		assertEquals(0, payloadRepository.count());
+	}
+
+	@Test
+	void rejectedInputFailsWithoutARetry() throws InterruptedException {
+		enqueue(1);
+		AtomicInteger calls = new AtomicInteger();
+
+		startNode("node", 1, job -> {
+			calls.incrementAndGet();
+			throw new BadRequestException("Not a receipt");
+		});
+		ExtractionJob job = awaitStatus(JobStatus.FAILED, Duration.ofSeconds(10));
+
+		assertEquals(1, calls.get());
+		assertEquals(1, job.getAttempts());
+		assertEquals("Not a receipt", job.getError());
+		assertEquals(0, payloadRepository.count());
+	}
+
+	@Test
+	void transientFailureFailsOnceAttemptsRunOut() throws InterruptedException {
+		enqueue(1);
+		AtomicInteger calls = new AtomicInteger();
+
+		startNode("node", 1, job -> {
+			calls.incrementAndGet();
+			throw new ServiceUnavailableException("Textract is unavailable", 0);
+		});
+		ExtractionJob job = awaitStatus(JobStatus.FAILED, Duration.ofSeconds(10));
+
+		assertEquals(3, calls.get());
+		assertEquals(3, job.getAttempts());
+	}
+
+	@Test
+	void nodesWorkTheQueueSideBySide() throws InterruptedException {
+		int jobs = 120;
+		int workersPerNode = 2;
+		enqueue(jobs);
+		Map<String, AtomicInteger> jobsPerNode = new ConcurrentHashMap<>();
+		Map<String, AtomicInteger> runs = new ConcurrentHashMap<>();
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger peakRunning = new AtomicInteger();
+
+		for (int node = 0; node < 4; node++) {
+			String nodeId = "node-" + node;
+			startNode(nodeId, workersPerNode, job -> {
+				runs.computeIfAbsent(job.getId(), id -> new AtomicInteger()).incrementAndGet();
+				jobsPerNode.computeIfAbsent(nodeId, id -> new AtomicInteger()).incrementAndGet();
+				peakRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+				sleep(50);
+				running.decrementAndGet();
+				return receipt(1L);
+			});
+		}
+		awaitCompleted(jobs, Duration.ofSeconds(60));
+
+		// counts, not timings: each job ran once, every node took a share, and their claims overlapped
+		assertEquals(jobs, runs.size());
+		runs.forEach((id, count) -> assertEquals(1, count.get(), "job " + id + " ran " + count.get() + " times"));
+		assertEquals(4, jobsPerNode.size(), "jobs per node: " + jobsPerNode);
+		assertEquals(jobs, jobsPerNode.values().stream().mapToInt(AtomicInteger::get).sum());
+		assertTrue(peakRunning.get() > workersPerNode,
+				"at most " + peakRunning.get() + " jobs ran at once, no more than a single node's workers");
+	}
+
+	@Test
+	void uploadIsStoredAndReadBackAsAStream() {
+		byte[] content = new byte[3 * 1024 * 1024];
+		new Random(7).nextBytes(content);
+		ExtractionJob job = ExtractionJob.pending(JobKind.RECEIPT, "large.jpg");
+
+		queue.enqueue(job, SpooledUpload.of("large.jpg", content));
+
+		byte[] stored = queue.readPayload(job.getId(), (in, size) -> {
+			assertEquals(content.length, size);
+			return in.readAllBytes();
+		}).orElseThrow();
+		assertArrayEquals(content, stored);
+		assertTrue(queue.readPayload("missing", (in, size) -> size).isEmpty());
+	}
+
+	private void startNode(String nodeId, int poolSize, Function<ExtractionJob, Reciepts> processor) {
+		ExecutorService pool = Executors.newFixedThreadPool(poolSize);
+		ExtractionJobWorker worker = new ExtractionJobWorker(queue, nodeId, pool, poolSize, LEASE, 20, 3,
+				RETRY_BACKOFF, Duration.ofHours(1), processor, new SimpleMeterRegistry());
+		pools.add(pool);
+		workers.add(worker);
+		worker.start();
+	}
+
+	private void enqueue(int count) {
+		for (int i = 0; i < count; i++) {
+			queue.enqueue(ExtractionJob.pending(JobKind.RECEIPT, "receipt-" + i + ".jpg"),
+					SpooledUpload.of("receipt-" + i + ".jpg", new byte[] { (byte) i }));
+		}
+	}
+
+	private void awaitCompleted(int expected, Duration timeout) throws InterruptedException {
+		long deadline = System.nanoTime() + timeout.toNanos();
+		while (countCompleted() < expected) {
+			assertTrue(System.nanoTime() < deadline, "only " + countCompleted() + " of " + expected + " completed");
+			Thread.sleep(10);
+		}
+	}
+
+	private ExtractionJob awaitStatus(JobStatus status, Duration timeout) throws InterruptedException {
+		long deadline = System.nanoTime() + timeout.toNanos();
+		while (true) {
+			ExtractionJob job = jobRepository.findAll().get(0);
+			if (job.getStatus() == status) {
+				return job;
+			}
+			assertTrue(System.nanoTime() < deadline, "job is still " + job.getStatus());
+			Thread.sleep(10);
+		}
+	}
+
+	private long countCompleted() {
+		return jobRepository.findAll().stream().filter(job -> job.getStatus() == JobStatus.COMPLETED).count();
+	}
+
+	private static Reciepts receipt(Long id) {
+		Reciepts receipt = new Reciepts();
+		receipt.setId(id);
+		receipt.setExternalId("receipt-" + id);
+		return receipt;
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@TestConfiguration
+	static class Config {
+
+		@Bean
+		MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+	}
+}
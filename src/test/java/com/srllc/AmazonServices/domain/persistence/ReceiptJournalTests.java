@@ -0,0 +1,73 @@
+package com.srllc.AmazonServices.domain.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.srllc.AmazonServices.domain.record.ReceiptItemView;
+import com.srllc.AmazonServices.domain.record.ReceiptView;
+
+class ReceiptJournalTests {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@TempDir
+	Path dir;
+
+	private static PendingReceipt pending(String externalId) {
+		ReceiptView receipt = new ReceiptView(null, externalId, "ACME", "Main", "Jane", "07", 12.5, 20.0, 7.5,
+				List.of(new ReceiptItemView(null, "Coffee", 1, 12.5)));
+		return new PendingReceipt("hash-" + externalId, receipt);
+	}
+
+	@Test
+	void replaysAppendedEntries() throws IOException {
+		Path path = dir.resolve("receipts.journal");
+		try (ReceiptJournal journal = new ReceiptJournal(path, objectMapper, true)) {
+			journal.append(pending("a"));
+			journal.append(pending("b"));
+		}
+
+		try (ReceiptJournal journal = new ReceiptJournal(path, objectMapper, true)) {
+			assertEquals(List.of(pending("a"), pending("b")), journal.readAll());
+		}
+	}
+
+	@Test
+	void skipsTornLastLine() throws IOException {
+		Path path = dir.resolve("receipts.journal");
+		try (ReceiptJournal journal = new ReceiptJournal(path, objectMapper, false)) {
+			journal.append(pending("a"));
+		}
+		Files.writeString(path, "{\"contentHash\":\"hash-b\",\"rec", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+		try (ReceiptJournal journal = new ReceiptJournal(path, objectMapper, false)) {
+			assertEquals(List.of(pending("a")), journal.readAll());
+		}
+	}
+
+	@Test
+	void rewriteKeepsOnlyPendingEntries() throws IOException {
+		Path path = dir.resolve("receipts.journal");
+		try (ReceiptJournal journal = new ReceiptJournal(path, objectMapper, false)) {
+			journal.append(pending("a"));
+			journal.append(pending("b"));
+			journal.rewrite(List.of(pending("b")));
+			journal.append(pending("c"));
+
+			assertEquals(List.of(pending("b"), pending("c")), journal.readAll());
+
+			journal.rewrite(List.of());
+			assertEquals(0, journal.size());
+		}
+	}
+}
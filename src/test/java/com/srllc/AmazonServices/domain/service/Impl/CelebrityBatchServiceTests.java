@@ -0,0 +1,83 @@
+package com.srllc.AmazonServices.domain.service.Impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.srllc.AmazonServices.domain.record.CelebrityFrameResult;
+import com.srllc.AmazonServices.domain.service.RekognitionService;
+import com.srllc.AmazonServices.domain.upload.SpooledUpload;
+import com.srllc.AmazonServices.dto.RekognitionResponse;
+
+class CelebrityBatchServiceTests {
+
+	// deep enough that launching from each completion callback would overflow the stack
+	private static final int MAX_FILES = 20_000;
+
+	private static List<MultipartFile> images(int count) {
+		List<MultipartFile> files = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			files.add(new MockMultipartFile("files", "frame-" + i + ".jpg", "image/jpeg", new byte[] { (byte) i }));
+		}
+		return files;
+	}
+
+	private static CelebrityBatchServiceImpl service(RekognitionService rekognitionService, int parallelism) {
+		return new CelebrityBatchServiceImpl(rekognitionService, parallelism, MAX_FILES, 1024, Long.MAX_VALUE);
+	}
+
+	@Test
+	void callsThatAreAlreadyCompleteDoNotNestLaunches() throws Exception {
+		RekognitionService cached = new StubRekognitionService(
+				upload -> CompletableFuture.completedFuture(new RekognitionResponse(List.of(), 0)));
+		List<CelebrityFrameResult> results = new ArrayList<>();
+
+		service(cached, 1).recognizeBatch(images(MAX_FILES), true, results::add).get(30, TimeUnit.SECONDS);
+
+		assertEquals(MAX_FILES, results.size());
+		for (int i = 0; i < MAX_FILES; i++) {
+			assertEquals(i, results.get(i).index());
+			assertEquals(CelebrityFrameResult.RECOGNIZED, results.get(i).status());
+		}
+	}
+
+	@Test
+	void callsThatFailImmediatelyDoNotNestLaunches() throws Exception {
+		RekognitionService rejecting = new StubRekognitionService(
+				upload -> CompletableFuture.failedFuture(new IllegalStateException("Rekognition circuit is open")));
+		List<CelebrityFrameResult> results = new ArrayList<>();
+
+		service(rejecting, 4).recognizeBatch(images(MAX_FILES), false, results::add).get(30, TimeUnit.SECONDS);
+
+		assertEquals(MAX_FILES, results.size());
+		assertTrue(results.stream().allMatch(result -> CelebrityFrameResult.FAILED.equals(result.status())));
+	}
+
+	private record StubRekognitionService(Function<SpooledUpload, CompletableFuture<RekognitionResponse>> call)
+			implements RekognitionService {
+
+		@Override
+		public RekognitionResponse recognizeCelebrities(MultipartFile file) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public CompletableFuture<RekognitionResponse> recognizeCelebritiesAsync(MultipartFile file) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public CompletableFuture<RekognitionResponse> recognizeCelebritiesAsync(SpooledUpload upload) {
+			return call.apply(upload);
+		}
+	}
+}
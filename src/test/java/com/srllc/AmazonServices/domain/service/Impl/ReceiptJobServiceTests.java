@@ -0,0 +1,192 @@
+package com.srllc.AmazonServices.domain.service.Impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.srllc.AmazonServices.config.ReceiptCacheConfig;
+import com.srllc.AmazonServices.domain.cache.ReceiptCacheInvalidator;
+import com.srllc.AmazonServices.domain.cache.ReceiptReadCache;
+import com.srllc.AmazonServices.domain.cache.ReceiptResultCache;
+import com.srllc.AmazonServices.domain.entity.JobStatus;
+import com.srllc.AmazonServices.domain.entity.RecieptItem;
+import com.srllc.AmazonServices.domain.entity.Reciepts;
+import com.srllc.AmazonServices.domain.persistence.ExtractionJobQueue;
+import com.srllc.AmazonServices.domain.persistence.ReceiptBatchWriter;
+import com.srllc.AmazonServices.domain.persistence.ReceiptWriteBehind;
+import com.srllc.AmazonServices.domain.record.ReceiptJob;
+import com.srllc.AmazonServices.domain.record.ReceiptView;
+import com.srllc.AmazonServices.domain.repository.RecieptsRepository;
+import com.srllc.AmazonServices.domain.service.ReceiptJobService;
+import com.srllc.AmazonServices.domain.service.TextractServiceInterface;
+import com.srllc.AmazonServices.domain.upload.SpooledUpload;
+import com.srllc.AmazonServices.domain.upload.UploadSpooler;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Receipt jobs with write-behind saves on: the job finishes before the
+ * receipt has a database id, and must still resolve to the receipt.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+		"spring.datasource.url=jdbc:h2:mem:receipt-jobs;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.show-sql=false",
+		"receipts.write-behind.enabled=true",
+		// long enough that the job completes while the receipt is still queued
+		"receipts.write-behind.flush-interval-ms=1000",
+		"textract.jobs.poll-interval-ms=20" })
+@Import({ ExtractionJobQueue.class, ReceiptBatchWriter.class, ReceiptWriteBehind.class, ReceiptReadCache.class,
+		ReceiptCacheInvalidator.class, ReceiptCacheConfig.class, ReceiptResultCache.class, UploadSpooler.class,
+		ReceiptJobServiceImpl.class, ReceiptJobServiceTests.Config.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReceiptJobServiceTests {
+
+	@Autowired
+	private ReceiptJobService receiptJobService;
+
+	@Autowired
+	private RecieptsRepository receiptsRepository;
+
+	@Test
+	void completedJobResolvesAReceiptThatIsStillQueuedForSaving() throws InterruptedException {
+		ReceiptJob submitted = receiptJobService.submit(
+				new MockMultipartFile("file", "receipt.jpg", "image/jpeg", new byte[] { 1, 2, 3 }));
+
+		ReceiptJob completed = awaitStatus(submitted.jobId(), JobStatus.COMPLETED);
+		assertNull(completed.receiptId());
+		assertNotNull(completed.receiptExternalId());
+		assertNotNull(completed.receipt());
+		assertEquals(completed.receiptExternalId(), completed.receipt().externalId());
+		assertEquals("ACME", completed.receipt().companyName());
+		assertEquals(1, completed.receipt().items().size());
+
+		// once the batch is written the same job serves the stored row
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (receiptsRepository.findWithItemsByExternalId(completed.receiptExternalId()).isEmpty()) {
+			assertTrue(System.nanoTime() < deadline, "write-behind never saved the receipt");
+			Thread.sleep(20);
+		}
+		ReceiptJob afterFlush = receiptJobService.getJob(submitted.jobId());
+		assertNotNull(afterFlush.receipt().id());
+		assertEquals("ACME", afterFlush.receipt().companyName());
+	}
+
+	private ReceiptJob awaitStatus(String jobId, JobStatus status) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		ReceiptJob job = receiptJobService.getJob(jobId);
+		while (job.status() != status) {
+			assertTrue(System.nanoTime() < deadline, "job stuck in " + job.status());
+			Thread.sleep(10);
+			job = receiptJobService.getJob(jobId);
+		}
+		return job;
+	}
+
+	@TestConfiguration
+	static class Config {
+
+		@Bean
+		MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+
+		@Bean
+		ObjectMapper objectMapper() {
+			return new ObjectMapper();
+		}
+
+		@Bean(destroyMethod = "shutdown")
+		ThreadPoolExecutor receiptJobExecutor() {
+			return new ThreadPoolExecutor(2, 2, 60L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(10));
+		}
+
+		// Parses every upload into the same receipt and saves it the way TextractServiceImpl does
+		@Bean
+		TextractServiceInterface textractService(ReceiptWriteBehind receiptWriteBehind,
+				RecieptsRepository receiptsRepository) {
+			return new TextractServiceInterface() {
+				@Override
+				public Reciepts extractReceiptData(SpooledUpload upload) {
+					Reciepts receipt = new Reciepts();
+					receipt.setCompanyName("ACME");
+					RecieptItem item = new RecieptItem();
+					item.setProductName("Coffee");
+					item.setQuantity(1);
+					item.setPrice(2.5);
+					item.setReciepts(receipt);
+					receipt.setItems(List.of(item));
+					return receiptWriteBehind.enqueue(receipt) ? receipt : receiptsRepository.save(receipt);
+				}
+
+				@Override
+				public ReceiptView getReceiptById(Long id) {
+					return ReceiptView.from(receiptsRepository.findWithItemsById(id).orElseThrow());
+				}
+
+				@Override
+				public ReceiptView getReceiptByExternalId(String externalId) {
+					return receiptWriteBehind.findPendingByExternalId(externalId)
+							.or(() -> receiptsRepository.findWithItemsByExternalId(externalId))
+							.map(ReceiptView::from)
+							.orElseThrow();
+				}
+
+				@Override
+				public Reciepts extractReceiptData(MultipartFile file) {
+					throw new UnsupportedOperationException();
+				}
+
+				@Override
+				public CompletableFuture<Reciepts> extractReceiptDataAsync(MultipartFile file) {
+					throw new UnsupportedOperationException();
+				}
+
+				@Override
+				public CompletableFuture<Reciepts> extractReceiptDataAsync(SpooledUpload upload) {
+					throw new UnsupportedOperationException();
+				}
+
+				@Override
+				public Reciepts analyzeReceipt(SpooledUpload upload) {
+					throw new UnsupportedOperationException();
+				}
+
+				@Override
+				public Reciepts extractDocument(SpooledUpload upload) {
+					throw new UnsupportedOperationException();
+				}
+
+				@Override
+				public Reciepts extractReceiptDataFromS3(String bucket, String key) {
+					throw new UnsupportedOperationException();
+				}
+			};
+		}
+	}
+}
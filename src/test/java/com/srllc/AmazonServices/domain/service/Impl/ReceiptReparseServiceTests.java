@@ -0,0 +1,192 @@
+package com.srllc.AmazonServices.domain.service.Impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.srllc.AmazonServices.config.ReceiptCacheConfig;
+import com.srllc.AmazonServices.domain.archive.ArchivedBlock;
+import com.srllc.AmazonServices.domain.archive.BlockArchive;
+import com.srllc.AmazonServices.domain.cache.ReceiptCacheInvalidator;
+import com.srllc.AmazonServices.domain.cache.ReceiptReadCache;
+import com.srllc.AmazonServices.domain.entity.JobStatus;
+import com.srllc.AmazonServices.domain.entity.RecieptItem;
+import com.srllc.AmazonServices.domain.entity.Reciepts;
+import com.srllc.AmazonServices.domain.parser.ReceiptLineClassifier;
+import com.srllc.AmazonServices.domain.parser.ReceiptParser;
+import com.srllc.AmazonServices.domain.persistence.ReceiptReparseWriter;
+import com.srllc.AmazonServices.domain.record.ReceiptItemView;
+import com.srllc.AmazonServices.domain.record.ReceiptView;
+import com.srllc.AmazonServices.domain.record.ReparseProgress;
+import com.srllc.AmazonServices.domain.repository.RecieptsRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * A stored receipt parsed by an older parser is rebuilt from its archived
+ * blocks: the row gets the new fields and items, and the read cache stops
+ * serving the old view.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+		"spring.datasource.url=jdbc:h2:mem:receipt-reparse;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.show-sql=false",
+		"textract.archive.reparse.parallelism=2",
+		"textract.archive.reparse.batch-size=2" })
+@Import({ ReceiptReparseServiceImpl.class, ReceiptReparseWriter.class, ReceiptParser.class,
+		ReceiptLineClassifier.class, ReceiptReadCache.class, ReceiptCacheInvalidator.class, ReceiptCacheConfig.class,
+		ReceiptReparseServiceTests.Config.class })
+// the writer commits on the re-parse threads, so the test must not hold a transaction of its own
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReceiptReparseServiceTests {
+
+	@Autowired
+	private ReceiptReparseServiceImpl reparseService;
+
+	@Autowired
+	private BlockArchive blockArchive;
+
+	@Autowired
+	private ReceiptParser receiptParser;
+
+	@Autowired
+	private ReceiptReadCache readCache;
+
+	@Autowired
+	private RecieptsRepository receiptsRepository;
+
+	// the recorded receipt as the archive holds it
+	private static List<ArchivedBlock> recordedBlocks() throws IOException {
+		try (InputStream in = ReceiptReparseServiceTests.class
+				.getResourceAsStream("/fixtures/textract-receipt-blocks.json")) {
+			List<ArchivedBlock> blocks = new ArrayList<>();
+			for (JsonNode block : new ObjectMapper().readTree(in).get("blocks")) {
+				JsonNode geometry = block.get("geometry");
+				blocks.add(new ArchivedBlock(block.get("blockType").asText(),
+						block.hasNonNull("text") ? block.get("text").asText() : null,
+						(float) block.get("confidence").asDouble(), 1,
+						(float) geometry.get("left").asDouble(), (float) geometry.get("top").asDouble(),
+						(float) geometry.get("width").asDouble(), (float) geometry.get("height").asDouble()));
+			}
+			return blocks;
+		}
+	}
+
+	// what an older parser made of the same receipt
+	private static Reciepts staleReceipt() {
+		Reciepts receipt = new Reciepts();
+		receipt.setCompanyName("SM HYPERMARKE");
+		receipt.setSubTotal(1.0);
+		RecieptItem item = new RecieptItem();
+		item.setProductName("Unrecognised line");
+		item.setQuantity(1);
+		item.setPrice(1.0);
+		item.setReciepts(receipt);
+		receipt.setItems(new ArrayList<>(List.of(item)));
+		return receipt;
+	}
+
+	private ReparseProgress runToCompletion() throws InterruptedException {
+		reparseService.start();
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		ReparseProgress progress = reparseService.progress();
+		while (progress.status() == JobStatus.RUNNING) {
+			assertTrue(System.nanoTime() < deadline, "re-parse stuck after " + progress.processed() + " receipts");
+			Thread.sleep(10);
+			progress = reparseService.progress();
+		}
+		return progress;
+	}
+
+	@Test
+	void storedReceiptIsRebuiltFromItsArchivedBlocks() throws Exception {
+		List<ArchivedBlock> blocks = recordedBlocks();
+		Reciepts expected = receiptParser.parse(receiptParser.extractLines(ArchivedBlock.toBlocks(blocks)));
+		Reciepts stored = receiptsRepository.save(staleReceipt());
+		blockArchive.archiveBlocks(stored, blocks);
+
+		// the old view is cached, so a missed eviction would keep serving it
+		ReceiptView before = readCache.get(stored.getId(), receiptsRepository::findWithItemsById).orElseThrow();
+		assertEquals(1, before.items().size());
+		assertNotEquals(expected.getCompanyName(), before.companyName());
+
+		ReparseProgress progress = runToCompletion();
+
+		assertEquals(JobStatus.COMPLETED, progress.status());
+		assertEquals(0, progress.failed());
+		assertTrue(progress.updated() >= 1);
+		assertEquals(progress.total(), progress.processed());
+
+		Reciepts reparsed = receiptsRepository.findWithItemsById(stored.getId()).orElseThrow();
+		assertEquals(expected.getCompanyName(), reparsed.getCompanyName());
+		assertEquals(expected.getBranch(), reparsed.getBranch());
+		assertEquals(expected.getSubTotal(), reparsed.getSubTotal());
+		assertEquals(expected.getCash(), reparsed.getCash());
+		assertEquals(expected.getChange(), reparsed.getChange());
+		assertEquals(expected.getItems().size(), reparsed.getItems().size());
+		for (int i = 0; i < expected.getItems().size(); i++) {
+			assertEquals(expected.getItems().get(i).getProductName(), reparsed.getItems().get(i).getProductName());
+			assertEquals(expected.getItems().get(i).getPrice(), reparsed.getItems().get(i).getPrice());
+		}
+
+		ReceiptView after = readCache.get(stored.getId(), receiptsRepository::findWithItemsById).orElseThrow();
+		assertEquals(expected.getCompanyName(), after.companyName());
+		assertEquals(expected.getItems().stream().map(RecieptItem::getProductName).toList(),
+				after.items().stream().map(ReceiptItemView::productName).toList());
+	}
+
+	@Test
+	void archivedReceiptWithNoRowIsCountedAsMissing() throws Exception {
+		Reciepts neverSaved = new Reciepts();
+		neverSaved.setExternalId(UUID.randomUUID().toString());
+		blockArchive.archiveBlocks(neverSaved, recordedBlocks());
+
+		ReparseProgress progress = runToCompletion();
+
+		assertEquals(JobStatus.COMPLETED, progress.status());
+		assertEquals(0, progress.failed());
+		assertTrue(progress.missing() >= 1);
+		assertTrue(receiptsRepository.findWithItemsByExternalId(neverSaved.getExternalId()).isEmpty());
+	}
+
+	@TestConfiguration
+	static class Config {
+
+		@Bean
+		MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+
+		@Bean
+		BlockArchive blockArchive(MeterRegistry meterRegistry) throws IOException {
+			Path dir = Files.createTempDirectory("block-archive");
+			return new BlockArchive(meterRegistry, dir.toString(), 1 << 20);
+		}
+	}
+}
@@ -0,0 +1,69 @@
+package com.srllc.AmazonServices.domain.upload;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+
+class PerceptualHasherTests {
+
+	private static BufferedImage scene(int width, int height, boolean mirrored) {
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = image.createGraphics();
+		for (int x = 0; x < width; x++) {
+			int shade = 255 * (mirrored ? width - x : x) / width;
+			graphics.setColor(new Color(shade, shade / 2, 255 - shade));
+			graphics.drawLine(x, 0, x, height);
+		}
+		graphics.setColor(Color.WHITE);
+		graphics.fillOval(width / 4, height / 4, width / 3, height / 2);
+		graphics.dispose();
+		return image;
+	}
+
+	private static BufferedImage resizedJpeg(BufferedImage source, int width, int height) throws IOException {
+		BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = target.createGraphics();
+		graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+		graphics.drawImage(source, 0, 0, width, height, null);
+		graphics.dispose();
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(target, "jpeg", out);
+		return ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+	}
+
+	@Test
+	void resizedAndReencodedCopyHashesClose() throws IOException {
+		BufferedImage original = scene(800, 600, false);
+
+		long hash = PerceptualHasher.dHash(original);
+		long copy = PerceptualHasher.dHash(resizedJpeg(original, 320, 240));
+
+		assertTrue(PerceptualHasher.distance(hash, copy) <= 6);
+	}
+
+	@Test
+	void differentImageHashesFar() {
+		long hash = PerceptualHasher.dHash(scene(800, 600, false));
+		long other = PerceptualHasher.dHash(scene(800, 600, true));
+
+		assertTrue(PerceptualHasher.distance(hash, other) > 16);
+	}
+
+	@Test
+	void distanceCountsDifferingBits() {
+		assertEquals(0, PerceptualHasher.distance(0xF0F0L, 0xF0F0L));
+		assertEquals(64, PerceptualHasher.distance(0L, -1L));
+	}
+}